@@ -24,6 +24,7 @@ import java.util.List;
 public interface CLibrary extends Library {
     int AF_UNIX     = 1; // Defined in 'sys/socket.h'
     int SOCK_STREAM = 1; // Defined in 'sys/socket.h'
+    int SHUT_RDWR   = 2; // Defined in 'sys/socket.h'
 
     // Defined in 'unix.h', see http://man7.org/linux/man-pages/man7/unix.7.html
     class SockAddrUn extends Structure {
@@ -49,6 +50,22 @@ public interface CLibrary extends Library {
         }
     }
 
+    int POLLIN  = 0x001; // Defined in 'poll.h'
+    int POLLERR = 0x008;
+    int POLLHUP = 0x010;
+
+    // Defined in 'poll.h', see http://man7.org/linux/man-pages/man2/poll.2.html
+    class PollFd extends Structure {
+        public int   fd;
+        public short events;
+        public short revents;
+
+        @Override
+        protected List getFieldOrder() {
+            return Arrays.asList("fd", "events", "revents");
+        }
+    }
+
     int socket(int domain, int type, int protocol);
 
     int connect(int fd, SockAddrUn sock_addr, int addr_len);
@@ -59,6 +76,8 @@ public interface CLibrary extends Library {
 
     int close(int fd);
 
+    int shutdown(int fd, int how);
+
     String strerror(int errno);
 
     int write(int fd, byte[] buff, int count);
@@ -71,6 +90,9 @@ public interface CLibrary extends Library {
 
     int open(String path, int mode);
 
+    /** Array of {@code fds} must be allocated with {@link Structure#toArray(int)}, so structures are contiguous in memory. */
+    int poll(PollFd[] fds, int nfds, int timeout);
+
     int O_RDONLY = 0x00;
     int O_WRONLY = 0x01;
 }
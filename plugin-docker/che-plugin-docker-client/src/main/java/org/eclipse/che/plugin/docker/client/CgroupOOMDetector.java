@@ -10,7 +10,6 @@
  *******************************************************************************/
 package org.eclipse.che.plugin.docker.client;
 
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.sun.jna.ptr.LongByReference;
 
 import org.eclipse.che.api.core.util.SystemInfo;
@@ -22,18 +21,25 @@ import javax.inject.Inject;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
+import static org.eclipse.che.plugin.docker.client.CLibrary.POLLIN;
+import static org.eclipse.che.plugin.docker.client.CLibrary.PollFd;
 import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
 
 /**
- * Docker container OOM detector based on cgroup usage
+ * Docker container OOM detector based on cgroup usage. Notifications of all containers are waited by the single thread with
+ * {@code poll}.
  *
  * @author Alexander Garagatyi
  */
@@ -43,7 +49,12 @@ public class CgroupOOMDetector implements DockerOOMDetector {
     private final Map<String, OOMDetector> oomDetectors;
     private final URI                      dockerDaemonUri;
     private final DockerConnector          dockerConnector;
-    private final ExecutorService          executor;
+    /** Detectors which are stopped, their descriptors are closed by poller thread, so descriptors aren't closed while polled. */
+    private final List<OOMDetector>        stoppedDetectors;
+
+    private Thread poller;
+    /** Event descriptor which wakes up poller thread when detectors are added or stopped. */
+    private int    wakeupFd = -1;
 
     @Inject
     public CgroupOOMDetector(DockerConnectorConfiguration connectorConfiguration, DockerConnector dockerConnector) {
@@ -54,16 +65,17 @@ public class CgroupOOMDetector implements DockerOOMDetector {
         this.dockerDaemonUri = dockerDaemonUri;
         this.dockerConnector = dockerConnector;
         this.oomDetectors = new ConcurrentHashMap<>();
-        this.executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("CgroupOOMDetector-%d")
-                                                                                .setDaemon(true)
-                                                                                .build());
+        this.stoppedDetectors = new ArrayList<>();
     }
 
     @Override
     public void stopDetection(String container) {
         final OOMDetector oomDetector = oomDetectors.remove(container);
         if (oomDetector != null) {
-            oomDetector.stop();
+            synchronized (this) {
+                stoppedDetectors.add(oomDetector);
+            }
+            wakeup();
         }
     }
 
@@ -76,16 +88,30 @@ public class CgroupOOMDetector implements DockerOOMDetector {
             }
             try {
                 final long memory = dockerConnector.inspectContainer(container).getConfig().getMemory();
-                OOMDetector oomDetector = new OOMDetector(container, containerLogProcessor, memory);
-                oomDetectors.putIfAbsent(container, oomDetector);
-                oomDetector = oomDetectors.get(container);
-                oomDetector.start();
+                final OOMDetector oomDetector = new OOMDetector(container, containerLogProcessor, memory);
+                // descriptors of detector are visible to poller thread only when they are registered
+                if (ensurePollerStarted() && oomDetector.register() && oomDetectors.putIfAbsent(container, oomDetector) == null) {
+                    wakeup();
+                } else {
+                    oomDetector.close();
+                }
             } catch (IOException e) {
                 LOG.error(e.getLocalizedMessage(), e);
             }
         }
     }
 
+    @Override
+    public Map<String, MemoryStats> getMemoryStats() {
+        final Map<String, MemoryStats> stats = new HashMap<>();
+        for (OOMDetector oomDetector : oomDetectors.values()) {
+            stats.put(oomDetector.container, new MemoryStats(oomDetector.readCgroupValue("memory.usage_in_bytes"),
+                                                             oomDetector.readCgroupValue("memory.limit_in_bytes"),
+                                                             oomDetector.readCgroupValue("memory.failcnt")));
+        }
+        return stats;
+    }
+
     private boolean needStartOOMDetector(String container) {
         if (! oomDetectors.containsKey(container)) {
             if (DockerConnector.isUnixSocketUri(dockerDaemonUri)) {
@@ -101,6 +127,81 @@ public class CgroupOOMDetector implements DockerOOMDetector {
         return false;
     }
 
+    private synchronized boolean ensurePollerStarted() {
+        if (poller != null) {
+            return true;
+        }
+        if ((wakeupFd = getCLibrary().eventfd(0, 0)) == -1) {
+            LOG.error("Unable create a file descriptor for event notification");
+            return false;
+        }
+        poller = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                poll();
+            }
+        }, "CgroupOOMDetector");
+        poller.setDaemon(true);
+        poller.start();
+        return true;
+    }
+
+    private void wakeup() {
+        final int fd;
+        synchronized (this) {
+            fd = wakeupFd;
+        }
+        if (fd != -1) {
+            final byte[] value = ByteBuffer.allocate(8).order(ByteOrder.nativeOrder()).putLong(1).array();
+            getCLibrary().write(fd, value, value.length);
+        }
+    }
+
+    /** Waits for notifications of all registered detectors. */
+    private void poll() {
+        final CLibrary cLib = getCLibrary();
+        final LongByReference eventHolder = new LongByReference();
+        for (; ; ) {
+            final List<OOMDetector> toClose;
+            synchronized (this) {
+                toClose = new ArrayList<>(stoppedDetectors);
+                stoppedDetectors.clear();
+            }
+            for (OOMDetector oomDetector : toClose) {
+                oomDetector.close();
+            }
+            final List<OOMDetector> polled = new ArrayList<>(oomDetectors.values());
+            final PollFd[] fds = (PollFd[])new PollFd().toArray(polled.size() + 1);
+            fds[0].fd = wakeupFd;
+            fds[0].events = POLLIN;
+            for (int i = 0; i < polled.size(); i++) {
+                fds[i + 1].fd = polled.get(i).efd;
+                fds[i + 1].events = POLLIN;
+            }
+            if (cLib.poll(fds, fds.length, -1) == -1) {
+                // interrupted by signal
+                continue;
+            }
+            if (fds[0].revents != 0) {
+                cLib.eventfd_read(wakeupFd, eventHolder);
+            }
+            for (int i = 0; i < polled.size(); i++) {
+                if (fds[i + 1].revents != 0) {
+                    final OOMDetector oomDetector = polled.get(i);
+                    cLib.eventfd_read(oomDetector.efd, eventHolder);
+                    if (oomDetectors.remove(oomDetector.container, oomDetector)) {
+                        try {
+                            oomDetector.onEvent();
+                        } catch (RuntimeException e) {
+                            LOG.error(e.getMessage(), e);
+                        }
+                        oomDetector.close();
+                    }
+                }
+            }
+        }
+    }
+
     /*
      * Need detect OOM errors and notify users about them. Without such notification if application is killed by oom-killer client often can
      * see message "Killed" and there is no any why to see why. Unfortunately for now docker doesn't provide clear mechanism how to control
@@ -166,15 +267,15 @@ public class CgroupOOMDetector implements DockerOOMDetector {
      * <p/>
      * https://access.redhat.com/documentation/en-US/Red_Hat_Enterprise_Linux/6/html/Resource_Management_Guide/sec-Using_the_Notification_API.html
      */
-    private class OOMDetector implements Runnable {
+    private class OOMDetector {
         private final String                       container;
         private final MessageProcessor<LogMessage> containerLogProcessor;
         private final long                         memory;
         private final CLibrary                     cLib;
         private final String                       containerCgroup;
 
-        private volatile boolean stopped = false;
-        private boolean started = false;
+        private int efd   = -1;
+        private int oomfd = -1;
 
         OOMDetector(String container, MessageProcessor<LogMessage> containerLogProcessor, long memory) {
             this.container = container;
@@ -189,63 +290,60 @@ public class CgroupOOMDetector implements DockerOOMDetector {
             }
         }
 
-        @Override
-        public void run() {
+        /** Registers event descriptor for OOM notifications of container, descriptor becomes readable when OOM happens. */
+        boolean register() {
             final String cf = containerCgroup + "cgroup.event_control";
             final String oomf = containerCgroup + "memory.oom_control";
-            int efd = -1;
-            int oomfd = -1;
+            if ((efd = cLib.eventfd(0, 1)) == -1) {
+                LOG.error("Unable create a file descriptor for event notification");
+                return false;
+            }
+            int cfd;
+            if ((cfd = cLib.open(cf, CLibrary.O_WRONLY)) == -1) {
+                LOG.error("Unable open event control file '{}' for write", cf);
+                return false;
+            }
             try {
-                if ((efd = cLib.eventfd(0, 1)) == -1) {
-                    LOG.error("Unable create a file descriptor for event notification");
-                    return;
-                }
-                int cfd;
-                if ((cfd = cLib.open(cf, CLibrary.O_WRONLY)) == -1) {
-                    LOG.error("Unable open event control file '{}' for write", cf);
-                    return;
-                }
                 if ((oomfd = cLib.open(oomf, CLibrary.O_RDONLY)) == -1) {
                     LOG.error("Unable open OOM event file '{}' for read", oomf);
-                    return;
+                    return false;
                 }
                 final byte[] data = String.format("%d %d", efd, oomfd).getBytes();
                 if (cLib.write(cfd, data, data.length) != data.length) {
                     LOG.error("Unable write event control data to file '{}'", cf);
-                    return;
+                    return false;
                 }
+            } finally {
                 if (cLib.close(cfd) == -1) {
                     LOG.error("Error closing of event control file '{}'", cf);
-                    return;
-                }
-                final LongByReference eventHolder = new LongByReference();
-                if (cLib.eventfd_read(efd, eventHolder) == 0) {
-                    if (stopped) {
-                        return;
-                    }
-                    LOG.warn("OOM event received for container '{}'", container);
-                    if (readCgroupValue("memory.failcnt") > 0) {
-                        try {
-                            containerLogProcessor.process(new LogMessage(LogMessage.Type.DOCKER,
-                                                                         "[ERROR] The processes in this machine need more RAM. This machine started with " +
-                                                                         Size.toHumanSize(memory)));
-                            containerLogProcessor.process(new LogMessage(LogMessage.Type.DOCKER,
-                                                                         "[ERROR] Create a new machine configuration that allocates additional RAM or increase" +
-                                                                         " the workspace RAM limit in the user dashboard."));
-                        } catch (/*IOException*/ Exception e) {
-                            LOG.warn(e.getMessage(), e);
-                        }
-                    }
                 }
-            } finally {
-                if (!stopped) {
-                    stopDetection(container);
+            }
+            return true;
+        }
+
+        /** Called when event descriptor is notified, it happens on OOM and when cgroup of container is removed. */
+        void onEvent() {
+            LOG.warn("OOM event received for container '{}'", container);
+            if (readCgroupValue("memory.failcnt") > 0) {
+                try {
+                    containerLogProcessor.process(new LogMessage(LogMessage.Type.DOCKER,
+                                                                 "[ERROR] The processes in this machine need more RAM. This machine started with " +
+                                                                 Size.toHumanSize(memory)));
+                    containerLogProcessor.process(new LogMessage(LogMessage.Type.DOCKER,
+                                                                 "[ERROR] Create a new machine configuration that allocates additional RAM or increase" +
+                                                                 " the workspace RAM limit in the user dashboard."));
+                } catch (/*IOException*/ Exception e) {
+                    LOG.warn(e.getMessage(), e);
                 }
-                close(oomfd);
-                close(efd);
             }
         }
 
+        void close() {
+            close(oomfd);
+            close(efd);
+            oomfd = efd = -1;
+        }
+
         private void close(int fd) {
             if (fd != -1) {
                 cLib.close(fd);
@@ -253,26 +351,16 @@ public class CgroupOOMDetector implements DockerOOMDetector {
         }
 
         long readCgroupValue(String cgroupFile) {
-            final String failCntf = containerCgroup + cgroupFile;
-            try (BufferedReader reader = Files.newBufferedReader(Paths.get(failCntf), Charset.forName("UTF-8"))) {
-                return Long.parseLong(reader.readLine().trim());
+            final String cgroupf = containerCgroup + cgroupFile;
+            try {
+                // cgroup files are small and are read with the single system call
+                return Long.parseLong(new String(Files.readAllBytes(Paths.get(cgroupf)), StandardCharsets.US_ASCII).trim());
             } catch (IOException e) {
-                LOG.warn("Unable read content of file '{}'", failCntf);
+                LOG.warn("Unable read content of file '{}'", cgroupf);
             } catch (NumberFormatException e) {
-                LOG.error("Unable parse content of file '{}'", failCntf);
+                LOG.error("Unable parse content of file '{}'", cgroupf);
             }
             return 0;
         }
-
-        synchronized void start() {
-            if (!started) {
-                started = true;
-                executor.execute(this);
-            }
-        }
-
-        void stop() {
-            stopped = true;
-        }
     }
 }
@@ -0,0 +1,277 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.eclipse.che.plugin.docker.client.json.ContainerState;
+import org.eclipse.che.plugin.docker.client.json.Event;
+import org.eclipse.che.plugin.docker.client.json.Filters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tracks state of docker containers with the single long-lived subscription to docker events, see
+ * {@link DockerConnector#getEvents(long, long, Filters, MessageProcessor, AtomicReference)}.
+ * <p/>
+ * Container is inspected once when it is registered with {@link #track(String)} and once more when it dies to get its exit code,
+ * queries of state of tracked container don't send requests to docker daemon. Waiters of container are notified when container dies,
+ * they don't hold connection to docker daemon.
+ * <p/>
+ * Subscription is reopened if it is broken, events which are missed meanwhile are replayed from the time of the last received event.
+ * While subscription isn't opened state of containers is got with inspect requests. Connection of subscription is broken when
+ * tracker is stopped, reading of events doesn't respond to interruption.
+ */
+public class ContainerStateTracker {
+    private static final Logger LOG = LoggerFactory.getLogger(ContainerStateTracker.class);
+
+    private static final long RECONNECT_DELAY = TimeUnit.SECONDS.toMillis(1);
+    private static final long MAX_RECONNECT_DELAY = TimeUnit.SECONDS.toMillis(30);
+
+    /** Set as handle of subscription when tracker is stopped, so subscription isn't opened anymore. */
+    private static final Closeable STOPPED = new Closeable() {
+        @Override
+        public void close() {
+        }
+    };
+
+    private final DockerConnector                      dockerConnector;
+    private final Map<String, SettableFuture<Integer>> containers;
+    private final ExecutorService                      executor;
+    /** Handle of opened subscription, see {@link DockerConnector#getEvents(long, long, Filters, MessageProcessor, AtomicReference)}. */
+    private final AtomicReference<Closeable>           subscription;
+
+    private volatile boolean subscribed;
+    private volatile boolean stopped;
+    private          Thread  subscriber;
+    /** UNIX time in seconds of the last received event, subscription is reopened since this time. */
+    private volatile long    lastEventTime;
+
+    public ContainerStateTracker(DockerConnector dockerConnector) {
+        this.dockerConnector = dockerConnector;
+        this.containers = new ConcurrentHashMap<>();
+        this.executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("ContainerStateTracker-%d")
+                                                                                .setDaemon(true)
+                                                                                .build());
+        this.subscription = new AtomicReference<>();
+    }
+
+    /**
+     * Starts tracking of started container. Subscription to docker events is opened on the first call.
+     *
+     * @param container
+     *         id of container
+     * @throws IOException
+     *         if container can't be inspected
+     */
+    public void track(String container) throws IOException {
+        ensureSubscribed();
+        final SettableFuture<Integer> exitCode = SettableFuture.create();
+        containers.put(container, exitCode);
+        // container is running until exit code is set, events received meanwhile may set exit code before inspect
+        final ContainerState state = dockerConnector.inspectContainer(container).getState();
+        if (!state.isRunning()) {
+            exitCode.set(state.getExitCode());
+        }
+    }
+
+    /** Stops tracking of container, waiters of container which is still running get {@code -1} as exit code. */
+    public void untrack(String container) {
+        final SettableFuture<Integer> exitCode = containers.remove(container);
+        if (exitCode != null) {
+            exitCode.set(-1);
+        }
+    }
+
+    /** Checks whether container is running. */
+    public boolean isRunning(String container) throws IOException {
+        final SettableFuture<Integer> exitCode = containers.get(container);
+        if (exitCode == null || !subscribed) {
+            return dockerConnector.inspectContainer(container).getState().isRunning();
+        }
+        return !exitCode.isDone();
+    }
+
+    /** Returns exit code of container or {@code -1} if container is still running. */
+    public int exitCode(String container) throws IOException {
+        final SettableFuture<Integer> exitCode = containers.get(container);
+        if (exitCode == null || !subscribed) {
+            return dockerConnector.inspectContainer(container).getState().getExitCode();
+        }
+        // future is never failed, so it's safe to get it once it's done
+        return exitCode.isDone() ? Futures.getUnchecked(exitCode) : -1;
+    }
+
+    /**
+     * Gets future exit code of tracked container. Future is completed by thread of the tracker, so its listeners must not
+     * block.
+     *
+     * @throws IllegalArgumentException
+     *         if container isn't tracked
+     */
+    public ListenableFuture<Integer> getExitCode(String container) {
+        final SettableFuture<Integer> exitCode = containers.get(container);
+        if (exitCode == null) {
+            throw new IllegalArgumentException(String.format("Container %s isn't tracked", container));
+        }
+        return exitCode;
+    }
+
+    /** Blocks until container is stopped and returns its exit code. */
+    public int waitFor(String container) throws IOException, InterruptedException {
+        final SettableFuture<Integer> exitCode = containers.get(container);
+        if (exitCode == null) {
+            return dockerConnector.waitContainer(container);
+        }
+        try {
+            return exitCode.get();
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /** Returns number of tracked containers. */
+    public int getCount() {
+        return containers.size();
+    }
+
+    /** Closes subscription to docker events. */
+    public synchronized void stop() {
+        stopped = true;
+        final Closeable opened = subscription.getAndSet(STOPPED);
+        if (opened != null) {
+            try {
+                opened.close();
+            } catch (IOException e) {
+                LOG.debug(e.getMessage(), e);
+            }
+        }
+        if (subscriber != null) {
+            subscriber.interrupt();
+        }
+        executor.shutdownNow();
+    }
+
+    /** Applies docker event to the state of tracked container. */
+    void onEvent(Event event) {
+        if (event.getTime() > lastEventTime) {
+            lastEventTime = event.getTime();
+        }
+        final String container = event.getId();
+        final SettableFuture<Integer> exitCode = container == null ? null : containers.get(container);
+        if (exitCode == null || exitCode.isDone()) {
+            return;
+        }
+        final String status = event.getStatus();
+        if ("die".equals(status)) {
+            // event doesn't have exit code, so container is inspected once when it dies
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    refresh(container, exitCode);
+                }
+            });
+        } else if ("destroy".equals(status)) {
+            exitCode.set(-1);
+        }
+    }
+
+    /** Inspects containers which are still running, their events might be missed while subscription was broken. */
+    void refreshAll() {
+        for (Map.Entry<String, SettableFuture<Integer>> e : containers.entrySet()) {
+            if (!e.getValue().isDone()) {
+                refresh(e.getKey(), e.getValue());
+            }
+        }
+    }
+
+    private void refresh(String container, SettableFuture<Integer> exitCode) {
+        try {
+            final ContainerState state = dockerConnector.inspectContainer(container).getState();
+            if (!state.isRunning()) {
+                exitCode.set(state.getExitCode());
+            }
+        } catch (DockerException e) {
+            if (e.getStatus() == 404) {
+                exitCode.set(-1);
+            } else {
+                LOG.warn(e.getMessage(), e);
+            }
+        } catch (IOException e) {
+            LOG.warn(e.getMessage(), e);
+        }
+    }
+
+    private synchronized void ensureSubscribed() {
+        if (subscriber != null || stopped) {
+            return;
+        }
+        // events since this moment are replayed, so events which happen before subscription is actually opened are not missed
+        lastEventTime = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) - 1;
+        subscriber = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                subscribe();
+            }
+        }, "ContainerStateTracker-events");
+        subscriber.setDaemon(true);
+        subscriber.start();
+    }
+
+    private void subscribe() {
+        final MessageProcessor<Event> processor = new MessageProcessor<Event>() {
+            @Override
+            public void process(Event event) {
+                onEvent(event);
+            }
+        };
+        long delay = RECONNECT_DELAY;
+        boolean reconnect = false;
+        while (!stopped && !Thread.currentThread().isInterrupted()) {
+            subscribed = true;
+            if (reconnect) {
+                refreshAll();
+            }
+            boolean failed = false;
+            try {
+                // returns when daemon closes stream, e.g. by timeout
+                dockerConnector.getEvents(lastEventTime, 0, null, processor, subscription);
+            } catch (IOException e) {
+                failed = true;
+                LOG.warn("Subscription to docker events is broken: {}", e.getMessage());
+            } catch (RuntimeException e) {
+                failed = true;
+                LOG.error(e.getMessage(), e);
+            }
+            subscribed = false;
+            reconnect = true;
+            delay = failed ? Math.min(delay * 2, MAX_RECONNECT_DELAY) : RECONNECT_DELAY;
+            try {
+                Thread.sleep(failed ? delay : 0);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+}
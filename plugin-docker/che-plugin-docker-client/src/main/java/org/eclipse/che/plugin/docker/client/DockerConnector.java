@@ -11,6 +11,8 @@
 package org.eclipse.che.plugin.docker.client;
 
 import com.google.common.io.CharStreams;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.apache.commons.codec.binary.Base64;
@@ -24,6 +26,7 @@ import org.eclipse.che.commons.lang.TarUtils;
 import org.eclipse.che.commons.lang.ws.rs.ExtMediaType;
 import org.eclipse.che.plugin.docker.client.connection.CloseConnectionInputStream;
 import org.eclipse.che.plugin.docker.client.connection.DockerConnection;
+import org.eclipse.che.plugin.docker.client.connection.DockerConnectionPool;
 import org.eclipse.che.plugin.docker.client.connection.DockerResponse;
 import org.eclipse.che.plugin.docker.client.connection.TcpConnection;
 import org.eclipse.che.plugin.docker.client.connection.UnixSocketConnection;
@@ -49,15 +52,19 @@ import org.eclipse.che.plugin.docker.client.json.Version;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.ws.rs.core.MediaType;
 import java.io.BufferedInputStream;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.file.Files;
@@ -66,9 +73,13 @@ import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
 
 import static com.google.common.net.UrlEscapers.urlPathSegmentEscaper;
 import static java.io.File.separatorChar;
@@ -120,11 +131,15 @@ public class DockerConnector {
                                                                   + separatorChar + "default";
 
     private static final Logger LOG = LoggerFactory.getLogger(DockerConnector.class);
+    private static final int    BUILD_CONTEXT_BUFFER_SIZE = 8192;
+    private static final int    LOG_STREAM_WORKERS        = 2;
 
-    private final URI                dockerDaemonUri;
-    private final DockerCertificates dockerCertificates;
-    private final InitialAuthConfig  initialAuthConfig;
-    private final ExecutorService    executor;
+    private final URI                  dockerDaemonUri;
+    private final DockerCertificates   dockerCertificates;
+    private final InitialAuthConfig    initialAuthConfig;
+    private final ExecutorService      executor;
+    private final DockerConnectionPool connectionPool;
+    private       LogStreamMultiplexer logStreamMultiplexer;
 
     public DockerConnector(InitialAuthConfig initialAuthConfig) {
         this(new DockerConnectorConfiguration(initialAuthConfig));
@@ -133,9 +148,17 @@ public class DockerConnector {
     public DockerConnector(URI dockerDaemonUri,
                            DockerCertificates dockerCertificates,
                            InitialAuthConfig initialAuthConfig) {
+        this(dockerDaemonUri, dockerCertificates, initialAuthConfig, new DockerConnectionPool());
+    }
+
+    public DockerConnector(URI dockerDaemonUri,
+                           DockerCertificates dockerCertificates,
+                           InitialAuthConfig initialAuthConfig,
+                           DockerConnectionPool connectionPool) {
         this.dockerDaemonUri = dockerDaemonUri;
         this.dockerCertificates = dockerCertificates;
         this.initialAuthConfig = initialAuthConfig;
+        this.connectionPool = connectionPool;
         executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
                                                          .setNameFormat("DockerApiConnector-%d")
                                                          .setDaemon(true)
@@ -146,7 +169,30 @@ public class DockerConnector {
     private DockerConnector(DockerConnectorConfiguration connectorConfiguration) {
         this(connectorConfiguration.getDockerDaemonUri(),
              connectorConfiguration.getDockerCertificates(),
-             connectorConfiguration.getAuthConfigs());
+             connectorConfiguration.getAuthConfigs(),
+             connectorConfiguration.getConnectionPool());
+    }
+
+    /** Closes idle connections to docker daemon. */
+    @PreDestroy
+    public void close() {
+        final LogStreamMultiplexer multiplexer;
+        synchronized (this) {
+            multiplexer = logStreamMultiplexer;
+        }
+        if (multiplexer != null) {
+            multiplexer.stop();
+        }
+        connectionPool.close();
+    }
+
+    /**
+     * Gets metrics of pool of connections to docker daemon, e.g. number of sent requests, opened and reused connections.
+     *
+     * @see DockerConnectionPool#getMetrics()
+     */
+    public Map<String, Long> getConnectionPoolMetrics() {
+        return connectionPool.getMetrics();
     }
 
     /**
@@ -226,15 +272,15 @@ public class DockerConnector {
      * @throws InterruptedException
      *         if build process was interrupted
      */
-    public String buildImage(String repository, ProgressMonitor progressMonitor, AuthConfigs authConfigs, File... files)
+    public String buildImage(String repository, ProgressMonitor progressMonitor, AuthConfigs authConfigs, final File... files)
             throws IOException, InterruptedException {
-        final File tar = Files.createTempFile(null, ".tar").toFile();
-        try {
-            createTarArchive(tar, files);
-            return buildImage(repository, tar, progressMonitor, authConfigs);
-        } finally {
-            FileCleaner.addFile(tar);
-        }
+        // archive is compressed and sent while it's created, so build context is never stored on disk or in memory
+        return buildImage(repository, new DockerConnection.EntityWriter() {
+            @Override
+            public void writeTo(OutputStream output) throws IOException {
+                writeTarArchive(output, files);
+            }
+        }, progressMonitor, authConfigs);
     }
 
     /**
@@ -261,6 +307,30 @@ public class DockerConnector {
         return doBuildImage(repository, tar, progressMonitor, dockerDaemonUri, authConfigs);
     }
 
+    /**
+     * Builds new docker image from tar archive that is written by {@code context} while it is sent to docker daemon.
+     * Archive must contain Dockerfile.
+     *
+     * @param repository
+     *         full repository name to be applied to newly created image
+     * @param context
+     *         writes archived (optionally gzipped) files that are needed for creation docker images
+     * @param progressMonitor
+     *         ProgressMonitor for images creation process
+     * @param authConfigs
+     *         Authentication configuration for private registries. Can be null.
+     * @return image id
+     * @throws IOException
+     * @throws InterruptedException
+     *         if build process was interrupted
+     */
+    protected String buildImage(String repository,
+                                DockerConnection.EntityWriter context,
+                                final ProgressMonitor progressMonitor,
+                                AuthConfigs authConfigs) throws IOException, InterruptedException {
+        return doBuildImage(repository, context, progressMonitor, dockerDaemonUri, authConfigs);
+    }
+
     /**
      * Gets detailed information about docker image.
      *
@@ -501,6 +571,74 @@ public class DockerConnector {
         }
     }
 
+    /**
+     * Attaches to the 'live' stream of container with specified id without blocking. Streams of unix socket are serviced by
+     * {@link LogStreamMultiplexer} which is shared by all attached containers, other streams are read by separate thread.
+     *
+     * @param container
+     *         id of container
+     * @param containerLogsProcessor
+     *         output for container logs
+     * @return future which is completed when container is stopped and its stream is ended
+     * @throws java.io.IOException
+     *         if attach request fails
+     */
+    public ListenableFuture<Void> attachContainerAsync(String container,
+                                                       final MessageProcessor<LogMessage> containerLogsProcessor) throws IOException {
+        final List<Pair<String, ?>> headers = new ArrayList<>(2);
+        headers.add(Pair.of("Content-Type", MediaType.TEXT_PLAIN));
+        headers.add(Pair.of("Content-Length", 0));
+
+        final DockerConnection connection = openConnection(dockerDaemonUri).method("POST")
+                                                                           .path("/containers/" + container + "/attach")
+                                                                           .query("stream", 1)
+                                                                           .query("logs", 0)
+                                                                           .query("stdout", 1)
+                                                                           .query("stderr", 1)
+                                                                           .headers(headers);
+        boolean registered = false;
+        try {
+            final DockerResponse response = connection.request();
+            final int status = response.getStatus();
+            if (OK.getStatusCode() != status) {
+                throw new DockerException(getDockerExceptionMessage(response), status);
+            }
+            final InputStream responseStream = response.getInputStream();
+            final ListenableFuture<Void> detached;
+            if (LogStreamMultiplexer.isPollable(responseStream)) {
+                detached = getLogStreamMultiplexer().register(responseStream, containerLogsProcessor, connection);
+            } else {
+                final SettableFuture<Void> future = SettableFuture.create();
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try (DockerConnection ignored = connection;
+                             InputStream ignoredStream = responseStream) {
+                            new LogMessagePumper(responseStream, containerLogsProcessor).start();
+                            future.set(null);
+                        } catch (IOException | RuntimeException e) {
+                            future.setException(e);
+                        }
+                    }
+                });
+                detached = future;
+            }
+            registered = true;
+            return detached;
+        } finally {
+            if (!registered) {
+                connection.close();
+            }
+        }
+    }
+
+    private synchronized LogStreamMultiplexer getLogStreamMultiplexer() {
+        if (logStreamMultiplexer == null) {
+            logStreamMultiplexer = new LogStreamMultiplexer(LOG_STREAM_WORKERS);
+        }
+        return logStreamMultiplexer;
+    }
+
     public String commit(String container, String repository, String tag, String comment, String author) throws IOException {
         // todo: pause container
         return doCommit(container, repository, tag, comment, author, dockerDaemonUri);
@@ -752,6 +890,23 @@ public class DockerConnector {
                           long untilSecond,
                           Filters filters,
                           MessageProcessor<Event> messageProcessor) throws IOException {
+        getEvents(sinceSecond, untilSecond, filters, messageProcessor, null);
+    }
+
+    /**
+     * Gets docker events as {@link #getEvents(long, long, Filters, MessageProcessor)} does, reading of events may be stopped from
+     * another thread. While events are read {@code subscription} holds handle which breaks connection to docker daemon when it is
+     * closed, method returns then. Events are not read if {@code subscription} isn't empty when response is received, so it may be
+     * cancelled before it is opened by setting any value.
+     *
+     * @param subscription
+     *         holder of handle of subscription, may be {@code null}
+     */
+    public void getEvents(long sinceSecond,
+                          long untilSecond,
+                          Filters filters,
+                          MessageProcessor<Event> messageProcessor,
+                          AtomicReference<Closeable> subscription) throws IOException {
         try (DockerConnection connection = openConnection(dockerDaemonUri).method("GET")
                                                                           .path("/events")) {
             if (sinceSecond != 0) {
@@ -769,8 +924,22 @@ public class DockerConnector {
                 throw new DockerException(getDockerExceptionMessage(response), status);
             }
 
+            final Closeable handle = new Closeable() {
+                @Override
+                public void close() {
+                    connection.abort();
+                }
+            };
+            if (subscription != null && !subscription.compareAndSet(null, handle)) {
+                // cancelled
+                return;
+            }
             try (InputStream responseStream = response.getInputStream()) {
                 new MessagePumper<>(new JsonMessageReader<>(responseStream, Event.class), messageProcessor).start();
+            } finally {
+                if (subscription != null) {
+                    subscription.compareAndSet(handle, null);
+                }
             }
         }
     }
@@ -799,72 +968,96 @@ public class DockerConnector {
                                   final ProgressMonitor progressMonitor,
                                   URI dockerDaemonUri,
                                   AuthConfigs authConfigs) throws IOException, InterruptedException {
+        try (InputStream tarInput = new FileInputStream(tar);
+             DockerConnection connection = openConnection(dockerDaemonUri).entity(tarInput)) {
+            return doBuildImage(connection, repository, tar.length(), progressMonitor, authConfigs);
+        }
+    }
+
+    protected String doBuildImage(String repository,
+                                  DockerConnection.EntityWriter context,
+                                  final ProgressMonitor progressMonitor,
+                                  URI dockerDaemonUri,
+                                  AuthConfigs authConfigs) throws IOException, InterruptedException {
+        try (DockerConnection connection = openConnection(dockerDaemonUri).entity(context)) {
+            return doBuildImage(connection, repository, -1, progressMonitor, authConfigs);
+        }
+    }
+
+    /**
+     * Sends build request with entity which is already set to the {@code connection}.
+     * If {@code contentLength} is negative entity is sent with chunked transfer encoding.
+     */
+    private String doBuildImage(DockerConnection connection,
+                                String repository,
+                                long contentLength,
+                                final ProgressMonitor progressMonitor,
+                                AuthConfigs authConfigs) throws IOException, InterruptedException {
         if (authConfigs == null) {
             authConfigs = initialAuthConfig.getAuthConfigs();
         }
         final List<Pair<String, ?>> headers = new ArrayList<>(3);
         headers.add(Pair.of("Content-Type", "application/x-compressed-tar"));
-        headers.add(Pair.of("Content-Length", tar.length()));
+        if (contentLength >= 0) {
+            headers.add(Pair.of("Content-Length", contentLength));
+        }
         headers.add(Pair.of("X-Registry-Config", Base64.encodeBase64String(JsonHelper.toJson(authConfigs).getBytes())));
 
-        try (InputStream tarInput = new FileInputStream(tar);
-             DockerConnection connection = openConnection(dockerDaemonUri).method("POST")
-                                                                          .path("/build")
-                                                                          .query("rm", 1)
-                                                                          .query("pull", 1)
-                                                                          .headers(headers)
-                                                                          .entity(tarInput)) {
-            if (repository != null) {
-                connection.query("t", repository);
-            }
-            final DockerResponse response = connection.request();
-            final int status = response.getStatus();
-            if (OK.getStatusCode() != status) {
-                throw new DockerException(getDockerExceptionMessage(response), status);
-            }
-            try (InputStream responseStream = response.getInputStream()) {
-                JsonMessageReader<ProgressStatus> progressReader = new JsonMessageReader<>(responseStream, ProgressStatus.class);
-
-                final ValueHolder<IOException> errorHolder = new ValueHolder<>();
-                final ValueHolder<String> imageIdHolder = new ValueHolder<>();
-                // Here do some trick to be able interrupt build process. Basically for now it is not possible interrupt docker daemon while
-                // it's building images but here we need just be able to close connection to the unix socket. Thread is blocking while read
-                // from the socket stream so need one more thread that is able to close socket. In this way we can release thread that is
-                // blocking on i/o.
-                final Runnable runnable = new Runnable() {
-                    @Override
-                    public void run() {
-                        try {
-                            ProgressStatus progressStatus;
-                            while ((progressStatus = progressReader.next()) != null) {
-                                final String buildImageId = getBuildImageId(progressStatus);
-                                if (buildImageId != null) {
-                                    imageIdHolder.set(buildImageId);
-                                }
-                                progressMonitor.updateProgress(progressStatus);
+        connection.method("POST")
+                  .path("/build")
+                  .query("rm", 1)
+                  .query("pull", 1)
+                  .headers(headers);
+        if (repository != null) {
+            connection.query("t", repository);
+        }
+        final DockerResponse response = connection.request();
+        final int status = response.getStatus();
+        if (OK.getStatusCode() != status) {
+            throw new DockerException(getDockerExceptionMessage(response), status);
+        }
+        try (InputStream responseStream = response.getInputStream()) {
+            JsonMessageReader<ProgressStatus> progressReader = new JsonMessageReader<>(responseStream, ProgressStatus.class);
+
+            final ValueHolder<IOException> errorHolder = new ValueHolder<>();
+            final ValueHolder<String> imageIdHolder = new ValueHolder<>();
+            // Here do some trick to be able interrupt build process. Basically for now it is not possible interrupt docker daemon while
+            // it's building images but here we need just be able to close connection to the unix socket. Thread is blocking while read
+            // from the socket stream so need one more thread that is able to close socket. In this way we can release thread that is
+            // blocking on i/o.
+            final Runnable runnable = new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        ProgressStatus progressStatus;
+                        while ((progressStatus = progressReader.next()) != null) {
+                            final String buildImageId = getBuildImageId(progressStatus);
+                            if (buildImageId != null) {
+                                imageIdHolder.set(buildImageId);
                             }
-                        } catch (IOException e) {
-                            errorHolder.set(e);
-                        }
-                        synchronized (this) {
-                            notify();
+                            progressMonitor.updateProgress(progressStatus);
                         }
+                    } catch (IOException e) {
+                        errorHolder.set(e);
+                    }
+                    synchronized (this) {
+                        notify();
                     }
-                };
-                executor.execute(runnable);
-                // noinspection SynchronizationOnLocalVariableOrMethodParameter
-                synchronized (runnable) {
-                    runnable.wait();
-                }
-                final IOException ioe = errorHolder.get();
-                if (ioe != null) {
-                    throw ioe;
-                }
-                if (imageIdHolder.get() == null) {
-                    throw new IOException("Docker image build failed");
                 }
-                return imageIdHolder.get();
+            };
+            executor.execute(runnable);
+            // noinspection SynchronizationOnLocalVariableOrMethodParameter
+            synchronized (runnable) {
+                runnable.wait();
+            }
+            final IOException ioe = errorHolder.get();
+            if (ioe != null) {
+                throw ioe;
+            }
+            if (imageIdHolder.get() == null) {
+                throw new IOException("Docker image build failed");
             }
+            return imageIdHolder.get();
         }
     }
 
@@ -1157,9 +1350,9 @@ public class DockerConnector {
 
     protected DockerConnection openConnection(URI dockerDaemonUri) {
         if (isUnixSocketUri(dockerDaemonUri)) {
-            return new UnixSocketConnection(dockerDaemonUri.getPath());
+            return new UnixSocketConnection(dockerDaemonUri.getPath()).pool(connectionPool);
         } else {
-            return new TcpConnection(dockerDaemonUri, dockerCertificates);
+            return new TcpConnection(dockerDaemonUri, dockerCertificates).pool(connectionPool);
         }
     }
 
@@ -1167,7 +1360,35 @@ public class DockerConnector {
         return UNIX_SOCKET_SCHEME.equals(uri.getScheme());
     }
 
-    private void createTarArchive(File tar, File... files) throws IOException {
-        TarUtils.tarFiles(tar, 0, files);
+    /** Writes gzipped tar archive of files to the output stream. Output stream isn't closed. */
+    private void writeTarArchive(OutputStream output, File... files) throws IOException {
+        final GZIPOutputStream gzip = new GZIPOutputStream(new UncloseableOutputStream(output), BUILD_CONTEXT_BUFFER_SIZE) {
+            {
+                // build context is compressed on the fly, so prefer speed over ratio
+                def.setLevel(Deflater.BEST_SPEED);
+            }
+        };
+        try {
+            TarUtils.tarFiles(new UncloseableOutputStream(gzip), 0, files);
+        } finally {
+            gzip.close();
+        }
+    }
+
+    /** Doesn't close underlying stream, that's up to the creator of the stream. */
+    private static class UncloseableOutputStream extends FilterOutputStream {
+        UncloseableOutputStream(OutputStream output) {
+            super(output);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
     }
 }
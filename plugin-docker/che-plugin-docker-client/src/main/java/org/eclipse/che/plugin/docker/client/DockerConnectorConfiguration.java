@@ -14,6 +14,7 @@ import com.google.inject.Inject;
 import com.google.inject.name.Named;
 
 import org.eclipse.che.api.core.util.SystemInfo;
+import org.eclipse.che.plugin.docker.client.connection.DockerConnectionPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,6 +47,14 @@ public class DockerConnectorConfiguration {
     @Named("docker.client.certificates_folder")
     private String dockerCertificatesDirectoryPath = dockerMachineCertsDirectoryPath();
 
+    @Inject(optional = true)
+    @Named("docker.client.connection_pool.max_idle_per_daemon")
+    private int maxIdleConnectionsPerDaemon = DockerConnectionPool.DEFAULT_MAX_IDLE_PER_DAEMON;
+
+    @Inject(optional = true)
+    @Named("docker.client.connection_pool.idle_timeout_ms")
+    private long idleConnectionTimeoutMs = DockerConnectionPool.DEFAULT_IDLE_TIMEOUT_MS;
+
     @Inject
     private InitialAuthConfig authConfigs;
 
@@ -158,6 +167,10 @@ public class DockerConnectorConfiguration {
         return authConfigs;
     }
 
+    public DockerConnectionPool getConnectionPool() {
+        return new DockerConnectionPool(maxIdleConnectionsPerDaemon, idleConnectionTimeoutMs);
+    }
+
     public DockerCertificates getDockerCertificates() {
         if (dockerCertificatesDirectoryPath == null || !getDockerDaemonUri().getScheme().equals("https")) {
             return null;
@@ -12,6 +12,9 @@ package org.eclipse.che.plugin.docker.client;
 
 import com.google.inject.ImplementedBy;
 
+import java.util.Collections;
+import java.util.Map;
+
 /**
  * Detects container OOM and put message about it to log processor of container.
  *
@@ -40,6 +43,13 @@ public interface DockerOOMDetector {
      */
     void startDetection(String container, MessageProcessor<LogMessage> startContainerLogProcessor);
 
+    /**
+     * Gets memory usage of containers which are under OOM detection.
+     *
+     * @return map of container id to memory usage of container
+     */
+    Map<String, MemoryStats> getMemoryStats();
+
     DockerOOMDetector NOOP_DETECTOR = new NoOpDockerOOMDetector();
 
     class NoOpDockerOOMDetector implements DockerOOMDetector {
@@ -50,5 +60,38 @@ public interface DockerOOMDetector {
         @Override
         public void startDetection(String container, MessageProcessor<LogMessage> startContainerLogProcessor) {
         }
+
+        @Override
+        public Map<String, MemoryStats> getMemoryStats() {
+            return Collections.emptyMap();
+        }
+    }
+
+    /** Memory usage of container. */
+    class MemoryStats {
+        private final long usage;
+        private final long limit;
+        private final long failcnt;
+
+        public MemoryStats(long usage, long limit, long failcnt) {
+            this.usage = usage;
+            this.limit = limit;
+            this.failcnt = failcnt;
+        }
+
+        /** Returns memory used by container in bytes. */
+        public long getUsage() {
+            return usage;
+        }
+
+        /** Returns memory limit of container in bytes. */
+        public long getLimit() {
+            return limit;
+        }
+
+        /** Returns number of times memory usage of container hit the limit. */
+        public long getFailcnt() {
+            return failcnt;
+        }
     }
 }
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Decodes multiplexed stream of docker container to log messages. Unlike {@link LogMessagePumper} decoder doesn't read stream
+ * itself, bytes are pushed to it as soon as they are received, so the same thread may decode many streams.
+ * <p/>
+ * Stream consists of frames, each frame has header of 8 bytes: type of stream (stdin, stdout or stderr) and length of payload.
+ * Payload is split to lines, line is also terminated when it's longer than {@link #MAX_LINE_LENGTH}.
+ */
+class LogMessageDecoder {
+    private static final Logger LOG = LoggerFactory.getLogger(LogMessageDecoder.class);
+
+    static final int STREAM_HEADER_LENGTH = 8;
+    static final int MAX_LINE_LENGTH      = 1024;
+
+    private final MessageProcessor<LogMessage> target;
+    private final byte[]                       header;
+    private final ByteArrayOutputStream        line;
+
+    private int             headerLength;
+    private int             remaining;
+    private LogMessage.Type type;
+
+    LogMessageDecoder(MessageProcessor<LogMessage> target) {
+        this.target = target;
+        this.header = new byte[STREAM_HEADER_LENGTH];
+        this.line = new ByteArrayOutputStream(MAX_LINE_LENGTH);
+        this.type = LogMessage.Type.DOCKER;
+    }
+
+    /** Decodes next part of stream. */
+    void decode(byte[] buf, int off, int len) {
+        final int end = off + len;
+        int i = off;
+        while (i < end) {
+            if (remaining == 0) {
+                final int n = Math.min(STREAM_HEADER_LENGTH - headerLength, end - i);
+                System.arraycopy(buf, i, header, headerLength, n);
+                headerLength += n;
+                i += n;
+                if (headerLength == STREAM_HEADER_LENGTH) {
+                    type = getLogMessageType(header);
+                    remaining = getPayloadLength(header);
+                    headerLength = 0;
+                }
+                continue;
+            }
+            final int payloadEnd = Math.min(end, i + remaining);
+            remaining -= payloadEnd - i;
+            for (; i < payloadEnd; i++) {
+                final byte b = buf[i];
+                if (b == '\n') {
+                    flush();
+                } else if (b == '\r') {
+                    // include <CR> char in log message
+                    line.write(b);
+                    flush();
+                } else {
+                    if (line.size() >= MAX_LINE_LENGTH) {
+                        flush();
+                    }
+                    line.write(b);
+                }
+            }
+        }
+    }
+
+    /** Processes the last line when stream is ended. */
+    void finish() {
+        if (headerLength != 0) {
+            LOG.debug("Invalid stream, can't read header. Header of each frame must contain 8 bytes but got {}", headerLength);
+        }
+        if (line.size() > 0) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        target.process(new LogMessage(type, new String(line.toByteArray())));
+        line.reset();
+    }
+
+    private int getPayloadLength(byte[] header) {
+        return (header[7] & 0xFF) + ((header[6] & 0xFF) << 8) + ((header[5] & 0xFF) << 16) + ((header[4] & 0xFF) << 24);
+    }
+
+    private LogMessage.Type getLogMessageType(byte[] header) {
+        switch (header[0]) {
+            case 0:
+                return LogMessage.Type.STDIN;
+            case 1:
+                return LogMessage.Type.STDOUT;
+            case 2:
+                return LogMessage.Type.STDERR;
+            default:
+                throw new IllegalArgumentException(String.format("Invalid docker stream type %d", header[0]));
+        }
+    }
+}
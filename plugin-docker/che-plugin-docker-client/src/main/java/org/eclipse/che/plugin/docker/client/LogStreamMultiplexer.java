@@ -0,0 +1,264 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.eclipse.che.plugin.docker.client.connection.PollableStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.eclipse.che.plugin.docker.client.CLibrary.POLLIN;
+import static org.eclipse.che.plugin.docker.client.CLibrary.PollFd;
+import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
+
+/**
+ * Services log streams of many attached containers with fixed number of threads.
+ * <p/>
+ * Single poller thread waits for data of all registered streams with {@code poll}, streams which have data are decoded by pool of
+ * workers. Each read of stream returns data which is already received, so workers never block on i/o. Workers call processors of
+ * messages synchronously, so slow processor occupies one of workers and delays reading of other streams as well, processors should
+ * hand messages over quickly. Stream isn't polled while its messages are processed, docker daemon keeps the rest of output of
+ * container until processor is ready for it.
+ * <p/>
+ * Only streams which implement {@link PollableStream}, i.e. streams of unix socket, may be multiplexed.
+ */
+public class LogStreamMultiplexer {
+    private static final Logger LOG = LoggerFactory.getLogger(LogStreamMultiplexer.class);
+
+    /** Timeout of poll in milliseconds, streams which are registered or released by workers are polled after this timeout. */
+    private static final int POLL_TIMEOUT = 50;
+    private static final int BUFFER_SIZE  = 8192;
+
+    private final ExecutorService workers;
+    /** Streams which are waiting for data. */
+    private final Set<Stream>     idle;
+
+    private Thread  poller;
+    private boolean stopped;
+    private int     count;
+
+    /**
+     * @param workers
+     *         number of threads which decode streams
+     */
+    public LogStreamMultiplexer(int workers) {
+        this.workers = Executors.newFixedThreadPool(workers, new ThreadFactoryBuilder().setNameFormat("LogStreamMultiplexer-%d")
+                                                                                      .setDaemon(true)
+                                                                                      .build());
+        this.idle = new LinkedHashSet<>();
+    }
+
+    /** Checks whether stream may be registered in multiplexer. */
+    public static boolean isPollable(InputStream stream) {
+        return stream instanceof PollableStream;
+    }
+
+    /**
+     * Registers stream of container logs. Stream and {@code resource} are closed when stream is ended.
+     *
+     * @param stream
+     *         stream of container logs, must be {@link PollableStream}
+     * @param processor
+     *         processor of log messages
+     * @param resource
+     *         resource which holds stream, e.g. connection to docker daemon
+     * @return future which is completed when stream is ended
+     */
+    public ListenableFuture<Void> register(InputStream stream, MessageProcessor<LogMessage> processor, Closeable resource) {
+        if (!isPollable(stream)) {
+            throw new IllegalArgumentException("Stream can't be polled");
+        }
+        final Stream s = new Stream(stream, processor, resource);
+        // headers of response are read through the same buffer, so some output may be already received, poll doesn't report it
+        final boolean buffered = ((PollableStream)stream).getBufferedCount() > 0;
+        synchronized (this) {
+            if (stopped) {
+                throw new IllegalStateException("Multiplexer is stopped");
+            }
+            count++;
+            if (!buffered) {
+                idle.add(s);
+            }
+            if (poller == null) {
+                poller = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        poll();
+                    }
+                }, "LogStreamMultiplexer-poller");
+                poller.setDaemon(true);
+                poller.start();
+            }
+        }
+        if (buffered) {
+            dispatch(s);
+        }
+        return s.finished;
+    }
+
+    /** Returns number of registered streams. */
+    public synchronized int getStreamCount() {
+        return count;
+    }
+
+    /** Stops multiplexer, registered streams are closed. */
+    public void stop() {
+        final List<Stream> toClose;
+        synchronized (this) {
+            stopped = true;
+            if (poller != null) {
+                poller.interrupt();
+            }
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+        }
+        workers.shutdownNow();
+        for (Stream s : toClose) {
+            finish(s, null);
+        }
+    }
+
+    private void poll() {
+        final CLibrary cLib = getCLibrary();
+        while (!Thread.currentThread().isInterrupted()) {
+            final List<Stream> polled;
+            synchronized (this) {
+                if (stopped) {
+                    return;
+                }
+                polled = new ArrayList<>(idle);
+            }
+            if (polled.isEmpty()) {
+                try {
+                    Thread.sleep(POLL_TIMEOUT);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                continue;
+            }
+            final PollFd[] fds = (PollFd[])new PollFd().toArray(polled.size());
+            for (int i = 0; i < fds.length; i++) {
+                fds[i].fd = ((PollableStream)polled.get(i).input).getFileDescriptor();
+                fds[i].events = POLLIN;
+            }
+            if (cLib.poll(fds, fds.length, POLL_TIMEOUT) == -1) {
+                // e.g. interrupted by signal, poll again
+                continue;
+            }
+            for (int i = 0; i < fds.length; i++) {
+                // data, end of stream or error, read in all cases
+                if (fds[i].revents != 0) {
+                    final Stream s = polled.get(i);
+                    synchronized (this) {
+                        if (!idle.remove(s)) {
+                            continue;
+                        }
+                    }
+                    dispatch(s);
+                }
+            }
+        }
+    }
+
+    /** Passes stream to worker, stream is finished if multiplexer is stopped. */
+    private void dispatch(final Stream s) {
+        try {
+            workers.execute(new Runnable() {
+                @Override
+                public void run() {
+                    read(s);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // multiplexer is stopped
+            finish(s, null);
+        }
+    }
+
+    private void read(Stream s) {
+        try {
+            do {
+                final int n = s.input.read(s.buf);
+                if (n == -1) {
+                    finish(s, null);
+                    return;
+                }
+                s.decoder.decode(s.buf, 0, n);
+            } while (((PollableStream)s.input).getBufferedCount() > 0);
+        } catch (IOException | RuntimeException e) {
+            finish(s, e);
+            return;
+        }
+        synchronized (this) {
+            if (!stopped) {
+                idle.add(s);
+                return;
+            }
+        }
+        finish(s, null);
+    }
+
+    private void finish(Stream s, Exception error) {
+        synchronized (this) {
+            count--;
+        }
+        try {
+            s.decoder.finish();
+        } catch (RuntimeException e) {
+            LOG.error(e.getMessage(), e);
+        }
+        try {
+            s.input.close();
+        } catch (IOException e) {
+            LOG.debug(e.getMessage(), e);
+        }
+        try {
+            s.resource.close();
+        } catch (IOException e) {
+            LOG.debug(e.getMessage(), e);
+        }
+        if (error != null) {
+            s.finished.setException(error);
+        } else {
+            s.finished.set(null);
+        }
+    }
+
+    private static class Stream {
+        final InputStream          input;
+        final LogMessageDecoder    decoder;
+        final Closeable            resource;
+        final byte[]               buf;
+        final SettableFuture<Void> finished;
+
+        Stream(InputStream input, MessageProcessor<LogMessage> processor, Closeable resource) {
+            this.input = input;
+            this.decoder = new LogMessageDecoder(processor);
+            this.resource = resource;
+            this.buf = new byte[BUFFER_SIZE];
+            this.finished = SettableFuture.create();
+        }
+    }
+}
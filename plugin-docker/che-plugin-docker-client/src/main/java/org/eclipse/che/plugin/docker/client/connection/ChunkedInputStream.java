@@ -60,6 +60,11 @@ public class ChunkedInputStream extends InputStream {
         return doRead(b, 0, len);
     }
 
+    /** Returns {@code true} if the last chunk is read. */
+    synchronized boolean isEof() {
+        return eof;
+    }
+
     @Override
     public synchronized int available() {
         return (chunkSize - chunkPos);
@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes data with chunked transfer encoding. Data is buffered and sent with chunks of fixed size,
+ * {@link #finish()} must be called to send the last chunk. Closing of this stream doesn't close underlying stream.
+ */
+public class ChunkedOutputStream extends OutputStream {
+    private static final int    DEFAULT_CHUNK_SIZE = 8192;
+    private static final byte[] CRLF               = {'\r', '\n'};
+    private static final byte[] LAST_CHUNK         = {'0', '\r', '\n', '\r', '\n'};
+
+    private final OutputStream output;
+    private final byte[]       buf;
+    private int                count;
+    private boolean            finished;
+
+    ChunkedOutputStream(OutputStream output) {
+        this(output, DEFAULT_CHUNK_SIZE);
+    }
+
+    ChunkedOutputStream(OutputStream output, int chunkSize) {
+        this.output = output;
+        this.buf = new byte[chunkSize];
+    }
+
+    @Override
+    public synchronized void write(int b) throws IOException {
+        ensureNotFinished();
+        if (count == buf.length) {
+            flushChunk();
+        }
+        buf[count++] = (byte)b;
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+        if (b == null) {
+            throw new NullPointerException();
+        }
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        ensureNotFinished();
+        while (len > 0) {
+            if (count == 0 && len >= buf.length) {
+                // full chunks of large blocks aren't copied to buffer
+                writeChunk(b, off, buf.length);
+                off += buf.length;
+                len -= buf.length;
+            } else {
+                final int n = Math.min(len, buf.length - count);
+                System.arraycopy(b, off, buf, count, n);
+                count += n;
+                off += n;
+                len -= n;
+                if (count == buf.length) {
+                    flushChunk();
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        if (!finished) {
+            flushChunk();
+        }
+        output.flush();
+    }
+
+    /** Writes buffered data and the last chunk. Nothing may be written after this method is called. */
+    public synchronized void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        flushChunk();
+        output.write(LAST_CHUNK);
+        output.flush();
+        finished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        finish();
+    }
+
+    private void flushChunk() throws IOException {
+        if (count > 0) {
+            writeChunk(buf, 0, count);
+            count = 0;
+        }
+    }
+
+    private void writeChunk(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return;
+        }
+        output.write(Integer.toHexString(len).getBytes(StandardCharsets.US_ASCII));
+        output.write(CRLF);
+        output.write(b, off, len);
+        output.write(CRLF);
+    }
+
+    private void ensureNotFinished() throws IOException {
+        if (finished) {
+            throw new IOException("Last chunk is already written");
+        }
+    }
+}
@@ -32,11 +32,22 @@ public abstract class DockerConnection implements Closeable {
     private StringBuilder         query   = new StringBuilder();
     private List<Pair<String, ?>> headers = Collections.emptyList();
 
+    protected DockerConnectionPool pool;
+
     public DockerConnection method(String method) {
         this.method = method;
         return this;
     }
 
+    /**
+     * Sets pool of connections. If pool is set connection to the daemon is taken from the pool, if possible,
+     * and returned to the pool when this connection is closed.
+     */
+    public DockerConnection pool(DockerConnectionPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
     public DockerConnection path(String path) {
         this.path = path;
         return this;
@@ -81,6 +92,15 @@ public abstract class DockerConnection implements Closeable {
         return this;
     }
 
+    /**
+     * Sets entity which is written to the connection by {@code entity} at the moment of sending request, so entity doesn't need to
+     * be prepared in memory or on disk before. If Content-Length header isn't set such entity is sent with chunked transfer encoding.
+     */
+    public DockerConnection entity(EntityWriter entity) {
+        this.entity = new WriterEntity(entity);
+        return this;
+    }
+
     public DockerResponse request() throws IOException {
         return request(method, path, query.toString(), headers, entity);
     }
@@ -93,6 +113,27 @@ public abstract class DockerConnection implements Closeable {
 
     public abstract void close();
 
+    /**
+     * Breaks connection to the daemon from another thread, e.g. to stop reading of endless stream of events, thread which reads
+     * response gets end of stream or error then. Connection still must be closed with {@link #close()} by its owner.
+     */
+    public abstract void abort();
+
+    /** Writes entity of request directly to the output stream of connection. */
+    public interface EntityWriter {
+        void writeTo(OutputStream output) throws IOException;
+    }
+
+    /** Returns value of Content-Length header or {@code -1} if header isn't set. */
+    static long getContentLength(List<Pair<String, ?>> headers) {
+        for (Pair<String, ?> header : headers) {
+            if ("Content-Length".equalsIgnoreCase(header.first)) {
+                return Long.parseLong(String.valueOf(header.second));
+            }
+        }
+        return -1;
+    }
+
     static abstract class Entity<T> {
         final T entity;
 
@@ -142,4 +183,16 @@ public abstract class DockerConnection implements Closeable {
             output.flush();
         }
     }
+
+    static class WriterEntity extends Entity<EntityWriter> {
+        WriterEntity(EntityWriter entity) {
+            super(entity);
+        }
+
+        @Override
+        public void writeTo(OutputStream output) throws IOException {
+            entity.writeTo(output);
+            output.flush();
+        }
+    }
 }
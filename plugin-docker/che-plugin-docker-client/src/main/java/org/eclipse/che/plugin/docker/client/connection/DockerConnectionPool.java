@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
+
+/**
+ * Keeps idle unix socket connections to docker daemons, so next request to the same daemon doesn't need to open new socket.
+ * Connection is returned to the pool only if response was read completely and docker daemon didn't ask to close connection.
+ * Pool keeps at most {@code maxIdlePerDaemon} idle connections for every daemon, connections which are idle longer than
+ * {@code idleTimeoutMs} are closed by background thread, which is started when the first connection is returned to the pool.
+ * <p/>
+ * Tcp connections are kept alive by {@link java.net.HttpURLConnection} itself, for them pool only counts requests.
+ *
+ * @see UnixSocketConnection
+ * @see TcpConnection
+ */
+public class DockerConnectionPool {
+    public static final int  DEFAULT_MAX_IDLE_PER_DAEMON = 8;
+    public static final long DEFAULT_IDLE_TIMEOUT_MS     = 30000;
+
+    private final int                                maxIdlePerDaemon;
+    private final long                               idleTimeoutMs;
+    private final Map<String, Deque<IdleConnection>> idle;
+    private final AtomicLong                         requests;
+    private final AtomicLong                         opened;
+    private final AtomicLong                         reused;
+    private final AtomicLong                         evicted;
+
+    private ScheduledExecutorService evictor;
+    private boolean                  closed;
+
+    public DockerConnectionPool() {
+        this(DEFAULT_MAX_IDLE_PER_DAEMON, DEFAULT_IDLE_TIMEOUT_MS);
+    }
+
+    /**
+     * @param maxIdlePerDaemon
+     *         max number of idle connections kept for every daemon, {@code 0} disables reusing of connections
+     * @param idleTimeoutMs
+     *         time after that idle connection is closed
+     */
+    public DockerConnectionPool(int maxIdlePerDaemon, long idleTimeoutMs) {
+        this.maxIdlePerDaemon = maxIdlePerDaemon;
+        this.idleTimeoutMs = idleTimeoutMs;
+        idle = new HashMap<>();
+        requests = new AtomicLong();
+        opened = new AtomicLong();
+        reused = new AtomicLong();
+        evicted = new AtomicLong();
+    }
+
+    /**
+     * Takes idle connection to the daemon.
+     *
+     * @return file descriptor of connected socket or {@code -1} if there is no idle connection
+     */
+    synchronized int take(String daemon) {
+        final Deque<IdleConnection> connections = idle.get(daemon);
+        if (connections == null) {
+            return -1;
+        }
+        final long now = System.currentTimeMillis();
+        IdleConnection connection;
+        // the most recently used connection is the least likely to be closed by daemon
+        while ((connection = connections.pollLast()) != null) {
+            if (now - connection.since < idleTimeoutMs) {
+                reused.incrementAndGet();
+                return connection.fd;
+            }
+            evict(connection);
+        }
+        return -1;
+    }
+
+    /**
+     * Returns connection to the pool. If pool is full connection is closed.
+     */
+    synchronized void offer(String daemon, int fd) {
+        Deque<IdleConnection> connections = idle.get(daemon);
+        if (connections == null) {
+            connections = new ArrayDeque<>();
+            idle.put(daemon, connections);
+        }
+        evictExpired(connections, System.currentTimeMillis());
+        if (!closed && connections.size() < maxIdlePerDaemon) {
+            connections.addLast(new IdleConnection(fd));
+            if (evictor == null) {
+                startEvictor();
+            }
+        } else {
+            getCLibrary().close(fd);
+        }
+    }
+
+    void connectionOpened() {
+        opened.incrementAndGet();
+    }
+
+    void requestSent() {
+        requests.incrementAndGet();
+    }
+
+    /** Closes connections which are idle longer than idle timeout. */
+    public synchronized void evictIdle() {
+        final long now = System.currentTimeMillis();
+        for (Deque<IdleConnection> connections : idle.values()) {
+            evictExpired(connections, now);
+        }
+    }
+
+    /** Closes all idle connections and stops background thread, connections which are returned after that are closed. */
+    public synchronized void close() {
+        closed = true;
+        for (Deque<IdleConnection> connections : idle.values()) {
+            for (IdleConnection connection : connections) {
+                getCLibrary().close(connection.fd);
+            }
+        }
+        idle.clear();
+        if (evictor != null) {
+            evictor.shutdownNow();
+            evictor = null;
+        }
+    }
+
+    /**
+     * Returns metrics of the pool: number of sent requests, number of opened and reused unix socket connections,
+     * number of connections closed by idle timeout and number of idle connections.
+     */
+    public synchronized Map<String, Long> getMetrics() {
+        long idleCount = 0;
+        for (Deque<IdleConnection> connections : idle.values()) {
+            idleCount += connections.size();
+        }
+        final Map<String, Long> metrics = new LinkedHashMap<>(8);
+        metrics.put("requests", requests.get());
+        metrics.put("connections_opened", opened.get());
+        metrics.put("connections_reused", reused.get());
+        metrics.put("connections_evicted", evicted.get());
+        metrics.put("connections_idle", idleCount);
+        return metrics;
+    }
+
+    private void startEvictor() {
+        evictor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("DockerConnectionPoolEvictor-%d")
+                                                                                       .setDaemon(true)
+                                                                                       .build());
+        evictor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                evictIdle();
+            }
+        }, idleTimeoutMs, idleTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void evictExpired(Deque<IdleConnection> connections, long now) {
+        for (Iterator<IdleConnection> it = connections.iterator(); it.hasNext(); ) {
+            final IdleConnection connection = it.next();
+            if (now - connection.since >= idleTimeoutMs) {
+                it.remove();
+                evict(connection);
+            }
+        }
+    }
+
+    private void evict(IdleConnection connection) {
+        getCLibrary().close(connection.fd);
+        evicted.incrementAndGet();
+    }
+
+    private static class IdleConnection {
+        final int  fd;
+        final long since;
+
+        IdleConnection(int fd) {
+            this.fd = fd;
+            this.since = System.currentTimeMillis();
+        }
+    }
+}
@@ -59,6 +59,26 @@ public class LimitedInputStream extends InputStream {
         return doRead(b, 0, len);
     }
 
+    /**
+     * Skips remaining bytes of the stream if there are not more than {@code maxSkip} of them.
+     *
+     * @return {@code true} if stream is read completely
+     */
+    synchronized boolean skipRemaining(int maxSkip) throws IOException {
+        if (limit - pos > maxSkip) {
+            return false;
+        }
+        final byte[] buf = new byte[Math.max(limit - pos, 1)];
+        while (pos < limit) {
+            final int n = input.read(buf, 0, limit - pos);
+            if (n == -1) {
+                return false;
+            }
+            pos += n;
+        }
+        return true;
+    }
+
     private int doRead(byte[] b, int off, int len) throws IOException {
         if (pos >= limit) {
             return -1;
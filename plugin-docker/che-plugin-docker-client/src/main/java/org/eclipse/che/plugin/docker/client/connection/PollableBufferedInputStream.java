@@ -0,0 +1,35 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import java.io.BufferedInputStream;
+
+/**
+ * Buffered stream of unix socket. Single read from the stream doesn't block if socket has data or stream has buffered bytes.
+ */
+class PollableBufferedInputStream extends BufferedInputStream implements PollableStream {
+    private final int fd;
+
+    PollableBufferedInputStream(int fd) {
+        super(new UnixSocketInputStream(fd));
+        this.fd = fd;
+    }
+
+    @Override
+    public int getFileDescriptor() {
+        return fd;
+    }
+
+    @Override
+    public synchronized int getBufferedCount() {
+        return count - pos;
+    }
+}
@@ -0,0 +1,23 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+/**
+ * Stream of socket which may be read without blocking when socket has data, so many such streams may be serviced by few threads
+ * that wait for data of all streams with the single {@code poll} call.
+ */
+public interface PollableStream {
+    /** Returns file descriptor of socket. */
+    int getFileDescriptor();
+
+    /** Returns number of bytes which are already buffered by stream and may be read without waiting for socket. */
+    int getBufferedCount();
+}
@@ -32,6 +32,7 @@ import java.util.List;
 public class TcpConnection extends DockerConnection {
     private static final int DEFAULT_CONNECTION_TIMEOUT = 60000;
     private static final int DEFAULT_READ_TIMEOUT       = 60000;
+    private static final int CHUNK_SIZE                 = 8192;
 
     private final URI                baseUri;
     private final DockerCertificates certificates;
@@ -39,6 +40,7 @@ public class TcpConnection extends DockerConnection {
     private final int                readTimeout;
 
     private HttpURLConnection connection;
+    private TcpDockerResponse response;
 
     public TcpConnection(URI baseUri) {
         this(baseUri, null, DEFAULT_CONNECTION_TIMEOUT, DEFAULT_READ_TIMEOUT);
@@ -80,7 +82,8 @@ public class TcpConnection extends DockerConnection {
         connection.setConnectTimeout(connectionTimeout);
         connection.setReadTimeout(readTimeout);
         if ("https".equals(protocol)) {
-            ((HttpsURLConnection)connection).setSSLSocketFactory(certificates.getSslContext().getSocketFactory());
+            // kept-alive connection is reused only with the same socket factory
+            ((HttpsURLConnection)connection).setSSLSocketFactory(certificates.getSocketFactory());
         }
         connection.setRequestMethod(method);
         for (Pair<String, ?> header : headers) {
@@ -88,15 +91,40 @@ public class TcpConnection extends DockerConnection {
         }
         if (entity != null) {
             connection.setDoOutput(true);
+            // without streaming mode HttpURLConnection keeps whole entity in memory before sending
+            final long contentLength = getContentLength(headers);
+            if (contentLength >= 0) {
+                connection.setFixedLengthStreamingMode(contentLength);
+            } else if (entity instanceof WriterEntity) {
+                connection.setChunkedStreamingMode(CHUNK_SIZE);
+            }
             try (OutputStream output = connection.getOutputStream()) {
                 entity.writeTo(output);
             }
         }
-        return new TcpDockerResponse(connection);
+        if (pool != null) {
+            // connections are kept alive by HttpURLConnection, pool only counts requests
+            pool.requestSent();
+        }
+        return response = new TcpDockerResponse(connection);
+    }
+
+    /**
+     * Closes response stream, so connection may be reused by the next request. Disconnects if response stream wasn't opened.
+     */
+    @Override
+    public synchronized void close() {
+        if (connection != null) {
+            if (response == null || !response.closeEntityStream()) {
+                connection.disconnect();
+            }
+            connection = null;
+            response = null;
+        }
     }
 
     @Override
-    public void close() {
+    public synchronized void abort() {
         if (connection != null) {
             connection.disconnect();
         }
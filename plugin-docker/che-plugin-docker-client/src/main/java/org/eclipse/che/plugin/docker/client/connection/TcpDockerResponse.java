@@ -22,6 +22,8 @@ import java.util.Map;
 public class TcpDockerResponse implements DockerResponse {
     private final HttpURLConnection connection;
 
+    private InputStream entityStream;
+
     TcpDockerResponse(HttpURLConnection connection) {
         this.connection = connection;
     }
@@ -55,10 +57,30 @@ public class TcpDockerResponse implements DockerResponse {
 
     @Override
     public InputStream getInputStream() throws IOException {
-        InputStream entityStream = connection.getErrorStream();
+        if (entityStream != null) {
+            return entityStream;
+        }
+        entityStream = connection.getErrorStream();
         if (entityStream == null) {
             entityStream = connection.getInputStream();
         }
         return entityStream;
     }
+
+    /**
+     * Closes entity stream, so {@link HttpURLConnection} may keep connection alive for the next request.
+     *
+     * @return {@code false} if entity stream wasn't opened or can't be closed, then connection should be disconnected
+     */
+    boolean closeEntityStream() {
+        if (entityStream == null) {
+            return false;
+        }
+        try {
+            entityStream.close();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
 }
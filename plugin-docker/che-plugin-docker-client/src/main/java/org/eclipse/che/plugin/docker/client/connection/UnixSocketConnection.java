@@ -15,17 +15,17 @@ import com.google.common.base.Strings;
 import org.eclipse.che.commons.lang.Pair;
 import org.eclipse.che.plugin.docker.client.CLibrary;
 
-import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.net.ConnectException;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.eclipse.che.plugin.docker.client.CLibrary.AF_UNIX;
+import static org.eclipse.che.plugin.docker.client.CLibrary.SHUT_RDWR;
 import static org.eclipse.che.plugin.docker.client.CLibrary.SOCK_STREAM;
 import static org.eclipse.che.plugin.docker.client.CLibrary.SockAddrUn;
 import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
@@ -37,7 +37,8 @@ import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
 public class UnixSocketConnection extends DockerConnection {
     private final String dockerSocketPath;
 
-    private int fd = -1;
+    private int                      fd = -1;
+    private UnixSocketDockerResponse response;
 
     public UnixSocketConnection(String dockerSocketPath) {
         this.dockerSocketPath = dockerSocketPath;
@@ -46,23 +47,87 @@ public class UnixSocketConnection extends DockerConnection {
     @Override
     protected DockerResponse request(String method, String path, String query, List<Pair<String, ?>> headers, Entity entity)
             throws IOException {
+        if (pool != null) {
+            pool.requestSent();
+            // pooled connection may be already closed by docker daemon, then request is sent once again with new connection,
+            // daemon might have already executed request, so only requests which may be executed twice use pooled connections
+            fd = isIdempotent(method) && isReplayable(entity) ? pool.take(dockerSocketPath) : -1;
+            if (fd != -1) {
+                try {
+                    response = doRequest(method, path, query, headers, entity);
+                    // read status line to make sure pooled connection isn't closed by docker daemon
+                    response.getStatus();
+                    return response;
+                } catch (IOException e) {
+                    getCLibrary().close(fd);
+                    fd = -1;
+                    response = null;
+                }
+            }
+        }
         fd = connect();
+        if (pool != null) {
+            pool.connectionOpened();
+        }
+        response = doRequest(method, path, query, headers, entity);
+        return response;
+    }
+
+    private UnixSocketDockerResponse doRequest(String method,
+                                               String path,
+                                               String query,
+                                               List<Pair<String, ?>> headers,
+                                               Entity entity) throws IOException {
         final OutputStream output = new BufferedOutputStream(openOutputStream(fd));
+        final boolean chunked = entity instanceof WriterEntity && getContentLength(headers) < 0;
+        if (chunked) {
+            headers = new ArrayList<>(headers);
+            headers.add(Pair.of("Transfer-Encoding", "chunked"));
+        }
         writeHttpHeaders(output, method, path, query, headers);
-        if (entity != null) {
+        if (chunked) {
+            final ChunkedOutputStream chunkedOutput = new ChunkedOutputStream(output);
+            entity.writeTo(chunkedOutput);
+            chunkedOutput.finish();
+        } else if (entity != null) {
             entity.writeTo(output);
         }
-        return new UnixSocketDockerResponse(new BufferedInputStream(openInputStream(fd)));
+        return new UnixSocketDockerResponse(new PollableBufferedInputStream(fd));
     }
 
+    /**
+     * Returns connection to the pool if response was read completely, otherwise closes connection.
+     */
+    @Override
+    public synchronized void close() {
+        if (fd != -1) {
+            if (pool != null && response != null && response.isReusable()) {
+                pool.offer(dockerSocketPath, fd);
+            } else {
+                getCLibrary().close(fd);
+            }
+            fd = -1;
+            response = null;
+        }
+    }
 
+    /** Shuts down socket, descriptor is closed by {@link #close()}, so it isn't reused while response is read. */
     @Override
-    public void close() {
+    public synchronized void abort() {
         if (fd != -1) {
-            getCLibrary().close(fd);
+            getCLibrary().shutdown(fd, SHUT_RDWR);
         }
     }
 
+    private boolean isIdempotent(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "DELETE".equals(method);
+    }
+
+    /** Entity which is read from stream or produced while sending can't be sent once again. */
+    private boolean isReplayable(Entity entity) {
+        return entity == null || entity instanceof StringEntity || entity instanceof BytesEntity;
+    }
+
     private int connect() throws IOException {
         final CLibrary cLib = getCLibrary();
         int fd = cLib.socket(AF_UNIX, SOCK_STREAM, 0);
@@ -98,10 +163,6 @@ public class UnixSocketConnection extends DockerConnection {
         writer.flush();
     }
 
-    private InputStream openInputStream(int fd) {
-        return new UnixSocketInputStream(fd);
-    }
-
     private OutputStream openOutputStream(int fd) {
         return new UnixSocketOutputStream(fd);
     }
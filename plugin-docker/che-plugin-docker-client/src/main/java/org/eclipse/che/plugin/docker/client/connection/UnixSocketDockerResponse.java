@@ -19,6 +19,9 @@ import java.util.List;
 * @author andrew00x
 */
 public class UnixSocketDockerResponse implements DockerResponse {
+    /** Max number of unread bytes of response which are skipped to reuse connection. */
+    private static final int MAX_SKIP_TO_REUSE = 8192;
+
     private static final InputStream EMPTY = new InputStream() {
         @Override
         public int read() throws IOException {
@@ -152,4 +155,33 @@ public class UnixSocketDockerResponse implements DockerResponse {
         }
         return data = "chunked".equals(getHeader("Transfer-Encoding")) ? new ChunkedInputStream(rawData) : rawData;
     }
+
+    /**
+     * Checks whether connection may be used for the next request, i.e. response is read completely
+     * and docker daemon keeps connection alive.
+     */
+    synchronized boolean isReusable() {
+        if (headersFields == null || !headersFields[0].startsWith("HTTP/1.1")) {
+            return false;
+        }
+        try {
+            if ("close".equalsIgnoreCase(getHeader("Connection"))) {
+                return false;
+            }
+            final int status = getStatus();
+            if (status == 204 || status == 304 || data == EMPTY) {
+                return true;
+            }
+            if (data instanceof LimitedInputStream) {
+                return ((LimitedInputStream)data).skipRemaining(MAX_SKIP_TO_REUSE);
+            }
+            if (data instanceof ChunkedInputStream) {
+                return ((ChunkedInputStream)data).isEof();
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        // length of response is defined by closing of connection
+        return false;
+    }
 }
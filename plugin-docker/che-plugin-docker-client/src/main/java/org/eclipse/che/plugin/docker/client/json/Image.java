@@ -10,14 +10,17 @@
  *******************************************************************************/
 package org.eclipse.che.plugin.docker.client.json;
 
+import java.util.Arrays;
+
 /** @author andrew00x */
 public class Image {
-    private String repository;
-    private String tag;
-    private String id;
-    private long   created;
-    private long   size;
-    private long   virtualSize;
+    private String   repository;
+    private String   tag;
+    private String[] repoTags;
+    private String   id;
+    private long     created;
+    private long     size;
+    private long     virtualSize;
 
     public String getRepository() {
         return repository;
@@ -35,6 +38,15 @@ public class Image {
         this.tag = tag;
     }
 
+    /** Returns names of image in format repository:tag, newer versions of docker API return names only in this form. */
+    public String[] getRepoTags() {
+        return repoTags;
+    }
+
+    public void setRepoTags(String[] repoTags) {
+        this.repoTags = repoTags;
+    }
+
     public String getId() {
         return id;
     }
@@ -72,6 +84,7 @@ public class Image {
         return "Image{" +
                "repository='" + repository + '\'' +
                ", tag='" + tag + '\'' +
+               ", repoTags=" + Arrays.toString(repoTags) +
                ", id='" + id + '\'' +
                ", created=" + created +
                ", size=" + size +
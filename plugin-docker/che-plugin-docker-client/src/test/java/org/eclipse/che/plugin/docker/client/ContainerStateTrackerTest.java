@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import org.eclipse.che.plugin.docker.client.json.ContainerInfo;
+import org.eclipse.che.plugin.docker.client.json.ContainerState;
+import org.eclipse.che.plugin.docker.client.json.Event;
+import org.eclipse.che.plugin.docker.client.json.Filters;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Listeners(MockitoTestNGListener.class)
+public class ContainerStateTrackerTest {
+    private static final String CONTAINER = "container";
+
+    @Mock
+    private DockerConnector dockerConnector;
+
+    private ContainerStateTracker tracker;
+    private ContainerState        state;
+    private CountDownLatch        subscribed;
+    private CountDownLatch        unsubscribed;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        state = new ContainerState();
+        state.setRunning(true);
+        final ContainerInfo info = new ContainerInfo();
+        info.setState(state);
+        when(dockerConnector.inspectContainer(anyString())).thenReturn(info);
+        subscribed = new CountDownLatch(1);
+        unsubscribed = new CountDownLatch(1);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                @SuppressWarnings("unchecked")
+                final AtomicReference<Closeable> subscription = (AtomicReference<Closeable>)invocation.getArguments()[4];
+                final BlockingStream events = new BlockingStream();
+                if (!subscription.compareAndSet(null, events)) {
+                    return null;
+                }
+                subscribed.countDown();
+                // keep subscription opened until tracker is stopped, like socket read it doesn't respond to interruption
+                try {
+                    events.read();
+                } finally {
+                    subscription.compareAndSet(events, null);
+                    unsubscribed.countDown();
+                }
+                return null;
+            }
+        }).when(dockerConnector).getEvents(anyLong(),
+                                           anyLong(),
+                                           any(Filters.class),
+                                           any(MessageProcessor.class),
+                                           Matchers.<AtomicReference<Closeable>>any());
+        tracker = new ContainerStateTracker(dockerConnector);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        tracker.stop();
+    }
+
+    @Test
+    public void shouldNotInspectContainerOnEveryQuery() throws Exception {
+        tracker.track(CONTAINER);
+        assertTrue(subscribed.await(5, TimeUnit.SECONDS));
+
+        assertTrue(tracker.isRunning(CONTAINER));
+        assertTrue(tracker.isRunning(CONTAINER));
+        assertEquals(tracker.exitCode(CONTAINER), -1);
+
+        verify(dockerConnector, times(1)).inspectContainer(CONTAINER);
+    }
+
+    @Test
+    public void shouldGetExitCodeWhenContainerDies() throws Exception {
+        tracker.track(CONTAINER);
+        assertTrue(subscribed.await(5, TimeUnit.SECONDS));
+        state.setRunning(false);
+        state.setExitCode(137);
+
+        tracker.onEvent(new Event().withId(CONTAINER).withStatus("die").withTime(1));
+
+        assertEquals(tracker.getExitCode(CONTAINER).get(5, TimeUnit.SECONDS), Integer.valueOf(137));
+        assertFalse(tracker.isRunning(CONTAINER));
+        assertEquals(tracker.exitCode(CONTAINER), 137);
+        assertEquals(tracker.waitFor(CONTAINER), 137);
+    }
+
+    @Test
+    public void shouldIgnoreEventsOfNotTrackedContainers() throws Exception {
+        tracker.track(CONTAINER);
+        assertTrue(subscribed.await(5, TimeUnit.SECONDS));
+
+        tracker.onEvent(new Event().withId("other").withStatus("die").withTime(1));
+
+        assertTrue(tracker.isRunning(CONTAINER));
+        verify(dockerConnector, times(1)).inspectContainer(anyString());
+    }
+
+    @Test
+    public void shouldReleaseWaitersWhenContainerIsUntracked() throws Exception {
+        tracker.track(CONTAINER);
+        final Future<Integer> exitCode = tracker.getExitCode(CONTAINER);
+
+        tracker.untrack(CONTAINER);
+
+        assertEquals(exitCode.get(5, TimeUnit.SECONDS), Integer.valueOf(-1));
+        assertEquals(tracker.getCount(), 0);
+    }
+
+    @Test
+    public void shouldCloseSubscriptionWhenStopped() throws Exception {
+        tracker.track(CONTAINER);
+        assertTrue(subscribed.await(5, TimeUnit.SECONDS));
+
+        tracker.stop();
+
+        assertTrue(unsubscribed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldFinishContainerWhichIsDestroyed() throws Exception {
+        tracker.track(CONTAINER);
+        assertTrue(subscribed.await(5, TimeUnit.SECONDS));
+
+        tracker.onEvent(new Event().withId(CONTAINER).withStatus("destroy").withTime(1));
+
+        assertEquals(tracker.exitCode(CONTAINER), -1);
+        assertFalse(tracker.isRunning(CONTAINER));
+    }
+
+    /** Stream of events which blocks until it is closed. */
+    private static class BlockingStream extends InputStream {
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public int read() {
+            Uninterruptibles.awaitUninterruptibly(closed);
+            return -1;
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+
+public class LogMessageDecoderTest {
+    private List<String>      messages;
+    private LogMessageDecoder decoder;
+
+    @BeforeMethod
+    public void setUp() {
+        messages = new ArrayList<>();
+        decoder = new LogMessageDecoder(new MessageProcessor<LogMessage>() {
+            @Override
+            public void process(LogMessage message) {
+                messages.add(message.getType() + ":" + message.getContent());
+            }
+        });
+    }
+
+    @Test
+    public void shouldDecodeFramesToLines() throws Exception {
+        final byte[] stream = concat(frame(1, "hello\nwor"), frame(2, "ld\n"), frame(1, "tail"));
+
+        decoder.decode(stream, 0, stream.length);
+        decoder.finish();
+
+        assertEquals(messages.size(), 3);
+        assertEquals(messages.get(0), "STDOUT:hello");
+        assertEquals(messages.get(1), "STDERR:world");
+        assertEquals(messages.get(2), "STDOUT:tail");
+    }
+
+    @Test
+    public void shouldDecodeStreamWhichIsReceivedByParts() throws Exception {
+        final byte[] stream = concat(frame(1, "first\r"), frame(1, "second\n"));
+
+        for (int i = 0; i < stream.length; i++) {
+            decoder.decode(stream, i, 1);
+        }
+        decoder.finish();
+
+        assertEquals(messages.size(), 2);
+        assertEquals(messages.get(0), "STDOUT:first\r");
+        assertEquals(messages.get(1), "STDOUT:second");
+    }
+
+    @Test
+    public void shouldSplitLongLines() throws Exception {
+        final StringBuilder line = new StringBuilder();
+        for (int i = 0; i < LogMessageDecoder.MAX_LINE_LENGTH + 10; i++) {
+            line.append('a');
+        }
+        final byte[] stream = frame(1, line + "\n");
+
+        decoder.decode(stream, 0, stream.length);
+
+        assertEquals(messages.size(), 2);
+        assertEquals(messages.get(0).length(), "STDOUT:".length() + LogMessageDecoder.MAX_LINE_LENGTH);
+        assertEquals(messages.get(1).length(), "STDOUT:".length() + 10);
+    }
+
+    private static byte[] frame(int type, String payload) {
+        final byte[] bytes = payload.getBytes();
+        final byte[] frame = new byte[LogMessageDecoder.STREAM_HEADER_LENGTH + bytes.length];
+        frame[0] = (byte)type;
+        frame[4] = (byte)(bytes.length >>> 24);
+        frame[5] = (byte)(bytes.length >>> 16);
+        frame[6] = (byte)(bytes.length >>> 8);
+        frame[7] = (byte)bytes.length;
+        System.arraycopy(bytes, 0, frame, LogMessageDecoder.STREAM_HEADER_LENGTH, bytes.length);
+        return frame;
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.write(part, 0, part.length);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests for {@link ChunkedOutputStream}
+ */
+public class ChunkedOutputStreamTest {
+
+    @Test
+    public void shouldWriteChunksOfFixedSizeAndLastChunk() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ChunkedOutputStream output = new ChunkedOutputStream(bytes, 4);
+
+        output.write("abcdef".getBytes(StandardCharsets.US_ASCII));
+        output.write('g');
+        output.finish();
+
+        assertEquals(new String(bytes.toByteArray(), StandardCharsets.US_ASCII), "4\r\nabcd\r\n3\r\nefg\r\n0\r\n\r\n");
+    }
+
+    @Test
+    public void shouldBeReadableByChunkedInputStream() throws IOException {
+        final byte[] content = new byte[100000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte)i;
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ChunkedOutputStream output = new ChunkedOutputStream(bytes);
+        output.write(content, 0, 10);
+        output.write(content, 10, content.length - 10);
+        output.close();
+
+        final ChunkedInputStream input = new ChunkedInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        final ByteArrayOutputStream read = new ByteArrayOutputStream();
+        final byte[] buf = new byte[1000];
+        int n;
+        while ((n = input.read(buf)) != -1) {
+            read.write(buf, 0, n);
+        }
+
+        assertEquals(read.toByteArray(), content);
+    }
+}
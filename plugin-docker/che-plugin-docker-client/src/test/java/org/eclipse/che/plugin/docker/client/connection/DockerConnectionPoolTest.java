@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for {@link DockerConnectionPool} and reusing of unix socket connections.
+ */
+public class DockerConnectionPoolTest {
+
+    @Test
+    public void shouldReuseIdleConnectionOfTheSameDaemon() {
+        final DockerConnectionPool pool = new DockerConnectionPool(2, 60000);
+
+        pool.offer("/var/run/docker.sock", 10);
+
+        assertEquals(pool.take("/var/run/other.sock"), -1);
+        assertEquals(pool.take("/var/run/docker.sock"), 10);
+        assertEquals(pool.take("/var/run/docker.sock"), -1);
+        assertEquals(pool.getMetrics().get("connections_reused"), Long.valueOf(1));
+        assertEquals(pool.getMetrics().get("connections_idle"), Long.valueOf(0));
+    }
+
+    @Test
+    public void shouldReuseConnectionAfterResponseIsReadCompletely() throws IOException {
+        final UnixSocketDockerResponse response = response("HTTP/1.1 200 OK\r\nContent-Length: 2\r\n\r\n{}");
+
+        assertEquals(response.getStatus(), 200);
+        assertTrue(response.isReusable());
+    }
+
+    @Test
+    public void shouldReuseConnectionAfterEmptyResponse() throws IOException {
+        final UnixSocketDockerResponse response = response("HTTP/1.1 204 No Content\r\n\r\n");
+
+        assertEquals(response.getStatus(), 204);
+        assertTrue(response.isReusable());
+    }
+
+    @Test
+    public void shouldNotReuseConnectionIfChunkedResponseIsNotReadCompletely() throws IOException {
+        final UnixSocketDockerResponse response = response("HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n2\r\n{}\r\n");
+
+        assertEquals(response.getStatus(), 200);
+        assertFalse(response.isReusable());
+    }
+
+    @Test
+    public void shouldNotReuseConnectionClosedByDaemon() throws IOException {
+        final UnixSocketDockerResponse response = response("HTTP/1.1 200 OK\r\nConnection: close\r\nContent-Length: 2\r\n\r\n{}");
+
+        assertEquals(response.getStatus(), 200);
+        assertFalse(response.isReusable());
+    }
+
+    private UnixSocketDockerResponse response(String raw) {
+        return new UnixSocketDockerResponse(new ByteArrayInputStream(raw.getBytes(StandardCharsets.US_ASCII)));
+    }
+}
@@ -0,0 +1,334 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.runner;
+
+import org.eclipse.che.api.project.server.ProjectEvent;
+import org.eclipse.che.api.project.server.ProjectEventListener;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Synchronizes changes of project sources into directory of application which is bound to running container.
+ * <p/>
+ * Events are collected while project is changed and applied in batches when there are no new events during {@code debounceMs}, but
+ * not later than {@link #MAX_DELAY} after the first event of batch, so mass changes, e.g. checkout of other branch, are applied at
+ * once. Events of the same path are merged to the single change, changes are applied in order: deletions, creation of folders,
+ * copying of files. Batches are never applied concurrently.
+ * <p/>
+ * Files are read from local directory of project if runner shares filesystem with projects, otherwise they are downloaded. Batch with
+ * many files is downloaded as the single zip archive of the folder which contains all of them. Files are downloaded one by one if
+ * this folder is the root of project, since archive of the whole project is usually much bigger than the changed files.
+ */
+class ApplicationUpdater implements ProjectEventListener {
+    private static final Logger LOG = LoggerFactory.getLogger(ApplicationUpdater.class);
+
+    static final long MAX_DELAY = 1000;
+
+    /** Change of single path, merged from all events of path in batch. */
+    static class Change {
+        /** Path is deleted before it's created. */
+        boolean delete;
+        /** Path is created or updated. */
+        boolean create;
+        boolean folder;
+
+        @Override
+        public String toString() {
+            return (delete ? "D" : "") + (create ? (folder ? "C/" : "C") : "");
+        }
+    }
+
+    private final File                     workDir;
+    private final String                   project;
+    private final String                   baseUrl;
+    private final String                   userToken;
+    private final File                     localProjectDir;
+    private final ExecutorService          executor;
+    private final ScheduledExecutorService scheduler;
+    private final long                     debounceMs;
+    private final int                      bulkThreshold;
+    /** Pending changes sorted by path, so folder goes before its content. */
+    private final TreeMap<String, Change>  pending;
+
+    private long    firstEventTime;
+    private long    lastEventTime;
+    private boolean scheduled;
+    private boolean applying;
+
+    /**
+     * @param workDir
+     *         directory of application
+     * @param project
+     *         path of project
+     * @param projectBaseUrl
+     *         base URL of project API
+     * @param userToken
+     *         token which is used to download files
+     * @param localProjectDir
+     *         local directory of project, {@code null} if runner doesn't share filesystem with projects
+     * @param executor
+     *         executor which applies changes
+     * @param scheduler
+     *         scheduler of batches
+     * @param debounceMs
+     *         time without events after that batch is applied
+     * @param bulkThreshold
+     *         min number of files which are downloaded as archive
+     */
+    ApplicationUpdater(File workDir,
+                       String project,
+                       String projectBaseUrl,
+                       String userToken,
+                       File localProjectDir,
+                       ExecutorService executor,
+                       ScheduledExecutorService scheduler,
+                       long debounceMs,
+                       int bulkThreshold) {
+        this.workDir = workDir;
+        this.project = project;
+        this.baseUrl = projectBaseUrl.substring(0, projectBaseUrl.lastIndexOf(project));
+        this.userToken = userToken;
+        this.localProjectDir = localProjectDir;
+        this.executor = executor;
+        this.scheduler = scheduler;
+        this.debounceMs = debounceMs;
+        this.bulkThreshold = bulkThreshold;
+        this.pending = new TreeMap<>();
+    }
+
+    @Override
+    public void onEvent(ProjectEvent event) {
+        final ProjectEvent.EventType type = event.getType();
+        if (type != ProjectEvent.EventType.CREATED && type != ProjectEvent.EventType.UPDATED && type != ProjectEvent.EventType.DELETED) {
+            return;
+        }
+        synchronized (this) {
+            final long now = System.currentTimeMillis();
+            if (pending.isEmpty()) {
+                firstEventTime = now;
+            }
+            lastEventTime = now;
+            merge(event.getPath(), type, event.isFolder());
+            if (!scheduled) {
+                scheduled = true;
+                schedule(debounceMs);
+            }
+        }
+    }
+
+    /** Merges event to the pending change of path. */
+    synchronized void merge(String path, ProjectEvent.EventType type, boolean folder) {
+        if (type == ProjectEvent.EventType.DELETED) {
+            // content of deleted folder doesn't need to be synchronized
+            final String prefix = path + '/';
+            for (Iterator<String> it = pending.tailMap(prefix).keySet().iterator(); it.hasNext() && it.next().startsWith(prefix); ) {
+                it.remove();
+            }
+        }
+        Change change = pending.get(path);
+        if (change == null) {
+            change = new Change();
+            pending.put(path, change);
+        }
+        if (type == ProjectEvent.EventType.DELETED) {
+            change.delete = true;
+            change.create = false;
+        } else {
+            change.create = true;
+            // EventType 'UPDATED' might be generated only for files but not folder.
+            change.folder = type == ProjectEvent.EventType.CREATED && folder;
+        }
+    }
+
+    /** Returns pending changes and starts new batch. */
+    synchronized Map<String, Change> drain() {
+        final Map<String, Change> batch = new TreeMap<>(pending);
+        pending.clear();
+        return batch;
+    }
+
+    private void schedule(long delay) {
+        try {
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    onTimer();
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // runner is stopped
+            scheduled = false;
+        }
+    }
+
+    private synchronized void onTimer() {
+        final long now = System.currentTimeMillis();
+        final long quiet = now - lastEventTime;
+        if (applying || (quiet < debounceMs && now - firstEventTime < MAX_DELAY)) {
+            schedule(Math.max(debounceMs - quiet, 10));
+            return;
+        }
+        scheduled = false;
+        if (pending.isEmpty()) {
+            return;
+        }
+        applying = true;
+        final Map<String, Change> batch = drain();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    apply(batch);
+                } finally {
+                    synchronized (ApplicationUpdater.this) {
+                        applying = false;
+                        if (!pending.isEmpty() && !scheduled) {
+                            scheduled = true;
+                            schedule(0);
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    /** Applies batch of changes to the directory of application. */
+    void apply(Map<String, Change> batch) {
+        final List<String> files = new ArrayList<>();
+        for (Map.Entry<String, Change> entry : batch.entrySet()) {
+            if (entry.getValue().delete) {
+                final File file = new File(workDir, entry.getKey());
+                if (file.exists() && !IoUtil.deleteRecursive(file)) {
+                    LOG.error(String.format("Unable delete %s", entry.getKey()));
+                }
+            }
+        }
+        for (Map.Entry<String, Change> entry : batch.entrySet()) {
+            final Change change = entry.getValue();
+            if (change.create) {
+                if (change.folder) {
+                    final File folder = new File(workDir, entry.getKey());
+                    if (!folder.isDirectory() && !folder.mkdirs()) {
+                        LOG.error(String.format("Unable create %s", entry.getKey()));
+                    }
+                } else {
+                    files.add(entry.getKey());
+                }
+            }
+        }
+        if (files.isEmpty()) {
+            return;
+        }
+        if (localProjectDir != null) {
+            copyLocalFiles(files);
+            return;
+        }
+        final String folder = files.size() >= bulkThreshold ? getCommonFolder(files) : "";
+        if (!folder.isEmpty()) {
+            try {
+                downloadArchive(folder, files);
+                return;
+            } catch (IOException e) {
+                LOG.warn("Unable download changes of project {} as archive, download them one by one: {}", project, e.getMessage());
+            }
+        }
+        for (String path : files) {
+            downloadFile(path);
+        }
+    }
+
+    private void copyLocalFiles(List<String> files) {
+        for (String path : files) {
+            final File source = new File(localProjectDir, path);
+            if (!source.isFile()) {
+                // deleted after event, deletion is in the next batch
+                continue;
+            }
+            try {
+                Files.copy(source.toPath(), target(path).toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                LOG.error(e.getMessage(), e);
+            }
+        }
+    }
+
+    private void downloadFile(String path) {
+        final String url = String.format("%s/file%s/%s?token=%s", baseUrl, project, path, userToken);
+        try (InputStream in = URI.create(url).toURL().openStream()) {
+            Files.copy(in, target(path).toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOG.error(e.getMessage(), e);
+        }
+    }
+
+    /** Downloads zip archive of {@code folder}, the deepest folder which contains all files, and extracts changed files from it. */
+    private void downloadArchive(String folder, List<String> files) throws IOException {
+        final Set<String> wanted = new HashSet<>(files);
+        final String url = String.format("%s/export%s/%s?token=%s", baseUrl, project, folder, userToken);
+        try (ZipInputStream zip = new ZipInputStream(URI.create(url).toURL().openStream())) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                final String path = folder + '/' + entry.getName();
+                if (!entry.isDirectory() && wanted.remove(path)) {
+                    Files.copy(zip, target(path).toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+        // files which are not in archive are deleted after event, deletion is in the next batch
+    }
+
+    private File target(String path) throws IOException {
+        final File file = new File(workDir, path);
+        final File parent = file.getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException(String.format("Unable create %s", parent));
+        }
+        return file;
+    }
+
+    static String getCommonFolder(List<String> paths) {
+        String common = null;
+        for (String path : paths) {
+            final int slash = path.lastIndexOf('/');
+            final String folder = slash == -1 ? "" : path.substring(0, slash);
+            if (common == null) {
+                common = folder;
+            } else {
+                while (!(folder.equals(common) || folder.startsWith(common + '/')) && !common.isEmpty()) {
+                    final int i = common.lastIndexOf('/');
+                    common = i == -1 ? "" : common.substring(0, i);
+                }
+            }
+        }
+        return common == null ? "" : common;
+    }
+}
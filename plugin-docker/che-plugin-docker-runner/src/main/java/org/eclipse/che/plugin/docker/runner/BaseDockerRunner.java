@@ -10,16 +10,18 @@
  *******************************************************************************/
 package org.eclipse.che.plugin.docker.runner;
 
+import com.google.common.base.Joiner;
 import com.google.common.hash.HashFunction;
 import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.rest.shared.dto.Link;
 import org.eclipse.che.api.core.util.CustomPortService;
 import org.eclipse.che.api.core.util.LineConsumer;
 import org.eclipse.che.api.core.util.ValueHolder;
-import org.eclipse.che.api.project.server.ProjectEvent;
-import org.eclipse.che.api.project.server.ProjectEventListener;
 import org.eclipse.che.api.project.server.ProjectEventService;
 import org.eclipse.che.api.project.shared.dto.ProjectDescriptor;
 import org.eclipse.che.api.runner.RunnerException;
@@ -42,6 +44,7 @@ import org.eclipse.che.commons.lang.Pair;
 import org.eclipse.che.commons.lang.TarUtils;
 import org.eclipse.che.commons.lang.ZipUtils;
 import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.plugin.docker.client.ContainerStateTracker;
 import org.eclipse.che.plugin.docker.client.DockerConnector;
 import org.eclipse.che.plugin.docker.client.DockerException;
 import org.eclipse.che.plugin.docker.client.DockerFileException;
@@ -63,18 +66,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.ConnectException;
-import java.net.URI;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
-import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Matcher;
@@ -86,6 +87,12 @@ public abstract class BaseDockerRunner extends Runner {
 
     public static final String HOST_NAME                     = "runner.docker.host_name";
     public static final String WATCH_UPDATE_OF_PROJECT_TYPES = "runner.docker.watch_update_project_types";
+    public static final String IMAGE_CACHE_MAX_SIZE          = "runner.docker.image_cache.max_size_mb";
+    public static final String WARM_POOL_MAX_SIZE            = "runner.docker.warm_pool.max_size";
+    public static final String WARM_POOL_MAX_IDLE_TIME       = "runner.docker.warm_pool.max_idle_time_s";
+    public static final String UPDATES_DEBOUNCE              = "runner.docker.updates.debounce_ms";
+    public static final String UPDATES_BULK_THRESHOLD        = "runner.docker.updates.bulk_threshold";
+    public static final String UPDATES_LOCAL_WORKSPACE_PATH  = "runner.docker.updates.local_workspace_path";
 
     protected static final String VALID_PORT_RANGE_PATTERN =
             "([0-9]|[1-9][0-9]|[1-9][0-9][0-9]|[1-9][0-9][0-9][0-9]|[1-5][0-9][0-9][0-9][0-9]|6[0-4][0-9][0-9][0-9]|655[0-2][0-9]|6553[0-5])";
@@ -154,6 +161,30 @@ public abstract class BaseDockerRunner extends Runner {
     private final ProjectEventService       projectEventService;
     private final DockerConnector           dockerConnector;
     private final DockerOOMDetector         oomDetector;
+    private final DockerImageCache          imageCache;
+    private final ContainerStateTracker     containerStates;
+
+    /** Max total size of cached base images, zero or negative value disables caching of base images. */
+    private final long   imageCacheMaxSizeMb;
+    /** Max number of started idle containers for all recipes, zero disables pool of containers. */
+    private final int    warmPoolMaxSize;
+    /** Time in seconds after that idle container is removed, also period of time to count demand of recipe. */
+    private final int    warmPoolMaxIdleTime;
+    /** Time without changes of project after that changes are synchronized with application. */
+    private final long   updatesDebounceMs;
+    /** Min number of changed files which are downloaded as single archive. */
+    private final int    updatesBulkThreshold;
+    /**
+     * Local directory of workspace if runner shares filesystem with projects, e.g. /data/workspaces/${workspace}. Changed files of
+     * project are read from this directory instead of downloading them.
+     */
+    private final String updatesLocalWorkspacePath;
+
+    private final ResourceAllocators       allocators;
+    private final java.io.File             warmContainersDirectory;
+    private       WarmContainerPool        warmPool;
+    private       boolean                  warmPoolStopped;
+    private final ScheduledExecutorService updatesScheduler;
 
     /**
      * Allow to hash with sha-1
@@ -169,7 +200,14 @@ public abstract class BaseDockerRunner extends Runner {
                                DockerConnector dockerConnector,
                                EventService eventService,
                                ApplicationLinksGenerator applicationLinksGenerator,
-                               DockerOOMDetector oomDetector) {
+                               DockerOOMDetector oomDetector,
+                               DockerImageCache imageCache,
+                               long imageCacheMaxSizeMb,
+                               int warmPoolMaxSize,
+                               int warmPoolMaxIdleTime,
+                               long updatesDebounceMs,
+                               int updatesBulkThreshold,
+                               String updatesLocalWorkspacePath) {
         super(deployDirectoryRoot, cleanupDelay, allocators, eventService);
         this.hostName = hostName;
         this.watchUpdateProjectTypes = watchUpdateProjectTypes;
@@ -177,7 +215,20 @@ public abstract class BaseDockerRunner extends Runner {
         this.applicationLinksGenerator = applicationLinksGenerator;
         this.dockerConnector = dockerConnector;
         this.oomDetector = oomDetector;
+        this.allocators = allocators;
+        this.imageCache = imageCache;
+        this.imageCacheMaxSizeMb = imageCacheMaxSizeMb;
+        this.warmPoolMaxSize = warmPoolMaxSize;
+        this.warmPoolMaxIdleTime = warmPoolMaxIdleTime;
+        this.updatesDebounceMs = updatesDebounceMs;
+        this.updatesBulkThreshold = updatesBulkThreshold;
+        this.updatesLocalWorkspacePath = updatesLocalWorkspacePath;
+        containerStates = new ContainerStateTracker(dockerConnector);
+        warmContainersDirectory = new java.io.File(deployDirectoryRoot, "warm_containers");
         projectEventService = new ProjectEventService(eventService);
+        updatesScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("DockerRunnerUpdates-%d")
+                                                                                                .setDaemon(true)
+                                                                                                .build());
     }
 
     /**
@@ -223,12 +274,67 @@ public abstract class BaseDockerRunner extends Runner {
             if (dataSpaceUsed != null) {
                 stats.add(dtoFactory.createDto(RunnerMetric.class).withName(RunnerMetric.DISK_SPACE_USED).withValue(dataSpaceUsed));
             }
+            stats.add(dtoFactory.createDto(RunnerMetric.class)
+                                .withName("docker_image_cache_count")
+                                .withValue(String.valueOf(imageCache.getCount())));
+            stats.add(dtoFactory.createDto(RunnerMetric.class)
+                                .withName("docker_image_cache_size")
+                                .withValue(String.valueOf(imageCache.getSize())));
+            stats.add(dtoFactory.createDto(RunnerMetric.class)
+                                .withName("docker_tracked_containers")
+                                .withValue(String.valueOf(containerStates.getCount())));
+            final WarmContainerPool pool = getWarmPool();
+            if (pool != null) {
+                stats.add(dtoFactory.createDto(RunnerMetric.class)
+                                    .withName("docker_warm_containers")
+                                    .withValue(String.valueOf(pool.getIdleCount())));
+            }
+            for (Map.Entry<String, DockerOOMDetector.MemoryStats> entry : oomDetector.getMemoryStats().entrySet()) {
+                // short id of container, the same as docker CLI shows
+                final String container = entry.getKey().length() > 12 ? entry.getKey().substring(0, 12) : entry.getKey();
+                final DockerOOMDetector.MemoryStats memory = entry.getValue();
+                stats.add(dtoFactory.createDto(RunnerMetric.class)
+                                    .withName("docker_memory_usage_" + container)
+                                    .withValue(String.valueOf(memory.getUsage())));
+                stats.add(dtoFactory.createDto(RunnerMetric.class)
+                                    .withName("docker_memory_limit_" + container)
+                                    .withValue(String.valueOf(memory.getLimit())));
+                stats.add(dtoFactory.createDto(RunnerMetric.class)
+                                    .withName("docker_memory_failcnt_" + container)
+                                    .withValue(String.valueOf(memory.getFailcnt())));
+            }
+            for (Map.Entry<String, Long> metric : dockerConnector.getConnectionPoolMetrics().entrySet()) {
+                stats.add(dtoFactory.createDto(RunnerMetric.class)
+                                    .withName("docker_" + metric.getKey())
+                                    .withValue(String.valueOf(metric.getValue())));
+            }
         } catch (IOException e) {
             throw new RunnerException(e.getMessage(), e);
         }
         return stats;
     }
 
+    @Override
+    public synchronized void stop() {
+        try {
+            // idle containers hold memory, ports and bind directories of runner
+            warmPoolStopped = true;
+            if (warmPool != null) {
+                warmPool.stop();
+                warmPool = null;
+            }
+        } finally {
+            try {
+                super.stop();
+            } finally {
+                // applications are stopped, so subscription to docker events and updates of them aren't needed anymore
+                containerStates.stop();
+                updatesScheduler.shutdownNow();
+            }
+        }
+        IoUtil.deleteRecursive(warmContainersDirectory);
+    }
+
     @Override
     protected ApplicationProcess newApplicationProcess(DeploymentSources toDeploy, RunnerConfiguration runnerCfg) throws RunnerException {
         try {
@@ -284,8 +390,9 @@ public abstract class BaseDockerRunner extends Runner {
                 files.add(sources);
             }
             final java.io.File dockerfile = new java.io.File(workDir, "Dockerfile");
-            dockerfileModel.writeDockerfile(dockerfile);
-            files.add(dockerfile);
+            final StringBuilder dockerfileContent = new StringBuilder();
+            dockerfileModel.writeDockerfile(dockerfileContent);
+            Files.write(dockerfile.toPath(), dockerfileContent.toString().getBytes());
             dockerRunnerCfg.setRecipeFile(dockerfile);
 
             getEventService().publish(RunnerEvent.preparationStartedEvent(request.getId(), request.getWorkspace(), request.getProject()));
@@ -298,12 +405,18 @@ public abstract class BaseDockerRunner extends Runner {
             final long startTime = System.currentTimeMillis();
             logsPublisher.writeLine(String.format("[INFO] Starting Runner @ %1$ta %1$tb %1$td %1$tT %1$tZ %1$tY", startTime));
             final String dockerRepoName = String.format("%s/%s", getDockerNamespace(request), getDockerRepositoryName(request));
-            final ImageIdentifier imageIdentifier =
-                    createImage(dockerRepoName, logsPublisher, authConfigs, files.toArray(new java.io.File[files.size()]));
+            final ImageIdentifier imageIdentifier = createImage(dockerRepoName, logsPublisher, authConfigs, dockerfileContent.toString(),
+                                                                workDir, files);
             final long initImageTime = System.currentTimeMillis() - startTime;
 
             final ImageInfo imageDetails = dockerConnector.inspectImage(imageIdentifier.id);
-            final CodenvyPortMappings portMappings = createPortMapping(imageDetails, mapper, request.isInDebugMode());
+            final String applicationBindDir = getApplicationDirectoryBindTarget(imageDetails, mapper);
+            final WarmContainerPool.WarmContainer warmContainer =
+                    claimWarmContainer(imageIdentifier, imageDetails, mapper, applicationBindDir, runnerCfg.getMemory(),
+                                       dockerRunnerCfg);
+            final CodenvyPortMappings portMappings = warmContainer != null
+                                                     ? warmContainer.portMappings
+                                                     : createPortMapping(imageDetails, mapper, request.isInDebugMode());
             addApplicationLinks(portMappings, dockerRunnerCfg);
             addDebugConfiguration(portMappings, dockerRunnerCfg);
             final HostConfig hostConfig = new HostConfig();
@@ -312,7 +425,6 @@ public abstract class BaseDockerRunner extends Runner {
             addPortBinding(portMappings.getExposedPortMapping(), hostConfig);
             addPortMapping(portMappings.getExposedPortMapping(), dockerRunnerCfg);
 
-            final String applicationBindDir = getApplicationDirectoryBindTarget(imageDetails, mapper);
             final ValueHolder<ApplicationUpdater> updaterHolder = new ValueHolder<>();
             final ProjectDescriptor projectDescriptor = request.getProjectDescriptor();
             if (applicationBindDir != null) {
@@ -323,22 +435,23 @@ public abstract class BaseDockerRunner extends Runner {
                         unpackedApplication = unpackArchive(application, workDir, applicationFilename + "_unpack");
                     }
                 }
-
-                // On Windows binding directory needs to follow URL convention with first / and no colon :
-                // instead of C:\\Users\\user it needs to be /c/Users/user (note as well the lowercase c at first)
-                // Details on https://github.com/boot2docker/boot2docker/blob/master/README.md#virtualbox-guest-additions
-                String bindingDir;
-                if (org.eclipse.che.api.core.util.SystemInfo.isWindows()) {
-                    bindingDir =  unpackedApplication.getAbsolutePath().replace(":", "").replace('\\', '/');
-                    bindingDir = "/" + Character.toLowerCase(bindingDir.charAt(0)) + bindingDir.substring(1);
-                } else {
-                    bindingDir = unpackedApplication.getAbsolutePath();
+                if (warmContainer != null) {
+                    // hot deploy into directory which is already bound to started container
+                    IoUtil.copy(unpackedApplication, warmContainer.bindDirectory, null);
+                    unpackedApplication = warmContainer.bindDirectory;
                 }
 
-                hostConfig.setBinds(new String[]{String.format("%s:%s", bindingDir, applicationBindDir)});
+                hostConfig.setBinds(new String[]{String.format("%s:%s", getBindingPath(unpackedApplication), applicationBindDir)});
                 if (watchUpdateProjectTypes.contains(projectDescriptor.getType())) {
-                    updaterHolder.set(new ApplicationUpdater(unpackedApplication, projectDescriptor.getPath(),
-                                                             projectDescriptor.getBaseUrl(), request.getUserToken(), getExecutor()));
+                    updaterHolder.set(new ApplicationUpdater(unpackedApplication,
+                                                             projectDescriptor.getPath(),
+                                                             projectDescriptor.getBaseUrl(),
+                                                             request.getUserToken(),
+                                                             getLocalProjectDirectory(request.getWorkspace(), projectDescriptor.getPath()),
+                                                             getExecutor(),
+                                                             updatesScheduler,
+                                                             updatesDebounceMs,
+                                                             updatesBulkThreshold));
                 }
             }
             final ContainerConfig containerConfig = new ContainerConfig().withImage(imageIdentifier.id)
@@ -380,6 +493,7 @@ public abstract class BaseDockerRunner extends Runner {
                                                            containerConfig,
                                                            logsPublisher,
                                                            imageIdentifier,
+                                                           warmContainer != null ? warmContainer.id : null,
                                                            initImageTime,
                                                            callback);
             registerDisposer(docker, new Disposer() {
@@ -391,8 +505,10 @@ public abstract class BaseDockerRunner extends Runner {
                         }
                         dockerConnector.removeContainer(docker.container, false, true);
                         LOG.debug("Remove docker container: {}", docker.container);
-                        dockerConnector.removeImage(docker.imageIdentifier.fullName, false);
-                        LOG.debug("Remove docker image, name: {}, id: {}", docker.imageIdentifier.fullName, docker.imageIdentifier.id);
+                        if (!docker.imageIdentifier.isBaseImage()) {
+                            dockerConnector.removeImage(docker.imageIdentifier.fullName, false);
+                            LOG.debug("Remove docker image, name: {}, id: {}", docker.imageIdentifier.fullName, docker.imageIdentifier.id);
+                        }
                     } catch (DockerException e) {
                         final int status = e.getStatus();
                         if (status == 409) {
@@ -402,6 +518,17 @@ public abstract class BaseDockerRunner extends Runner {
                         }
                     } catch (Exception e) {
                         LOG.error("Docker problem: " + e.getMessage(), e);
+                    } finally {
+                        if (docker.container != null) {
+                            containerStates.untrack(docker.container);
+                        }
+                        if (warmContainer != null) {
+                            IoUtil.deleteRecursive(warmContainer.bindDirectory);
+                        }
+                        if (docker.imageIdentifier.baseImage != null) {
+                            imageCache.release(docker.imageIdentifier.baseImage);
+                            imageCache.trim(imageCacheMaxSizeMb * 1024 * 1024);
+                        }
                     }
                 }
             });
@@ -583,6 +710,54 @@ public abstract class BaseDockerRunner extends Runner {
         return sb.toString();
     }
 
+    private ImageIdentifier createImage(String dockerRepoName,
+                                        ApplicationLogsPublisher logsPublisher,
+                                        AuthConfigs authConfigs,
+                                        String dockerfileContent,
+                                        java.io.File workDir,
+                                        List<java.io.File> files) throws IOException, RunnerException {
+        final String[] parts = imageCacheMaxSizeMb > 0 ? DockerImageCache.splitDockerfile(dockerfileContent) : null;
+        if (parts == null) {
+            files.add(new java.io.File(workDir, "Dockerfile"));
+            return createImage(dockerRepoName, logsPublisher, authConfigs, files.toArray(new java.io.File[files.size()]));
+        }
+        final long startTime = System.currentTimeMillis();
+        final DockerImageCache.CachedImage baseImage;
+        try {
+            baseImage = imageCache.acquire(parts[0], workDir, new CreateImageLogger(logsPublisher), authConfigs);
+        } catch (InterruptedException e) {
+            throw new RunnerException("Interrupted while waiting for creation of docker image. ");
+        } catch (IOException e) {
+            throw new RunnerException(e.getLocalizedMessage());
+        }
+        LOG.debug("Get base image {}, id {} in {} ms", baseImage.getFullName(), baseImage.getId(), System.currentTimeMillis() - startTime);
+        boolean created = false;
+        try {
+            imageCache.trim(imageCacheMaxSizeMb * 1024 * 1024);
+            final ImageIdentifier imageIdentifier;
+            if (DockerImageCache.hasInstructions(parts[1])) {
+                // only application layer is built for every run
+                // keep original Dockerfile as recipe of run
+                final java.io.File contextDir = Files.createTempDirectory(workDir.toPath(), "app_image").toFile();
+                final java.io.File dockerfile = new java.io.File(contextDir, "Dockerfile");
+                Files.write(dockerfile.toPath(), ("FROM " + baseImage.getFullName() + '\n' + parts[1]).getBytes());
+                files.add(dockerfile);
+                final ImageIdentifier applicationImage =
+                        createImage(dockerRepoName, logsPublisher, authConfigs, files.toArray(new java.io.File[files.size()]));
+                imageIdentifier = new ImageIdentifier(applicationImage.fullName, applicationImage.id, baseImage, false);
+            } else {
+                // recipe doesn't add files of application, e.g. they are bound as volume, so base image is used as is
+                imageIdentifier = new ImageIdentifier(baseImage.getFullName(), baseImage.getId(), baseImage, true);
+            }
+            created = true;
+            return imageIdentifier;
+        } finally {
+            if (!created) {
+                imageCache.release(baseImage);
+            }
+        }
+    }
+
     private ImageIdentifier createImage(String dockerRepoName, final ApplicationLogsPublisher logsPublisher, AuthConfigs authConfigs, java.io.File... files)
             throws IOException, RunnerException {
         final String fullImageName = dockerRepoName + ':' + NameGenerator.generate(null, 8);
@@ -692,6 +867,141 @@ public abstract class BaseDockerRunner extends Runner {
 
 
 
+    /**
+     * Claims started container from the pool if application is deployed to the bound directory of cached base image,
+     * so application may be deployed into started container. Returns {@code null} if there is no suitable idle container.
+     */
+    private WarmContainerPool.WarmContainer claimWarmContainer(ImageIdentifier imageIdentifier,
+                                                               final ImageInfo imageDetails,
+                                                               final Mapper mapper,
+                                                               final String applicationBindDir,
+                                                               final int memory,
+                                                               final DockerRunnerConfiguration dockerRunnerCfg) throws IOException {
+        final WarmContainerPool pool = getWarmPool();
+        // image with application layer or debug mode need container which is created for the run
+        if (pool == null || !imageIdentifier.isBaseImage() || applicationBindDir == null || dockerRunnerCfg.getRequest().isInDebugMode()) {
+            return null;
+        }
+        // environment of container can't be changed after start, so container is reused only by runs with the same environment,
+        // e.g. by runs of the same project and user. Ports are different for each container and aren't part of the key.
+        final List<String> runEnv = new LinkedList<>();
+        setupEnvironmentVariables(runEnv, dockerRunnerCfg, new CodenvyPortMappings());
+        final String envHash = sha1HashFunction.hashString(Joiner.on('\n').join(runEnv), Charset.defaultCharset()).toString();
+        final String imageId = imageIdentifier.id;
+        final String key = String.format("%s:%d:%s:%d:%d:%s", imageId, memory, applicationBindDir, mapper.getWebPort(),
+                                         mapper.getShellPort(), envHash);
+        final WarmContainerPool.WarmContainer container = pool.claim(key, memory, new WarmContainerPool.ContainerFactory() {
+            @Override
+            public WarmContainerPool.WarmContainer create() throws IOException {
+                return createWarmContainer(imageId, imageDetails, mapper, applicationBindDir, memory, dockerRunnerCfg);
+            }
+
+            @Override
+            public void destroy(WarmContainerPool.WarmContainer container) {
+                destroyWarmContainer(container);
+            }
+        });
+        if (container != null) {
+            try {
+                if (dockerConnector.inspectContainer(container.id).getState().isRunning()) {
+                    LOG.debug("Use warm container {}", container.id);
+                    return container;
+                }
+            } catch (IOException e) {
+                LOG.warn(e.getMessage(), e);
+            }
+            destroyWarmContainer(container);
+        }
+        return null;
+    }
+
+    /** Returns local directory of project or {@code null} if runner doesn't share filesystem with projects. */
+    private java.io.File getLocalProjectDirectory(String workspace, String project) {
+        if (updatesLocalWorkspacePath == null) {
+            return null;
+        }
+        final java.io.File projectDir = new java.io.File(updatesLocalWorkspacePath.replace("${workspace}", workspace), project);
+        return projectDir.isDirectory() ? projectDir : null;
+    }
+
+    private synchronized WarmContainerPool getWarmPool() {
+        if (warmPool == null && warmPoolMaxSize > 0 && !warmPoolStopped) {
+            warmPool = new WarmContainerPool(allocators, warmPoolMaxSize, TimeUnit.SECONDS.toMillis(warmPoolMaxIdleTime));
+        }
+        return warmPool;
+    }
+
+    private WarmContainerPool.WarmContainer createWarmContainer(String imageId,
+                                                                ImageInfo imageDetails,
+                                                                Mapper mapper,
+                                                                String applicationBindDir,
+                                                                int memory,
+                                                                DockerRunnerConfiguration dockerRunnerCfg) throws IOException {
+        if (!(warmContainersDirectory.isDirectory() || warmContainersDirectory.mkdirs())) {
+            throw new IOException(String.format("Unable create directory %s", warmContainersDirectory));
+        }
+        final java.io.File bindDirectory = Files.createTempDirectory(warmContainersDirectory.toPath(), "warm").toFile();
+        final CodenvyPortMappings portMappings = createPortMapping(imageDetails, mapper, false);
+        boolean started = false;
+        try {
+            final HostConfig hostConfig = new HostConfig();
+            addPortBinding(portMappings.getExposedPortMapping(), hostConfig);
+            hostConfig.setBinds(new String[]{String.format("%s:%s", getBindingPath(bindDirectory), applicationBindDir)});
+            // the same environment as for container which is created for the run, see key of pool
+            final List<String> env = new LinkedList<>();
+            setupEnvironmentVariables(env, dockerRunnerCfg, portMappings);
+            final ContainerConfig containerConfig = new ContainerConfig().withImage(imageId)
+                                                                         .withMemory((long)memory * 1024 * 1024)
+                                                                         .withCpuShares(2)
+                                                                         .withHostConfig(hostConfig)
+                                                                         .withEnv(env.toArray(new String[env.size()]));
+            final ContainerCreated response = dockerConnector.createContainer(containerConfig, null);
+            try {
+                dockerConnector.startContainer(response.getId(), null);
+            } catch (IOException e) {
+                dockerConnector.removeContainer(response.getId(), true, true);
+                throw e;
+            }
+            started = true;
+            LOG.debug("Create warm container {} of image {}", response.getId(), imageId);
+            return new WarmContainerPool.WarmContainer(response.getId(), bindDirectory, portMappings);
+        } finally {
+            if (!started) {
+                for (Pair<String, Integer> p : portMappings.getExposedPortMapping()) {
+                    portService.release(p.second);
+                }
+                IoUtil.deleteRecursive(bindDirectory);
+            }
+        }
+    }
+
+    private void destroyWarmContainer(WarmContainerPool.WarmContainer container) {
+        try {
+            dockerConnector.removeContainer(container.id, true, true);
+            LOG.debug("Remove warm container {}", container.id);
+        } catch (IOException e) {
+            LOG.warn(e.getMessage(), e);
+        } finally {
+            for (Pair<String, Integer> p : container.portMappings.getExposedPortMapping()) {
+                portService.release(p.second);
+            }
+            IoUtil.deleteRecursive(container.bindDirectory);
+        }
+    }
+
+    /**
+     * On Windows binding directory needs to follow URL convention with first / and no colon :
+     * instead of C:\\Users\\user it needs to be /c/Users/user (note as well the lowercase c at first)
+     * Details on https://github.com/boot2docker/boot2docker/blob/master/README.md#virtualbox-guest-additions
+     */
+    private String getBindingPath(java.io.File directory) {
+        if (org.eclipse.che.api.core.util.SystemInfo.isWindows()) {
+            final String bindingDir = directory.getAbsolutePath().replace(":", "").replace('\\', '/');
+            return "/" + Character.toLowerCase(bindingDir.charAt(0)) + bindingDir.substring(1);
+        }
+        return directory.getAbsolutePath();
+    }
+
     private String getApplicationDirectoryBindTarget(ImageInfo imageDetails, Mapper mapper) {
         final String[] env = imageDetails.getConfig().getEnv();
         if (env != null && env.length > 0) {
@@ -705,60 +1015,6 @@ public abstract class BaseDockerRunner extends Runner {
         return mapper.getBindApplicationDir();
     }
 
-    private static class ApplicationUpdater implements ProjectEventListener {
-        final java.io.File    workDir;
-        final String          project;
-        final String          baseUrl;
-        final ExecutorService executor;
-        final String          userToken;
-
-        ApplicationUpdater(java.io.File workDir, String project, String projectBaseUrl, String userToken, ExecutorService executor) {
-            this.workDir = workDir;
-            this.project = project;
-            this.baseUrl = projectBaseUrl.substring(0, projectBaseUrl.lastIndexOf(project));
-            this.userToken = userToken;
-            this.executor = executor;
-        }
-
-        @Override
-        public void onEvent(final ProjectEvent event) {
-            switch (event.getType()) {
-                case UPDATED:
-                case CREATED:
-                    executor.execute(new Runnable() {
-                        @Override
-                        public void run() {
-                            final java.io.File file = new java.io.File(workDir, event.getPath());
-                            // EventType 'UPDATED' might be generated only for files but not folder.
-                            if (event.getType() == ProjectEvent.EventType.CREATED && event.isFolder()) {
-                                if (!file.mkdirs()) {
-                                    LOG.error(String.format("Unable create %s", event.getPath()));
-                                }
-                            } else {
-                                final String url = String.format("%s/file%s/%s?token=%s", baseUrl, project, event.getPath(), userToken);
-                                try (InputStream in = URI.create(url).toURL().openStream()) {
-                                    Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
-                                } catch (IOException e) {
-                                    LOG.error(e.getMessage(), e);
-                                }
-                            }
-                        }
-                    });
-                    break;
-                case DELETED:
-                    executor.execute(new Runnable() {
-                        @Override
-                        public void run() {
-                            if (!IoUtil.deleteRecursive(new java.io.File(workDir, event.getPath()))) {
-                                LOG.error(String.format("Unable delete %s", event.getPath()));
-                            }
-                        }
-                    });
-                    break;
-            }
-        }
-    }
-
     protected static class CodenvyPortMappings {
         private Pair<String, Integer> webPortMapping;
         private Pair<String, Integer> debugPortMapping;
@@ -857,12 +1113,26 @@ public abstract class BaseDockerRunner extends Runner {
 
     private static class ImageIdentifier {
         // Image name that contains repository name and tag in format: repoName + ":" + tag
-        final String fullName;
-        final String id;
+        final String                       fullName;
+        final String                       id;
+        // Cached base image of this image, null if image is built without cache
+        final DockerImageCache.CachedImage baseImage;
+        final boolean                      isBaseImage;
 
         ImageIdentifier(String fullName, String id) {
+            this(fullName, id, null, false);
+        }
+
+        ImageIdentifier(String fullName, String id, DockerImageCache.CachedImage baseImage, boolean isBaseImage) {
             this.fullName = fullName;
             this.id = id;
+            this.baseImage = baseImage;
+            this.isBaseImage = isBaseImage;
+        }
+
+        /** Checks whether image is cached base image which must not be removed after run. */
+        boolean isBaseImage() {
+            return isBaseImage;
         }
     }
 
@@ -871,6 +1141,8 @@ public abstract class BaseDockerRunner extends Runner {
         final ContainerConfig          containerCfg;
         final ApplicationLogsPublisher logsPublisher;
         final ImageIdentifier          imageIdentifier;
+        // Started container claimed from pool, null if container must be created
+        final String                   warmContainer;
         final Callback                 callback;
         final long                     imageInitDuration;
         final AtomicBoolean            started;
@@ -881,12 +1153,14 @@ public abstract class BaseDockerRunner extends Runner {
                       ContainerConfig containerCfg,
                       ApplicationLogsPublisher logsPublisher,
                       ImageIdentifier imageIdentifier,
+                      String warmContainer,
                       long imageInitDuration,
                       Callback callback) {
             this.request = request;
             this.containerCfg = containerCfg;
             this.logsPublisher = logsPublisher;
             this.imageIdentifier = imageIdentifier;
+            this.warmContainer = warmContainer;
             this.callback = callback;
             this.imageInitDuration = imageInitDuration;
             started = new AtomicBoolean(false);
@@ -896,24 +1170,18 @@ public abstract class BaseDockerRunner extends Runner {
         public void start() throws RunnerException {
             if (started.compareAndSet(false, true)) {
                 try {
-                    final ContainerCreated response = dockerConnector.createContainer(containerCfg, null);
-                    dockerConnector.startContainer(response.getId(), null);
-                    oomDetector.startDetection(response.getId(), new LogMessagePrinter(logsPublisher));
-                    container = response.getId();
+                    if (warmContainer != null) {
+                        container = warmContainer;
+                    } else {
+                        final ContainerCreated response = dockerConnector.createContainer(containerCfg, null);
+                        dockerConnector.startContainer(response.getId(), null);
+                        container = response.getId();
+                    }
+                    containerStates.track(container);
+                    oomDetector.startDetection(container, new LogMessagePrinter(logsPublisher));
                     LOG.info("EVENT#configure-docker-started# WS#{}# USER#{}# ID#{}#", request.getWorkspace(), request.getUserId(),
                              container);
-                    getExecutor().execute(new Runnable() {
-                        @Override
-                        public void run() {
-                            try {
-                                LOG.debug("Attach to container {}", container);
-                                dockerConnector.attachContainer(container, new LogMessagePrinter(logsPublisher), true);
-                                LOG.debug("Detach from container {}", container);
-                            } catch (Exception e) {
-                                LOG.error(e.getMessage(), e);
-                            }
-                        }
-                    });
+                    attach();
                     logger = new DockerLogger(dockerConnector, container);
                     if (callback != null) {
                         callback.started();
@@ -929,6 +1197,27 @@ public abstract class BaseDockerRunner extends Runner {
             }
         }
 
+        /** Streams logs of container to publisher, logs of all containers are read by few shared threads. */
+        private void attach() {
+            LOG.debug("Attach to container {}", container);
+            try {
+                Futures.addCallback(dockerConnector.attachContainerAsync(container, new LogMessagePrinter(logsPublisher)),
+                                    new FutureCallback<Void>() {
+                                        @Override
+                                        public void onSuccess(Void result) {
+                                            LOG.debug("Detach from container {}", container);
+                                        }
+
+                                        @Override
+                                        public void onFailure(Throwable t) {
+                                            LOG.error(t.getMessage(), t);
+                                        }
+                                    });
+            } catch (IOException e) {
+                LOG.error(e.getMessage(), e);
+            }
+        }
+
         @Override
         public void stop() throws RunnerException {
             if (started.get()) {
@@ -949,9 +1238,12 @@ public abstract class BaseDockerRunner extends Runner {
         public int waitFor() throws RunnerException {
             if (started.get()) {
                 try {
-                    return dockerConnector.waitContainer(container);
+                    return containerStates.waitFor(container);
                 } catch (IOException e) {
                     throw new RunnerException(e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RunnerException("Interrupted while waiting for docker container. ");
                 } finally {
                     if (callback != null) {
                         callback.stopped();
@@ -965,7 +1257,7 @@ public abstract class BaseDockerRunner extends Runner {
         public int exitCode() throws RunnerException {
             if (started.get()) {
                 try {
-                    return dockerConnector.inspectContainer(container).getState().getExitCode();
+                    return containerStates.exitCode(container);
                 } catch (IOException e) {
                     throw new RunnerException(e);
                 }
@@ -977,7 +1269,7 @@ public abstract class BaseDockerRunner extends Runner {
         public boolean isRunning() throws RunnerException {
             if (started.get()) {
                 try {
-                    return dockerConnector.inspectContainer(container).getState().isRunning();
+                    return containerStates.isRunning(container);
                 } catch (ConnectException e) {
                     // If connection to docker daemon is lost.
                     LOG.error(e.getMessage(), e);
@@ -0,0 +1,408 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.runner;
+
+import com.google.common.hash.Hashing;
+
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.plugin.docker.client.DockerConnector;
+import org.eclipse.che.plugin.docker.client.DockerException;
+import org.eclipse.che.plugin.docker.client.ProgressMonitor;
+import org.eclipse.che.plugin.docker.client.dto.AuthConfigs;
+import org.eclipse.che.plugin.docker.client.json.Image;
+import org.eclipse.che.plugin.docker.client.json.ImageInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local cache of base images of docker runner.
+ * <p/>
+ * Dockerfile of application is split to the base part, which doesn't depend on files of application, and to the application part
+ * which starts with the first ADD or COPY instruction. Base part is built once and tagged with hash of its content, so next runs with
+ * the same recipe and the same parameters build only the application part on top of the cached base image.
+ * <p/>
+ * Base images are reference counted while they are used by runs. Unused base images are removed in least recently used order
+ * when total size of cached images exceeds limit, see {@link #trim(long)}. Tags of base images are shared by all docker runners
+ * of the node, so single instance of cache is used by all of them. Base images which are built by previous instance of runner are
+ * loaded on start, so they are counted in total size and may be removed as well.
+ */
+@Singleton
+public class DockerImageCache {
+    private static final Logger LOG = LoggerFactory.getLogger(DockerImageCache.class);
+
+    static final String REPOSITORY = "che_runner_base";
+
+    private final DockerConnector    dockerConnector;
+    /** Access ordered, so iteration starts from least recently used base image. */
+    private final Map<String, Entry> entries;
+
+    @Inject
+    public DockerImageCache(DockerConnector dockerConnector) {
+        this.dockerConnector = dockerConnector;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Loads base images which are left by previous instance of runner. Own size of image isn't known without its Dockerfile, size of
+     * its top layer is used instead. The oldest images are the least recently used ones.
+     */
+    @PostConstruct
+    public void loadCachedImages() {
+        final Image[] images;
+        try {
+            images = dockerConnector.listImages();
+        } catch (IOException e) {
+            LOG.error(String.format("Unable load cached base images: %s", e.getMessage()), e);
+            return;
+        }
+        final List<Image> cached = new ArrayList<>();
+        for (Image image : images) {
+            if (getCachedTag(image) != null) {
+                cached.add(image);
+            }
+        }
+        Collections.sort(cached, new Comparator<Image>() {
+            @Override
+            public int compare(Image a, Image b) {
+                return Long.compare(a.getCreated(), b.getCreated());
+            }
+        });
+        synchronized (this) {
+            for (Image image : cached) {
+                final String key = getCachedTag(image);
+                if (!entries.containsKey(key)) {
+                    final Entry entry = new Entry(key, REPOSITORY + ':' + key);
+                    entry.id = image.getId();
+                    entry.size = image.getSize();
+                    entries.put(key, entry);
+                }
+            }
+        }
+        LOG.debug("Load {} cached base images", cached.size());
+    }
+
+    /** Returns tag of image if it's base image of cache or {@code null} otherwise. */
+    private static String getCachedTag(Image image) {
+        if (REPOSITORY.equals(image.getRepository()) && image.getTag() != null) {
+            return image.getTag();
+        }
+        if (image.getRepoTags() != null) {
+            final String prefix = REPOSITORY + ':';
+            for (String repoTag : image.getRepoTags()) {
+                if (repoTag.startsWith(prefix)) {
+                    return repoTag.substring(prefix.length());
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Splits Dockerfile to the base and application parts.
+     *
+     * @return pair of base and application parts or {@code null} if Dockerfile doesn't have FROM instruction before
+     * application part, in this case image can't be built on top of base image
+     */
+    static String[] splitDockerfile(String dockerfile) {
+        final String[] lines = dockerfile.split("\n", -1);
+        boolean continuation = false;
+        boolean hasFrom = false;
+        int split = lines.length;
+        for (int i = 0; i < lines.length; i++) {
+            final String line = lines[i].trim();
+            final boolean instruction = !continuation && !line.isEmpty() && !line.startsWith("#");
+            continuation = line.endsWith("\\");
+            if (!instruction) {
+                continue;
+            }
+            final String keyword = getKeyword(line);
+            if ("FROM".equals(keyword)) {
+                hasFrom = true;
+            } else if ("ADD".equals(keyword) || "COPY".equals(keyword)) {
+                split = i;
+                break;
+            }
+        }
+        if (!hasFrom) {
+            return null;
+        }
+        final StringBuilder base = new StringBuilder();
+        final StringBuilder application = new StringBuilder();
+        for (int i = 0; i < lines.length; i++) {
+            final StringBuilder target = i < split ? base : application;
+            target.append(lines[i]);
+            if (i < lines.length - 1) {
+                target.append('\n');
+            }
+        }
+        return new String[]{base.toString(), application.toString()};
+    }
+
+    /** Checks whether part of Dockerfile has any instruction. */
+    static boolean hasInstructions(String dockerfile) {
+        for (String line : dockerfile.split("\n")) {
+            final String trimmed = line.trim();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets base image built from the specified base part of Dockerfile, base image is built if it isn't cached yet.
+     * Image must be released with {@link #release(CachedImage)} when it isn't used anymore.
+     *
+     * @param baseDockerfile
+     *         base part of Dockerfile, see {@link #splitDockerfile(String)}
+     * @param workDir
+     *         directory where Dockerfile of base image may be created
+     * @param progressMonitor
+     *         monitor of image creation
+     * @param authConfigs
+     *         authentication configuration for private registries, may be {@code null}
+     */
+    public CachedImage acquire(String baseDockerfile, File workDir, ProgressMonitor progressMonitor, AuthConfigs authConfigs)
+            throws IOException, InterruptedException {
+        final String key = Hashing.sha1().hashString(baseDockerfile, StandardCharsets.UTF_8).toString();
+        final Entry entry;
+        synchronized (this) {
+            Entry existed = entries.get(key);
+            if (existed == null) {
+                existed = new Entry(key, REPOSITORY + ':' + key);
+                entries.put(key, existed);
+            }
+            existed.users++;
+            entry = existed;
+        }
+        boolean acquired = false;
+        try {
+            // several runs of the same recipe wait for the single build, also waits while image is removed by trim
+            synchronized (entry) {
+                if (entry.id == null) {
+                    final ImageInfo existed = inspect(entry.fullName);
+                    if (existed != null) {
+                        // built by previous instance of runner
+                        entry.id = existed.getId();
+                    } else {
+                        entry.id = build(entry.fullName, baseDockerfile, workDir, progressMonitor, authConfigs);
+                    }
+                    entry.size = getOwnSize(entry.id, baseDockerfile);
+                    LOG.debug("Cache base image {}, id {}, size {}", entry.fullName, entry.id, entry.size);
+                }
+            }
+            acquired = true;
+            return new CachedImage(key, entry.fullName, entry.id);
+        } finally {
+            if (!acquired) {
+                synchronized (this) {
+                    entry.users--;
+                    if (entry.id == null && entry.users == 0) {
+                        entries.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Releases base image acquired with {@link #acquire(String, File, ProgressMonitor, AuthConfigs)}. */
+    public synchronized void release(CachedImage image) {
+        final Entry entry = entries.get(image.key);
+        if (entry != null && entry.users > 0) {
+            entry.users--;
+        }
+    }
+
+    /**
+     * Removes unused base images in least recently used order until total size of cached images is not greater than
+     * {@code maxSize}. Images which are used by runs are never removed. Image is removed while lock of its entry is held, so
+     * concurrent {@link #acquire(String, File, ProgressMonitor, AuthConfigs)} of the same image waits and builds image again.
+     *
+     * @param maxSize
+     *         max total size of cached images in bytes
+     */
+    public void trim(long maxSize) {
+        final List<Entry> toRemove = new ArrayList<>();
+        synchronized (this) {
+            long size = getSize();
+            for (Iterator<Entry> it = entries.values().iterator(); it.hasNext() && size > maxSize; ) {
+                final Entry entry = it.next();
+                if (entry.users == 0 && entry.id != null && !entry.removing) {
+                    entry.removing = true;
+                    toRemove.add(entry);
+                    size -= entry.size;
+                }
+            }
+        }
+        for (Entry entry : toRemove) {
+            synchronized (entry) {
+                try {
+                    remove(entry);
+                } finally {
+                    synchronized (this) {
+                        entry.removing = false;
+                        if (entry.id == null && entry.users == 0 && entries.get(entry.key) == entry) {
+                            entries.remove(entry.key);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /** Removes image of entry unless it's acquired after it was chosen for removing. Caller must hold lock of entry. */
+    private void remove(Entry entry) {
+        synchronized (this) {
+            if (entry.users > 0) {
+                return;
+            }
+        }
+        try {
+            dockerConnector.removeImage(entry.fullName, false);
+            LOG.debug("Remove cached base image {}, id {}", entry.fullName, entry.id);
+            entry.id = null;
+            entry.size = 0;
+        } catch (DockerException e) {
+            if (e.getStatus() == 404) {
+                entry.id = null;
+                entry.size = 0;
+            } else {
+                // 409 - image is still used by container which isn't removed yet, try next time
+                LOG.warn(e.getMessage(), e);
+            }
+        } catch (IOException e) {
+            LOG.error(e.getMessage(), e);
+        }
+    }
+
+    /** Returns total size of cached images in bytes. */
+    public synchronized long getSize() {
+        long size = 0;
+        for (Entry entry : entries.values()) {
+            size += entry.size;
+        }
+        return size;
+    }
+
+    /** Returns number of cached images. */
+    public synchronized int getCount() {
+        return entries.size();
+    }
+
+    private String build(String fullName, String baseDockerfile, File workDir, ProgressMonitor progressMonitor, AuthConfigs authConfigs)
+            throws IOException, InterruptedException {
+        final File contextDir = Files.createTempDirectory(workDir.toPath(), "base_image").toFile();
+        try {
+            final File dockerfile = new File(contextDir, "Dockerfile");
+            Files.write(dockerfile.toPath(), baseDockerfile.getBytes(StandardCharsets.UTF_8));
+            return dockerConnector.buildImage(fullName, progressMonitor, authConfigs, dockerfile);
+        } finally {
+            IoUtil.deleteRecursive(contextDir);
+        }
+    }
+
+    private ImageInfo inspect(String image) throws IOException {
+        try {
+            return dockerConnector.inspectImage(image);
+        } catch (DockerException e) {
+            if (e.getStatus() == 404) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Estimates size of layers which are removed together with base image, i.e. size of image without size of image from FROM
+     * instruction. Image from FROM instruction is shared by base images and is never removed by cache.
+     */
+    private long getOwnSize(String id, String baseDockerfile) throws IOException {
+        final ImageInfo image = dockerConnector.inspectImage(id);
+        final String from = getFromImage(baseDockerfile);
+        if (from != null) {
+            final ImageInfo fromImage = inspect(from);
+            if (fromImage != null && fromImage.getVirtualSize() <= image.getVirtualSize()) {
+                return image.getVirtualSize() - fromImage.getVirtualSize();
+            }
+        }
+        return image.getSize();
+    }
+
+    private static String getFromImage(String dockerfile) {
+        for (String line : dockerfile.split("\n")) {
+            final String trimmed = line.trim();
+            if ("FROM".equals(getKeyword(trimmed))) {
+                final String[] parts = trimmed.split("\\s+");
+                return parts.length > 1 ? parts[1] : null;
+            }
+        }
+        return null;
+    }
+
+    private static String getKeyword(String line) {
+        int end = 0;
+        while (end < line.length() && !Character.isWhitespace(line.charAt(end))) {
+            end++;
+        }
+        return line.substring(0, end).toUpperCase();
+    }
+
+    /** Base image acquired by run. */
+    public static class CachedImage {
+        final String key;
+        final String fullName;
+        final String id;
+
+        CachedImage(String key, String fullName, String id) {
+            this.key = key;
+            this.fullName = fullName;
+            this.id = id;
+        }
+
+        /** Image name in format: repoName + ":" + tag */
+        public String getFullName() {
+            return fullName;
+        }
+
+        public String getId() {
+            return id;
+        }
+    }
+
+    private static class Entry {
+        final String key;
+        final String fullName;
+        String  id;
+        long    size;
+        int     users;
+        boolean removing;
+
+        Entry(String key, String fullName) {
+            this.key = key;
+            this.fullName = fullName;
+        }
+    }
+}
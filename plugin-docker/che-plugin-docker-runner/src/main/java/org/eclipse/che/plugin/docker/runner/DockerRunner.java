@@ -70,7 +70,14 @@ public class DockerRunner extends BaseDockerRunner {
                         DockerConnector dockerConnector,
                         EventService eventService,
                         ApplicationLinksGenerator applicationLinksGenerator,
-                        DockerOOMDetector oomDetector) {
+                        DockerOOMDetector oomDetector,
+                        DockerImageCache imageCache,
+                        @Named(IMAGE_CACHE_MAX_SIZE) long imageCacheMaxSizeMb,
+                        @Named(WARM_POOL_MAX_SIZE) int warmPoolMaxSize,
+                        @Named(WARM_POOL_MAX_IDLE_TIME) int warmPoolMaxIdleTime,
+                        @Named(UPDATES_DEBOUNCE) long updatesDebounceMs,
+                        @Named(UPDATES_BULK_THRESHOLD) int updatesBulkThreshold,
+                        @Nullable @Named(UPDATES_LOCAL_WORKSPACE_PATH) String updatesLocalWorkspacePath) {
         super(deployDirectoryRoot,
               cleanupTime,
               hostName,
@@ -80,7 +87,14 @@ public class DockerRunner extends BaseDockerRunner {
               dockerConnector,
               eventService,
               applicationLinksGenerator,
-              oomDetector);
+              oomDetector,
+              imageCache,
+              imageCacheMaxSizeMb,
+              warmPoolMaxSize,
+              warmPoolMaxIdleTime,
+              updatesDebounceMs,
+              updatesBulkThreshold,
+              updatesLocalWorkspacePath);
         this.apiEndPoint = apiEndpoint;
         this.initialAuthConfig = initialAuthConfig;
     }
@@ -49,7 +49,14 @@ public class EmbeddedDockerRunner extends BaseDockerRunner {
                          EventService eventService,
                          ApplicationLinksGenerator applicationLinksGenerator,
                          String name,
-                         DockerOOMDetector oomDetector) {
+                         DockerOOMDetector oomDetector,
+                         DockerImageCache imageCache,
+                         long imageCacheMaxSizeMb,
+                         int warmPoolMaxSize,
+                         int warmPoolMaxIdleTime,
+                         long updatesDebounceMs,
+                         int updatesBulkThreshold,
+                         String updatesLocalWorkspacePath) {
         super(deployDirectoryRoot,
               cleanupTime,
               hostName,
@@ -59,7 +66,14 @@ public class EmbeddedDockerRunner extends BaseDockerRunner {
               dockerConnector,
               eventService,
               applicationLinksGenerator,
-              oomDetector);
+              oomDetector,
+              imageCache,
+              imageCacheMaxSizeMb,
+              warmPoolMaxSize,
+              warmPoolMaxIdleTime,
+              updatesDebounceMs,
+              updatesBulkThreshold,
+              updatesLocalWorkspacePath);
         this.name = name;
         this.dockerEnvironments = new HashMap<>();
     }
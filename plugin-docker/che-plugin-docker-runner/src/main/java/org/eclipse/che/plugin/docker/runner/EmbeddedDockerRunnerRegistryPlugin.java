@@ -81,7 +81,15 @@ public class EmbeddedDockerRunnerRegistryPlugin {
                                               EventService eventService,
                                               ApplicationLinksGenerator applicationLinksGenerator,
                                               @Nullable @Named(DOCKERFILES_REPO) String dockerfilesRepository,
-                                              DockerOOMDetector oomDetector) {
+                                              DockerOOMDetector oomDetector,
+                                              DockerImageCache imageCache,
+                                              @Named(BaseDockerRunner.IMAGE_CACHE_MAX_SIZE) long imageCacheMaxSizeMb,
+                                              @Named(BaseDockerRunner.WARM_POOL_MAX_SIZE) int warmPoolMaxSize,
+                                              @Named(BaseDockerRunner.WARM_POOL_MAX_IDLE_TIME) int warmPoolMaxIdleTime,
+                                              @Named(BaseDockerRunner.UPDATES_DEBOUNCE) long updatesDebounceMs,
+                                              @Named(BaseDockerRunner.UPDATES_BULK_THRESHOLD) int updatesBulkThreshold,
+                                              @Nullable @Named(
+                                                      BaseDockerRunner.UPDATES_LOCAL_WORKSPACE_PATH) String updatesLocalWorkspacePath) {
         this.registry = registry;
         this.myRunners = new LinkedList<>();
         File dockerFilesDir = null;
@@ -119,7 +127,14 @@ public class EmbeddedDockerRunnerRegistryPlugin {
                                                                                        eventService,
                                                                                        applicationLinksGenerator,
                                                                                        runner,
-                                                                                       oomDetector));
+                                                                                       oomDetector,
+                                                                                       imageCache,
+                                                                                       imageCacheMaxSizeMb,
+                                                                                       warmPoolMaxSize,
+                                                                                       warmPoolMaxIdleTime,
+                                                                                       updatesDebounceMs,
+                                                                                       updatesBulkThreshold,
+                                                                                       updatesLocalWorkspacePath));
                     }
                     dockerRunner.registerEnvironment(new EmbeddedDockerEnvironment(environment, environmentDir));
                 } catch (RuntimeException e) {
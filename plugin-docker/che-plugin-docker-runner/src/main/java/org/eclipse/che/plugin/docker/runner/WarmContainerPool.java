@@ -0,0 +1,291 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.runner;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.eclipse.che.api.runner.RunnerException;
+import org.eclipse.che.api.runner.internal.ResourceAllocator;
+import org.eclipse.che.api.runner.internal.ResourceAllocators;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool of started idle containers of docker runner. Containers are kept per key, key identifies image and settings of container,
+ * see {@link BaseDockerRunner}. Run which finds idle container with matched key claims it and deploys application into the directory
+ * that is bound to the container, so application server doesn't need to boot.
+ * <p/>
+ * Number of idle containers for every key follows the demand: it's equal to the number of requests of the key during the last
+ * {@code maxIdleTime}, but not more than {@code maxSize} for all keys together. Containers which are idle longer than
+ * {@code maxIdleTime} are removed. Memory of idle containers is allocated with {@link ResourceAllocators}, so idle containers are
+ * created only if runner has free memory and never take memory from runs.
+ */
+public class WarmContainerPool {
+    private static final Logger LOG = LoggerFactory.getLogger(WarmContainerPool.class);
+
+    private static final long MAINTAIN_PERIOD = 10;
+
+    /** Creates and removes containers for the key of pool. */
+    public interface ContainerFactory {
+        /** Creates and starts new container. */
+        WarmContainer create() throws IOException;
+
+        /** Stops and removes container which isn't claimed by any run. */
+        void destroy(WarmContainer container);
+    }
+
+    /** Started container which waits for application. */
+    public static class WarmContainer {
+        final String                               id;
+        final java.io.File                         bindDirectory;
+        final BaseDockerRunner.CodenvyPortMappings portMappings;
+        private ResourceAllocator                  memoryAllocator;
+        private long                               idleSince;
+
+        public WarmContainer(String id, java.io.File bindDirectory, BaseDockerRunner.CodenvyPortMappings portMappings) {
+            this.id = id;
+            this.bindDirectory = bindDirectory;
+            this.portMappings = portMappings;
+        }
+    }
+
+    private static class Key {
+        final Deque<WarmContainer> idle     = new ArrayDeque<>();
+        final Deque<Long>          requests = new ArrayDeque<>();
+        ContainerFactory factory;
+        int              memory;
+        int              creating;
+    }
+
+    private final ResourceAllocators       allocators;
+    private final int                      maxSize;
+    private final long                     maxIdleTimeMs;
+    private final Map<String, Key>         keys;
+    private final ScheduledExecutorService executor;
+
+    private boolean stopped;
+
+    /**
+     * @param allocators
+     *         allocators of runner resources
+     * @param maxSize
+     *         max number of idle containers for all keys
+     * @param maxIdleTimeMs
+     *         time after that idle container is removed, also period of time for counting of demand
+     */
+    public WarmContainerPool(ResourceAllocators allocators, int maxSize, long maxIdleTimeMs) {
+        this.allocators = allocators;
+        this.maxSize = maxSize;
+        this.maxIdleTimeMs = maxIdleTimeMs;
+        this.keys = new HashMap<>();
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("WarmContainerPool-%d")
+                                                                                             .setDaemon(true)
+                                                                                             .build());
+        executor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    maintain();
+                } catch (RuntimeException e) {
+                    // don't stop maintenance of pool
+                    LOG.error(e.getMessage(), e);
+                }
+            }
+        }, MAINTAIN_PERIOD, MAINTAIN_PERIOD, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Claims idle container for the key. Request is counted as demand of the key, so the pool prepares containers for next requests
+     * with the same key.
+     *
+     * @param key
+     *         key of container
+     * @param memory
+     *         memory size of container in megabytes
+     * @param factory
+     *         creates containers for the key
+     * @return idle container or {@code null} if there is no idle container for the key or pool is stopped, claimed container isn't
+     * managed by pool anymore and memory of container should be allocated by run
+     */
+    public WarmContainer claim(String key, int memory, ContainerFactory factory) {
+        WarmContainer container;
+        synchronized (this) {
+            if (stopped) {
+                return null;
+            }
+            Key state = keys.get(key);
+            if (state == null) {
+                state = new Key();
+                keys.put(key, state);
+            }
+            state.factory = factory;
+            state.memory = memory;
+            state.requests.addLast(System.currentTimeMillis());
+            container = state.idle.pollLast();
+        }
+        if (container != null) {
+            container.memoryAllocator.release();
+        }
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    refill();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // pool is stopped meanwhile
+        }
+        return container;
+    }
+
+    /** Returns number of idle containers. */
+    public synchronized int getIdleCount() {
+        int count = 0;
+        for (Key state : keys.values()) {
+            count += state.idle.size();
+        }
+        return count;
+    }
+
+    /** Removes all idle containers and stops maintenance of pool. */
+    public void stop() {
+        executor.shutdownNow();
+        final List<WarmContainer> toDestroy = new ArrayList<>();
+        final List<ContainerFactory> factories = new ArrayList<>();
+        synchronized (this) {
+            stopped = true;
+            for (Key state : keys.values()) {
+                for (WarmContainer container : state.idle) {
+                    toDestroy.add(container);
+                    factories.add(state.factory);
+                }
+                state.idle.clear();
+            }
+        }
+        for (int i = 0; i < toDestroy.size(); i++) {
+            destroy(toDestroy.get(i), factories.get(i));
+        }
+    }
+
+    void maintain() {
+        final long expired = System.currentTimeMillis() - maxIdleTimeMs;
+        final List<WarmContainer> toDestroy = new ArrayList<>();
+        final List<ContainerFactory> factories = new ArrayList<>();
+        synchronized (this) {
+            for (Iterator<Key> it = keys.values().iterator(); it.hasNext(); ) {
+                final Key state = it.next();
+                while (!state.requests.isEmpty() && state.requests.peekFirst() < expired) {
+                    state.requests.pollFirst();
+                }
+                // keep containers which are still in demand
+                while (state.idle.size() > state.requests.size()
+                       || (!state.idle.isEmpty() && state.idle.peekFirst().idleSince < expired)) {
+                    toDestroy.add(state.idle.pollFirst());
+                    factories.add(state.factory);
+                }
+                if (state.requests.isEmpty() && state.idle.isEmpty() && state.creating == 0) {
+                    it.remove();
+                }
+            }
+        }
+        for (int i = 0; i < toDestroy.size(); i++) {
+            destroy(toDestroy.get(i), factories.get(i));
+        }
+        refill();
+    }
+
+    /** Creates containers for keys which have less idle containers than requests during the last {@code maxIdleTime}. */
+    void refill() {
+        for (; ; ) {
+            final Key state;
+            final ContainerFactory factory;
+            synchronized (this) {
+                state = stopped ? null : next();
+                if (state == null) {
+                    return;
+                }
+                state.creating++;
+                factory = state.factory;
+            }
+            try {
+                final ResourceAllocator memoryAllocator;
+                try {
+                    memoryAllocator = allocators.newMemoryAllocator(state.memory).allocate();
+                } catch (RunnerException e) {
+                    // not enough memory, runs have priority over idle containers
+                    LOG.debug(e.getMessage());
+                    return;
+                }
+                final WarmContainer container;
+                try {
+                    container = factory.create();
+                } catch (IOException | RuntimeException e) {
+                    memoryAllocator.release();
+                    LOG.warn("Unable create warm container: {}", e.getMessage());
+                    return;
+                }
+                container.memoryAllocator = memoryAllocator;
+                container.idleSince = System.currentTimeMillis();
+                synchronized (this) {
+                    if (!stopped) {
+                        state.idle.addLast(container);
+                        continue;
+                    }
+                }
+                // pool is stopped while container is created, nobody removes it except this thread
+                destroy(container, factory);
+                return;
+            } finally {
+                synchronized (this) {
+                    state.creating--;
+                }
+            }
+        }
+    }
+
+    /** Returns key which needs one more idle container more than others, or {@code null} if pool is full. */
+    private Key next() {
+        int total = 0;
+        Key next = null;
+        int maxLack = 0;
+        for (Key state : keys.values()) {
+            total += state.idle.size() + state.creating;
+            final int lack = state.requests.size() - state.idle.size() - state.creating;
+            if (lack > maxLack) {
+                maxLack = lack;
+                next = state;
+            }
+        }
+        return total < maxSize ? next : null;
+    }
+
+    private void destroy(WarmContainer container, ContainerFactory factory) {
+        try {
+            factory.destroy(container);
+        } finally {
+            container.memoryAllocator.release();
+        }
+    }
+}
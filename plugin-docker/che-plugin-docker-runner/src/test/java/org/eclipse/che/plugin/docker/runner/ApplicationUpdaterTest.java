@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.runner;
+
+import org.eclipse.che.api.project.server.ProjectEvent;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Tests for {@link ApplicationUpdater}
+ */
+public class ApplicationUpdaterTest {
+
+    private File               workDir;
+    private File               projectDir;
+    private ApplicationUpdater updater;
+
+    @Before
+    public void setUp() throws Exception {
+        workDir = Files.createTempDirectory("app").toFile();
+        projectDir = Files.createTempDirectory("project").toFile();
+        updater = new ApplicationUpdater(workDir, "/project", "http://localhost/api/project/workspace/project", "token",
+                                         projectDir, null, null, 100, 20);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        IoUtil.deleteRecursive(workDir);
+        IoUtil.deleteRecursive(projectDir);
+    }
+
+    @Test
+    public void shouldMergeEventsOfTheSamePath() throws Exception {
+        updater.merge("src/A.java", ProjectEvent.EventType.CREATED, false);
+        updater.merge("src/A.java", ProjectEvent.EventType.UPDATED, false);
+        updater.merge("src/A.java", ProjectEvent.EventType.UPDATED, false);
+        updater.merge("src/B.java", ProjectEvent.EventType.DELETED, false);
+        updater.merge("src/B.java", ProjectEvent.EventType.CREATED, false);
+
+        final Map<String, ApplicationUpdater.Change> batch = updater.drain();
+
+        Assert.assertEquals(2, batch.size());
+        Assert.assertEquals("C", batch.get("src/A.java").toString());
+        Assert.assertEquals("DC", batch.get("src/B.java").toString());
+        Assert.assertTrue(updater.drain().isEmpty());
+    }
+
+    @Test
+    public void shouldDropChangesOfDeletedFolderContent() throws Exception {
+        updater.merge("src/main/A.java", ProjectEvent.EventType.UPDATED, false);
+        updater.merge("src/main2/B.java", ProjectEvent.EventType.UPDATED, false);
+        updater.merge("src/main", ProjectEvent.EventType.DELETED, true);
+
+        final Map<String, ApplicationUpdater.Change> batch = updater.drain();
+
+        Assert.assertEquals(2, batch.size());
+        Assert.assertEquals("D", batch.get("src/main").toString());
+        Assert.assertEquals("C", batch.get("src/main2/B.java").toString());
+    }
+
+    @Test
+    public void shouldApplyBatchFromLocalProjectDirectory() throws Exception {
+        Assert.assertTrue(new File(projectDir, "src").mkdirs());
+        Files.write(new File(projectDir, "src/A.java").toPath(), "class A {}".getBytes(StandardCharsets.UTF_8));
+        Assert.assertTrue(new File(workDir, "old").mkdirs());
+        updater.merge("old", ProjectEvent.EventType.DELETED, true);
+        updater.merge("src", ProjectEvent.EventType.CREATED, true);
+        updater.merge("src/A.java", ProjectEvent.EventType.CREATED, false);
+
+        updater.apply(updater.drain());
+
+        Assert.assertFalse(new File(workDir, "old").exists());
+        Assert.assertEquals("class A {}", new String(Files.readAllBytes(new File(workDir, "src/A.java").toPath()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void shouldFindCommonFolderOfFiles() throws Exception {
+        Assert.assertEquals("src/main", ApplicationUpdater.getCommonFolder(Arrays.asList("src/main/a/A.java", "src/main/B.java")));
+        Assert.assertEquals("src", ApplicationUpdater.getCommonFolder(Arrays.asList("src/main/A.java", "src/test/B.java")));
+        Assert.assertEquals("", ApplicationUpdater.getCommonFolder(Arrays.asList("pom.xml", "src/main/A.java")));
+        Assert.assertEquals("", ApplicationUpdater.getCommonFolder(Arrays.asList("src/mainA.java", "srcx/B.java")));
+    }
+}
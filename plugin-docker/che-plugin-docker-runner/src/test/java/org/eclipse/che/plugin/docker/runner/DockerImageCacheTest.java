@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.runner;
+
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.plugin.docker.client.DockerConnector;
+import org.eclipse.che.plugin.docker.client.DockerException;
+import org.eclipse.che.plugin.docker.client.ProgressMonitor;
+import org.eclipse.che.plugin.docker.client.dto.AuthConfigs;
+import org.eclipse.che.plugin.docker.client.json.Image;
+import org.eclipse.che.plugin.docker.client.json.ImageInfo;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for splitting of Dockerfile and caching of base images by {@link DockerImageCache}.
+ */
+public class DockerImageCacheTest {
+    private static final String BASE_DOCKERFILE = "FROM codenvy/jdk7\nRUN mkdir /app\n";
+
+    private DockerConnector  dockerConnector;
+    private DockerImageCache imageCache;
+    private File             workDir;
+
+    @Before
+    public void setUp() throws Exception {
+        dockerConnector = mock(DockerConnector.class);
+        imageCache = new DockerImageCache(dockerConnector);
+        workDir = Files.createTempDirectory("image-cache").toFile();
+
+        final ImageInfo image = new ImageInfo();
+        image.setId("base_id");
+        image.setSize(100);
+        doThrow(new DockerException("not found", 404)).when(dockerConnector).inspectImage(anyString());
+        doReturn(image).when(dockerConnector).inspectImage("base_id");
+        doReturn("base_id").when(dockerConnector).buildImage(anyString(),
+                                                             any(ProgressMonitor.class),
+                                                             any(AuthConfigs.class),
+                                                             Matchers.<File>anyVararg());
+    }
+
+    @After
+    public void tearDown() {
+        IoUtil.deleteRecursive(workDir);
+    }
+
+    @Test
+    public void shouldSplitDockerfileBeforeFirstAddInstruction() {
+        final String[] parts = DockerImageCache.splitDockerfile("FROM codenvy/jdk7\n" +
+                                                                "RUN mkdir /app \\\n" +
+                                                                "    && echo ADD\n" +
+                                                                "ADD app.war /app/app.war\n" +
+                                                                "CMD run\n");
+
+        Assert.assertNotNull(parts);
+        Assert.assertEquals("FROM codenvy/jdk7\nRUN mkdir /app \\\n    && echo ADD\n", parts[0]);
+        Assert.assertEquals("ADD app.war /app/app.war\nCMD run\n", parts[1]);
+        Assert.assertTrue(DockerImageCache.hasInstructions(parts[1]));
+    }
+
+    @Test
+    public void shouldUseWholeDockerfileAsBaseIfApplicationIsNotAdded() {
+        final String[] parts = DockerImageCache.splitDockerfile("# comment\nFROM codenvy/jdk7_tomcat7\nVOLUME [\"/app\"]\n");
+
+        Assert.assertNotNull(parts);
+        Assert.assertEquals("# comment\nFROM codenvy/jdk7_tomcat7\nVOLUME [\"/app\"]\n", parts[0]);
+        Assert.assertFalse(DockerImageCache.hasInstructions(parts[1]));
+    }
+
+    @Test
+    public void shouldNotSplitDockerfileWithoutFromInstruction() {
+        Assert.assertNull(DockerImageCache.splitDockerfile("ADD app.war /app/app.war\n"));
+    }
+
+    @Test
+    public void shouldNotRemoveImageWhichIsUsed() throws Exception {
+        final DockerImageCache.CachedImage image = imageCache.acquire(BASE_DOCKERFILE, workDir, ProgressMonitor.DEV_NULL, null);
+
+        imageCache.trim(0);
+
+        verify(dockerConnector, never()).removeImage(anyString(), Matchers.anyBoolean());
+        Assert.assertEquals(1, imageCache.getCount());
+        Assert.assertEquals(100, imageCache.getSize());
+        imageCache.release(image);
+    }
+
+    @Test
+    public void shouldBuildImageAgainAfterItIsRemoved() throws Exception {
+        final DockerImageCache.CachedImage image = imageCache.acquire(BASE_DOCKERFILE, workDir, ProgressMonitor.DEV_NULL, null);
+        imageCache.release(image);
+
+        imageCache.trim(0);
+
+        verify(dockerConnector).removeImage(image.getFullName(), false);
+        Assert.assertEquals(0, imageCache.getCount());
+
+        final DockerImageCache.CachedImage again = imageCache.acquire(BASE_DOCKERFILE, workDir, ProgressMonitor.DEV_NULL, null);
+        Assert.assertEquals("base_id", again.getId());
+        verify(dockerConnector, times(2)).buildImage(anyString(),
+                                                     any(ProgressMonitor.class),
+                                                     any(AuthConfigs.class),
+                                                     Matchers.<File>anyVararg());
+        imageCache.release(again);
+    }
+
+    @Test
+    public void shouldRemoveBuildContextOfBaseImage() throws Exception {
+        final DockerImageCache.CachedImage image = imageCache.acquire(BASE_DOCKERFILE, workDir, ProgressMonitor.DEV_NULL, null);
+
+        Assert.assertArrayEquals(new String[0], workDir.list());
+        imageCache.release(image);
+    }
+
+    @Test
+    public void shouldLoadBaseImagesBuiltByPreviousRunner() throws Exception {
+        final Image cached = new Image();
+        cached.setId("cached_id");
+        cached.setRepoTags(new String[]{DockerImageCache.REPOSITORY + ":cached"});
+        cached.setSize(50);
+        final Image other = new Image();
+        other.setId("other_id");
+        other.setRepoTags(new String[]{"codenvy/jdk7:latest"});
+        doReturn(new Image[]{cached, other}).when(dockerConnector).listImages();
+
+        imageCache.loadCachedImages();
+
+        Assert.assertEquals(1, imageCache.getCount());
+        Assert.assertEquals(50, imageCache.getSize());
+
+        imageCache.trim(0);
+
+        verify(dockerConnector).removeImage(DockerImageCache.REPOSITORY + ":cached", false);
+        Assert.assertEquals(0, imageCache.getCount());
+    }
+}
@@ -86,7 +86,9 @@ public class DockerRunnerTest {
                 new DockerRunner(deployDirectoryRoot, 5, HOSTNAME, "localhost:8080/api", new String[]{}, allocators, portService,
                                  initialAuthConfig, dockerConnector, eventService,
                                  applicationLinksGenerator,
-                                 DockerOOMDetector.NOOP_DETECTOR);
+                                 DockerOOMDetector.NOOP_DETECTOR,
+                                 new DockerImageCache(dockerConnector),
+                                 10240, 0, 600, 100, 20, null);
 
         this.env = new ArrayList<>();
         doReturn(HOSTNAME).when(dockerRunnerConfiguration).getHost();
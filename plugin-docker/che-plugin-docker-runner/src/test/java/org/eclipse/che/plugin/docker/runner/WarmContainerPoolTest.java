@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.runner;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import org.eclipse.che.api.runner.internal.ResourceAllocator;
+import org.eclipse.che.api.runner.internal.ResourceAllocators;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link WarmContainerPool}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class WarmContainerPoolTest {
+
+    @Mock
+    private ResourceAllocators                 allocators;
+    @Mock
+    private ResourceAllocator                  allocator;
+    @Mock
+    private WarmContainerPool.ContainerFactory factory;
+
+    private WarmContainerPool pool;
+
+    @Before
+    public void setUp() throws Exception {
+        doReturn(allocator).when(allocators).newMemoryAllocator(anyInt());
+        doReturn(allocator).when(allocator).allocate();
+        doReturn(new WarmContainerPool.WarmContainer("container", new File("warm"), new BaseDockerRunner.CodenvyPortMappings()))
+                .when(factory).create();
+        pool = new WarmContainerPool(allocators, 2, 60000);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        pool.stop();
+    }
+
+    @Test
+    public void shouldPrepareContainerForRequestedKey() throws Exception {
+        Assert.assertNull(pool.claim("tomcat7", 256, factory));
+
+        waitIdleCount(1);
+        verify(allocator, never()).release();
+
+        final WarmContainerPool.WarmContainer container = pool.claim("tomcat7", 256, factory);
+        Assert.assertNotNull(container);
+        Assert.assertEquals("container", container.id);
+        // memory of claimed container is allocated by run
+        verify(allocator).release();
+    }
+
+    @Test
+    public void shouldNotPrepareMoreContainersThanMaxSize() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            pool.claim("tomcat7", 256, factory);
+        }
+        pool.refill();
+
+        waitIdleCount(2);
+        pool.refill();
+        Assert.assertEquals(2, pool.getIdleCount());
+    }
+
+    @Test
+    public void shouldNotClaimContainersAfterStop() throws Exception {
+        pool.stop();
+
+        Assert.assertNull(pool.claim("tomcat7", 256, factory));
+        Assert.assertEquals(0, pool.getIdleCount());
+    }
+
+    @Test
+    public void shouldDestroyContainerWhichIsCreatedAfterStop() throws Exception {
+        final CountDownLatch creating = new CountDownLatch(1);
+        final CountDownLatch stopped = new CountDownLatch(1);
+        final WarmContainerPool.WarmContainer container =
+                new WarmContainerPool.WarmContainer("container", new File("warm"), new BaseDockerRunner.CodenvyPortMappings());
+        doAnswer(new Answer<WarmContainerPool.WarmContainer>() {
+            @Override
+            public WarmContainerPool.WarmContainer answer(InvocationOnMock invocation) throws Throwable {
+                creating.countDown();
+                // stop of pool interrupts its thread
+                Uninterruptibles.awaitUninterruptibly(stopped);
+                return container;
+            }
+        }).when(factory).create();
+        pool.claim("tomcat7", 256, factory);
+        Assert.assertTrue(creating.await(5, TimeUnit.SECONDS));
+
+        pool.stop();
+        stopped.countDown();
+
+        verify(factory, timeout(5000)).destroy(container);
+        verify(allocator, timeout(5000)).release();
+        Assert.assertEquals(0, pool.getIdleCount());
+    }
+
+    private void waitIdleCount(int count) throws InterruptedException {
+        final long end = System.currentTimeMillis() + 5000;
+        while (pool.getIdleCount() < count && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(count, pool.getIdleCount());
+    }
+}
@@ -25,6 +25,7 @@ import org.eclipse.che.api.builder.internal.SourceManagerListener;
 import org.eclipse.che.api.builder.internal.SourcesManager;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.util.CommandLine;
+import org.eclipse.che.commons.annotation.Nullable;
 import org.eclipse.che.commons.json.JsonHelper;
 import org.eclipse.che.commons.lang.IoUtil;
 import org.eclipse.che.commons.lang.ZipUtils;
@@ -36,6 +37,8 @@ import org.eclipse.che.ide.maven.tools.Model;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -94,15 +97,28 @@ public class MavenBuilder extends Builder {
         }
     };
 
+    /** Number of warm Maven daemons which run builds, {@code 0} means that every build runs in new Maven process. */
+    public static final String DAEMON_WORKERS     = "builder.maven.daemon.workers";
+    /** Options of JVM of Maven daemons separated by spaces, e.g. {@code -Xmx1g}. */
+    public static final String DAEMON_JVM_OPTIONS = "builder.maven.daemon.jvm_options";
+
     private final Map<String, String> mavenProperties;
+    private final int                 daemonWorkers;
+    private final String              daemonJvmOptions;
+
+    private volatile MavenDaemonPool daemonPool;
 
     @Inject
     public MavenBuilder(@Named(Constants.BASE_DIRECTORY) java.io.File rootDirectory,
                         @Named(Constants.NUMBER_OF_WORKERS) int numberOfWorkers,
                         @Named(Constants.QUEUE_SIZE) int queueSize,
                         @Named(Constants.KEEP_RESULT_TIME) int cleanupTime,
+                        @Named(DAEMON_WORKERS) int daemonWorkers,
+                        @Nullable @Named(DAEMON_JVM_OPTIONS) String daemonJvmOptions,
                         EventService eventService) {
         super(rootDirectory, numberOfWorkers, queueSize, cleanupTime, eventService);
+        this.daemonWorkers = daemonWorkers;
+        this.daemonJvmOptions = daemonJvmOptions == null ? "" : daemonJvmOptions;
 
         Map<String, String> myMavenProperties = null;
         try {
@@ -142,16 +158,60 @@ public class MavenBuilder extends Builder {
         return env;
     }
 
+    @PostConstruct
+    @Override
+    public void start() {
+        super.start();
+        if (daemonWorkers > 0) {
+            final String mavenHome = mavenProperties.get("Maven home");
+            if (mavenHome == null) {
+                LOG.error("Maven home is unknown, builds are not run in Maven daemons");
+                return;
+            }
+            final List<String> jvmOptions = new LinkedList<>();
+            // mvn script passes MAVEN_OPTS to JVM of Maven, daemons get them as well
+            final String mavenOpts = System.getenv("MAVEN_OPTS");
+            for (String option : ((mavenOpts == null ? "" : mavenOpts) + ' ' + daemonJvmOptions).trim().split("\\s+")) {
+                if (!option.isEmpty()) {
+                    jvmOptions.add(option);
+                }
+            }
+            final MavenDaemonPool pool = new MavenDaemonPool(daemonWorkers, mavenHome, jvmOptions);
+            try {
+                pool.start();
+                daemonPool = pool;
+            } catch (IOException e) {
+                LOG.error(e.getMessage(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    @Override
+    public void stop() {
+        if (daemonPool != null) {
+            daemonPool.stop();
+        }
+        super.stop();
+    }
+
     @Override
     protected CommandLine createCommandLine(BuilderConfiguration config) throws BuilderException {
-        final CommandLine commandLine = new CommandLine(MavenUtils.getMavenExecCommand());
-        commandLine.add("--batch-mode");
         final List<String> targets = config.getTargets();
         final java.io.File workDir = config.getWorkDir();
+        CommandLine commandLine = daemonPool != null && isSupportedByDaemon(config) ? daemonPool.createCommandLine(workDir) : null;
+        final boolean daemon = commandLine != null;
+        if (!daemon) {
+            commandLine = new CommandLine(MavenUtils.getMavenExecCommand());
+        }
+        commandLine.add("--batch-mode");
         switch (config.getTaskType()) {
             case DEFAULT:
                 if (!targets.isEmpty()) {
                     commandLine.add(targets);
+                } else if (daemon) {
+                    // working directory of every build is new, so there is nothing to clean
+                    commandLine.add("install");
                 } else {
                     commandLine.add("clean", "install");
                 }
@@ -161,6 +221,7 @@ public class MavenBuilder extends Builder {
                 if (config.getRequest().isIncludeDependencies()) {
                     // Project sources isn't available yet. Postpone parsing of pom.xml file until sources becomes available.
                     final SourcesManager sourcesManager = getSourcesManager();
+                    final CommandLine myCommandLine = commandLine;
                     final SourceManagerListener sourceListener = new SourceManagerListener() {
                         @Override
                         public void afterDownload(SourceManagerEvent event) {
@@ -169,7 +230,7 @@ public class MavenBuilder extends Builder {
                                     final Model model = Model.readFrom(workDir);
                                     final String packaging = model.getPackaging();
                                     if ((packaging == null || "jar".equals(packaging)) && !MavenUtils.isCodenvyExtensionProject(model)) {
-                                        addJarWithDependenciesAssemblyDescriptor(workDir, commandLine);
+                                        addJarWithDependenciesAssemblyDescriptor(workDir, myCommandLine);
                                     }
                                 } catch (Exception e) {
                                     throw new IllegalStateException(e);
@@ -186,19 +247,41 @@ public class MavenBuilder extends Builder {
                 if (!targets.isEmpty()) {
                     LOG.warn("Targets {} ignored when list dependencies", targets);
                 }
-                commandLine.add("clean", "dependency:list");
+                if (!daemon) {
+                    commandLine.add("clean");
+                }
+                commandLine.add("dependency:list");
                 break;
             case COPY_DEPS:
                 if (!targets.isEmpty()) {
                     LOG.warn("Targets {} ignored when copy dependencies", targets);
                 }
-                commandLine.add("clean", "dependency:copy-dependencies").addPair("-Dmdep.failOnMissingClassifierArtifact", "false");
+                if (!daemon) {
+                    commandLine.add("clean");
+                }
+                commandLine.add("dependency:copy-dependencies").addPair("-Dmdep.failOnMissingClassifierArtifact", "false");
                 break;
         }
         commandLine.add(config.getOptions());
         return commandLine;
     }
 
+    /** Checks whether targets and options of build don't change JVM-wide state which can't be restored by Maven daemon. */
+    private boolean isSupportedByDaemon(BuilderConfiguration config) {
+        for (String target : config.getTargets()) {
+            if (!MavenDaemon.isSupportedOption(target)) {
+                return false;
+            }
+        }
+        for (String option : config.getOptions().keySet()) {
+            if (!MavenDaemon.isSupportedOption(option)) {
+                LOG.debug("Option {} is not supported by Maven daemon, build is run in new Maven process", option);
+                return false;
+            }
+        }
+        return true;
+    }
+
     private void addJarWithDependenciesAssemblyDescriptor(java.io.File workDir, CommandLine commandLine) throws IOException {
         Files.write(new java.io.File(workDir, ASSEMBLY_DESCRIPTOR_FOR_JAR_WITH_DEPENDENCIES_FILE).toPath(),
                     ASSEMBLY_DESCRIPTOR_FOR_JAR_WITH_DEPENDENCIES.getBytes());
@@ -0,0 +1,293 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.builder.maven;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Long-lived JVM which runs Maven builds with embedded Maven (MavenCli), so builds don't pay for JVM startup and JIT warm-up.
+ * <p/>
+ * Daemon is started by {@link MavenDaemonPool} with classpath of Maven installation, it prints its port to the standard output and
+ * accepts build requests of {@link MavenDaemonClient} on loopback interface. Daemon runs single build at once, other clients get
+ * {@link #BUSY} and try other daemon. Output of Maven is sent to client while build is running. Daemon exits if its client is
+ * gone, e.g. build is cancelled, if parent process is gone, after failed build or after {@link #MAX_BUILDS} builds to avoid leaks
+ * of Maven plugins, pool starts new daemon then.
+ * <p/>
+ * Maven sets options {@code -D} and working directory as system properties of JVM, so system properties and other JVM-wide state
+ * are saved before every build and restored after it, next build never sees properties of previous one. Builds with options which
+ * change JVM-wide state that can't be restored are run in new Maven process, see {@link #isSupportedOption(String)}.
+ * <p/>
+ * Protocol: client sends token, working directory, number of arguments and arguments of Maven. Daemon replies {@link #BUSY} or
+ * {@link #ACCEPTED}, then sends {@link #OUTPUT} frames with length and bytes of output and {@link #EXIT} frame with exit code.
+ */
+public class MavenDaemon {
+    static final byte ACCEPTED = 1;
+    static final byte BUSY     = 2;
+    static final byte OUTPUT   = 3;
+    static final byte EXIT     = 4;
+
+    static final String PORT_PREFIX = "PORT ";
+    static final int    MAX_BUILDS  = 50;
+
+    private static final String MAVEN_CLI = "org.apache.maven.cli.MavenCli";
+
+    /** Options of Maven which don't change JVM-wide state or change only system properties, other options need new process. */
+    private static final Set<String> SUPPORTED_OPTIONS = new HashSet<>();
+
+    static {
+        for (String option : new String[]{"-B", "--batch-mode", "-o", "--offline", "-U", "--update-snapshots", "-q", "--quiet",
+                                          "-X", "--debug", "-e", "--errors", "-P", "--activate-profiles", "-s", "--settings",
+                                          "-gs", "--global-settings", "-fae", "--fail-at-end", "-ff", "--fail-fast", "-fn",
+                                          "--fail-never", "-N", "--non-recursive", "-pl", "--projects", "-am", "--also-make",
+                                          "-amd", "--also-make-dependents", "-rf", "--resume-from", "-f", "--file", "-nsu",
+                                          "--no-snapshot-updates", "-C", "--strict-checksums", "-c", "--lax-checksums"}) {
+            SUPPORTED_OPTIONS.add(option);
+        }
+    }
+
+    private final String        token;
+    private final Method        doMain;
+    private final Forwarder     forwarder;
+    private final PrintStream   console;
+    private final AtomicBoolean busy;
+    private       int           builds;
+
+    MavenDaemon(String token) throws Exception {
+        this(token, MAVEN_CLI);
+    }
+
+    /**
+     * @param token
+     *         token which is required from clients
+     * @param cli
+     *         name of class which runs Maven, it must have method {@code int doMain(String[], String, PrintStream, PrintStream)}
+     */
+    MavenDaemon(String token, String cli) throws Exception {
+        this.token = token;
+        this.doMain = Class.forName(cli).getMethod("doMain", String[].class, String.class, PrintStream.class, PrintStream.class);
+        this.forwarder = new Forwarder();
+        this.console = new PrintStream(new BufferedOutputStream(forwarder, 8192), true, "UTF-8");
+        this.busy = new AtomicBoolean();
+    }
+
+    public static void main(String[] args) throws Exception {
+        final PrintStream parent = System.out;
+        final MavenDaemon daemon = new MavenDaemon(args[0]);
+        // Maven loggers keep stream which is set at the first build, so the same stream is used for all builds
+        System.setOut(daemon.console);
+        System.setErr(daemon.console);
+        final ServerSocket server = new ServerSocket(0, 50, InetAddress.getByName(null));
+        parent.println(PORT_PREFIX + server.getLocalPort());
+        parent.flush();
+        final Thread parentWatcher = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    // standard input is closed when parent process is gone
+                    while (System.in.read() != -1) {
+                    }
+                } catch (IOException ignored) {
+                }
+                System.exit(0);
+            }
+        };
+        parentWatcher.setDaemon(true);
+        parentWatcher.start();
+        daemon.serve(server);
+    }
+
+    /**
+     * Checks whether Maven option may be used in daemon. Options {@code -D} and goals are supported, since they change only
+     * system properties, options which change JVM-wide state, e.g. {@code --log-file} replaces standard output, are not.
+     */
+    public static boolean isSupportedOption(String option) {
+        final int eq = option.indexOf('=');
+        return !option.startsWith("-") || option.startsWith("-D") || SUPPORTED_OPTIONS.contains(eq > 0 ? option.substring(0, eq) : option);
+    }
+
+    void serve(ServerSocket server) throws IOException {
+        final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                // daemon exits when its main thread is done
+                final Thread thread = new Thread(r, "MavenDaemon-build");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        for (; ; ) {
+            final Socket socket = server.accept();
+            if (!busy.compareAndSet(false, true)) {
+                try (Socket ignored = socket) {
+                    socket.getOutputStream().write(BUSY);
+                } catch (IOException ignored) {
+                }
+                continue;
+            }
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    boolean successful = false;
+                    try {
+                        successful = build(socket);
+                    } catch (Exception e) {
+                        e.printStackTrace(console);
+                    } finally {
+                        busy.set(false);
+                    }
+                    // failed build may leave threads or other state of Maven plugins, so daemon is replaced with new one
+                    if (!successful || builds >= MAX_BUILDS) {
+                        System.exit(0);
+                    }
+                }
+            });
+        }
+    }
+
+    /** Runs build requested by client, returns {@code true} if build is successful. */
+    private boolean build(Socket socket) throws Exception {
+        try (Socket ignored = socket) {
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            if (!token.equals(in.readUTF())) {
+                return true;
+            }
+            final String workDir = in.readUTF();
+            final String[] args = new String[in.readInt()];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = in.readUTF();
+            }
+            out.writeByte(ACCEPTED);
+            out.flush();
+            builds++;
+
+            final AtomicBoolean finished = new AtomicBoolean();
+            final Thread clientWatcher = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        // client doesn't send anything after request, end of stream means it's gone
+                        in.read();
+                    } catch (IOException ignored) {
+                    }
+                    if (!finished.get()) {
+                        // build may not be interrupted, daemon is replaced with new one
+                        System.exit(1);
+                    }
+                }
+            };
+            clientWatcher.setDaemon(true);
+            clientWatcher.start();
+
+            int exitCode;
+            final GlobalState state = new GlobalState();
+            forwarder.setTarget(out);
+            try {
+                System.setProperty("maven.multiModuleProjectDirectory", workDir);
+                exitCode = (Integer)doMain.invoke(doMain.getDeclaringClass().newInstance(), args, workDir, console, console);
+            } catch (InvocationTargetException e) {
+                e.getCause().printStackTrace(console);
+                exitCode = 1;
+            } finally {
+                console.flush();
+                forwarder.setTarget(null);
+                state.restore();
+            }
+            finished.set(true);
+            out.writeByte(EXIT);
+            out.writeInt(exitCode);
+            out.flush();
+            return exitCode == 0;
+        }
+    }
+
+    /** JVM-wide state which is changed by Maven and its plugins while build is running. */
+    private static class GlobalState {
+        private final Properties  properties;
+        private final PrintStream out;
+        private final PrintStream err;
+        private final Locale      locale;
+        private final TimeZone    timeZone;
+        private final ClassLoader contextClassLoader;
+
+        GlobalState() {
+            properties = new Properties();
+            properties.putAll(System.getProperties());
+            out = System.out;
+            err = System.err;
+            locale = Locale.getDefault();
+            timeZone = TimeZone.getDefault();
+            contextClassLoader = Thread.currentThread().getContextClassLoader();
+        }
+
+        void restore() {
+            final Properties current = System.getProperties();
+            // properties are changed in place, so they are never seen empty by other threads
+            current.keySet().retainAll(properties.keySet());
+            current.putAll(properties);
+            System.setOut(out);
+            System.setErr(err);
+            Locale.setDefault(locale);
+            TimeZone.setDefault(timeZone);
+            Thread.currentThread().setContextClassLoader(contextClassLoader);
+        }
+    }
+
+    /** Sends output of Maven to the client of current build. Output which is written between builds is dropped. */
+    private static class Forwarder extends OutputStream {
+        private DataOutputStream target;
+
+        synchronized void setTarget(DataOutputStream target) {
+            this.target = target;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte)b}, 0, 1);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) throws IOException {
+            if (target != null && len > 0) {
+                target.writeByte(OUTPUT);
+                target.writeInt(len);
+                target.write(b, off, len);
+            }
+        }
+
+        @Override
+        public synchronized void flush() throws IOException {
+            if (target != null) {
+                target.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.builder.maven;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Command line client of {@link MavenDaemon}. It is started by builder instead of {@code mvn} and prints output of Maven to the
+ * standard output, so build logs are collected as usual, and exits with exit code of Maven.
+ * <p/>
+ * Usage: {@code MavenDaemonClient <daemons file> <working directory> <maven arguments...>}, where daemons file is written by
+ * {@link MavenDaemonPool} and contains token and ports of running daemons.
+ */
+public class MavenDaemonClient {
+    private static final long RETRY_DELAY      = 200;
+    private static final long NO_DAEMONS_LIMIT = TimeUnit.MINUTES.toMillis(1);
+
+    public static void main(String[] args) throws Exception {
+        System.exit(run(args));
+    }
+
+    static int run(String[] args) throws IOException, InterruptedException {
+        final String daemonsFile = args[0];
+        final String workDir = args[1];
+        final String[] mavenArgs = new String[args.length - 2];
+        System.arraycopy(args, 2, mavenArgs, 0, mavenArgs.length);
+
+        long lastBusyTime = System.currentTimeMillis();
+        for (; ; ) {
+            final Properties daemons = new Properties();
+            try (InputStream in = new FileInputStream(daemonsFile)) {
+                daemons.load(in);
+            }
+            final String token = daemons.getProperty(MavenDaemonPool.TOKEN);
+            final String ports = daemons.getProperty(MavenDaemonPool.PORTS, "");
+            for (String port : ports.split(",")) {
+                if (port.isEmpty()) {
+                    continue;
+                }
+                final Socket socket;
+                try {
+                    socket = new Socket(InetAddress.getByName(null), Integer.parseInt(port));
+                } catch (IOException e) {
+                    // daemon is being restarted
+                    continue;
+                }
+                try (Socket ignored = socket) {
+                    final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                    final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                    out.writeUTF(token);
+                    out.writeUTF(workDir);
+                    out.writeInt(mavenArgs.length);
+                    for (String arg : mavenArgs) {
+                        out.writeUTF(arg);
+                    }
+                    out.flush();
+                    final int status = in.read();
+                    if (status == MavenDaemon.BUSY) {
+                        lastBusyTime = System.currentTimeMillis();
+                        continue;
+                    }
+                    if (status != MavenDaemon.ACCEPTED) {
+                        continue;
+                    }
+                    try {
+                        return readOutput(in);
+                    } catch (IOException e) {
+                        System.out.println("[ERROR] Maven daemon is terminated while build is running");
+                        return 1;
+                    }
+                } catch (IOException e) {
+                    // daemon is terminated before it accepts request
+                }
+            }
+            if (System.currentTimeMillis() - lastBusyTime > NO_DAEMONS_LIMIT) {
+                System.out.println("[ERROR] There are no running Maven daemons");
+                return 1;
+            }
+            Thread.sleep(RETRY_DELAY);
+        }
+    }
+
+    private static int readOutput(DataInputStream in) throws IOException {
+        final byte[] buffer = new byte[8192];
+        for (; ; ) {
+            final int type = in.readByte();
+            if (type == MavenDaemon.EXIT) {
+                System.out.flush();
+                return in.readInt();
+            }
+            int len = in.readInt();
+            while (len > 0) {
+                final int n = in.read(buffer, 0, Math.min(len, buffer.length));
+                if (n == -1) {
+                    throw new IOException("Unexpected end of output");
+                }
+                System.out.write(buffer, 0, n);
+                len -= n;
+            }
+            System.out.flush();
+        }
+    }
+}
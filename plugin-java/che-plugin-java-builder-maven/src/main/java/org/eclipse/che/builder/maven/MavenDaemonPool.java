@@ -0,0 +1,259 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.builder.maven;
+
+import org.eclipse.che.api.core.util.CommandLine;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool of {@link MavenDaemon}s. Pool starts daemons, restarts them when they exit and publishes ports of running daemons in file
+ * which is read by {@link MavenDaemonClient}. File also contains token which is required by daemons, file is readable only by
+ * owner.
+ */
+public class MavenDaemonPool {
+    private static final Logger LOG = LoggerFactory.getLogger(MavenDaemonPool.class);
+
+    static final String TOKEN = "token";
+    static final String PORTS = "ports";
+
+    private static final long CHECK_PERIOD = TimeUnit.SECONDS.toMillis(5);
+
+    private final String       mavenHome;
+    private final List<String> jvmOptions;
+    private final String       token;
+    private final Process[]    processes;
+    private final int[]        ports;
+    private final String       classPath;
+
+    private File    dir;
+    private File    daemonsFile;
+    private String  publishedPorts;
+    private Thread  monitor;
+    private boolean stopped;
+
+    /**
+     * @param size
+     *         number of daemons
+     * @param mavenHome
+     *         home directory of Maven installation
+     * @param jvmOptions
+     *         options of JVM of daemons, e.g. heap size
+     */
+    public MavenDaemonPool(int size, String mavenHome, List<String> jvmOptions) {
+        this.mavenHome = mavenHome;
+        this.jvmOptions = jvmOptions;
+        this.token = UUID.randomUUID().toString();
+        this.processes = new Process[size];
+        this.ports = new int[size];
+        try {
+            this.classPath = new File(MavenDaemon.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getAbsolutePath();
+        } catch (URISyntaxException e) {
+            // Not expected to be thrown
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Starts daemons in background. */
+    public synchronized void start() throws IOException {
+        dir = Files.createTempDirectory("maven-daemons").toFile();
+        daemonsFile = new File(dir, "daemons.properties");
+        publish();
+        monitor = new Thread("MavenDaemonPool") {
+            @Override
+            public void run() {
+                while (!isInterrupted()) {
+                    check();
+                    try {
+                        Thread.sleep(CHECK_PERIOD);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        };
+        monitor.setDaemon(true);
+        monitor.start();
+    }
+
+    /** Stops all daemons. */
+    public void stop() {
+        synchronized (this) {
+            stopped = true;
+            if (monitor != null) {
+                monitor.interrupt();
+            }
+        }
+        for (int i = 0; i < processes.length; i++) {
+            final Process process = getProcess(i);
+            if (process != null) {
+                process.destroy();
+            }
+        }
+        if (dir != null) {
+            IoUtil.deleteRecursive(dir);
+        }
+    }
+
+    /**
+     * Creates command line which runs Maven build in daemon.
+     *
+     * @param workDir
+     *         working directory of build
+     * @return command line or {@code null} if there are no running daemons, Maven must be run as usual then
+     */
+    public synchronized CommandLine createCommandLine(File workDir) {
+        if (stopped || publishedPorts == null || publishedPorts.isEmpty()) {
+            return null;
+        }
+        final CommandLine commandLine = new CommandLine(getJavaCommand());
+        commandLine.add("-cp", classPath, MavenDaemonClient.class.getName(), daemonsFile.getAbsolutePath(), workDir.getAbsolutePath());
+        return commandLine;
+    }
+
+    /** Starts daemons which are not running and publishes ports of running daemons. */
+    private void check() {
+        for (int i = 0; i < processes.length; i++) {
+            if (isStopped()) {
+                return;
+            }
+            final Process process = getProcess(i);
+            if (process == null || !isAlive(process)) {
+                try {
+                    startDaemon(i);
+                } catch (IOException e) {
+                    LOG.error(String.format("Unable start maven daemon: %s", e.getMessage()), e);
+                }
+            }
+        }
+        try {
+            publish();
+        } catch (IOException e) {
+            LOG.error(e.getMessage(), e);
+        }
+    }
+
+    private void startDaemon(int i) throws IOException {
+        final List<String> command = new ArrayList<>();
+        command.add(getJavaCommand());
+        command.addAll(jvmOptions);
+        command.add("-Dmaven.home=" + mavenHome);
+        command.add("-Dclassworlds.conf=" + mavenHome + File.separator + "bin" + File.separator + "m2.conf");
+        command.add("-cp");
+        command.add(classPath + File.pathSeparator + mavenHome + File.separator + "boot" + File.separator + '*'
+                    + File.pathSeparator + mavenHome + File.separator + "lib" + File.separator + '*');
+        command.add(MavenDaemon.class.getName());
+        command.add(token);
+        final Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        final BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        final String line = output.readLine();
+        if (line == null || !line.startsWith(MavenDaemon.PORT_PREFIX)) {
+            process.destroy();
+            throw new IOException(String.format("Unexpected output of daemon: %s", line));
+        }
+        final int port = Integer.parseInt(line.substring(MavenDaemon.PORT_PREFIX.length()));
+        final Thread outputReader = new Thread("MavenDaemon-" + port) {
+            @Override
+            public void run() {
+                // daemon must not be blocked if it writes to its output, e.g. when it's crashed
+                try {
+                    String line;
+                    while ((line = output.readLine()) != null) {
+                        LOG.debug("Maven daemon {}: {}", port, line);
+                    }
+                } catch (IOException ignored) {
+                }
+            }
+        };
+        outputReader.setDaemon(true);
+        outputReader.start();
+        synchronized (this) {
+            if (stopped) {
+                process.destroy();
+                return;
+            }
+            processes[i] = process;
+            ports[i] = port;
+        }
+        LOG.debug("Maven daemon is started on port {}", port);
+    }
+
+    /** Writes token and ports of running daemons, daemons file is replaced atomically, so clients never read it partially. */
+    private void publish() throws IOException {
+        final StringBuilder runningPorts = new StringBuilder();
+        synchronized (this) {
+            for (int i = 0; i < processes.length; i++) {
+                if (processes[i] != null && isAlive(processes[i])) {
+                    if (runningPorts.length() > 0) {
+                        runningPorts.append(',');
+                    }
+                    runningPorts.append(ports[i]);
+                }
+            }
+            if (stopped || runningPorts.toString().equals(publishedPorts)) {
+                return;
+            }
+        }
+        final Properties properties = new Properties();
+        properties.setProperty(TOKEN, token);
+        properties.setProperty(PORTS, runningPorts.toString());
+        final StringWriter content = new StringWriter();
+        properties.store(content, null);
+        final File tmp = new File(dir, daemonsFile.getName() + ".tmp");
+        Files.write(tmp.toPath(), content.toString().getBytes(StandardCharsets.ISO_8859_1));
+        try {
+            Files.setPosixFilePermissions(tmp.toPath(), PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException ignored) {
+        }
+        Files.move(tmp.toPath(), daemonsFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        synchronized (this) {
+            publishedPorts = runningPorts.toString();
+        }
+    }
+
+    private synchronized Process getProcess(int i) {
+        return processes[i];
+    }
+
+    private synchronized boolean isStopped() {
+        return stopped;
+    }
+
+    private static boolean isAlive(Process process) {
+        try {
+            process.exitValue();
+            return false;
+        } catch (IllegalThreadStateException e) {
+            return true;
+        }
+    }
+
+    private static String getJavaCommand() {
+        return System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+    }
+}
@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.builder.maven;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Tests for {@link MavenDaemon}.
+ */
+public class MavenDaemonTest {
+    private static final String TOKEN = "token";
+
+    private ServerSocket server;
+    private File         daemonsFile;
+
+    @Before
+    public void setUp() throws Exception {
+        final MavenDaemon daemon = new MavenDaemon(TOKEN, PropertiesCli.class.getName());
+        server = new ServerSocket(0, 50, InetAddress.getByName(null));
+        final Thread serving = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    daemon.serve(server);
+                } catch (Exception ignored) {
+                    // server socket is closed
+                }
+            }
+        };
+        serving.setDaemon(true);
+        serving.start();
+        daemonsFile = File.createTempFile("daemons", ".properties");
+        Files.write(daemonsFile.toPath(), (MavenDaemonPool.TOKEN + '=' + TOKEN + '\n' + MavenDaemonPool.PORTS + '=' + server.getLocalPort())
+                .getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.close();
+        daemonsFile.delete();
+    }
+
+    @Test
+    public void shouldNotShareSystemPropertiesOfBuilds() throws Exception {
+        final String userDir = System.getProperty("user.dir");
+
+        Assert.assertEquals("classifier=sources", build("/tmp/first", "-Dclassifier=sources", "dependency:copy-dependencies"));
+        Assert.assertEquals("classifier=null", build("/tmp/second", "dependency:copy-dependencies"));
+        Assert.assertNull(System.getProperty("classifier"));
+        Assert.assertEquals(userDir, System.getProperty("user.dir"));
+    }
+
+    @Test
+    public void shouldNotSupportOptionsWhichChangeJvmWideState() {
+        Assert.assertTrue(MavenDaemon.isSupportedOption("install"));
+        Assert.assertTrue(MavenDaemon.isSupportedOption("-Dmaven.test.skip"));
+        Assert.assertTrue(MavenDaemon.isSupportedOption("-P=production"));
+        Assert.assertFalse(MavenDaemon.isSupportedOption("--log-file"));
+        Assert.assertFalse(MavenDaemon.isSupportedOption("-l"));
+    }
+
+    /** Runs build with {@link MavenDaemonClient} and returns its output. */
+    private String build(String workDir, String... mavenArgs) throws Exception {
+        final String[] args = new String[mavenArgs.length + 2];
+        args[0] = daemonsFile.getAbsolutePath();
+        args[1] = workDir;
+        System.arraycopy(mavenArgs, 0, args, 2, mavenArgs.length);
+        final PrintStream out = System.out;
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output, true, "UTF-8"));
+        try {
+            Assert.assertEquals(0, MavenDaemonClient.run(args));
+        } finally {
+            System.setOut(out);
+        }
+        return output.toString("UTF-8");
+    }
+
+    /** Sets {@code -D} options and working directory as system properties as Maven does and prints property {@code classifier}. */
+    public static class PropertiesCli {
+        public int doMain(String[] args, String workDir, PrintStream out, PrintStream err) {
+            for (String arg : args) {
+                if (arg.startsWith("-D")) {
+                    final int eq = arg.indexOf('=');
+                    System.setProperty(arg.substring(2, eq), arg.substring(eq + 1));
+                }
+            }
+            System.setProperty("user.dir", workDir);
+            out.print("classifier=" + System.getProperty("classifier"));
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.jdt;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.io.Files;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+
+import org.eclipse.che.jdt.core.JavaCore;
+import org.eclipse.che.jdt.internal.core.JarPackageFragmentRoot;
+import org.eclipse.che.jdt.internal.core.JavaProject;
+import org.eclipse.che.jdt.util.JarChecksums;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.internal.compiler.env.IBinaryType;
+import org.eclipse.jdt.internal.compiler.env.IDependent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Cache of JSON representation of binary types, shared between all projects and workspaces.
+ * Types are keyed by SHA-1 of the jar and type name, so identical jars are serialized only once.
+ * Cached JSON is kept in memory and on disk under {@code che.java.codeassistant.index.dir}.
+ * Total size of files on disk is limited, the least recently used files are deleted when it's exceeded.
+ *
+ * @see BinaryTypeConvector#toJsonBinaryTypeWithoutFileName(IBinaryType)
+ */
+@Singleton
+public class BinaryTypeCache {
+    /** Logger. */
+    private static final Logger LOG = LoggerFactory.getLogger(BinaryTypeCache.class);
+
+    private static final long MAX_MEMORY_CACHE_WEIGHT = 32 * 1024 * 1024;
+    private static final long MAX_DISK_CACHE_SIZE     = 256 * 1024 * 1024;
+
+    private final File                  cacheDir;
+    private final Cache<String, String> memoryCache;
+    private final long                  maxDiskSize;
+
+    /** Total size of cached files on disk, {@code -1} until cache directory is scanned. */
+    private long diskSize = -1;
+
+    @Inject
+    public BinaryTypeCache(@Named("che.java.codeassistant.index.dir") String temp) {
+        this(temp, MAX_DISK_CACHE_SIZE);
+    }
+
+    /**
+     * @param temp
+     *         directory where cached files are stored
+     * @param maxDiskSize
+     *         max total size of cached files in bytes
+     */
+    public BinaryTypeCache(String temp, long maxDiskSize) {
+        this.maxDiskSize = maxDiskSize;
+        cacheDir = new File(temp, "binary-types");
+        memoryCache = CacheBuilder.newBuilder().maximumWeight(MAX_MEMORY_CACHE_WEIGHT).weigher(new Weigher<String, String>() {
+            @Override
+            public int weigh(String key, String value) {
+                return key.length() + value.length();
+            }
+        }).build();
+    }
+
+    /**
+     * Converts binary type to JSON, if type is loaded from jar serialized JSON is reused.
+     *
+     * @param project
+     *         the project in which type is found
+     * @param type
+     *         the binary type
+     * @return JSON representation of type
+     */
+    public String toJson(JavaProject project, IBinaryType type) {
+        String jarChecksum = getJarChecksum(project, type);
+        if (jarChecksum == null || type.getName() == null) {
+            return BinaryTypeConvector.toJsonBinaryType(type);
+        }
+        String key = jarChecksum + '/' + new String(type.getName()).replace('/', '.');
+        String json = memoryCache.getIfPresent(key);
+        if (json == null) {
+            json = readFromDisk(key);
+            if (json == null) {
+                json = BinaryTypeConvector.toJsonBinaryTypeWithoutFileName(type);
+                writeToDisk(key, json);
+            }
+            memoryCache.put(key, json);
+        }
+        return BinaryTypeConvector.appendFileName(json, type.getFileName());
+    }
+
+    private String getJarChecksum(JavaProject project, IBinaryType type) {
+        if (type.getFileName() == null) {
+            return null;
+        }
+        String fileName = new String(type.getFileName());
+        int separatorIndex = fileName.indexOf(IDependent.JAR_FILE_ENTRY_SEPARATOR);
+        if (separatorIndex == -1) {
+            return null;
+        }
+        IJavaElement root = JavaCore.create(fileName.substring(0, separatorIndex), null, project);
+        if (!(root instanceof JarPackageFragmentRoot)) {
+            return null;
+        }
+        File jar = ((JarPackageFragmentRoot)root).getPath().toFile();
+        try {
+            return JarChecksums.sha1(jar);
+        } catch (IOException e) {
+            LOG.warn("Can't calculate checksum of jar " + jar.getPath(), e);
+            return null;
+        }
+    }
+
+    private String readFromDisk(String key) {
+        File file = new File(cacheDir, key + ".json");
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            String json = Files.toString(file, StandardCharsets.UTF_8);
+            // modification time is time of the last access, the least recently used files are deleted first
+            file.setLastModified(System.currentTimeMillis());
+            return json;
+        } catch (IOException e) {
+            LOG.warn("Can't read cached type " + file.getPath(), e);
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, String json) {
+        File file = new File(cacheDir, key + ".json");
+        try {
+            Files.createParentDirs(file);
+            // write to temporary file first, so concurrent readers never see partially written file
+            File tmp = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+            Files.write(json, tmp, StandardCharsets.UTF_8);
+            java.nio.file.Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Can't write cached type " + file.getPath(), e);
+            return;
+        }
+        written(file.length());
+    }
+
+    private synchronized void written(long size) {
+        if (diskSize < 0) {
+            // the first write after start, files of previous runs are counted as well
+            diskSize = 0;
+            for (CachedFile cached : listCachedFiles()) {
+                diskSize += cached.size;
+            }
+        } else {
+            diskSize += size;
+        }
+        if (diskSize > maxDiskSize) {
+            trim();
+        }
+    }
+
+    /** Deletes the least recently used files until total size is three quarters of limit, so files are not scanned on every write. */
+    private void trim() {
+        List<CachedFile> files = listCachedFiles();
+        Collections.sort(files, new Comparator<CachedFile>() {
+            @Override
+            public int compare(CachedFile a, CachedFile b) {
+                return Long.compare(a.accessed, b.accessed);
+            }
+        });
+        long size = 0;
+        for (CachedFile cached : files) {
+            size += cached.size;
+        }
+        long target = maxDiskSize / 4 * 3;
+        for (Iterator<CachedFile> it = files.iterator(); it.hasNext() && size > target; ) {
+            CachedFile cached = it.next();
+            if (cached.file.delete()) {
+                size -= cached.size;
+            }
+        }
+        diskSize = size;
+    }
+
+    private List<CachedFile> listCachedFiles() {
+        List<CachedFile> files = new ArrayList<>();
+        File[] jars = cacheDir.listFiles();
+        if (jars != null) {
+            for (File jar : jars) {
+                File[] types = jar.listFiles();
+                if (types != null) {
+                    for (File type : types) {
+                        // temporary files are being written
+                        if (type.getName().endsWith(".json")) {
+                            files.add(new CachedFile(type));
+                        }
+                    }
+                }
+            }
+        }
+        return files;
+    }
+
+    private static class CachedFile {
+        final File file;
+        final long size;
+        final long accessed;
+
+        CachedFile(File file) {
+            this.file = file;
+            this.size = file.length();
+            this.accessed = file.lastModified();
+        }
+    }
+}
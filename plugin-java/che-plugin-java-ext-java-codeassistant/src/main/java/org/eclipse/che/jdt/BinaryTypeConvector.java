@@ -47,6 +47,16 @@ public class BinaryTypeConvector {
     private static final Gson gson = new GsonBuilder().disableHtmlEscaping().serializeNulls().create();
 
     public static String toJsonBinaryType(IBinaryType type) {
+        return appendFileName(toJsonBinaryTypeWithoutFileName(type), type.getFileName());
+    }
+
+    /**
+     * Converts binary type to JSON without "fileName" property. The file name depends on location of the jar,
+     * so the rest of JSON may be shared between all projects that use the same jar.
+     *
+     * @see #appendFileName(String, char[])
+     */
+    public static String toJsonBinaryTypeWithoutFileName(IBinaryType type) {
         JsonObject object = new JsonObject();
         object.add("annotations", toJsonAnnotations(type.getAnnotations()));
         object.add("enclosingMethod",
@@ -72,10 +82,15 @@ public class BinaryTypeConvector {
                    type.sourceFileName() == null ? JsonNull.INSTANCE : new JsonPrimitive(new String(type.sourceFileName())));
         object.add("modifiers", new JsonPrimitive(type.getModifiers()));
         object.add("binaryType", new JsonPrimitive(type.isBinaryType()));
-        object.add("fileName", type.getFileName() == null ? JsonNull.INSTANCE : new JsonPrimitive(new String(type.getFileName())));
         return gson.toJson(object);
     }
 
+    /** Adds "fileName" property to JSON created by {@link #toJsonBinaryTypeWithoutFileName(IBinaryType)}. */
+    public static String appendFileName(String json, char[] fileName) {
+        JsonElement name = fileName == null ? JsonNull.INSTANCE : new JsonPrimitive(new String(fileName));
+        return json.substring(0, json.length() - 1) + ",\"fileName\":" + gson.toJson(name) + '}';
+    }
+
 
     private static JsonElement toJsonMethods(IBinaryMethod[] methods) {
         if (methods == null) return JsonNull.INSTANCE;
@@ -0,0 +1,525 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.jdt;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+
+import org.eclipse.che.api.builder.BuildStatus;
+import org.eclipse.che.api.builder.BuilderException;
+import org.eclipse.che.api.builder.dto.BuildOptions;
+import org.eclipse.che.api.builder.dto.BuildTaskDescriptor;
+import org.eclipse.che.api.builder.internal.BuilderEvent;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.api.core.rest.HttpJsonHelper;
+import org.eclipse.che.api.core.rest.shared.dto.Link;
+import org.eclipse.che.commons.annotation.Nullable;
+import org.eclipse.che.commons.env.EnvironmentContext;
+import org.eclipse.che.commons.lang.Pair;
+import org.eclipse.che.commons.user.User;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.validation.constraints.NotNull;
+import javax.ws.rs.core.UriBuilder;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Updates dependencies of projects for code assistant.
+ * <p/>
+ * Builds which copy dependency jars and their sources are launched at once. Builds are watched in background: status of build is
+ * checked when builder reports end of a build of the project, see {@link BuilderEvent}, and periodically in case events aren't
+ * delivered to this server. Dependency jars are installed as soon as they are built, so project may be used for code assistant while sources
+ * are still being built, sources are attached to project later.
+ */
+@Singleton
+public class DependencyUpdater {
+    private static final Logger LOG = LoggerFactory.getLogger(DependencyUpdater.class);
+
+    /** Period in milliseconds of checking status of builds when builder events aren't received. */
+    @Inject(optional = true)
+    @Named("che.java.codeassistant.dependencies.check_period_ms")
+    private long checkPeriod = 5000;
+
+    /** Time in milliseconds during which request waits until dependency jars are installed. */
+    @Inject(optional = true)
+    @Named("che.java.codeassistant.dependencies.await_timeout_ms")
+    private long awaitTimeout = TimeUnit.MINUTES.toMillis(10);
+
+    private final JavaProjectService                                javaProjectService;
+    private final JarStore                                          jarStore;
+    private final String                                            temp;
+    private final String                                            apiUrl;
+    private final ScheduledExecutorService                          executor;
+    private final ConcurrentHashMap<String, Update>                 updates  = new ConcurrentHashMap<>();
+    /** Updates whose builds are being launched, concurrent requests of the same project wait for them. */
+    private final ConcurrentHashMap<String, SettableFuture<Update>> launches = new ConcurrentHashMap<>();
+    /** Recently finished updates, client may wait for update after it's finished. */
+    private final Cache<String, Update>                             finished =
+            CacheBuilder.newBuilder().expireAfterWrite(10, TimeUnit.MINUTES).<String, Update>build();
+
+    @Inject
+    public DependencyUpdater(EventService eventService,
+                             JavaProjectService javaProjectService,
+                             JarStore jarStore,
+                             @Named("che.java.codeassistant.index.dir") String temp,
+                             @Named("api.endpoint") String apiUrl) {
+        this.javaProjectService = javaProjectService;
+        this.jarStore = jarStore;
+        this.temp = temp;
+        this.apiUrl = apiUrl;
+        executor = Executors.newScheduledThreadPool(
+                4, new ThreadFactoryBuilder().setNameFormat("JavaDependencyUpdater-%d").setDaemon(true).build());
+        eventService.subscribe(new EventSubscriber<BuilderEvent>() {
+            @Override
+            public void onEvent(BuilderEvent event) {
+                // status of build isn't changed by other events, builds which end otherwise are found by periodic check
+                if (event.getType() != BuilderEvent.EventType.DONE) {
+                    return;
+                }
+                final Update update = updates.get(event.getWorkspace() + event.getProject());
+                // one check is queued for all events which come while check is pending
+                if (update != null && update.checkRequested.compareAndSet(false, true)) {
+                    executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            update.runRequestedChecks();
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    /**
+     * Launches builds which copy dependencies of the project and their sources. If dependency jars of project are still being
+     * built running update is reused. Update whose jars are already installed isn't reused even if its sources are still being
+     * built, project may be changed since its builds were launched.
+     *
+     * @return descriptor of build which copies dependency jars
+     */
+    public BuildTaskDescriptor start(String wsId, String projectPath) throws Exception {
+        String key = wsId + projectPath;
+        Update update = updates.get(key);
+        if (update != null && update.isBuildingJars()) {
+            return update.getJars();
+        }
+        SettableFuture<Update> launch = SettableFuture.create();
+        SettableFuture<Update> concurrentLaunch = launches.putIfAbsent(key, launch);
+        if (concurrentLaunch != null) {
+            // builds are being launched by another request
+            return getResult(concurrentLaunch).getJars();
+        }
+        try {
+            update = updates.get(key);
+            if (update == null || !update.isBuildingJars()) {
+                update = watch(launch(wsId, projectPath));
+            }
+            launch.set(update);
+            return update.getJars();
+        } catch (Exception e) {
+            launch.setException(e);
+            throw e;
+        } finally {
+            launches.remove(key, launch);
+        }
+    }
+
+    /**
+     * Waits until dependency jars of the project are installed. Update is resumed if it isn't known, e.g. if it's started
+     * by other server.
+     *
+     * @param descriptor
+     *         descriptor of build which copies dependency jars, as it's returned by {@link #start(String, String)}
+     * @throws BuilderException
+     *         if jars aren't installed during {@code che.java.codeassistant.dependencies.await_timeout_ms}
+     */
+    public void await(String wsId, String projectPath, BuildTaskDescriptor descriptor) throws Exception {
+        Update update = updates.get(wsId + projectPath);
+        if (update == null) {
+            update = finished.getIfPresent(wsId + projectPath);
+            if (update == null || !isSameTask(update.getJars(), descriptor)) {
+                update = watch(new Update(wsId, projectPath, descriptor, null));
+            }
+        }
+        try {
+            getResult(update.binaries, awaitTimeout);
+        } catch (TimeoutException e) {
+            throw new BuilderException("Timeout of waiting for dependencies of project " + projectPath);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    private Update launch(String wsId, String projectPath) throws Exception {
+        String url = apiUrl + "/builder/" + wsId + "/dependencies";
+        BuildTaskDescriptor jars = getDependencies(url, projectPath, null);
+        BuildOptions buildOptions = DtoFactory.getInstance().createDto(BuildOptions.class);
+        buildOptions.getOptions().put("-Dclassifier", "sources");
+        BuildTaskDescriptor sources;
+        try {
+            sources = getDependencies(url, projectPath, buildOptions);
+        } catch (Exception e) {
+            // sources are optional
+            LOG.warn("Can't launch build of dependency sources of project " + wsId + projectPath, e);
+            sources = null;
+        }
+        return new Update(wsId, projectPath, jars, sources);
+    }
+
+    /**
+     * Starts watching of update. Returns update of the same project which is still building jars instead, update whose jars are
+     * installed is replaced and its sources are dropped.
+     */
+    private Update watch(final Update update) {
+        for (; ; ) {
+            Update existing = updates.putIfAbsent(update.getKey(), update);
+            if (existing == null) {
+                break;
+            }
+            if (existing.isBuildingJars()) {
+                return existing;
+            }
+            if (updates.replace(update.getKey(), existing, update)) {
+                existing.cancel();
+                break;
+            }
+        }
+        update.periodicCheck = executor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                update.requestCheck();
+            }
+        }, 0, checkPeriod, TimeUnit.MILLISECONDS);
+        // update may be finished by the first check before periodic check is assigned
+        if (update.done) {
+            update.periodicCheck.cancel(false);
+        }
+        return update;
+    }
+
+    private static <T> T getResult(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception)cause : e;
+        }
+    }
+
+    private static <T> T getResult(Future<T> future, long timeoutMs) throws Exception {
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception)cause : e;
+        }
+    }
+
+    @NotNull
+    private BuildTaskDescriptor getDependencies(@NotNull String url, @NotNull String projectName, @Nullable BuildOptions options)
+            throws Exception {
+        Pair<String, String> projectParam = Pair.of("project", projectName);
+        Pair<String, String> typeParam = Pair.of("type", "copy");
+        return HttpJsonHelper.request(BuildTaskDescriptor.class, url, "POST", options, projectParam, typeParam);
+    }
+
+    private static boolean isSameTask(BuildTaskDescriptor descriptor, BuildTaskDescriptor other) {
+        return descriptor.getTaskId() == other.getTaskId();
+    }
+
+    private static boolean isRunning(BuildTaskDescriptor descriptor) {
+        return descriptor.getStatus() == BuildStatus.IN_PROGRESS || descriptor.getStatus() == BuildStatus.IN_QUEUE;
+    }
+
+    private static BuilderException buildFailed(BuildTaskDescriptor buildStatus) {
+        Link logLink = findLink("view build log", buildStatus.getLinks());
+        if (logLink == null) {
+            return new BuilderException("Build failed");
+        }
+        LOG.warn("Build failed see more detail here: " + logLink.getHref());
+        return new BuilderException(
+                "Build failed see more detail here: <a href=\"" + logLink.getHref() + "\" target=\"_blank\">" + logLink.getHref() +
+                "</a>.");
+    }
+
+    @Nullable
+    private static Link findLink(@NotNull String rel, List<Link> links) {
+        for (Link link : links) {
+            if (link.getRel().equals(rel)) {
+                return link;
+            }
+        }
+        return null;
+    }
+
+    private static String getAuthenticationToken() {
+        User user = EnvironmentContext.getCurrent().getUser();
+        if (user != null) {
+            return user.getToken();
+        }
+        return null;
+    }
+
+    /** Opens stream of build result, connection is closed when stream is closed or when all data is read. */
+    private static InputStream doDownload(String downloadURL) throws IOException {
+        HttpURLConnection http = null;
+        try {
+            URI uri = UriBuilder.fromUri(downloadURL).queryParam("token", getAuthenticationToken()).build();
+            http = (HttpURLConnection)uri.toURL().openConnection();
+            http.setRequestMethod("GET");
+            int responseCode = http.getResponseCode();
+            if (responseCode != 200) {
+                throw new IOException("Your project referenced a zipped dependency that cannot be downloaded.");
+            }
+            return new HttpStream(http);
+        } catch (IOException ioe) {
+            if (http != null) {
+                http.disconnect();
+            }
+            throw ioe;
+        }
+    }
+
+    /** Update of dependencies of single project. */
+    private class Update {
+        private final    String               wsId;
+        private final    String               projectPath;
+        private final    User                 user;
+        private final    SettableFuture<Void> binaries = SettableFuture.create();
+        /** Set when status of builds should be checked, requests of check are coalesced. */
+        private final    AtomicBoolean        checkRequested = new AtomicBoolean();
+        private final    Lock                 checkLock      = new ReentrantLock();
+        private volatile BuildTaskDescriptor  jars;
+        private          BuildTaskDescriptor  sources;
+        private volatile ScheduledFuture<?>   periodicCheck;
+        private volatile boolean              done;
+
+        private Update(String wsId, String projectPath, BuildTaskDescriptor jars, @Nullable BuildTaskDescriptor sources) {
+            this.wsId = wsId;
+            this.projectPath = projectPath;
+            this.jars = jars;
+            this.sources = sources;
+            // builds are checked in background, with credentials of user who started update
+            this.user = EnvironmentContext.getCurrent().getUser();
+        }
+
+        String getKey() {
+            return wsId + projectPath;
+        }
+
+        BuildTaskDescriptor getJars() {
+            return jars;
+        }
+
+        boolean isBuildingJars() {
+            return !binaries.isDone();
+        }
+
+        void requestCheck() {
+            checkRequested.set(true);
+            runRequestedChecks();
+        }
+
+        /**
+         * Checks builds while check is requested. Thread doesn't wait while another thread checks builds and downloads
+         * dependencies, request is handled by that thread instead, so threads of executor aren't blocked by single project.
+         */
+        void runRequestedChecks() {
+            while (checkRequested.get() && checkLock.tryLock()) {
+                try {
+                    if (checkRequested.getAndSet(false)) {
+                        check();
+                    }
+                } finally {
+                    checkLock.unlock();
+                }
+            }
+        }
+
+        private void check() {
+            // update may be finished or replaced by newer one
+            if (updates.get(getKey()) != this) {
+                return;
+            }
+            EnvironmentContext.getCurrent().setUser(user);
+            try {
+                if (!binaries.isDone()) {
+                    if (!checkJars()) {
+                        return;
+                    }
+                }
+                if (sources != null && !checkSources()) {
+                    return;
+                }
+                finish();
+            } finally {
+                EnvironmentContext.reset();
+            }
+        }
+
+        /** Returns {@code true} if update of jars is finished. */
+        private boolean checkJars() {
+            try {
+                jars = getStatus(jars);
+                if (isRunning(jars)) {
+                    return false;
+                }
+                if (jars.getStatus() == BuildStatus.FAILED) {
+                    throw buildFailed(jars);
+                }
+                javaProjectService.removeProject(wsId, projectPath);
+                File projectDepDir = new File(temp, wsId + projectPath);
+                projectDepDir.mkdirs();
+                Link downloadLink = findLink("download result", jars.getLinks());
+                if (downloadLink != null) {
+                    jarStore.unzip(doDownload(downloadLink.getHref()), projectDepDir);
+                }
+                //create JavaProject and put it into cache
+                javaProjectService.getOrCreateJavaProject(wsId, projectPath);
+                binaries.set(null);
+                return true;
+            } catch (Throwable e) {
+                LOG.warn("Can't update dependencies of project " + getKey(), e);
+                binaries.setException(e);
+                sources = null;
+                finish();
+                return false;
+            }
+        }
+
+        /** Returns {@code true} if update of sources is finished. */
+        private boolean checkSources() {
+            try {
+                sources = getStatus(sources);
+                if (isRunning(sources)) {
+                    return false;
+                }
+                Link downloadLink = findLink("download result", sources.getLinks());
+                if (sources.getStatus() == BuildStatus.SUCCESSFUL && downloadLink != null) {
+                    File projectSourcesJars = new File(temp, wsId + projectPath + "/sources");
+                    projectSourcesJars.mkdirs();
+                    jarStore.unzip(doDownload(downloadLink.getHref()), projectSourcesJars);
+                    // project is recreated with sources on next access, indexes of jars are kept
+                    javaProjectService.reloadProject(wsId, projectPath);
+                } else {
+                    LOG.warn("Can't build dependency sources of project " + getKey());
+                }
+            } catch (Throwable e) {
+                LOG.warn("Can't update dependency sources of project " + getKey(), e);
+            }
+            return true;
+        }
+
+        private BuildTaskDescriptor getStatus(BuildTaskDescriptor descriptor) throws Exception {
+            Link statusLink = findLink("get status", descriptor.getLinks());
+            if (statusLink == null || !isRunning(descriptor)) {
+                return descriptor;
+            }
+            return HttpJsonHelper.request(BuildTaskDescriptor.class, statusLink);
+        }
+
+        private void finish() {
+            finished.put(getKey(), this);
+            updates.remove(getKey(), this);
+            cancel();
+        }
+
+        /** Stops checking of builds. */
+        void cancel() {
+            done = true;
+            ScheduledFuture<?> periodicCheck = this.periodicCheck;
+            if (periodicCheck != null) {
+                periodicCheck.cancel(false);
+            }
+        }
+    }
+
+    /** Stream that automatically close HTTP connection when all data ends. */
+    private static class HttpStream extends FilterInputStream {
+        private final HttpURLConnection http;
+
+        private boolean closed;
+
+        private HttpStream(HttpURLConnection http) throws IOException {
+            super(http.getInputStream());
+            this.http = http;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int r = super.read();
+            if (r == -1) {
+                close();
+            }
+            return r;
+        }
+
+        @Override
+        public int read(byte[] b) throws IOException {
+            int r = super.read(b);
+            if (r == -1) {
+                close();
+            }
+            return r;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int r = super.read(b, off, len);
+            if (r == -1) {
+                close();
+            }
+            return r;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            try {
+                super.close();
+            } finally {
+                http.disconnect();
+                closed = true;
+            }
+        }
+    }
+}
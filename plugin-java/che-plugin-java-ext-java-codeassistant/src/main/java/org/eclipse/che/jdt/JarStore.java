@@ -0,0 +1,233 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.jdt;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+
+import org.eclipse.che.jdt.util.JarChecksums;
+import org.eclipse.che.jdt.util.ZipFileCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Node-wide store of dependency jars shared between all projects and workspaces.
+ * Jars are keyed by SHA-1 of their content and are stored once, dependency directory of project contains hard links
+ * to stored jars, so the same jar used by many projects takes disk space only once. Jar is copied if hard link can't be created.
+ * Stored jar which is not linked from any project is removed by garbage collection, see {@link #requestGc()}.
+ */
+@Singleton
+public class JarStore {
+    private static final Logger LOG = LoggerFactory.getLogger(JarStore.class);
+
+    private static final String JAR_SUFFIX = ".jar";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    /** Delay in milliseconds after removal of project dependencies before unused jars are removed from store. */
+    @Inject(optional = true)
+    @Named("che.java.codeassistant.jar_store.gc_delay_ms")
+    private long gcDelay = TimeUnit.MINUTES.toMillis(10);
+
+    private final File                     storeDir;
+    private final ScheduledExecutorService gcExecutor;
+    private       ScheduledFuture<?>       pendingGc;
+
+    @Inject
+    public JarStore(@Named("che.java.codeassistant.index.dir") String temp) {
+        storeDir = new File(temp, "jars");
+        storeDir.mkdirs();
+        File[] files = storeDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().endsWith(TMP_SUFFIX)) {
+                    // not finished copy
+                    file.delete();
+                }
+            }
+        }
+        gcExecutor = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("JarStoreGc").setDaemon(true).build());
+    }
+
+    /**
+     * Extracts zip archive to the directory. Jars are added to the store and are linked to the directory, other entries are
+     * extracted as usual. Archive is read as stream, so it's not required to save it on disk.
+     *
+     * @param in
+     *         zip archive, stream is closed by this method
+     * @param dir
+     *         target directory
+     * @throws IOException
+     *         if archive can't be read or directory can't be written
+     */
+    public void unzip(InputStream in, File dir) throws IOException {
+        String dirPath = dir.getCanonicalPath() + File.separator;
+        try (ZipInputStream zip = new ZipInputStream(new BufferedInputStream(in))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                File target = new File(dir, entry.getName());
+                if (!target.getCanonicalPath().startsWith(dirPath)) {
+                    throw new IOException("Zip entry is outside of target directory: " + entry.getName());
+                }
+                if (entry.isDirectory()) {
+                    target.mkdirs();
+                    continue;
+                }
+                target.getParentFile().mkdirs();
+                if (entry.getName().endsWith(JAR_SUFFIX)) {
+                    add(zip, target);
+                } else {
+                    Files.copy(zip, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds jar to the store if the same jar isn't stored yet and links it to the target file.
+     *
+     * @param in
+     *         content of jar, stream isn't closed by this method
+     * @param target
+     *         file in project dependency directory, existing file is replaced
+     * @throws IOException
+     *         if jar can't be stored or linked
+     */
+    public void add(InputStream in, File target) throws IOException {
+        File tmp = File.createTempFile("jar", TMP_SUFFIX, storeDir);
+        String checksum;
+        try {
+            MessageDigest digest = sha1();
+            Files.copy(new DigestInputStream(in, digest), tmp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            checksum = toHex(digest.digest());
+            synchronized (this) {
+                File stored = getStoredJar(checksum);
+                if (!stored.exists()) {
+                    stored.getParentFile().mkdirs();
+                    Files.move(tmp.toPath(), stored.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                    // content is shared by all links, nobody may change it
+                    stored.setReadOnly();
+                }
+                link(stored, target);
+            }
+        } finally {
+            tmp.delete();
+        }
+        JarChecksums.remember(target, checksum);
+    }
+
+    /**
+     * Schedules removal of jars which are not linked from any project. Removal is delayed, so jars of project which dependencies
+     * are being updated are reused.
+     */
+    public synchronized void requestGc() {
+        if (pendingGc != null && !pendingGc.isDone()) {
+            return;
+        }
+        pendingGc = gcExecutor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                gc();
+            }
+        }, gcDelay, TimeUnit.MILLISECONDS);
+    }
+
+    /** Removes jars which are not linked from any project. */
+    public synchronized void gc() {
+        File[] dirs = storeDir.listFiles();
+        if (dirs == null) {
+            return;
+        }
+        int removed = 0;
+        try {
+            for (File dir : dirs) {
+                File[] jars = dir.listFiles();
+                if (jars == null) {
+                    continue;
+                }
+                for (File jar : jars) {
+                    // link of store itself is the only one
+                    if ((Integer)Files.getAttribute(jar.toPath(), "unix:nlink") <= 1 && jar.delete()) {
+                        removed++;
+                    }
+                }
+                String[] rest = dir.list();
+                if (rest != null && rest.length == 0) {
+                    dir.delete();
+                }
+            }
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            // links are not counted by file system, unused jars can't be detected
+            LOG.debug("Can't count links of stored jars", e);
+        } catch (IOException e) {
+            LOG.warn("Can't remove unused jars from store", e);
+        }
+        LOG.debug("Removed {} unused jars from store", removed);
+    }
+
+    @PreDestroy
+    void stop() {
+        gcExecutor.shutdownNow();
+    }
+
+    File getStoredJar(String checksum) {
+        return new File(storeDir, checksum.substring(0, 2) + File.separator + checksum + JAR_SUFFIX);
+    }
+
+    private static void link(File stored, File target) throws IOException {
+        Files.deleteIfExists(target.toPath());
+        try {
+            Files.createLink(target.toPath(), stored.toPath());
+        } catch (IOException | UnsupportedOperationException e) {
+            LOG.debug("Can't create link to stored jar, jar is copied", e);
+            Files.copy(stored.toPath(), target.toPath());
+            target.setWritable(true);
+        }
+        JarChecksums.forget(target);
+        ZipFileCache.forget(target);
+    }
+
+    private static MessageDigest sha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-1 is supported by every JVM
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -12,8 +12,10 @@ package org.eclipse.che.jdt;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.RemovalListener;
 import com.google.common.cache.RemovalNotification;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.name.Named;
@@ -21,11 +23,15 @@ import com.google.inject.name.Named;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.api.project.server.Constants;
 import org.eclipse.che.api.vfs.server.observation.VirtualFileEvent;
 import org.eclipse.che.commons.lang.IoUtil;
 import org.eclipse.che.commons.schedule.ScheduleRate;
 import org.eclipse.che.jdt.core.resources.ResourceChangedEvent;
 import org.eclipse.che.jdt.internal.core.JavaProject;
+import org.eclipse.che.jdt.internal.core.search.indexing.JarIndexPool;
+import org.eclipse.che.jdt.internal.core.search.processing.IndexingScheduler;
+import org.eclipse.che.jdt.util.ZipFileCache;
 import org.eclipse.che.vfs.impl.fs.LocalFSMountStrategy;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
@@ -34,12 +40,25 @@ import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PreDestroy;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Maintenance and create JavaProjects
@@ -51,19 +70,65 @@ public class JavaProjectService {
     /** Logger. */
     private static final Logger LOG = LoggerFactory.getLogger(JavaProjectService.class);
 
+    /** Time in milliseconds during which indexing of project is prioritized after user request. */
+    private static final long INTERACTIVE_PERIOD = 30 * 1000;
+
     private Cache<String, JavaProject> cache;
     private ConcurrentHashMap<String, CopyOnWriteArraySet<String>> projectInWs = new ConcurrentHashMap<>();
     private LocalFSMountStrategy fsMountStrategy;
     private String               tempDir;
     private Map<String, String> options = new HashMap<>();
+    private JarIndexPool         jarIndexPool;
+    private IndexingScheduler    indexingScheduler;
+    private JarStore             jarStore;
+
+    /** Delay in milliseconds after last source structure change before name environment of project is rebuilt. */
+    @Inject(optional = true)
+    @Named("che.java.codeassistant.name_environment.refresh_delay_ms")
+    private long refreshDelay = 500;
+
+    private final ScheduledExecutorService                      refreshExecutor;
+    private final ConcurrentHashMap<String, ScheduledFuture<?>> pendingRefreshes = new ConcurrentHashMap<>();
+
+    /** Heap budget in megabytes for all cached projects, least recently used projects are demoted when it's exceeded. */
+    @Inject(optional = true)
+    @Named("che.java.codeassistant.project_cache.max_heap_mb")
+    private long maxHeapMb = 1024;
+
+    /**
+     * Time in seconds after last access of project during which project isn't demoted because of heap budget,
+     * so project isn't closed while requests use it. Model of demoted or reloaded project is closed after the same time.
+     */
+    @Inject(optional = true)
+    @Named("che.java.codeassistant.project_cache.demotion_grace_period_s")
+    private long demotionGracePeriod = 120;
+
+    private final ConcurrentHashMap<String, Long> lastAccessTimes = new ConcurrentHashMap<>();
+    /** Projects removed from cache because of heap budget, their indexes are kept on disk. */
+    private final Set<JavaProject>                demotedProjects =
+            Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<JavaProject, Boolean>()));
+    private final AtomicLong                      demotionCount   = new AtomicLong();
+    private final AtomicLong                      loadCount       = new AtomicLong();
+    private final AtomicLong                      totalLoadTime   = new AtomicLong();
 
     @Inject
     public JavaProjectService(EventService eventService,
                               LocalFSMountStrategy fsMountStrategy,
-                              @Named("che.java.codeassistant.index.dir") String temp) {
+                              JarIndexPool jarIndexPool,
+                              IndexingScheduler indexingScheduler,
+                              JarStore jarStore,
+                              @Named("che.java.codeassistant.index.dir") String temp,
+                              @Named("che.java.codeassistant.jar_cache.max_open_files") int maxOpenJarFiles) {
         eventService.subscribe(new VirtualFileEventSubscriber());
+        // maximum number of jar files kept open by all projects
+        ZipFileCache.setMaxOpenFiles(maxOpenJarFiles);
         this.fsMountStrategy = fsMountStrategy;
+        this.jarIndexPool = jarIndexPool;
+        this.indexingScheduler = indexingScheduler;
+        this.jarStore = jarStore;
         tempDir = temp;
+        refreshExecutor = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("JavaNameEnvironmentRefresher").setDaemon(true).build());
         options.put(JavaCore.COMPILER_COMPLIANCE, JavaCore.VERSION_1_7);
         options.put(JavaCore.CORE_ENCODING, "UTF-8");
         options.put(JavaCore.COMPILER_SOURCE, JavaCore.VERSION_1_7);
@@ -79,12 +144,17 @@ public class JavaProjectService {
         options.put(JavaCore.COMPILER_ANNOTATION_NULL_ANALYSIS, JavaCore.ENABLED);
         options.put(CompilerOptions.OPTION_Process_Annotations, JavaCore.ENABLED);
         options.put(CompilerOptions.OPTION_GenerateClassFiles, JavaCore.ENABLED);
-        cache = CacheBuilder.newBuilder().expireAfterAccess(4, TimeUnit.HOURS).removalListener(
+        cache = CacheBuilder.newBuilder().expireAfterAccess(4, TimeUnit.HOURS).recordStats().removalListener(
                 new RemovalListener<String, JavaProject>() {
                     @Override
                     public void onRemoval(RemovalNotification<String, JavaProject> notification) {
                         JavaProject value = notification.getValue();
                         if (value != null) {
+                            if (demotedProjects.remove(value)) {
+                                demoteProject(value);
+                                return;
+                            }
+                            lastAccessTimes.remove(notification.getKey());
                             closeProject(value);
                             deleteDependencyDirectory(value.getWsId(), value.getProjectPath());
                         }
@@ -94,8 +164,10 @@ public class JavaProjectService {
 
     public JavaProject getOrCreateJavaProject(String wsId, String projectPath) {
         String key = wsId + projectPath;
+        lastAccessTimes.put(key, System.currentTimeMillis());
         JavaProject project = cache.getIfPresent(key);
         if (project != null) {
+            project.getIndexManager().prioritize(INTERACTIVE_PERIOD);
             return project;
         }
         File mountPath;
@@ -104,12 +176,18 @@ public class JavaProjectService {
         } catch (ServerException e) {
             throw new RuntimeException(e);
         }
-        JavaProject javaProject = new JavaProject(mountPath, projectPath, tempDir, wsId, new HashMap<>(options));
+        long start = System.currentTimeMillis();
+        JavaProject javaProject = new JavaProject(mountPath, projectPath, tempDir, wsId, new HashMap<>(options), jarIndexPool,
+                                                  indexingScheduler);
+        loadCount.incrementAndGet();
+        totalLoadTime.addAndGet(System.currentTimeMillis() - start);
+        javaProject.getIndexManager().prioritize(INTERACTIVE_PERIOD);
         cache.put(key, javaProject);
         if (!projectInWs.containsKey(wsId)) {
             projectInWs.put(wsId, new CopyOnWriteArraySet<String>());
         }
         projectInWs.get(wsId).add(projectPath);
+        trimToHeapBudget();
         return javaProject;
     }
 
@@ -126,6 +204,10 @@ public class JavaProjectService {
         if (projectInWs.containsKey(wsId)) {
             projectInWs.get(wsId).remove(projectPath);
         }
+        ScheduledFuture<?> pendingRefresh = pendingRefreshes.remove(wsId + projectPath);
+        if (pendingRefresh != null) {
+            pendingRefresh.cancel(false);
+        }
         if (javaProject != null) {
             cache.invalidate(wsId + projectPath);
             closeProject(javaProject);
@@ -133,6 +215,104 @@ public class JavaProjectService {
         deleteDependencyDirectory(wsId, projectPath);
     }
 
+    /**
+     * Recreates project on next access, e.g. when sources of dependencies are added.
+     * Dependencies and indexes of project are kept, so project isn't reindexed.
+     * Model of the current instance is closed after grace period, since it may be in use.
+     */
+    public void reloadProject(String wsId, String projectPath) {
+        String key = wsId + projectPath;
+        JavaProject javaProject = cache.getIfPresent(key);
+        if (javaProject != null) {
+            demotedProjects.add(javaProject);
+            if (!cache.asMap().remove(key, javaProject)) {
+                demotedProjects.remove(javaProject);
+            }
+        }
+    }
+
+    /**
+     * Demotes least recently used projects while estimated heap retained by all cached projects exceeds the budget.
+     * Demoted project drops its in-memory model but keeps indexes and dependencies on disk,
+     * so it's recreated without reindexing on next access.
+     */
+    private synchronized void trimToHeapBudget() {
+        long budget = maxHeapMb * 1024 * 1024;
+        Map<String, JavaProject> projects = new HashMap<>(cache.asMap());
+        Map<String, Long> sizes = new HashMap<>();
+        long total = 0;
+        for (Map.Entry<String, JavaProject> entry : projects.entrySet()) {
+            long size = entry.getValue().estimateRetainedSize();
+            sizes.put(entry.getKey(), size);
+            total += size;
+        }
+        if (total <= budget) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(projects.keySet());
+        Collections.sort(keys, new Comparator<String>() {
+            @Override
+            public int compare(String o1, String o2) {
+                return Long.compare(getLastAccessTime(o1), getLastAccessTime(o2));
+            }
+        });
+        long idleSince = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(demotionGracePeriod);
+        // most recently used project is never demoted
+        for (int i = 0; i < keys.size() - 1 && total > budget; i++) {
+            String key = keys.get(i);
+            if (getLastAccessTime(key) > idleSince) {
+                // projects are sorted by access time, so all next projects may be in use as well
+                break;
+            }
+            JavaProject project = projects.get(key);
+            demotedProjects.add(project);
+            if (cache.asMap().remove(key, project)) {
+                total -= sizes.get(key);
+            } else {
+                demotedProjects.remove(project);
+            }
+        }
+    }
+
+    private long getLastAccessTime(String key) {
+        Long time = lastAccessTimes.get(key);
+        return time == null ? 0 : time;
+    }
+
+    private void demoteProject(final JavaProject javaProject) {
+        demotionCount.incrementAndGet();
+        // indexes are saved at once, so the next instance of project doesn't index again
+        javaProject.shutdownIndexes();
+        // reloaded project may be still used by requests which got it before it's reloaded
+        refreshExecutor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    javaProject.closeKeepingIndexes();
+                } catch (JavaModelException e) {
+                    LOG.error("Error when trying demote project.", e);
+                }
+            }
+        }, demotionGracePeriod, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Returns counters of project cache for monitoring: hits, misses, evictions, demotions, number of
+     * created projects and total time in milliseconds spent on their creation.
+     */
+    public Map<String, Long> getCacheMetrics() {
+        CacheStats stats = cache.stats();
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        metrics.put("size", cache.size());
+        metrics.put("hits", stats.hitCount());
+        metrics.put("misses", stats.missCount());
+        metrics.put("evictions", stats.evictionCount());
+        metrics.put("demotions", demotionCount.get());
+        metrics.put("loads", loadCount.get());
+        metrics.put("loadTime", totalLoadTime.get());
+        return metrics;
+    }
+
     private void closeProject(JavaProject javaProject) {
         try {
             javaProject.close();
@@ -145,9 +325,57 @@ public class JavaProjectService {
         return options;
     }
 
+    /**
+     * Rebuilds name environment of the project when no more changes come during the refresh delay.
+     * Name environment is also rebuilt on demand if project is accessed before the delay expires.
+     */
+    private void scheduleNameEnvironmentRefresh(final String key, final JavaProject javaProject) {
+        javaProject.invalidateNameEnvironment();
+        final AtomicReference<ScheduledFuture<?>> self = new AtomicReference<>();
+        ScheduledFuture<?> future = refreshExecutor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                // refresh is started, entry isn't needed to cancel it anymore and must not keep project key in map
+                pendingRefreshes.remove(key, self.get());
+                try {
+                    javaProject.refreshNameEnvironment();
+                } catch (Throwable t) {
+                    LOG.error("Can't refresh name environment", t);
+                }
+            }
+        }, refreshDelay, TimeUnit.MILLISECONDS);
+        self.set(future);
+        ScheduledFuture<?> previous = pendingRefreshes.put(key, future);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+    }
+
+    /** Returns {@code true} if change of the file may affect classpath of project. */
+    private boolean isClasspathChange(String path, boolean folder) {
+        if (folder) {
+            return false;
+        }
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        return "pom.xml".equals(name) || "build.xml".equals(name) || name.endsWith(".jar")
+               || path.endsWith(Constants.CODENVY_PROJECT_FILE_RELATIVE_PATH);
+    }
+
+    @PreDestroy
+    void stop() {
+        refreshExecutor.shutdownNow();
+        ZipFileCache.closeUnused();
+    }
+
     private void deleteDependencyDirectory(String wsId, String projectPath) {
+        // indexes of demoted project
+        File projectIndexDir = new File(tempDir, "indexes/" + wsId + projectPath);
+        if (projectIndexDir.exists()) {
+            IoUtil.deleteRecursive(projectIndexDir);
+        }
         File projectDepDir = new File(tempDir, wsId + projectPath);
         if (projectDepDir.exists()) {
+            ZipFileCache.forget(projectDepDir);
             IoUtil.deleteRecursive(projectDepDir);
             File wsDepDir = new File(tempDir, wsId);
             if (wsDepDir.exists()) {
@@ -156,6 +384,7 @@ public class JavaProjectService {
                     wsDepDir.delete();
                 }
             }
+            jarStore.requestGc();
         }
     }
 
@@ -187,7 +416,14 @@ public class JavaProjectService {
                                 try {
                                     javaProject.getJavaModelManager().deltaState.resourceChanged(
                                             new ResourceChangedEvent(fsMountStrategy.getMountPath(eventWorkspace), event));
-                                    javaProject.creteNewNameEnvironment();
+                                    javaProject.getSearchResultCache().invalidate();
+                                    if (isClasspathChange(eventPath, event.isFolder())) {
+                                        javaProject.creteNewNameEnvironment();
+                                    } else if (eventType != VirtualFileEvent.ChangeType.CONTENT_UPDATED || event.isFolder()) {
+                                        // packages or compilation units are added or removed, name lookup must be rebuilt,
+                                        // content of existing compilation unit is re-read by java model without it
+                                        scheduleNameEnvironmentRefresh(eventWorkspace + path, javaProject);
+                                    }
                                 } catch (ServerException e) {
                                     LOG.error("Can't find workspace mount path", e);
                                 }
@@ -209,5 +445,18 @@ public class JavaProjectService {
     @ScheduleRate(initialDelay = 1, period = 1, unit = TimeUnit.HOURS)
     void cacheClenup() {
         cache.cleanUp();
+        LOG.info("Java project cache: {}", getCacheMetrics());
+    }
+
+    /**
+     * Periodically checks heap budget of cached projects, since projects grow when files are opened.
+     */
+    @ScheduleRate(initialDelay = 1, period = 1, unit = TimeUnit.MINUTES)
+    void checkHeapBudget() {
+        try {
+            trimToHeapBudget();
+        } catch (Throwable t) {
+            LOG.error("Can't check heap budget of java projects", t);
+        }
     }
 }
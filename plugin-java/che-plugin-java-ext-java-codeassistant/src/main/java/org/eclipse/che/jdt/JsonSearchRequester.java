@@ -53,6 +53,15 @@ public class JsonSearchRequester implements ISearchRequestor {
     }
 
     public String toJsonString() {
+        return toJsonString(result);
+    }
+
+    /** Returns found items. */
+    public JsonArray getResult() {
+        return result;
+    }
+
+    static String toJsonString(JsonArray result) {
         return gson.toJson(result);
     }
 
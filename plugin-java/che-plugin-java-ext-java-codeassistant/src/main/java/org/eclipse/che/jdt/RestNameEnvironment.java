@@ -11,22 +11,19 @@
 package org.eclipse.che.jdt;
 
 import org.eclipse.che.api.builder.BuildStatus;
-import org.eclipse.che.api.builder.BuilderException;
-import org.eclipse.che.api.builder.dto.BuildOptions;
 import org.eclipse.che.api.builder.dto.BuildTaskDescriptor;
-import org.eclipse.che.api.core.rest.HttpJsonHelper;
-import org.eclipse.che.api.core.rest.shared.dto.Link;
-import org.eclipse.che.api.vfs.server.util.DeleteOnCloseFileInputStream;
-import org.eclipse.che.commons.env.EnvironmentContext;
-import org.eclipse.che.commons.lang.Pair;
-import org.eclipse.che.commons.lang.ZipUtils;
-import org.eclipse.che.commons.user.User;
 import org.eclipse.che.dto.server.DtoFactory;
 import org.eclipse.che.jdt.internal.core.JavaProject;
 import org.eclipse.che.jdt.internal.core.SearchableEnvironment;
 import org.eclipse.che.jdt.internal.core.SourceTypeElementInfo;
 import org.eclipse.che.vfs.impl.fs.LocalFSMountStrategy;
-import com.google.inject.name.Named;
+import com.google.common.hash.Hashing;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
 
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IType;
@@ -46,10 +43,10 @@ import org.eclipse.jdt.internal.compiler.lookup.TypeBinding;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.validation.constraints.NotNull;
 import org.eclipse.che.commons.annotation.Nullable;
 import javax.inject.Inject;
 import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
@@ -57,18 +54,15 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.CacheControl;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.MediaType;
-import javax.ws.rs.core.UriBuilder;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 import java.io.File;
-import java.io.FilterInputStream;
-import java.io.IOException;
-import java.net.HttpURLConnection;
-import java.net.MalformedURLException;
-import java.net.URI;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -91,92 +85,174 @@ public class RestNameEnvironment {
     @Inject
     private JavaProjectService javaProjectService;
 
-    @Context
-    private HttpServletRequest request;
+    @Inject
+    private BinaryTypeCache binaryTypeCache;
 
     @Inject
-    @Named("che.java.codeassistant.index.dir")
-    private String temp;
+    private DependencyUpdater dependencyUpdater;
+
+    @Context
+    private HttpServletRequest request;
 
     @PathParam("ws-id")
     @Inject
     private String wsId;
 
-    @Inject
-    @Named("api.endpoint")
-    private String apiUrl;
-
-    private static String getAuthenticationToken() {
-        User user = EnvironmentContext.getCurrent().getUser();
-        if (user != null) {
-            return user.getToken();
-        }
-        return null;
-    }
-
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @javax.ws.rs.Path("findTypeCompound")
-    public String findTypeCompound(@QueryParam("compoundTypeName") String compoundTypeName, @QueryParam("projectpath") String projectPath) {
+    public Response findTypeCompound(@QueryParam("compoundTypeName") String compoundTypeName,
+                                     @QueryParam("projectpath") String projectPath,
+                                     @Context Request requestContext) {
         JavaProject javaProject = getJavaProject(projectPath);
         SearchableEnvironment environment = javaProject.getNameEnvironment();
         try {
-            NameEnvironmentAnswer answer = environment.findType(getCharArrayFrom(compoundTypeName));
-            if (answer == null && compoundTypeName.contains("$")) {
-                String innerName = compoundTypeName.substring(compoundTypeName.indexOf('$') + 1, compoundTypeName.length());
-                compoundTypeName = compoundTypeName.substring(0, compoundTypeName.indexOf('$'));
-                answer = environment.findType(getCharArrayFrom(compoundTypeName));
-                if (!answer.isCompilationUnit()) return null;
-                ICompilationUnit compilationUnit = answer.getCompilationUnit();
-                CompilationUnit result = getCompilationUnit(javaProject, environment, compilationUnit);
-                AbstractTypeDeclaration o = (AbstractTypeDeclaration)result.types().get(0);
-                ITypeBinding typeBinding = o.resolveBinding();
-
-                for (ITypeBinding binding : typeBinding.getDeclaredTypes()) {
-                    if (binding.getBinaryName().endsWith(innerName)) {
-                        typeBinding = binding;
-                        break;
-                    }
+            return toResponse(findTypeCompound(javaProject, environment, compoundTypeName), requestContext);
+        } catch (JavaModelException e) {
+            LOG.debug("Can't parse class: ", e);
+            throw new WebApplicationException();
+        }
+    }
+
+    /**
+     * Resolve many types and packages in one call.
+     * Request body is JSON object like {"types":["java.util.List", ...], "packages":["java.util", ...]}, where type names
+     * are fully qualified names separated by periods (member types use '$').
+     * Response is JSON object like {"types":{"java.util.List":{...}, "foo.Bar":null}, "packages":["java.util"]}. Type that
+     * can't be found has null value, type that can't be processed is absent in response. Only existing packages are returned.
+     */
+    @POST
+    @javax.ws.rs.Path("resolve")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public String resolve(@QueryParam("projectpath") String projectPath, String names) {
+        JavaProject javaProject = getJavaProject(projectPath);
+        SearchableEnvironment environment = javaProject.getNameEnvironment();
+        JsonObject requested = new JsonParser().parse(names).getAsJsonObject();
+
+        JsonObject types = new JsonObject();
+        if (requested.has("types")) {
+            for (JsonElement element : requested.getAsJsonArray("types")) {
+                String typeName = element.getAsString();
+                if (types.has(typeName)) {
+                    continue;
                 }
-                Map<TypeBinding, ?> bindings = (Map<TypeBinding, ?>)result.getProperty("compilerBindingsToASTBindings");
-                SourceTypeBinding binding = null;
-                for (Map.Entry<TypeBinding, ?> entry : bindings.entrySet()) {
-                    if (entry.getValue().equals(typeBinding)) {
-                        binding = (SourceTypeBinding)entry.getKey();
-                        break;
-                    }
+                try {
+                    String type = findTypeCompound(javaProject, environment, typeName.replace('.', ','));
+                    types.add(typeName, type == null ? JsonNull.INSTANCE : new JsonParser().parse(type));
+                } catch (JavaModelException e) {
+                    LOG.debug("Can't parse class: ", e);
                 }
-                return TypeBindingConvector.toJsonBinaryType(binding);
             }
+        }
 
-            return processAnswer(answer, javaProject, environment);
-        } catch (JavaModelException e) {
-            LOG.debug("Can't parse class: ", e);
-            throw new WebApplicationException();
+        JsonArray packages = new JsonArray();
+        if (requested.has("packages")) {
+            for (JsonElement element : requested.getAsJsonArray("packages")) {
+                String packageName = element.getAsString();
+                int lastDot = packageName.lastIndexOf('.');
+                char[][] parent = lastDot == -1 ? null : getCharArrayFrom(packageName.substring(0, lastDot).replace('.', ','));
+                if (environment.isPackage(parent, packageName.substring(lastDot + 1).toCharArray())) {
+                    packages.add(new JsonPrimitive(packageName));
+                }
+            }
+        }
+
+        JsonObject result = new JsonObject();
+        result.add("types", types);
+        result.add("packages", packages);
+        return result.toString();
+    }
+
+    private String findTypeCompound(JavaProject javaProject, SearchableEnvironment environment, String compoundTypeName)
+            throws JavaModelException {
+        NameEnvironmentAnswer answer = environment.findType(getCharArrayFrom(compoundTypeName));
+        if (answer == null && compoundTypeName.contains("$")) {
+            String innerName = compoundTypeName.substring(compoundTypeName.indexOf('$') + 1, compoundTypeName.length());
+            compoundTypeName = compoundTypeName.substring(0, compoundTypeName.indexOf('$'));
+            answer = environment.findType(getCharArrayFrom(compoundTypeName));
+            if (answer == null || !answer.isCompilationUnit()) return null;
+            ICompilationUnit compilationUnit = answer.getCompilationUnit();
+            CompilationUnit result = getCompilationUnit(javaProject, environment, compilationUnit);
+            AbstractTypeDeclaration o = (AbstractTypeDeclaration)result.types().get(0);
+            ITypeBinding typeBinding = o.resolveBinding();
+
+            for (ITypeBinding binding : typeBinding.getDeclaredTypes()) {
+                if (binding.getBinaryName().endsWith(innerName)) {
+                    typeBinding = binding;
+                    break;
+                }
+            }
+            Map<TypeBinding, ?> bindings = (Map<TypeBinding, ?>)result.getProperty("compilerBindingsToASTBindings");
+            SourceTypeBinding binding = null;
+            for (Map.Entry<TypeBinding, ?> entry : bindings.entrySet()) {
+                if (entry.getValue().equals(typeBinding)) {
+                    binding = (SourceTypeBinding)entry.getKey();
+                    break;
+                }
+            }
+            return TypeBindingConvector.toJsonBinaryType(binding);
         }
+
+        return processAnswer(answer, javaProject, environment);
     }
 
     private JavaProject getJavaProject(String projectPath) {
         return javaProjectService.getOrCreateJavaProject(wsId, projectPath);
     }
 
+    /** Search result is incomplete while indexes are being built, so it's not cached then. */
+    private static boolean isIndexesReady(JavaProject javaProject) {
+        return javaProject.getIndexManager().awaitingJobsCount() == 0;
+    }
+
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @javax.ws.rs.Path("findType")
-    public String findType(@QueryParam("typename") String typeName, @QueryParam("packagename") String packageName,
-                           @QueryParam("projectpath") String projectPath) {
+    public Response findType(@QueryParam("typename") String typeName, @QueryParam("packagename") String packageName,
+                             @QueryParam("projectpath") String projectPath,
+                             @Context Request requestContext) {
         JavaProject javaProject = getJavaProject(projectPath);
         SearchableEnvironment environment = javaProject.getNameEnvironment();
 
         NameEnvironmentAnswer answer = environment.findType(typeName.toCharArray(), getCharArrayFrom(packageName));
         try {
-            return processAnswer(answer, javaProject, environment);
+            return toResponse(processAnswer(answer, javaProject, environment), requestContext);
         } catch (JavaModelException e) {
            LOG.debug("Can't parse class: ", e);
            throw new WebApplicationException(e);
         }
     }
 
+    /**
+     * Returns fingerprint of project classpath. Fingerprint is changed when libraries of project are changed,
+     * so clients may keep binary types of the project while fingerprint is the same.
+     */
+    @GET
+    @javax.ws.rs.Path("fingerprint")
+    @Produces("text/plain")
+    public String getClasspathFingerprint(@QueryParam("projectpath") String projectPath) {
+        JavaProject javaProject = getJavaProject(projectPath);
+        try {
+            return javaProject.getClasspathFingerprint();
+        } catch (JavaModelException e) {
+            LOG.error("Can't calculate classpath fingerprint", e);
+            throw new WebApplicationException(e);
+        }
+    }
+
+    /** Returns counters of java project cache, see {@link JavaProjectService#getCacheMetrics()}. */
+    @GET
+    @javax.ws.rs.Path("cache-metrics")
+    @Produces(MediaType.APPLICATION_JSON)
+    public String getCacheMetrics() {
+        JsonObject metrics = new JsonObject();
+        for (Map.Entry<String, Long> metric : javaProjectService.getCacheMetrics().entrySet()) {
+            metrics.addProperty(metric.getKey(), metric.getValue());
+        }
+        return metrics.toString();
+    }
+
     @GET
     @javax.ws.rs.Path("package")
     @Produces("text/plain")
@@ -190,39 +266,55 @@ public class RestNameEnvironment {
     @GET
     @Path("findPackages")
     @Produces(MediaType.APPLICATION_JSON)
-    public String findPackages(@QueryParam("packagename") String packageName, @QueryParam("projectpath") String projectPath) {
+    public String findPackages(@QueryParam("packagename") final String packageName, @QueryParam("projectpath") String projectPath) {
         JavaProject javaProject = getJavaProject(projectPath);
-        SearchableEnvironment environment = javaProject.getNameEnvironment();
-        JsonSearchRequester requestor = new JsonSearchRequester();
-        environment.findPackages(packageName.toCharArray(), requestor);
-        return requestor.toJsonString();
+        final SearchableEnvironment environment = javaProject.getNameEnvironment();
+        return javaProject.getSearchResultCache().findPackages(packageName, new SearchResultCache.Search() {
+            @Override
+            public boolean run(JsonSearchRequester requester) {
+                environment.findPackages(packageName.toCharArray(), requester);
+                return true;
+            }
+        });
     }
 
     @GET
     @javax.ws.rs.Path("findConstructor")
     @Produces(MediaType.APPLICATION_JSON)
-    public String findConstructorDeclarations(@QueryParam("prefix") String prefix,
-                                              @QueryParam("camelcase") boolean camelCaseMatch,
+    public String findConstructorDeclarations(@QueryParam("prefix") final String prefix,
+                                              @QueryParam("camelcase") final boolean camelCaseMatch,
                                               @QueryParam("projectpath") String projectPath) {
-        JavaProject javaProject = getJavaProject(projectPath);
-        SearchableEnvironment environment = javaProject.getNameEnvironment();
-        JsonSearchRequester searchRequester = new JsonSearchRequester();
-        environment.findConstructorDeclarations(prefix.toCharArray(), camelCaseMatch, searchRequester, null);
-        return searchRequester.toJsonString();
+        final JavaProject javaProject = getJavaProject(projectPath);
+        final SearchableEnvironment environment = javaProject.getNameEnvironment();
+        return javaProject.getSearchResultCache().findConstructorDeclarations(prefix, camelCaseMatch, new SearchResultCache.Search() {
+            @Override
+            public boolean run(JsonSearchRequester requester) {
+                boolean indexesReady = isIndexesReady(javaProject);
+                environment.findConstructorDeclarations(prefix.toCharArray(), camelCaseMatch, requester, null);
+                return indexesReady && isIndexesReady(javaProject);
+            }
+        });
     }
 
     @GET
     @javax.ws.rs.Path("findTypes")
     @Produces(MediaType.APPLICATION_JSON)
-    public String findTypes(@QueryParam("qualifiedname") String qualifiedName, @QueryParam("findmembers") boolean findMembers,
-                            @QueryParam("camelcase") boolean camelCaseMatch,
-                            @QueryParam("searchfor") int searchFor,
+    public String findTypes(@QueryParam("qualifiedname") final String qualifiedName,
+                            @QueryParam("findmembers") final boolean findMembers,
+                            @QueryParam("camelcase") final boolean camelCaseMatch,
+                            @QueryParam("searchfor") final int searchFor,
                             @QueryParam("projectpath") String projectPath) {
-        JavaProject javaProject = getJavaProject(projectPath);
-        SearchableEnvironment environment = javaProject.getNameEnvironment();
-        JsonSearchRequester searchRequester = new JsonSearchRequester();
-        environment.findTypes(qualifiedName.toCharArray(), findMembers, camelCaseMatch, searchFor, searchRequester);
-        return searchRequester.toJsonString();
+        final JavaProject javaProject = getJavaProject(projectPath);
+        final SearchableEnvironment environment = javaProject.getNameEnvironment();
+        SearchResultCache.Search search = new SearchResultCache.Search() {
+            @Override
+            public boolean run(JsonSearchRequester requester) {
+                boolean indexesReady = isIndexesReady(javaProject);
+                environment.findTypes(qualifiedName.toCharArray(), findMembers, camelCaseMatch, searchFor, requester);
+                return indexesReady && isIndexesReady(javaProject);
+            }
+        };
+        return javaProject.getSearchResultCache().findTypes(qualifiedName, findMembers, camelCaseMatch, searchFor, search);
     }
 
     @GET
@@ -257,149 +349,49 @@ public class RestNameEnvironment {
             throw new CodeAssistantException(500, "Project doesn't exist");
         }
 
-        String url = apiUrl + "/builder/" + wsId + "/dependencies";
-        return getDependencies(url, projectPath, "copy", null);
+        return dependencyUpdater.start(wsId, projectPath);
     }
 
-    /** Get list of all package names in project */
+    /** Waits until dependency jars of project are installed, sources of dependencies are attached to project later. */
     @POST
     @javax.ws.rs.Path("/update-dependencies-wait-build-end")
     @Produces(MediaType.APPLICATION_JSON)
     public void waitUpdateDependencyBuildEnd(@QueryParam("projectpath") String projectPath,
                                              BuildTaskDescriptor descriptor,
                                              @Context UriInfo uriInfo) throws Exception {
-        // call to wait-for-build-finish method
         try {
-            BuildTaskDescriptor finishedBuildStatus = waitTaskFinish(descriptor);
-            if (finishedBuildStatus.getStatus() == BuildStatus.FAILED) {
-                buildFailed(finishedBuildStatus);
-            }
-            javaProjectService.removeProject(wsId, projectPath);
-
-            File projectDepDir = new File(temp, wsId + projectPath);
-            projectDepDir.mkdirs();
-
-            Link downloadLink = findLink("download result", finishedBuildStatus.getLinks());
-            if (downloadLink != null) {
-                File zip = doDownload(downloadLink.getHref(), projectPath, "dependencies.zip");
-                ZipUtils.unzip(new DeleteOnCloseFileInputStream(zip), projectDepDir);
-            }
-
-            BuildOptions buildOptions = DtoFactory.getInstance().createDto(BuildOptions.class);
-            buildOptions.getOptions().put("-Dclassifier", "sources");
-            String url = apiUrl + "/builder/" + wsId + "/dependencies";
-            BuildTaskDescriptor dependencies = getDependencies(url, projectPath, "copy", buildOptions);
-            BuildTaskDescriptor buildTaskDescriptor = waitTaskFinish(dependencies);
-            if (finishedBuildStatus.getStatus() == BuildStatus.FAILED) {
-                buildFailed(finishedBuildStatus);
-            }
-            File projectSourcesJars = new File(projectDepDir, "sources");
-            projectSourcesJars.mkdirs();
-            downloadLink = findLink("download result", buildTaskDescriptor.getLinks());
-            if (downloadLink != null) {
-                File zip = doDownload(downloadLink.getHref(), projectPath, "sources.zip");
-                ZipUtils.unzip(new DeleteOnCloseFileInputStream(zip), projectSourcesJars);
-            }
-            //create JavaProject adn put it into cache
-            javaProjectService.getOrCreateJavaProject(wsId, projectPath);
-
+            dependencyUpdater.await(wsId, projectPath, descriptor);
         } catch (Throwable debug) {
             LOG.warn("RestNameEnvironment", debug);
             throw new WebApplicationException(debug);
         }
     }
 
-    private File doDownload(String downloadURL, String projectPath, String zipName) throws IOException {
-        HttpURLConnection http = null;
-        HttpStream stream = null;
-        try {
-            URI uri = UriBuilder.fromUri(downloadURL).queryParam("token", getAuthenticationToken()).build();
-            http = (HttpURLConnection)uri.toURL().openConnection();
-            http.setRequestMethod("GET");
-            int responseCode = http.getResponseCode();
-            if (responseCode != 200) {
-                throw new IOException("Your project referenced a zipped dependency that cannot be downloaded.");
-            }
-            // Connection closed automatically when input stream closed.
-            // If IOException or BuilderException occurs then connection closed immediately.
-            stream = new HttpStream(http);
-            java.nio.file.Path path = Paths.get(temp, wsId + projectPath + "/" + zipName);
-            Files.copy(stream, path);
-            return path.toFile();
-        } catch (MalformedURLException e) {
-            throw e;
-        } catch (IOException ioe) {
-            if (http != null) {
-                http.disconnect();
-            }
-            throw ioe;
-        } finally {
-            if (stream != null) {
-                stream.close();
-            }
+    /**
+     * Creates response with strong ETag calculated from type JSON, so client may revalidate cached type
+     * instead of downloading it again.
+     */
+    private Response toResponse(@Nullable String type, Request requestContext) {
+        if (type == null) {
+            return Response.noContent().build();
         }
-
-    }
-
-    private void buildFailed(@Nullable BuildTaskDescriptor buildStatus) throws BuilderException {
-        if (buildStatus != null) {
-            Link logLink = findLink("view build log", buildStatus.getLinks());
-            LOG.warn("Build failed see more detail here: " + logLink.getHref());
-            throw new BuilderException(
-                    "Build failed see more detail here: <a href=\"" + logLink.getHref() + "\" target=\"_blank\">" + logLink.getHref() +
-                    "</a>."
-            );
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setPrivate(true);
+        cacheControl.setNoCache(true);
+        EntityTag entityTag = new EntityTag(Hashing.sha1().hashString(type, StandardCharsets.UTF_8).toString());
+        Response.ResponseBuilder builder = requestContext.evaluatePreconditions(entityTag);
+        if (builder == null) {
+            builder = Response.ok(type);
         }
-        throw new BuilderException("Build failed");
+        return builder.tag(entityTag).cacheControl(cacheControl).build();
     }
 
-    @Nullable
-    private Link findLink(@NotNull String rel, List<Link> links) {
-        for (Link link : links) {
-            if (link.getRel().equals(rel)) {
-                return link;
-            }
-        }
-        return null;
-    }
-
-    @NotNull
-    private BuildTaskDescriptor waitTaskFinish(@NotNull BuildTaskDescriptor buildDescription) throws Exception {
-        BuildTaskDescriptor request = buildDescription;
-        final int sleepTime = 500;
-
-        Link statusLink = findLink("get status", buildDescription.getLinks());
-
-        if (statusLink != null) {
-            while (request.getStatus() == BuildStatus.IN_PROGRESS || request.getStatus() == BuildStatus.IN_QUEUE) {
-                try {
-                    Thread.sleep(sleepTime);
-                } catch (InterruptedException ignored) {
-                }
-                request = HttpJsonHelper.request(BuildTaskDescriptor.class, statusLink);
-            }
-        }
-
-        return request;
-    }
-
-
-    @NotNull
-    private BuildTaskDescriptor getDependencies(@NotNull String url, @NotNull String projectName, @NotNull String analyzeType, @Nullable
-    BuildOptions options)
-            throws Exception {
-        Pair<String, String> projectParam = Pair.of("project", projectName);
-        Pair<String, String> typeParam = Pair.of("type", analyzeType);
-        return HttpJsonHelper.request(BuildTaskDescriptor.class, url, "POST", options, projectParam, typeParam);
-    }
-
-
-    private String processAnswer(NameEnvironmentAnswer answer, IJavaProject project, INameEnvironment environment)
+    private String processAnswer(NameEnvironmentAnswer answer, JavaProject project, INameEnvironment environment)
             throws JavaModelException {
         if (answer == null) return null;
         if (answer.isBinaryType()) {
             IBinaryType binaryType = answer.getBinaryType();
-            return BinaryTypeConvector.toJsonBinaryType(binaryType);
+            return binaryTypeCache.toJson(project, binaryType);
         } else if (answer.isCompilationUnit()) {
             ICompilationUnit compilationUnit = answer.getCompilationUnit();
             return getSourceTypeInfo(project, environment, compilationUnit);
@@ -461,57 +453,4 @@ public class RestNameEnvironment {
         }
         return arr;
     }
-
-    /** Stream that automatically close HTTP connection when all data ends. */
-    private static class HttpStream extends FilterInputStream {
-        private final HttpURLConnection http;
-
-        private boolean closed;
-
-        private HttpStream(HttpURLConnection http) throws IOException {
-            super(http.getInputStream());
-            this.http = http;
-        }
-
-        @Override
-        public int read() throws IOException {
-            int r = super.read();
-            if (r == -1) {
-                close();
-            }
-            return r;
-        }
-
-        @Override
-        public int read(byte[] b) throws IOException {
-            int r = super.read(b);
-            if (r == -1) {
-                close();
-            }
-            return r;
-        }
-
-        @Override
-        public int read(byte[] b, int off, int len) throws IOException {
-            int r = super.read(b, off, len);
-            if (r == -1) {
-                close();
-            }
-            return r;
-        }
-
-        @Override
-        public void close() throws IOException {
-            if (closed) {
-                return;
-            }
-            try {
-                super.close();
-            } finally {
-                http.disconnect();
-                closed = true;
-            }
-        }
-    }
-
 }
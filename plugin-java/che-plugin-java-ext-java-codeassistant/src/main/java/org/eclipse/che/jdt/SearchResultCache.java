@@ -0,0 +1,250 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.jdt;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+
+import org.eclipse.che.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.core.compiler.CharOperation;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short-lived cache of type, constructor and package search results of a project, see {@link JsonSearchRequester}.
+ * <p/>
+ * While user types a name, each completion request searches for a longer prefix. Result of longer prefix is a subset of result
+ * of its shorter prefix, so it's filtered from cached result of shorter prefix instead of searching indexes again.
+ * Cache is cleared when project is changed, see {@link #invalidate()}.
+ */
+public class SearchResultCache {
+    static final int  MAX_ENTRIES        = 64;
+    static final long EXPIRATION_SECONDS = 60;
+
+    /** Search which is run when result isn't cached. */
+    public interface Search {
+        /**
+         * Runs search and passes found items to the requester.
+         *
+         * @return {@code false} if result may be incomplete and must not be cached, e.g. when indexes are not ready
+         */
+        boolean run(JsonSearchRequester requester);
+    }
+
+    private enum Kind {
+        TYPES("typeName"), CONSTRUCTORS("simpleTypeName"), PACKAGES(null);
+
+        /** Property of JSON item which is matched with pattern, {@code null} if item is a string. */
+        private final String nameProperty;
+
+        Kind(String nameProperty) {
+            this.nameProperty = nameProperty;
+        }
+    }
+
+    private final Cache<Query, JsonArray> results;
+    private       int                     generation;
+
+    public SearchResultCache() {
+        results = CacheBuilder.newBuilder()
+                              .maximumSize(MAX_ENTRIES)
+                              .expireAfterWrite(EXPIRATION_SECONDS, TimeUnit.SECONDS)
+                              .build();
+    }
+
+    /** @see org.eclipse.che.jdt.internal.core.SearchableEnvironment#findTypes(char[], boolean, boolean, int, org.eclipse.jdt.internal.codeassist.ISearchRequestor) */
+    public String findTypes(String qualifiedName, boolean findMembers, boolean camelCaseMatch, int searchFor, Search search) {
+        return find(Query.of(Kind.TYPES, findMembers + ":" + searchFor, qualifiedName, camelCaseMatch), search);
+    }
+
+    /** @see org.eclipse.che.jdt.internal.core.SearchableEnvironment#findConstructorDeclarations(char[], boolean, org.eclipse.jdt.internal.codeassist.ISearchRequestor, org.eclipse.core.runtime.IProgressMonitor) */
+    public String findConstructorDeclarations(String prefix, boolean camelCaseMatch, Search search) {
+        return find(Query.of(Kind.CONSTRUCTORS, "", prefix, camelCaseMatch), search);
+    }
+
+    /** @see org.eclipse.che.jdt.internal.core.SearchableEnvironment#findPackages(char[], org.eclipse.jdt.internal.codeassist.ISearchRequestor) */
+    public String findPackages(String prefix, Search search) {
+        return find(new Query(Kind.PACKAGES, "", "", prefix, SearchPattern.R_PREFIX_MATCH), search);
+    }
+
+    /** Removes all cached results, must be called when project is changed. */
+    public synchronized void invalidate() {
+        generation++;
+        results.invalidateAll();
+    }
+
+    private String find(Query query, Search search) {
+        if (query == null) {
+            JsonSearchRequester requester = new JsonSearchRequester();
+            search.run(requester);
+            return requester.toJsonString();
+        }
+        JsonArray result;
+        int generation;
+        synchronized (this) {
+            generation = this.generation;
+            result = results.getIfPresent(query);
+            if (result == null) {
+                result = narrow(query);
+            }
+        }
+        if (result != null) {
+            return JsonSearchRequester.toJsonString(result);
+        }
+        JsonSearchRequester requester = new JsonSearchRequester();
+        if (search.run(requester)) {
+            put(query, requester.getResult(), generation);
+        }
+        return requester.toJsonString();
+    }
+
+    private synchronized void put(Query query, JsonArray result, int generation) {
+        // result which is found before project is changed is dropped
+        if (this.generation == generation) {
+            results.put(query, result);
+        }
+    }
+
+    /** Filters result of query from cached result of the longest query with shorter pattern. */
+    private JsonArray narrow(Query query) {
+        Query superset = null;
+        for (Query cached : results.asMap().keySet()) {
+            if (cached.contains(query) && (superset == null || cached.pattern.length() > superset.pattern.length())) {
+                superset = cached;
+            }
+        }
+        if (superset == null) {
+            return null;
+        }
+        JsonArray supersetResult = results.getIfPresent(superset);
+        if (supersetResult == null) {
+            return null;
+        }
+        JsonArray result = new JsonArray();
+        for (JsonElement item : supersetResult) {
+            String name = query.kind.nameProperty == null ? item.getAsString()
+                                                          : item.getAsJsonObject().get(query.kind.nameProperty).getAsString();
+            if (query.matches(name)) {
+                result.add(item);
+            }
+        }
+        results.put(query, result);
+        return result;
+    }
+
+    /** Search query, name is matched with pattern as indexes do it, see {@code BasicSearchEngine#match}. */
+    static final class Query {
+        final Kind   kind;
+        final String options;
+        final String qualification;
+        final String pattern;
+        final int    matchRule;
+
+        Query(Kind kind, String options, String qualification, String pattern, int matchRule) {
+            this.kind = kind;
+            this.options = options;
+            this.qualification = qualification;
+            this.pattern = pattern;
+            this.matchRule = matchRule;
+        }
+
+        /** Returns query of qualified name or {@code null} if result of the query can't be narrowed, e.g. pattern has wildcards. */
+        static Query of(Kind kind, String options, String qualifiedName, boolean camelCaseMatch) {
+            int lastDot = qualifiedName.lastIndexOf('.');
+            String qualification = lastDot < 0 ? "" : qualifiedName.substring(0, lastDot);
+            String pattern = qualifiedName.substring(lastDot + 1);
+            int matchRule = SearchPattern.R_PREFIX_MATCH;
+            if (!pattern.isEmpty()) {
+                matchRule = SearchPattern.validateMatchRule(pattern, camelCaseMatch ? matchRule | SearchPattern.R_CAMELCASE_MATCH
+                                                                                    : matchRule);
+            }
+            if (matchRule != SearchPattern.R_PREFIX_MATCH && matchRule != SearchPattern.R_CAMELCASE_MATCH) {
+                return null;
+            }
+            return new Query(kind, options, qualification, pattern, matchRule);
+        }
+
+        /** Checks whether result of other query is a subset of result of this query. */
+        boolean contains(Query other) {
+            if (kind != other.kind || !options.equals(other.options) || !qualification.equals(other.qualification)) {
+                return false;
+            }
+            if (matchRule == SearchPattern.R_CAMELCASE_MATCH) {
+                return other.matchRule == SearchPattern.R_CAMELCASE_MATCH && other.pattern.startsWith(pattern);
+            }
+            if (!other.pattern.toLowerCase().startsWith(pattern.toLowerCase())) {
+                return false;
+            }
+            // camel case matches first part of pattern as prefix of name, so prefix which doesn't exceed first part contains it
+            return other.matchRule == SearchPattern.R_PREFIX_MATCH || !hasUpperCase(pattern, 1);
+        }
+
+        boolean matches(String name) {
+            if (kind == Kind.PACKAGES) {
+                return matchesPackage(name);
+            }
+            char[] patternChars = pattern.toCharArray();
+            char[] nameChars = name.toCharArray();
+            return CharOperation.prefixEquals(patternChars, nameChars, false)
+                   || (matchRule == SearchPattern.R_CAMELCASE_MATCH && CharOperation.camelCaseMatch(patternChars, nameChars, false));
+        }
+
+        /** Segments of package must start with segments of pattern, but the last one must be equal, case is ignored. */
+        private boolean matchesPackage(String name) {
+            String[] patternSegments = pattern.split("\\.", -1);
+            String[] nameSegments = name.split("\\.", -1);
+            if (patternSegments.length > nameSegments.length) {
+                return false;
+            }
+            for (int i = 0; i < patternSegments.length; i++) {
+                String patternSegment = patternSegments[i].toLowerCase();
+                String nameSegment = nameSegments[i].toLowerCase();
+                if (i < patternSegments.length - 1 ? !nameSegment.equals(patternSegment) : !nameSegment.startsWith(patternSegment)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean hasUpperCase(String s, int from) {
+            for (int i = from; i < s.length(); i++) {
+                if (Character.isUpperCase(s.charAt(i))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Query)) {
+                return false;
+            }
+            Query other = (Query)o;
+            return kind == other.kind && matchRule == other.matchRule && options.equals(other.options)
+                   && qualification.equals(other.qualification) && pattern.equals(other.pattern);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = kind.hashCode();
+            hash = 31 * hash + options.hashCode();
+            hash = 31 * hash + qualification.hashCode();
+            hash = 31 * hash + pattern.hashCode();
+            return 31 * hash + matchRule;
+        }
+    }
+}
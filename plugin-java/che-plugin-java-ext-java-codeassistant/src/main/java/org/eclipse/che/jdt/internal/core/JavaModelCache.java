@@ -36,6 +36,17 @@ public class JavaModelCache {
 
 	public static final Object NON_EXISTING_JAR_TYPE_INFO = new Object();
 
+	/*
+	 * Average sizes in bytes of cached infos which are used to estimate size of the cache, see the default sizes above.
+	 * Children of openables are counted separately, so openable info without children is much smaller than 6629 bytes.
+	 */
+	private static final long PROJECT_INFO_SIZE  = 25552;
+	private static final long ROOT_INFO_SIZE     = 2590;
+	private static final long PKG_INFO_SIZE      = 1782;
+	private static final long OPENABLE_INFO_SIZE = 1024;
+	/* Map entry and array of children of single openable. */
+	private static final long CHILDREN_SIZE      = 64;
+
 	/*
 	 * The memory ratio that should be applied to the above constants.
 	 */
@@ -119,6 +130,18 @@ private double getRatioForProperty(String propertyName) {
 	return 1.0;
 }
 
+/**
+ * Returns estimated amount of memory in bytes retained by cached infos,
+ * based on the average info sizes of the default cache sizes above.
+ */
+public long estimateSize() {
+	return this.projectCache.size() * PROJECT_INFO_SIZE
+			+ this.rootCache.getCurrentSpace() * ROOT_INFO_SIZE
+			+ this.pkgCache.getCurrentSpace() * PKG_INFO_SIZE
+			+ (this.openableCache.getCurrentSpace() + this.jarTypeCache.getCurrentSpace()) * OPENABLE_INFO_SIZE
+			+ this.childrenCache.size() * CHILDREN_SIZE;
+}
+
 /**
  *  Returns the info for the element.
  */
@@ -17,6 +17,7 @@ import org.eclipse.che.jdt.internal.core.search.IRestrictedAccessTypeRequestor;
 import org.eclipse.che.jdt.internal.core.search.JavaWorkspaceScope;
 import org.eclipse.che.jdt.internal.core.search.Util;
 import org.eclipse.che.jdt.internal.core.search.indexing.IndexManager;
+import org.eclipse.che.jdt.util.ZipFileCache;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
@@ -361,7 +362,8 @@ public class JavaModelManager {
     /**
      * Returns the open ZipFile at the given path. If the ZipFile
      * does not yet exist, it is created, opened, and added to the cache
-     * of open ZipFiles.
+     * of open ZipFiles. Returned ZipFile is shared with other projects,
+     * it must be passed to {@link #closeZipFile(ZipFile)} instead of closing.
      * <p/>
      * The path must be a file system path if representing an external
      * zip/jar, or it must be an absolute workspace relative path if
@@ -409,7 +411,7 @@ public class JavaModelManager {
                 System.out.println("(" + Thread.currentThread() + ") [JavaModelManager.getZipFile(IPath)] Creating ZipFile on " +
                                    localFile); //$NON-NLS-1$ //$NON-NLS-2$
             }
-            zipFile = new ZipFile(localFile);
+            zipFile = ZipFileCache.acquire(localFile);
             if (zipCache != null) {
                 zipCache.setCache(path, zipFile);
             }
@@ -462,6 +464,13 @@ public class JavaModelManager {
         return this.cache.getInfo(element);
     }
 
+    /**
+     * Returns estimated amount of memory in bytes retained by cached element infos.
+     */
+    public synchronized long estimateCacheSize() {
+        return this.cache.estimateSize();
+    }
+
     /**
      * Returns the info for this element without
      * disturbing the cache ordering.
@@ -1068,20 +1077,22 @@ public class JavaModelManager {
         return this.cache.toStringFillingRation(prefix);
     }
 
+    /** Checks whether zip files which are opened by current thread are cached and released by manager. */
+    public boolean isCachingZipFiles() {
+        return this.zipFiles.get() != null;
+    }
+
     public void closeZipFile(ZipFile zipFile) {
         if (zipFile == null) return;
         if (this.zipFiles.get() != null) {
             return; // zip file will be closed by call to flushZipFiles
         }
-        try {
-            if (JavaModelManager.ZIP_ACCESS_VERBOSE) {
-                System.out.println("(" + Thread.currentThread() + ") [JavaModelManager.closeZipFile(ZipFile)] Closing ZipFile on " +
-                                   zipFile.getName()); //$NON-NLS-1$	//$NON-NLS-2$
-            }
-            zipFile.close();
-        } catch (IOException e) {
-            // problem occured closing zip file: cannot do much more
+        if (JavaModelManager.ZIP_ACCESS_VERBOSE) {
+            System.out.println("(" + Thread.currentThread() + ") [JavaModelManager.closeZipFile(ZipFile)] Releasing ZipFile on " +
+                               zipFile.getName()); //$NON-NLS-1$	//$NON-NLS-2$
         }
+        // file is shared with other projects and is closed by cache
+        ZipFileCache.release(zipFile);
     }
 
     public void setIndexManager(IndexManager indexManager) {
@@ -1286,15 +1297,11 @@ public class JavaModelManager {
         public void flush() {
             Thread currentThread = Thread.currentThread();
             for (ZipFile zipFile : this.map.values()) {
-                try {
-                    if (JavaModelManager.ZIP_ACCESS_VERBOSE) {
-                        System.out.println("(" + currentThread + ") [JavaModelManager.flushZipFiles()] Closing ZipFile on " +
-                                           zipFile.getName()); //$NON-NLS-1$//$NON-NLS-2$
-                    }
-                    zipFile.close();
-                } catch (IOException e) {
-                    // problem occured closing zip file: cannot do much more
+                if (JavaModelManager.ZIP_ACCESS_VERBOSE) {
+                    System.out.println("(" + currentThread + ") [JavaModelManager.flushZipFiles()] Releasing ZipFile on " +
+                                       zipFile.getName()); //$NON-NLS-1$//$NON-NLS-2$
                 }
+                ZipFileCache.release(zipFile);
             }
         }
 
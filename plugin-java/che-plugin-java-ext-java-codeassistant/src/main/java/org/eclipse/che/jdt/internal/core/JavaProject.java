@@ -11,13 +11,20 @@
 
 package org.eclipse.che.jdt.internal.core;
 
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
 import org.eclipse.che.api.project.server.Constants;
 import org.eclipse.che.api.project.server.ProjectJson;
 import org.eclipse.che.api.project.shared.Builders;
 import org.eclipse.che.ide.ant.tools.AntUtils;
+import org.eclipse.che.jdt.SearchResultCache;
 import org.eclipse.che.jdt.core.JavaCore;
 import org.eclipse.che.jdt.internal.core.search.indexing.IndexManager;
+import org.eclipse.che.jdt.internal.core.search.indexing.JarIndexPool;
+import org.eclipse.che.jdt.internal.core.search.processing.IndexingScheduler;
 import org.eclipse.che.jdt.internal.core.util.JavaElementFinder;
+import org.eclipse.che.jdt.util.JarChecksums;
 import org.eclipse.che.ide.maven.tools.MavenUtils;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
@@ -53,7 +60,11 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.file.DirectoryStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -67,6 +78,11 @@ public class JavaProject extends Openable implements IJavaProject {
      * Value of the project's raw classpath if the .classpath file contains invalid entries.
      */
     public static final  IClasspathEntry[]                          INVALID_CLASSPATH = new IClasspathEntry[0];
+    /**
+     * Estimated memory retained by each classpath entry: index caches, zip entries and package tables.
+     * Rough average for jar with a few hundred classes, big jars take more, source folders take less.
+     */
+    private static final long                                       CLASSPATH_ENTRY_SIZE = 256 * 1024;
     private static final Logger                                     LOG               = LoggerFactory.getLogger(JavaProject.class);
     private final        DirectoryStream.Filter<java.nio.file.Path> jarFilter         = new DirectoryStream.Filter<java.nio.file.Path>() {
         @Override
@@ -76,6 +92,7 @@ public class JavaProject extends Openable implements IJavaProject {
     };
     private final String workspacePath;
     private volatile SearchableEnvironment nameEnvironment;
+    private volatile boolean               nameEnvironmentStale;
     private String                    projectPath;
     private String                    tempDir;
     private String                    wsId;
@@ -85,8 +102,21 @@ public class JavaProject extends Openable implements IJavaProject {
     private IClasspathEntry[]         rawClassPath;
     private ResolvedClasspath         resolvedClasspath;
     private IndexManager              indexManager;
+    private final SearchResultCache   searchResultCache = new SearchResultCache();
+    private boolean                   indexesShutdown;
 
     public JavaProject(File root, String projectPath, String tempDir, String ws, Map<String, String> options) {
+        this(root, projectPath, tempDir, ws, options, null, null);
+    }
+
+    /**
+     * @param jarIndexPool
+     *         pool of jar indexes shared between projects, if {@code null} project indexes all jars itself
+     * @param indexingScheduler
+     *         node-wide limit of running indexing jobs, if {@code null} project indexes without limit
+     */
+    public JavaProject(File root, String projectPath, String tempDir, String ws, Map<String, String> options,
+                       JarIndexPool jarIndexPool, IndexingScheduler indexingScheduler) {
         super(null, new JavaModelManager());
         manager.setJavaProject(this);
         this.projectPath = projectPath;
@@ -149,7 +179,7 @@ public class JavaProject extends Openable implements IJavaProject {
             LOG.error("Can't find jar dependency's: ", e);
         }
         rawClassPath = paths.toArray(new IClasspathEntry[paths.size()]);
-        indexManager = new IndexManager(tempDir + "/indexes/" + ws + projectPath + "/", this);
+        indexManager = new IndexManager(tempDir + "/indexes/" + ws + projectPath + "/", this, jarIndexPool, indexingScheduler);
         indexManager.reset();
         indexManager.indexAll(this);
         indexManager.saveIndexes();
@@ -178,6 +208,9 @@ public class JavaProject extends Openable implements IJavaProject {
     }
 
     public SearchableEnvironment getNameEnvironment() {
+        if (nameEnvironmentStale) {
+            refreshNameEnvironment();
+        }
         return nameEnvironment;
     }
 
@@ -1029,6 +1062,73 @@ public class JavaProject extends Openable implements IJavaProject {
         return null;
     }
 
+    /**
+     * Returns fingerprint of project classpath: SHA-1 of checksums of all libraries and compiler compliance.
+     * Fingerprint is changed when any library is added, removed or changed, so clients may use it to validate
+     * their caches of binary types.
+     */
+    public String getClasspathFingerprint() throws JavaModelException {
+        List<String> libraries = new ArrayList<>();
+        for (IClasspathEntry entry : getResolvedClasspath()) {
+            if (entry.getEntryKind() == IClasspathEntry.CPE_LIBRARY) {
+                File library = entry.getPath().toFile();
+                try {
+                    libraries.add(JarChecksums.sha1(library));
+                } catch (IOException e) {
+                    LOG.debug("Can't calculate checksum of " + library, e);
+                    libraries.add(library.getPath() + ':' + library.lastModified());
+                }
+            }
+        }
+        Collections.sort(libraries);
+        Hasher hasher = Hashing.sha1().newHasher();
+        hasher.putString(String.valueOf(options.get(JavaCore.COMPILER_COMPLIANCE)), StandardCharsets.UTF_8);
+        for (String library : libraries) {
+            hasher.putString(library, StandardCharsets.UTF_8);
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Returns estimated amount of heap retained by this project: cached element infos, open buffers
+     * and per classpath entry structures.
+     */
+    public long estimateRetainedSize() {
+        long size = manager.estimateCacheSize();
+        Enumeration buffers = manager.getDefaultBufferManager().getOpenBuffers();
+        while (buffers.hasMoreElements()) {
+            IBuffer buffer = (IBuffer)buffers.nextElement();
+            // chars are two bytes each
+            size += 2L * buffer.getLength();
+        }
+        if (rawClassPath != null) {
+            size += rawClassPath.length * CLASSPATH_ENTRY_SIZE;
+        }
+        return size;
+    }
+
+    /**
+     * Saves indexes and stops indexing of the project. In-memory model stays open, so requests which already use
+     * the project may finish while another instance of the project is created with the same indexes.
+     */
+    public synchronized void shutdownIndexes() {
+        if (!indexesShutdown) {
+            indexesShutdown = true;
+            indexManager.saveIndexes();
+            indexManager.shutdown();
+        }
+    }
+
+    /**
+     * Closes in-memory model of the project but keeps its indexes on disk,
+     * so project may be created again later without reindexing.
+     */
+    public void closeKeepingIndexes() throws JavaModelException {
+        shutdownIndexes();
+        nameEnvironment.cleanup();
+        super.close();
+    }
+
     @Override
     public void close() throws JavaModelException {
         indexManager.shutdown();
@@ -1146,6 +1246,11 @@ public class JavaProject extends Openable implements IJavaProject {
         return indexManager;
     }
 
+    /** Returns cache of type, constructor and package search results, it's cleared when project is changed. */
+    public SearchResultCache getSearchResultCache() {
+        return searchResultCache;
+    }
+
     /**
      * Convenience method that returns the specific type of info for a Java project.
      */
@@ -1205,12 +1310,31 @@ public class JavaProject extends Openable implements IJavaProject {
 
     public synchronized void creteNewNameEnvironment() {
         try {
+            nameEnvironmentStale = false;
             nameEnvironment = new SearchableEnvironment(this, (ICompilationUnit[])null);
         } catch (JavaModelException e) {
             LOG.error("Can't create SearchableEnvironment", e);
         }
     }
 
+    /**
+     * Marks name environment as out of date, e.g. after source files or packages are added or removed.
+     * Name environment is recreated by {@link #refreshNameEnvironment()} or on next {@link #getNameEnvironment()} call,
+     * so burst of changes causes only one rebuild.
+     */
+    public void invalidateNameEnvironment() {
+        nameEnvironmentStale = true;
+    }
+
+    /**
+     * Recreates name environment if it was invalidated since last rebuild.
+     */
+    public synchronized void refreshNameEnvironment() {
+        if (nameEnvironmentStale) {
+            creteNewNameEnvironment();
+        }
+    }
+
     public static class ResolvedClasspath {
         IClasspathEntry[] resolvedClasspath;
         IJavaModelStatus                unresolvedEntryStatus     = JavaModelStatus.VERIFIED_OK;
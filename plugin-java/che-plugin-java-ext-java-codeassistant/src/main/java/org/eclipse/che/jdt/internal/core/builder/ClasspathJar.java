@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.che.jdt.internal.core.builder;
 
+import org.eclipse.che.jdt.util.ZipFileCache;
+
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
@@ -69,10 +71,14 @@ public class ClasspathJar extends CodenvyClasspathLocation {
         this.accessRuleSet = accessRuleSet;
     }
 
-    public ClasspathJar(ZipFile zipFile, AccessRuleSet accessRuleSet) {
+    /**
+     * @param closeZipFileAtEnd
+     *         {@code true} if jar is released by {@link #cleanup()}, {@code false} if it's owned and released by caller
+     */
+    public ClasspathJar(ZipFile zipFile, AccessRuleSet accessRuleSet, boolean closeZipFileAtEnd) {
         this.zipFilename = zipFile.getName();
         this.zipFile = zipFile;
-        this.closeZipFileAtEnd = true;
+        this.closeZipFileAtEnd = closeZipFileAtEnd;
         this.knownPackageNames = null;
         this.accessRuleSet = accessRuleSet;
     }
@@ -150,10 +156,8 @@ public class ClasspathJar extends CodenvyClasspathLocation {
 
     public void cleanup() {
         if (this.zipFile != null && this.closeZipFileAtEnd) {
-            try {
-                this.zipFile.close();
-            } catch (IOException e) { // ignore it
-            }
+            // file stays open in cache and isn't read again by the next lookup
+            ZipFileCache.release(this.zipFile);
             this.zipFile = null;
         }
         this.knownPackageNames = null;
@@ -210,7 +214,7 @@ public class ClasspathJar extends CodenvyClasspathLocation {
                             this.zipFilename
                                       ); //$NON-NLS-1$	//$NON-NLS-2$
                 }
-                this.zipFile = new ZipFile(this.zipFilename);
+                this.zipFile = ZipFileCache.acquire(new File(this.zipFilename));
                 this.closeZipFileAtEnd = true;
             }
            return findPackageSet(this);
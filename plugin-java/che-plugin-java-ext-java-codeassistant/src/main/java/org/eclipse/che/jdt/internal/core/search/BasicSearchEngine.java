@@ -1078,6 +1078,29 @@ public class BasicSearchEngine {
 			final IRestrictedAccessTypeRequestor nameRequestor,
 			int waitingPolicy,
 			IProgressMonitor progressMonitor) throws JavaModelException {
+		searchAllTypeNames(packageName, packageMatchRule, typeName, typeMatchRule, searchFor, scope, nameRequestor, waitingPolicy,
+						   progressMonitor, false);
+	}
+
+	/**
+	 * Searches for all top-level types and member types in the given scope.
+	 *
+	 * @param typeNameTablesOnly
+	 * 		if {@code true} only in-memory tables of type names of indexed jars are searched, so search doesn't wait for
+	 * 		indexing jobs, see {@link TypeNameTableSearchJob}
+	 * @see #searchAllTypeNames(char[], int, char[], int, int, IJavaSearchScope, IRestrictedAccessTypeRequestor, int, IProgressMonitor)
+	 */
+	public void searchAllTypeNames(
+			final char[] packageName,
+			final int packageMatchRule,
+			final char[] typeName,
+			final int typeMatchRule,
+			int searchFor,
+			IJavaSearchScope scope,
+			final IRestrictedAccessTypeRequestor nameRequestor,
+			int waitingPolicy,
+			IProgressMonitor progressMonitor,
+			boolean typeNameTablesOnly) throws JavaModelException {
 
 		// Validate match rule first
 		final int validatedTypeMatchRule = SearchPattern.validateMatchRule(typeName == null ? null : new String(typeName), typeMatchRule);
@@ -1218,12 +1241,11 @@ public class BasicSearchEngine {
 				progressMonitor.beginTask(Messages.engine_searching, 1000);
 			}
 			// add type names from indexes
+			SearchParticipant participant = getDefaultSearchParticipant(indexManager, javaProject); // Java search only
 			indexManager.performConcurrentJob(
-					new PatternSearchJob(
-							pattern,
-							getDefaultSearchParticipant(indexManager, javaProject), // Java search only
-							scope,
-							searchRequestor, indexManager),
+					typeNameTablesOnly
+					? new TypeNameTableSearchJob(pattern, participant, scope, searchRequestor, indexManager)
+					: new PatternSearchJob(pattern, participant, scope, searchRequestor, indexManager),
 					waitingPolicy,
 					progressMonitor == null ? null : new SubProgressMonitor(progressMonitor, 1000 - copiesLength));
 
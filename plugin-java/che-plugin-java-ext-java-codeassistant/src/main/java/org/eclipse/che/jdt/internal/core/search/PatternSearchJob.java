@@ -15,6 +15,8 @@ import org.eclipse.che.jdt.core.search.SearchParticipant;
 import org.eclipse.che.jdt.core.search.SearchPattern;
 import org.eclipse.che.jdt.internal.core.search.indexing.IndexManager;
 import org.eclipse.che.jdt.internal.core.search.matching.MatchLocator;
+import org.eclipse.che.jdt.internal.core.search.matching.TypeDeclarationPattern;
+import org.eclipse.che.jdt.internal.core.search.matching.TypeNameTable;
 import org.eclipse.che.jdt.internal.core.search.processing.JobManager;
 
 import org.eclipse.core.runtime.IPath;
@@ -37,7 +39,7 @@ public class PatternSearchJob implements IJob {
 	protected IndexQueryRequestor requestor;
 	protected boolean             areIndexesReady;
 	protected long executionTime = 0;
-	private IndexManager indexManager;
+	protected IndexManager indexManager;
 
 	public PatternSearchJob(SearchPattern pattern, SearchParticipant participant, IJavaSearchScope scope, IndexQueryRequestor requestor,
 							IndexManager indexManager) {
@@ -89,23 +91,22 @@ public class PatternSearchJob implements IJob {
 
 	public Index[] getIndexes(IProgressMonitor progressMonitor) {
 		// acquire the in-memory indexes on the fly
-		IndexLocation[] indexLocations;
-		int length;
+		IndexLocation[] indexLocations = selectIndexLocations();
+		Index[] indexes = indexManager.getIndexes(indexLocations, progressMonitor);
+		this.areIndexesReady = indexes.length == indexLocations.length;
+		return indexes;
+	}
+	protected IndexLocation[] selectIndexLocations() {
 		if (this.participant instanceof JavaSearchParticipant) {
-		indexLocations = ((JavaSearchParticipant)this.participant).selectIndexURLs(this.pattern, this.scope);
-		length = indexLocations.length;
-	} else {
+			return ((JavaSearchParticipant)this.participant).selectIndexURLs(this.pattern, this.scope);
+		}
 		IPath[] paths = this.participant.selectIndexes(this.pattern, this.scope);
-		length = paths.length;
-		indexLocations = new IndexLocation[paths.length];
+		IndexLocation[] indexLocations = new IndexLocation[paths.length];
 		for (int i = 0, len = paths.length; i < len; i++) {
 			indexLocations[i] = new FileIndexLocation(paths[i].toFile(), true);
 		}
+		return indexLocations;
 	}
-	Index[] indexes = indexManager.getIndexes(indexLocations, progressMonitor);
-	this.areIndexesReady = indexes.length == length;
-	return indexes;
-}
 public String getJobFamily() {
 	return ""; //$NON-NLS-1$
 }
@@ -114,6 +115,14 @@ public boolean search(Index index, IProgressMonitor progressMonitor) {
 	if (progressMonitor != null && progressMonitor.isCanceled()) throw new OperationCanceledException();
 	ReadWriteMonitor monitor = index.monitor;
 	if (monitor == null) return COMPLETE; // index got deleted since acquired
+	TypeNameTable typeNameTable = indexManager.getTypeNameTable(index);
+	if (typeNameTable != null && TypeNameTable.canAnswer(this.pattern)) {
+		// table is immutable, no need to lock the index
+		long start = System.currentTimeMillis();
+		typeNameTable.findIndexMatches((TypeDeclarationPattern)this.pattern, index, this.requestor, this.participant, this.scope, progressMonitor);
+		this.executionTime += System.currentTimeMillis() - start;
+		return COMPLETE;
+	}
 	try {
 		monitor.enterRead(); // ask permission to read
 		long start = System.currentTimeMillis();
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.jdt.internal.core.search;
+
+import org.eclipse.che.jdt.core.search.IJavaSearchScope;
+import org.eclipse.che.jdt.core.search.SearchParticipant;
+import org.eclipse.che.jdt.core.search.SearchPattern;
+import org.eclipse.che.jdt.internal.core.search.indexing.IndexManager;
+import org.eclipse.che.jdt.internal.core.search.matching.TypeNameTable;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.internal.core.index.Index;
+import org.eclipse.jdt.internal.core.index.IndexLocation;
+
+/**
+ * Searches type declarations only in in-memory tables of type names of jar indexes, see {@link TypeNameTable}.
+ * Neither reads disk indexes nor triggers their rebuilding, so it doesn't wait for indexing jobs and may run while
+ * project is being indexed. Types of containers which are not indexed yet are not found.
+ */
+public class TypeNameTableSearchJob extends PatternSearchJob {
+
+    public TypeNameTableSearchJob(SearchPattern pattern, SearchParticipant participant, IJavaSearchScope scope,
+                                  IndexQueryRequestor requestor, IndexManager indexManager) {
+        super(pattern, participant, scope, requestor, indexManager);
+    }
+
+    @Override
+    public void ensureReadyToRun() {
+        // nothing to prepare, indexes are never rebuilt by this job
+    }
+
+    @Override
+    public Index[] getIndexes(IProgressMonitor progressMonitor) {
+        IndexLocation[] indexLocations = selectIndexLocations();
+        Index[] indexes = new Index[indexLocations.length];
+        int count = 0;
+        if (TypeNameTable.canAnswer(this.pattern)) {
+            for (IndexLocation indexLocation : indexLocations) {
+                Index index = indexManager.getIndex(indexLocation);
+                if (index != null && indexManager.getTypeNameTable(index) != null) {
+                    indexes[count++] = index;
+                }
+            }
+        }
+        this.areIndexesReady = count == indexLocations.length;
+        if (count < indexes.length) {
+            System.arraycopy(indexes, 0, indexes = new Index[count], 0, count);
+        }
+        return indexes;
+    }
+
+    @Override
+    public boolean search(Index index, IProgressMonitor progressMonitor) {
+        if (index != null && indexManager.getTypeNameTable(index) == null) {
+            // jar is being indexed again since indexes were selected
+            return FAILED;
+        }
+        return super.search(index, progressMonitor);
+    }
+}
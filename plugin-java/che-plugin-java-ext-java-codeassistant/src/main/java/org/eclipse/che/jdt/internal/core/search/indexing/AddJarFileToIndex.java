@@ -99,7 +99,10 @@ class AddJarFileToIndex extends IndexRequest {
 
 		if (hasPreBuiltIndex()) {
 			boolean added = this.manager.addIndex(this.containerPath, this.indexFileURL);
-			if (added) return true;
+			if (added) {
+				buildTypeNameTable(this.manager.getIndex(this.indexFileURL));
+				return true;
+			}
 			this.indexFileURL = null;
 		}
 
@@ -111,6 +114,7 @@ class AddJarFileToIndex extends IndexRequest {
 			if (index != null) {
 				if (JobManager.VERBOSE)
 					org.eclipse.jdt.internal.core.util.Util.verbose("-> no indexing required (index already exists) for " + this.containerPath); //$NON-NLS-1$
+				buildTypeNameTable(index);
 				return true;
 			}
 
@@ -211,6 +215,7 @@ class AddJarFileToIndex extends IndexRequest {
 								+ zip.getName() + " (" //$NON-NLS-1$
 								+ (System.currentTimeMillis() - initialTime) + "ms)"); //$NON-NLS-1$
 							this.manager.saveIndex(index); // to ensure its placed into the saved state
+							this.manager.buildTypeNameTable(index);
 							return true;
 						}
 					}
@@ -249,6 +254,10 @@ class AddJarFileToIndex extends IndexRequest {
 					}
 				}
 				this.manager.saveIndex(index);
+				this.manager.buildTypeNameTable(index);
+				if (this.resource == null) {
+					this.manager.jarIndexed(this.containerPath, index);
+				}
 				if (JobManager.VERBOSE)
 					org.eclipse.jdt.internal.core.util.Util.verbose("-> done indexing of " //$NON-NLS-1$
 						+ zip.getName() + " (" //$NON-NLS-1$
@@ -271,6 +280,20 @@ class AddJarFileToIndex extends IndexRequest {
 		}
 		return true;
 	}
+	/*
+	 * Builds table of type names of index which is not locked by this job
+	 */
+	private void buildTypeNameTable(Index index) {
+		if (index == null) return;
+		ReadWriteMonitor monitor = index.monitor;
+		if (monitor == null) return; // index got deleted since acquired
+		try {
+			monitor.enterRead();
+			this.manager.buildTypeNameTable(index);
+		} finally {
+			monitor.exitRead();
+		}
+	}
 	public String getJobFamily() {
 		if (this.resource != null)
 			return super.getJobFamily();
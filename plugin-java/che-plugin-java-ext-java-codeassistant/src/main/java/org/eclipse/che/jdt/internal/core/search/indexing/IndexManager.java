@@ -20,6 +20,8 @@ import org.eclipse.che.jdt.internal.core.JavaModelManager;
 import org.eclipse.che.jdt.internal.core.JavaProject;
 import org.eclipse.che.jdt.internal.core.search.BasicSearchEngine;
 import org.eclipse.che.jdt.internal.core.search.PatternSearchJob;
+import org.eclipse.che.jdt.internal.core.search.matching.TypeNameTable;
+import org.eclipse.che.jdt.internal.core.search.processing.IndexingScheduler;
 import org.eclipse.che.jdt.internal.core.search.processing.JobManager;
 
 import org.eclipse.core.resources.IFile;
@@ -54,8 +56,10 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Locale;
 import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.zip.CRC32;
 
 public class IndexManager extends JobManager implements IIndexConstants {
@@ -93,10 +97,25 @@ public class IndexManager extends JobManager implements IIndexConstants {
     private boolean           participantUpdated     = false;
     private String indexLocation;
     private JavaProject javaProject;
+    private JarIndexPool jarIndexPool;
+    // key = jar index, value = in-memory table of its type declarations
+    private final Map<Index, TypeNameTable> typeNameTables = Collections.synchronizedMap(new WeakHashMap<Index, TypeNameTable>());
 
     public IndexManager(String indexLocation, JavaProject javaProject) {
+        this(indexLocation, javaProject, null, null);
+    }
+
+    /**
+     * @param jarIndexPool
+     *         pool of jar indexes shared between projects, if {@code null} all jars are indexed by this manager
+     * @param scheduler
+     *         node-wide limit of running indexing jobs, if {@code null} jobs are executed without limit
+     */
+    public IndexManager(String indexLocation, JavaProject javaProject, JarIndexPool jarIndexPool, IndexingScheduler scheduler) {
         this.indexLocation = indexLocation;
         this.javaProject = javaProject;
+        this.jarIndexPool = jarIndexPool;
+        this.scheduler = scheduler;
         indexNamesMapFile = new File(getSavedIndexesDirectory(), "indexNamesMap.txt");
         savedIndexNamesFile = new File(getSavedIndexesDirectory(), "savedIndexNames.txt");
         participantIndexNamesFile = new File(getSavedIndexesDirectory(), "participantsIndexNames.txt");
@@ -555,6 +574,7 @@ public class IndexManager extends JobManager implements IIndexConstants {
     }
 
     public void indexDocument(SearchDocument searchDocument, SearchParticipant searchParticipant, Index index, IPath indexLocation) {
+        this.typeNameTables.remove(index);
         try {
             searchDocument.setIndex(index);
             searchParticipant.indexDocument(searchDocument, indexLocation);
@@ -610,6 +630,9 @@ public class IndexManager extends JobManager implements IIndexConstants {
             } else {
                 indexFile = IndexLocation.createIndexLocation(indexURL);
             }
+        } else if (jarIndexPool != null && !updateIndex) {
+            // attach read-only to index built by other project
+            indexFile = jarIndexPool.acquire(path.toFile(), this);
         }
 //        if (JavaCore.getPlugin() == null) return;
         IndexRequest request = null;
@@ -644,6 +667,50 @@ public class IndexManager extends JobManager implements IIndexConstants {
         return true;
     }
 
+    /**
+     * Called when index of the jar is built by this manager, shares the index with other projects.
+     * Caller must hold write lock of the index.
+     */
+    void jarIndexed(IPath containerPath, Index index) {
+        if (jarIndexPool != null && index.getIndexFile() != null) {
+            jarIndexPool.publish(containerPath.toFile(), index.getIndexFile());
+        }
+    }
+
+    /**
+     * Builds in-memory table of type declarations of the jar index, so type name searches don't read the disk index.
+     * Table of pooled index is shared with other projects, see {@link JarIndexPool#getTypeNameTable(Index)}.
+     * Caller must hold read or write lock of the index.
+     */
+    void buildTypeNameTable(Index index) {
+        if (this.typeNameTables.containsKey(index)) return;
+        try {
+            long start = System.currentTimeMillis();
+            TypeNameTable table = jarIndexPool != null ? jarIndexPool.getTypeNameTable(index) : null;
+            if (table == null) {
+                table = TypeNameTable.build(index);
+            }
+            this.typeNameTables.put(index, table);
+            if (VERBOSE)
+                Util.verbose("-> built table of " + table.size() + " type names for " + index.containerPath + " (" //$NON-NLS-1$ //$NON-NLS-2$
+                             + (System.currentTimeMillis() - start) + "ms)"); //$NON-NLS-1$
+        } catch (IOException e) {
+            if (VERBOSE) {
+                Util.verbose("-> failed to build table of type names for " + index.containerPath); //$NON-NLS-1$
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Returns in-memory table of type declarations of the index.
+     *
+     * @return table or {@code null} if index isn't a jar index or the table isn't built yet
+     */
+    public TypeNameTable getTypeNameTable(Index index) {
+        return this.typeNameTables.get(index);
+    }
+
     /**
      * Index the content of the given source folder.
      */
@@ -889,6 +956,14 @@ public class IndexManager extends JobManager implements IIndexConstants {
         request(new RemoveFolderFromIndex(sourceFolder, inclusionPatterns, exclusionPatterns, javaProject, this));
     }
 
+    @Override
+    public void shutdown() {
+        super.shutdown();
+        if (jarIndexPool != null) {
+            jarIndexPool.release(this);
+        }
+    }
+
     /**
      * Flush current state
      */
@@ -920,6 +995,7 @@ public class IndexManager extends JobManager implements IIndexConstants {
                 // the index does not exist, try to recreate it
                 return recreateIndex(containerPath) != null;
             }
+            this.typeNameTables.remove(index);
             index.reset();
             return true;
         } catch (IOException e) {
@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.jdt.internal.core.search.indexing;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+
+import org.eclipse.che.jdt.internal.core.search.matching.TypeNameTable;
+import org.eclipse.che.jdt.util.JarChecksums;
+import org.eclipse.jdt.internal.core.index.FileIndexLocation;
+import org.eclipse.jdt.internal.core.index.Index;
+import org.eclipse.jdt.internal.core.index.IndexLocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Node-wide pool of jar indexes shared between all projects.
+ * Indexes are keyed by SHA-1 of the jar, so the same jar is indexed only once regardless of its location.
+ * Projects attach to pooled indexes read-only, pooled index can't be removed while any project uses it.
+ * Indexes that are not used by any project are removed in least recently used order when total size
+ * of the pool exceeds the limit. In-memory table of type names of pooled index is built once and shared
+ * by all projects as well.
+ */
+@Singleton
+public class JarIndexPool {
+    private static final Logger LOG = LoggerFactory.getLogger(JarIndexPool.class);
+
+    private static final String INDEX_SUFFIX = ".index";
+
+    @Inject(optional = true)
+    @Named("che.java.codeassistant.index.pool.max_size")
+    private long maxSize = 2L * 1024 * 1024 * 1024;
+
+    private final File                     poolDir;
+    /** Access ordered, so the first entry is the least recently used. */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private       long                     size;
+
+    public JarIndexPool(String temp, long maxSize) {
+        this(temp);
+        this.maxSize = maxSize;
+    }
+
+    @Inject
+    public JarIndexPool(@Named("che.java.codeassistant.index.dir") String temp) {
+        poolDir = new File(temp, "indexes/jars");
+        poolDir.mkdirs();
+        File[] files = poolDir.listFiles();
+        if (files != null) {
+            Arrays.sort(files, new Comparator<File>() {
+                @Override
+                public int compare(File o1, File o2) {
+                    return Long.compare(o1.lastModified(), o2.lastModified());
+                }
+            });
+            for (File file : files) {
+                String name = file.getName();
+                if (name.endsWith(INDEX_SUFFIX)) {
+                    entries.put(name.substring(0, name.length() - INDEX_SUFFIX.length()), new Entry(file));
+                    size += file.length();
+                } else {
+                    // not finished copy
+                    file.delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns location of pooled index for the jar and registers the owner as user of the index.
+     *
+     * @param jar
+     *         the jar file
+     * @param owner
+     *         the user of index, usually index manager of the project
+     * @return location of index or {@code null} if jar is not indexed yet
+     */
+    public IndexLocation acquire(File jar, Object owner) {
+        // reading of big jar takes a while, so checksum is computed without lock
+        String checksum = checksum(jar);
+        if (checksum == null) {
+            return null;
+        }
+        synchronized (this) {
+            Entry entry = entries.get(checksum);
+            if (entry == null) {
+                return null;
+            }
+            if (!entry.file.exists()) {
+                entries.remove(checksum);
+                size -= entry.length;
+                return null;
+            }
+            entry.owners.add(owner);
+            return new FileIndexLocation(entry.file);
+        }
+    }
+
+    /**
+     * Adds index of the jar built by a project to the pool, so other projects can reuse it.
+     * Caller must guarantee that index file is not modified while this method is executed.
+     *
+     * @param jar
+     *         the indexed jar
+     * @param indexFile
+     *         the index file
+     */
+    public void publish(File jar, File indexFile) {
+        String checksum = checksum(jar);
+        if (checksum == null || !indexFile.exists()) {
+            return;
+        }
+        synchronized (this) {
+            if (entries.containsKey(checksum)) {
+                return;
+            }
+        }
+        File target = new File(poolDir, checksum + INDEX_SUFFIX);
+        try {
+            // copy to temporary file first, so other projects never see partially copied index
+            File tmp = File.createTempFile(checksum, ".tmp", poolDir);
+            Files.copy(indexFile.toPath(), tmp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Can't add index of " + jar + " to pool", e);
+            return;
+        }
+        synchronized (this) {
+            if (!entries.containsKey(checksum)) {
+                Entry entry = new Entry(target);
+                entries.put(checksum, entry);
+                size += entry.length;
+                evict();
+            }
+        }
+    }
+
+    /**
+     * Returns table of type names of pooled index, table is built on the first call and shared by all projects
+     * which use the index. Caller must hold read lock of the index.
+     *
+     * @param index
+     *         index attached to pooled index file
+     * @return table or {@code null} if index isn't pooled, e.g. it's built by project itself
+     * @throws IOException
+     *         if index can't be read
+     */
+    public TypeNameTable getTypeNameTable(Index index) throws IOException {
+        File file = index.getIndexFile();
+        if (file == null || !file.getName().endsWith(INDEX_SUFFIX)) {
+            return null;
+        }
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(file.getName().substring(0, file.getName().length() - INDEX_SUFFIX.length()));
+        }
+        if (entry == null || !entry.file.getAbsoluteFile().equals(file.getAbsoluteFile())) {
+            return null;
+        }
+        // table of big jar takes a while to build, so only users of the same index wait for it
+        synchronized (entry) {
+            if (entry.typeNameTable == null) {
+                entry.typeNameTable = TypeNameTable.build(index);
+            }
+            return entry.typeNameTable;
+        }
+    }
+
+    /**
+     * Unregisters the owner as user of all pooled indexes.
+     *
+     * @param owner
+     *         the user of indexes
+     */
+    public synchronized void release(Object owner) {
+        for (Entry entry : entries.values()) {
+            entry.owners.remove(owner);
+        }
+        evict();
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            if (entry.owners.isEmpty()) {
+                iterator.remove();
+                size -= entry.length;
+                if (!entry.file.delete()) {
+                    LOG.warn("Can't delete pooled index " + entry.file);
+                }
+            }
+        }
+    }
+
+    private String checksum(File jar) {
+        try {
+            return JarChecksums.sha1(jar);
+        } catch (IOException e) {
+            LOG.warn("Can't calculate checksum of jar " + jar, e);
+            return null;
+        }
+    }
+
+    private static class Entry {
+        private final File        file;
+        private final long        length;
+        private final Set<Object> owners = new HashSet<>();
+        private TypeNameTable     typeNameTable;
+
+        private Entry(File file) {
+            this.file = file;
+            this.length = file.length();
+        }
+    }
+}
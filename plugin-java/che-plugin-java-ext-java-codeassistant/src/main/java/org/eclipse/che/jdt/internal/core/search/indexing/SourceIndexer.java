@@ -32,7 +32,6 @@ import org.eclipse.jdt.internal.compiler.ast.TypeDeclaration;
 import org.eclipse.jdt.internal.compiler.env.AccessRestriction;
 import org.eclipse.jdt.internal.compiler.env.IBinaryType;
 import org.eclipse.jdt.internal.compiler.env.ICompilationUnit;
-import org.eclipse.jdt.internal.compiler.env.INameEnvironment;
 import org.eclipse.jdt.internal.compiler.env.ISourceType;
 import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
 import org.eclipse.jdt.internal.compiler.impl.ITypeRequestor;
@@ -136,6 +135,7 @@ public class SourceIndexer extends AbstractIndexer implements ITypeRequestor, Su
 	}
 
 	public void resolveDocument() {
+		JavaSearchNameEnvironment nameEnvironment = null;
 		try {
 //			IPath path = new Path(this.document.getPath());
 //			IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(path.segment(0));
@@ -157,7 +157,7 @@ public class SourceIndexer extends AbstractIndexer implements ITypeRequestor, Su
 					.parse(this.compilationUnit, new CompilationResult(this.compilationUnit, 0, 0, this.options.maxProblemsPerUnit));
 
 			// Use a non model name environment to avoid locks, monitors and such.
-			INameEnvironment nameEnvironment = new JavaSearchNameEnvironment(javaProject, /*JavaModelManager.getJavaModelManager()
+			nameEnvironment = new JavaSearchNameEnvironment(javaProject, /*JavaModelManager.getJavaModelManager()
 			.getWorkingCopies(DefaultWorkingCopyOwner.PRIMARY, true*//*add primary WCs*//*)*/
 																			 null);
 			this.lookupEnvironment = new LookupEnvironment(this, this.options, problemReporter, nameEnvironment);
@@ -170,6 +170,11 @@ public class SourceIndexer extends AbstractIndexer implements ITypeRequestor, Su
 			if (JobManager.VERBOSE) {
 				e.printStackTrace();
 			}
+		} finally {
+			// bindings are resolved, release jars opened for lookup
+			if (nameEnvironment != null) {
+				nameEnvironment.cleanup();
+			}
 		}
 	}
 
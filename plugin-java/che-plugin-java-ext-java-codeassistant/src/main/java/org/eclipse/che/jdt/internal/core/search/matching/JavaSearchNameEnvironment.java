@@ -121,7 +121,9 @@ public class JavaSearchNameEnvironment implements INameEnvironment, SuffixConsta
             try {
                 if (root.isArchive()) {
                     ZipFile zipFile = manager.getZipFile(path);
-                    cpLocations[index++] = new ClasspathJar(zipFile, ((ClasspathEntry)root.getRawClasspathEntry()).getAccessRuleSet());
+                    // jar which is cached for current thread is released by manager, it must not be released twice
+                    cpLocations[index++] = new ClasspathJar(zipFile, ((ClasspathEntry)root.getRawClasspathEntry()).getAccessRuleSet(),
+                                                            !manager.isCachingZipFiles());
                 } else {
                     Object target = JavaModelManager.getTarget(path, true);
                     if (target == null) {
@@ -366,35 +368,22 @@ public class JavaSearchNameEnvironment implements INameEnvironment, SuffixConsta
                             IJavaSearchConstants.FORCE_IMMEDIATE_SEARCH,
                             progressMonitor);
                 } else {
-                    // indexes were not ready, give the indexing a chance to finish small jobs by sleeping 100ms...
-                    try {
-                        Thread.sleep(100);
-                    } catch (InterruptedException e) {
-                        // Do nothing
-                    }
+                    // indexes are not ready, search only tables of type names of jars which are already indexed,
+                    // so neither wait for indexing jobs nor trigger index rebuilt
                     if (monitor.isCanceled()) {
                         throw new OperationCanceledException();
                     }
-                    if (indexManager.awaitingJobsCount() == 0) {
-                        // indexes are now ready, so perform an immediate search to avoid any index rebuilt
-                        new BasicSearchEngine(indexManager, javaProject).searchAllTypeNames(
-                                qualification,
-                                SearchPattern.R_EXACT_MATCH,
-                                simpleName,
-                                matchRule, // not case sensitive
-                                searchFor,
-                                getSearchScope(),
-                                typeRequestor,
-                                IJavaSearchConstants.FORCE_IMMEDIATE_SEARCH,
-                                progressMonitor);
-                    }
-                    //else {
-                        // Indexes are still not ready, so look for types in the model instead of a search request
-//                        findTypes(
-//                                new String(prefix),
-//                                storage,
-//                                convertSearchFilterToModelFilter(searchFor));
-//                    }
+                    new BasicSearchEngine(indexManager, javaProject).searchAllTypeNames(
+                            qualification,
+                            SearchPattern.R_EXACT_MATCH,
+                            simpleName,
+                            matchRule, // not case sensitive
+                            searchFor,
+                            getSearchScope(),
+                            typeRequestor,
+                            IJavaSearchConstants.FORCE_IMMEDIATE_SEARCH,
+                            progressMonitor,
+                            true);
                 }
             } else {
                 try {
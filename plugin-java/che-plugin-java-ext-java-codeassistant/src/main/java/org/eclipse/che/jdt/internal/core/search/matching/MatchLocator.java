@@ -38,6 +38,7 @@ import org.eclipse.che.jdt.internal.core.search.IndexQueryRequestor;
 import org.eclipse.che.jdt.internal.core.search.IndexSelector;
 import org.eclipse.che.jdt.internal.core.search.JavaSearchDocument;
 import org.eclipse.che.jdt.internal.core.util.HandleFactory;
+import org.eclipse.che.jdt.util.ZipFileCache;
 
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
@@ -317,12 +318,13 @@ static {
 				if (JavaModelManager.ZIP_ACCESS_VERBOSE)
 					System.out.println("(" + Thread.currentThread() + ") [MatchLocator.classFileReader()] Creating ZipFile on " +
 									   zipPath); //$NON-NLS-1$	//$NON-NLS-2$
-				zipFile = manager.getZipFile(zipPath);
+				// jar is shared with name environments of projects instead of being opened for each type
+				zipFile = ZipFileCache.acquire(zipPath.toFile());
 				String classFileName = classFile.getElementName();
 				String path = Util.concatWith(pkg.names, classFileName, '/');
 				return ClassFileReader.read(zipFile, path);
 			} finally {
-				manager.closeZipFile(zipFile);
+				ZipFileCache.release(zipFile);
 			}
 		} catch (ClassFormatException e) {
 			// invalid class file: return null
@@ -0,0 +1,265 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.jdt.internal.core.search.matching;
+
+import org.eclipse.che.jdt.core.search.IJavaSearchScope;
+import org.eclipse.che.jdt.core.search.SearchParticipant;
+import org.eclipse.che.jdt.core.search.SearchPattern;
+import org.eclipse.che.jdt.internal.core.search.IndexQueryRequestor;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.jdt.core.compiler.CharOperation;
+import org.eclipse.jdt.internal.core.index.EntryResult;
+import org.eclipse.jdt.internal.core.index.Index;
+import org.eclipse.jdt.internal.core.search.indexing.IIndexConstants;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact in-memory table of type declarations of an indexed jar. Answers type name searches without reading the disk index
+ * and without locking it, see {@link #findIndexMatches}.
+ * <p/>
+ * Table is immutable and is built once when jar is indexed. Entries are kept in parallel arrays sorted by simple type name
+ * ignoring case, so prefix and camel case queries look up range of candidates by binary search. Equal names, packages and
+ * enclosing type names share the same arrays.
+ */
+public final class TypeNameTable {
+
+    private final char[][]   simpleNames;
+    private final int[]      packageIds;
+    private final int[]      enclosingTypeIds;
+    private final int[]      modifiers;
+    private final String[]   documentNames;
+    private final char[][]   packages;
+    private final char[][][] enclosingTypeNames;
+
+    private TypeNameTable(List<Row> rows, List<char[]> packages, List<char[][]> enclosingTypeNames) {
+        int size = rows.size();
+        this.simpleNames = new char[size][];
+        this.packageIds = new int[size];
+        this.enclosingTypeIds = new int[size];
+        this.modifiers = new int[size];
+        this.documentNames = new String[size];
+        for (int i = 0; i < size; i++) {
+            Row row = rows.get(i);
+            this.simpleNames[i] = row.simpleName;
+            this.packageIds[i] = row.packageId;
+            this.enclosingTypeIds[i] = row.enclosingTypeId;
+            this.modifiers[i] = row.modifiers;
+            this.documentNames[i] = row.documentName;
+        }
+        this.packages = packages.toArray(new char[packages.size()][]);
+        this.enclosingTypeNames = enclosingTypeNames.toArray(new char[enclosingTypeNames.size()][][]);
+    }
+
+    /**
+     * Builds table of all type declarations of the index.
+     * Caller must hold read or write lock of the index.
+     *
+     * @param index
+     *         index of jar
+     * @return table of type declarations
+     * @throws IOException
+     *         if index can't be read
+     */
+    public static TypeNameTable build(Index index) throws IOException {
+        Map<String, char[]> names = new HashMap<>();
+        Map<String, Integer> packageIds = new HashMap<>();
+        List<char[]> packages = new ArrayList<>();
+        Map<String, Integer> enclosingTypeIds = new HashMap<>();
+        List<char[][]> enclosingTypeNames = new ArrayList<>();
+        // well known values are compared by identity by search requestors
+        enclosingTypeNames.add(CharOperation.NO_CHAR_CHAR);
+        enclosingTypeNames.add(IIndexConstants.ONE_ZERO_CHAR);
+
+        List<Row> rows = new ArrayList<>();
+        TypeDeclarationPattern decodedResult = new TypeDeclarationPattern(SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE);
+        index.startQuery();
+        try {
+            EntryResult[] entries = index.query(TypeDeclarationPattern.CATEGORIES, null, SearchPattern.R_PREFIX_MATCH);
+            if (entries != null) {
+                for (EntryResult entry : entries) {
+                    decodedResult.decodeIndexKey(entry.getWord());
+                    if (decodedResult.secondary) {
+                        // secondary types are declared only in sources
+                        continue;
+                    }
+                    String name = new String(decodedResult.simpleName);
+                    char[] simpleName = names.get(name);
+                    if (simpleName == null) {
+                        names.put(name, simpleName = decodedResult.simpleName);
+                    }
+                    String pkg = new String(decodedResult.pkg);
+                    Integer packageId = packageIds.get(pkg);
+                    if (packageId == null) {
+                        packageIds.put(pkg, packageId = packages.size());
+                        packages.add(decodedResult.pkg);
+                    }
+                    int enclosingTypeId;
+                    if (decodedResult.enclosingTypeNames == CharOperation.NO_CHAR_CHAR) {
+                        enclosingTypeId = 0;
+                    } else if (decodedResult.enclosingTypeNames == IIndexConstants.ONE_ZERO_CHAR) {
+                        enclosingTypeId = 1;
+                    } else {
+                        String enclosing = CharOperation.toString(decodedResult.enclosingTypeNames);
+                        Integer id = enclosingTypeIds.get(enclosing);
+                        if (id == null) {
+                            enclosingTypeIds.put(enclosing, id = enclosingTypeNames.size());
+                            enclosingTypeNames.add(decodedResult.enclosingTypeNames);
+                        }
+                        enclosingTypeId = id;
+                    }
+                    for (String documentName : entry.getDocumentNames(index)) {
+                        rows.add(new Row(simpleName, packageId, enclosingTypeId, decodedResult.modifiers, documentName));
+                    }
+                }
+            }
+        } finally {
+            index.stopQuery();
+        }
+        Collections.sort(rows, new Comparator<Row>() {
+            @Override
+            public int compare(Row o1, Row o2) {
+                int result = compareIgnoreCase(o1.simpleName, o2.simpleName, o2.simpleName.length);
+                return result != 0 ? result : o1.simpleName.length - o2.simpleName.length;
+            }
+        });
+        return new TypeNameTable(rows, packages, enclosingTypeNames);
+    }
+
+    /** Checks whether the pattern may be answered by table instead of disk index. */
+    public static boolean canAnswer(SearchPattern pattern) {
+        // subclasses match packages, secondary types or many names and are answered by disk index
+        if (pattern.getClass() != TypeDeclarationPattern.class) {
+            return false;
+        }
+        switch (((TypeDeclarationPattern)pattern).getMatchMode()) {
+            case SearchPattern.R_EXACT_MATCH:
+            case SearchPattern.R_PREFIX_MATCH:
+            case SearchPattern.R_CAMELCASE_MATCH:
+            case SearchPattern.R_CAMELCASE_SAME_PART_COUNT_MATCH:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /** Returns number of type declarations in table. */
+    public int size() {
+        return simpleNames.length;
+    }
+
+    /**
+     * Reports type declarations matching the pattern to the requestor in the same way as
+     * {@link SearchPattern#findIndexMatches(Index, IndexQueryRequestor, SearchParticipant, IJavaSearchScope, IProgressMonitor)}
+     * does for disk index. Pattern must be accepted by {@link #canAnswer(SearchPattern)}.
+     *
+     * @param pattern
+     *         type declaration pattern
+     * @param index
+     *         index the table is built from, it isn't read by this method
+     */
+    public void findIndexMatches(TypeDeclarationPattern pattern, Index index, IndexQueryRequestor requestor, SearchParticipant participant,
+                                 IJavaSearchScope scope, IProgressMonitor monitor) {
+        if (monitor != null && monitor.isCanceled()) throw new OperationCanceledException();
+
+        int from = 0;
+        int to = simpleNames.length;
+        char[] key = pattern.simpleName;
+        if (key != null && key.length > 0) {
+            // camel case pattern matches only names starting with the same character, other modes match names starting with pattern
+            int keyLength = pattern.isCamelCase() ? 1 : key.length;
+            from = lowerBound(key, keyLength);
+            to = upperBound(key, keyLength, from);
+        }
+
+        TypeDeclarationPattern decodedResult = new TypeDeclarationPattern(SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE);
+        String containerPath = index.containerPath;
+        char separator = index.separator;
+        for (int i = from; i < to; i++) {
+            if (monitor != null && monitor.isCanceled()) throw new OperationCanceledException();
+
+            decodedResult.simpleName = simpleNames[i];
+            decodedResult.pkg = packages[packageIds[i]];
+            decodedResult.enclosingTypeNames = enclosingTypeNames[enclosingTypeIds[i]];
+            decodedResult.modifiers = modifiers[i];
+            decodedResult.decodeModifiers();
+            if (pattern.matchesDecodedKey(decodedResult)) {
+                pattern.acceptMatch(documentNames[i], containerPath, separator, decodedResult, requestor, participant, scope, monitor);
+            }
+        }
+    }
+
+    /** Returns position of the first name which is not less than key ignoring case. */
+    private int lowerBound(char[] key, int keyLength) {
+        int low = 0;
+        int high = simpleNames.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compareIgnoreCase(simpleNames[middle], key, keyLength) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /** Returns position of the first name which doesn't start with key ignoring case. */
+    private int upperBound(char[] key, int keyLength, int from) {
+        int low = from;
+        int high = simpleNames.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compareIgnoreCase(simpleNames[middle], key, keyLength) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /** Compares name with the first characters of key ignoring case, name which starts with them is equal to key. */
+    private static int compareIgnoreCase(char[] name, char[] key, int keyLength) {
+        int length = Math.min(name.length, keyLength);
+        for (int i = 0; i < length; i++) {
+            int diff = Character.toLowerCase(name[i]) - Character.toLowerCase(key[i]);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return name.length < keyLength ? -1 : 0;
+    }
+
+    private static final class Row {
+        private final char[] simpleName;
+        private final int    packageId;
+        private final int    enclosingTypeId;
+        private final int    modifiers;
+        private final String documentName;
+
+        private Row(char[] simpleName, int packageId, int enclosingTypeId, int modifiers, String documentName) {
+            this.simpleName = simpleName;
+            this.packageId = packageId;
+            this.enclosingTypeId = enclosingTypeId;
+            this.modifiers = modifiers;
+            this.documentName = documentName;
+        }
+    }
+}
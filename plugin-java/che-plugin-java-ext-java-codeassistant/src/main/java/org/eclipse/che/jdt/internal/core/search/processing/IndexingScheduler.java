@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.jdt.internal.core.search.processing;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Node-wide limit of background jobs executed at the same time by all {@link JobManager}s.
+ * Every job manager asks for a permit before executing a job, so projects opened at the same time
+ * don't compete for CPU and disk without coordination.
+ * <p/>
+ * Job managers which are {@link JobManager#isInteractive() interactive}, i.e. have clients waiting for indexing
+ * or serve user requests, get permits before others. Other job managers get permits in order of request.
+ * Job managers wait until permit is released, priorities of waiting job managers are checked at that moment.
+ */
+@Singleton
+public class IndexingScheduler {
+
+    @Inject(optional = true)
+    @Named("che.java.codeassistant.index.threads")
+    private int maxRunningJobs = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private final List<JobManager> waiting = new ArrayList<>();
+    private       int              running;
+
+    @Inject
+    public IndexingScheduler() {
+    }
+
+    public IndexingScheduler(int maxRunningJobs) {
+        this.maxRunningJobs = maxRunningJobs;
+    }
+
+    /**
+     * Waits until job manager is allowed to execute next job.
+     *
+     * @param manager
+     *         the job manager which is going to execute job
+     * @return {@code true} if permit is acquired and {@link #release()} must be called after job is executed,
+     * {@code false} if job manager was shut down while waiting
+     * @throws InterruptedException
+     *         if current thread is interrupted while waiting
+     */
+    public synchronized boolean acquire(JobManager manager) throws InterruptedException {
+        waiting.add(manager);
+        try {
+            while (running >= maxRunningJobs || next() != manager) {
+                if (manager.processingThread == null) {
+                    return false;
+                }
+                wait();
+            }
+            running++;
+            return true;
+        } finally {
+            waiting.remove(manager);
+            notifyAll();
+        }
+    }
+
+    /**
+     * Returns permit acquired by {@link #acquire(JobManager)}.
+     */
+    public synchronized void release() {
+        running--;
+        notifyAll();
+    }
+
+    /**
+     * Wakes up job managers which are waiting for permit, so job manager which is shut down stops waiting.
+     */
+    public synchronized void wakeUp() {
+        notifyAll();
+    }
+
+    /** Returns number of jobs which are executed now. */
+    public synchronized int getRunningJobsCount() {
+        return running;
+    }
+
+    private JobManager next() {
+        for (JobManager manager : waiting) {
+            if (manager.isInteractive()) {
+                return manager;
+            }
+        }
+        return waiting.isEmpty() ? null : waiting.get(0);
+    }
+}
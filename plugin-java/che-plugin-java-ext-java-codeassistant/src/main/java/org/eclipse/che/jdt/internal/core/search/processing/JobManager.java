@@ -41,7 +41,13 @@ public abstract class JobManager implements Runnable {
     /* flag indicating that the activation has completed */
     public        boolean activated = false;
 
-    private int awaitingClients = 0;
+    private volatile int awaitingClients = 0;
+
+    /* node-wide limit of running background jobs, if null jobs are executed without limit */
+    protected IndexingScheduler scheduler;
+
+    /* time until which job manager is considered as serving interactive requests */
+    private volatile long interactiveUntil;
 
     /**
      * Invoked exactly once, in background, before starting processing any job
@@ -50,6 +56,21 @@ public abstract class JobManager implements Runnable {
         this.activated = true;
     }
 
+    /**
+     * Marks job manager as serving interactive requests for the given period of time,
+     * its jobs are executed before jobs of other job managers.
+     */
+    public void prioritize(long millis) {
+        this.interactiveUntil = System.currentTimeMillis() + millis;
+    }
+
+    /**
+     * Answers whether clients are waiting for this job manager or it serves interactive requests.
+     */
+    public boolean isInteractive() {
+        return this.awaitingClients > 0 || System.currentTimeMillis() < this.interactiveUntil;
+    }
+
     /**
      * Answer the amount of awaiting jobs.
      */
@@ -406,6 +427,14 @@ public abstract class JobManager implements Runnable {
 						Util.verbose(awaitingJobsCount() + " awaiting jobs"); //$NON-NLS-1$
 						Util.verbose("STARTING background job - " + job); //$NON-NLS-1$
 					}
+					if (this.scheduler != null) {
+						// wait for a free slot of node-wide pool, the job stays first in the queue meanwhile
+						if (!this.scheduler.acquire(this)) continue;
+						if (currentJob() != job) { // job was discarded while waiting
+							this.scheduler.release();
+							continue;
+						}
+					}
 					try {
 						this.executing = true;
 						if (this.progressJob == null) {
@@ -418,6 +447,8 @@ public abstract class JobManager implements Runnable {
 						//if (status == FAILED) request(job);
 					} finally {
 						this.executing = false;
+						if (this.scheduler != null)
+							this.scheduler.release();
 						if (VERBOSE)
 							Util.verbose("FINISHED background job - " + job); //$NON-NLS-1$
 						moveToNextJob();
@@ -468,6 +499,8 @@ public abstract class JobManager implements Runnable {
 					this.processingThread = null; // mark the job manager as shutting down so that the thread will stop by itself
 					notifyAll(); // ensure its awake so it can be shutdown
 				}
+				if (this.scheduler != null)
+					this.scheduler.wakeUp(); // thread may wait for permit of node-wide pool
 				// in case processing thread is handling a job
 				thread.join();
 			}
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.jdt.util;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Calculates SHA-1 checksums of jar files. Checksum is remembered and calculated again only if
+ * size or last modification time of the jar is changed.
+ */
+public class JarChecksums {
+
+    private static final ConcurrentHashMap<String, JarSum> CHECKSUMS = new ConcurrentHashMap<>();
+
+    private JarChecksums() {
+    }
+
+    /**
+     * Returns SHA-1 checksum of the jar as hex string.
+     *
+     * @param jar
+     *         the jar file
+     * @throws IOException
+     *         if jar can't be read
+     */
+    public static String sha1(File jar) throws IOException {
+        String path = jar.getAbsolutePath();
+        long lastModified = jar.lastModified();
+        long length = jar.length();
+        JarSum sum = CHECKSUMS.get(path);
+        if (sum == null || sum.lastModified != lastModified || sum.length != length) {
+            sum = new JarSum(lastModified, length, Files.hash(jar, Hashing.sha1()).toString());
+            CHECKSUMS.put(path, sum);
+        }
+        return sum.checksum;
+    }
+
+    /**
+     * Remembers checksum of the jar which is already known, e.g. when jar is written, so jar isn't read again.
+     *
+     * @param jar
+     *         the jar file
+     * @param checksum
+     *         SHA-1 checksum of the jar as hex string
+     */
+    public static void remember(File jar, String checksum) {
+        CHECKSUMS.put(jar.getAbsolutePath(), new JarSum(jar.lastModified(), jar.length(), checksum));
+    }
+
+    /** Forgets remembered checksum of the jar, e.g. when jar is removed. */
+    public static void forget(File jar) {
+        CHECKSUMS.remove(jar.getAbsolutePath());
+    }
+
+    private static class JarSum {
+        private final long   lastModified;
+        private final long   length;
+        private final String checksum;
+
+        private JarSum(long lastModified, long length, String checksum) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.checksum = checksum;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.jdt.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipFile;
+
+/**
+ * Node-wide cache of open jar files shared by all projects.
+ * <p/>
+ * Opening of {@link ZipFile} reads central directory of the jar, so jars are kept open between builds and lookups instead of being
+ * opened again each time. Each {@link #acquire(File)} must be followed by {@link #release(ZipFile)}, released file stays open until
+ * number of open files exceeds {@link #setMaxOpenFiles(int) limit}, then least recently used files are closed. File is opened again
+ * if size or last modification time of the jar is changed.
+ * <p/>
+ * Central directory of open file is mapped to memory by JVM, so jars of JRE, e.g. {@code rt.jar}, which are used by every project,
+ * are never closed by the limit.
+ */
+public class ZipFileCache {
+    public static final int DEFAULT_MAX_OPEN_FILES = 256;
+
+    private static final Object                        LOCK      = new Object();
+    /** Current handles by path of jar, iteration order is from least to most recently used. */
+    private static final LinkedHashMap<String, Handle> HANDLES   = new LinkedHashMap<>(16, 0.75f, true);
+    /** All open handles including outdated ones which are still in use. */
+    private static final Map<ZipFile, Handle>          OPEN      = new IdentityHashMap<>();
+    private static final String                        JAVA_HOME = javaHome();
+
+    private static int maxOpenFiles = DEFAULT_MAX_OPEN_FILES;
+
+    private ZipFileCache() {
+    }
+
+    /**
+     * Returns open jar file which may be shared with other users of the same jar.
+     * Returned file must not be closed, it must be passed to {@link #release(ZipFile)} instead.
+     *
+     * @param file
+     *         the jar file
+     * @throws IOException
+     *         if jar can't be opened
+     */
+    public static ZipFile acquire(File file) throws IOException {
+        String path = file.getAbsolutePath();
+        long lastModified = file.lastModified();
+        long length = file.length();
+        synchronized (LOCK) {
+            Handle handle = HANDLES.get(path);
+            if (handle != null && handle.isUpToDate(lastModified, length)) {
+                handle.refs++;
+                return handle.zipFile;
+            }
+        }
+        // big jar is opened for a while, so it's done without lock
+        ZipFile zipFile = new ZipFile(file);
+        // jars of JRE may be reached through symbolic link while java home is canonical
+        boolean pinned = isPinned(canonicalPath(file));
+        synchronized (LOCK) {
+            Handle handle = HANDLES.get(path);
+            if (handle != null && handle.isUpToDate(lastModified, length)) {
+                // opened by another thread meanwhile
+                closeQuietly(zipFile);
+                handle.refs++;
+                return handle.zipFile;
+            }
+            if (handle != null) {
+                HANDLES.remove(path);
+                discard(handle);
+            }
+            handle = new Handle(zipFile, lastModified, length, pinned);
+            HANDLES.put(path, handle);
+            OPEN.put(zipFile, handle);
+            evict();
+            return zipFile;
+        }
+    }
+
+    /**
+     * Releases jar file returned by {@link #acquire(File)}. File which isn't opened by this cache is closed.
+     *
+     * @param zipFile
+     *         the jar file, may be {@code null}
+     */
+    public static void release(ZipFile zipFile) {
+        if (zipFile == null) {
+            return;
+        }
+        synchronized (LOCK) {
+            Handle handle = OPEN.get(zipFile);
+            if (handle != null) {
+                if (handle.refs == 0) {
+                    throw new IllegalStateException(String.format("Jar file %s is released more times than acquired", zipFile.getName()));
+                }
+                handle.refs--;
+                if (handle.outdated) {
+                    discard(handle);
+                } else {
+                    evict();
+                }
+                return;
+            }
+        }
+        closeQuietly(zipFile);
+    }
+
+    /**
+     * Forgets jar file or all jar files in directory, e.g. when they are removed.
+     * Files which aren't in use are closed, other ones are closed when they are released.
+     */
+    public static void forget(File fileOrDirectory) {
+        String path = fileOrDirectory.getAbsolutePath();
+        synchronized (LOCK) {
+            for (Iterator<Map.Entry<String, Handle>> i = HANDLES.entrySet().iterator(); i.hasNext(); ) {
+                Map.Entry<String, Handle> entry = i.next();
+                if (isUnder(entry.getKey(), path)) {
+                    i.remove();
+                    discard(entry.getValue());
+                }
+            }
+        }
+    }
+
+    /** Closes all files which aren't in use. */
+    public static void closeUnused() {
+        synchronized (LOCK) {
+            for (Iterator<Handle> i = HANDLES.values().iterator(); i.hasNext(); ) {
+                Handle handle = i.next();
+                if (handle.refs == 0) {
+                    i.remove();
+                    discard(handle);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets maximum number of open files. Files in use and jars of JRE are never closed, so the number may be exceeded by them.
+     *
+     * @param maxOpenFiles
+     *         maximum number of open files
+     */
+    public static void setMaxOpenFiles(int maxOpenFiles) {
+        synchronized (LOCK) {
+            ZipFileCache.maxOpenFiles = maxOpenFiles;
+            evict();
+        }
+    }
+
+    /** Returns number of currently open files. */
+    public static int getOpenFiles() {
+        synchronized (LOCK) {
+            return OPEN.size();
+        }
+    }
+
+    /** Closes least recently used files which aren't in use while limit of open files is exceeded. Caller must hold lock. */
+    private static void evict() {
+        for (Iterator<Handle> i = HANDLES.values().iterator(); OPEN.size() > maxOpenFiles && i.hasNext(); ) {
+            Handle handle = i.next();
+            if (handle.refs == 0 && !handle.pinned) {
+                i.remove();
+                discard(handle);
+            }
+        }
+    }
+
+    /** Closes handle which is removed from current handles or marks it to be closed when it's released. Caller must hold lock. */
+    private static void discard(Handle handle) {
+        handle.outdated = true;
+        if (handle.refs == 0) {
+            OPEN.remove(handle.zipFile);
+            closeQuietly(handle.zipFile);
+        }
+    }
+
+    private static boolean isPinned(String path) {
+        return JAVA_HOME != null && isUnder(path, JAVA_HOME);
+    }
+
+    private static String canonicalPath(File file) {
+        try {
+            return file.getCanonicalPath();
+        } catch (IOException e) {
+            return file.getAbsolutePath();
+        }
+    }
+
+    private static boolean isUnder(String path, String parent) {
+        return path.equals(parent) || path.startsWith(parent) && path.charAt(parent.length()) == File.separatorChar;
+    }
+
+    private static String javaHome() {
+        String javaHome = System.getProperty("java.home");
+        if (javaHome == null) {
+            return null;
+        }
+        File home;
+        try {
+            home = new File(javaHome).getCanonicalFile();
+        } catch (IOException e) {
+            home = new File(javaHome).getAbsoluteFile();
+        }
+        // JRE of JDK, tools of JDK are used as well
+        if ("jre".equals(home.getName()) && home.getParentFile() != null) {
+            home = home.getParentFile();
+        }
+        return home.getPath();
+    }
+
+    private static void closeQuietly(ZipFile zipFile) {
+        try {
+            zipFile.close();
+        } catch (IOException e) {
+            // problem occurred closing zip file: cannot do much more
+        }
+    }
+
+    private static class Handle {
+        private final ZipFile zipFile;
+        private final long    lastModified;
+        private final long    length;
+        private final boolean pinned;
+        private       int     refs = 1;
+        private       boolean outdated;
+
+        private Handle(ZipFile zipFile, long lastModified, long length, boolean pinned) {
+            this.zipFile = zipFile;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.pinned = pinned;
+        }
+
+        private boolean isUpToDate(long lastModified, long length) {
+            return this.lastModified == lastModified && this.length == length;
+        }
+    }
+}
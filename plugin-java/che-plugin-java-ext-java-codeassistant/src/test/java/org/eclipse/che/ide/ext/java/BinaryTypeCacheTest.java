@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.java;
+
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.jdt.BinaryTypeCache;
+import org.eclipse.che.jdt.BinaryTypeConvector;
+
+import org.eclipse.jdt.internal.compiler.env.IBinaryType;
+import org.eclipse.jdt.internal.compiler.env.NameEnvironmentAnswer;
+import org.fest.assertions.Assertions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+/**
+ * Tests for {@link BinaryTypeCache}
+ */
+public class BinaryTypeCacheTest extends BaseTest {
+
+    private File cacheDir;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        cacheDir = Files.createTempDirectory("binary-types").toFile();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        IoUtil.deleteRecursive(cacheDir);
+        super.tearDown();
+    }
+
+    @Test
+    public void testCachedTypeIsSameAsConverted() throws Exception {
+        IBinaryType type = findListType();
+
+        String json = new BinaryTypeCache(cacheDir.getPath()).toJson(project, type);
+
+        Assertions.assertThat(json).isEqualTo(BinaryTypeConvector.toJsonBinaryType(type));
+    }
+
+    @Test
+    public void testTypeIsReadFromDiskCache() throws Exception {
+        IBinaryType type = findListType();
+
+        String json = new BinaryTypeCache(cacheDir.getPath()).toJson(project, type);
+        String cached = new BinaryTypeCache(cacheDir.getPath()).toJson(project, type);
+
+        Assertions.assertThat(cached).isEqualTo(json);
+        Assertions.assertThat(new File(cacheDir, "binary-types").list()).hasSize(1);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedTypesAreDeletedFromDisk() throws Exception {
+        new BinaryTypeCache(cacheDir.getPath()).toJson(project, findListType());
+        File[] jars = new File(cacheDir, "binary-types").listFiles();
+        Assertions.assertThat(jars).hasSize(1);
+        File cached = jars[0].listFiles()[0];
+
+        String converted = new BinaryTypeCache(cacheDir.getPath(), cached.length() - 1).toJson(project, findMapType());
+
+        Assertions.assertThat(converted).isEqualTo(BinaryTypeConvector.toJsonBinaryType(findMapType()));
+        Assertions.assertThat(cached.exists()).isFalse();
+    }
+
+    private IBinaryType findListType() {
+        NameEnvironmentAnswer answer = project.getNameEnvironment().findType(new char[][]{"java".toCharArray(),
+                                                                                          "util".toCharArray(),
+                                                                                          "List".toCharArray()});
+        Assertions.assertThat(answer.isBinaryType()).isTrue();
+        return answer.getBinaryType();
+    }
+
+    private IBinaryType findMapType() {
+        NameEnvironmentAnswer answer = project.getNameEnvironment().findType(new char[][]{"java".toCharArray(),
+                                                                                          "util".toCharArray(),
+                                                                                          "Map".toCharArray()});
+        Assertions.assertThat(answer.isBinaryType()).isTrue();
+        return answer.getBinaryType();
+    }
+}
@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.java;
+
+import org.eclipse.che.jdt.JavaProjectService;
+import org.eclipse.che.jdt.RestNameEnvironment;
+import org.eclipse.che.jdt.internal.core.JavaProject;
+import org.eclipse.jdt.core.IJavaModelStatusConstants;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.fest.assertions.Assertions;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import javax.ws.rs.WebApplicationException;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests for {@link JavaProject#getClasspathFingerprint()} and {@link RestNameEnvironment#getClasspathFingerprint(String)}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ClasspathFingerprintTest extends BaseTest {
+
+    @Mock
+    private JavaProjectService  javaProjectService;
+    @InjectMocks
+    private RestNameEnvironment nameEnvironment;
+
+    @Test
+    public void testFingerprintIsNotChangedWhileClasspathIsTheSame() throws Exception {
+        String fingerprint = project.getClasspathFingerprint();
+
+        Assertions.assertThat(fingerprint).matches("[0-9a-f]{40}");
+        Assertions.assertThat(project.getClasspathFingerprint()).isEqualTo(fingerprint);
+    }
+
+    @Test
+    public void testFingerprintDependsOnCompilerCompliance() throws Exception {
+        Map<String, String> java8Options = new HashMap<>(options);
+        java8Options.put(JavaCore.COMPILER_COMPLIANCE, JavaCore.VERSION_1_8);
+        JavaProject java8Project = new JavaProject(new File(BaseTest.class.getResource("/projects").getFile()), "/test",
+                                                   BaseTest.class.getResource("/temp").getPath(), "ws-java8", java8Options);
+        try {
+            Assertions.assertThat(java8Project.getClasspathFingerprint()).isNotEqualTo(project.getClasspathFingerprint());
+        } finally {
+            java8Project.close();
+        }
+    }
+
+    @Test
+    public void testServiceReturnsFingerprintOfProject() throws Exception {
+        Mockito.when(javaProjectService.getOrCreateJavaProject(Matchers.<String>any(), Matchers.eq("/test"))).thenReturn(project);
+
+        Assertions.assertThat(nameEnvironment.getClasspathFingerprint("/test")).isEqualTo(project.getClasspathFingerprint());
+    }
+
+    @Test(expected = WebApplicationException.class)
+    public void testServiceFailsIfFingerprintCanNotBeCalculated() throws Exception {
+        JavaProject brokenProject = Mockito.mock(JavaProject.class);
+        Mockito.when(brokenProject.getClasspathFingerprint())
+               .thenThrow(new JavaModelException(new IOException("classpath is broken"), IJavaModelStatusConstants.IO_EXCEPTION));
+        Mockito.when(javaProjectService.getOrCreateJavaProject(Matchers.<String>any(), Matchers.eq("/broken"))).thenReturn(brokenProject);
+
+        nameEnvironment.getClasspathFingerprint("/broken");
+    }
+}
@@ -14,6 +14,7 @@ package org.eclipse.che.ide.ext.java;
 import org.eclipse.che.api.vfs.server.observation.CreateEvent;
 import org.eclipse.che.api.vfs.server.observation.DeleteEvent;
 import org.eclipse.che.jdt.core.resources.ResourceChangedEvent;
+import org.eclipse.che.jdt.internal.core.SearchableEnvironment;
 import org.eclipse.jdt.core.compiler.CharOperation;
 import org.eclipse.jdt.internal.compiler.env.NameEnvironmentAnswer;
 import org.junit.After;
@@ -93,5 +94,23 @@ public class DeltaProcessingTest extends BaseTest {
         assertThat(answer).isNotNull();
     }
 
+    @Test
+    public void testInvalidatedNameEnvironmentIsRebuiltOnAccess() throws Exception {
+        File workspace = new File(BaseTest.class.getResource("/projects").getFile());
+        ResourceChangedEvent event = new ResourceChangedEvent(workspace,new CreateEvent("projects", "/test/src/main/java/com/codenvy/test/NewClass.java", false));
+
+        SearchableEnvironment environment = project.getNameEnvironment();
+
+        FileOutputStream outputStream = new FileOutputStream(new File(workspace, "/test/src/main/java/com/codenvy/test/NewClass.java"));
+        outputStream.write("packagecom.codenvy.test;\n public class NewClass{}\n".getBytes());
+        outputStream.close();
+
+        project.getJavaModelManager().deltaState.resourceChanged(event);
+        project.invalidateNameEnvironment();
 
+        assertThat(project.getNameEnvironment()).isNotSameAs(environment);
+        NameEnvironmentAnswer answer =
+                project.getNameEnvironment().findType(CharOperation.splitOn('.', "com.codenvy.test.NewClass".toCharArray()));
+        assertThat(answer).isNotNull();
+    }
 }
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.java;
+
+import org.eclipse.che.jdt.internal.core.search.processing.IndexingScheduler;
+import org.eclipse.che.jdt.internal.core.search.processing.JobManager;
+import org.fest.assertions.Assertions;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link IndexingScheduler}
+ */
+public class IndexingSchedulerTest {
+
+    @Test
+    public void testNumberOfRunningJobsIsLimited() throws Exception {
+        IndexingScheduler scheduler = new IndexingScheduler(1);
+        TestJobManager first = new TestJobManager("first");
+        TestJobManager second = new TestJobManager("second");
+        BlockingQueue<String> acquired = new LinkedBlockingQueue<>();
+
+        Assertions.assertThat(scheduler.acquire(first)).isTrue();
+        Thread waiting = acquireInBackground(scheduler, second, acquired);
+
+        Assertions.assertThat(acquired.poll(200, TimeUnit.MILLISECONDS)).isNull();
+        Assertions.assertThat(scheduler.getRunningJobsCount()).isEqualTo(1);
+
+        scheduler.release();
+
+        Assertions.assertThat(acquired.poll(5, TimeUnit.SECONDS)).isEqualTo("second");
+        waiting.join();
+        Assertions.assertThat(scheduler.getRunningJobsCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testInteractiveJobManagerGetsPermitFirst() throws Exception {
+        IndexingScheduler scheduler = new IndexingScheduler(1);
+        TestJobManager running = new TestJobManager("running");
+        TestJobManager background = new TestJobManager("background");
+        TestJobManager interactive = new TestJobManager("interactive");
+        BlockingQueue<String> acquired = new LinkedBlockingQueue<>();
+
+        Assertions.assertThat(scheduler.acquire(running)).isTrue();
+        Thread first = acquireInBackground(scheduler, background, acquired);
+        Assertions.assertThat(acquired.poll(200, TimeUnit.MILLISECONDS)).isNull();
+        interactive.prioritize(60000);
+        Thread second = acquireInBackground(scheduler, interactive, acquired);
+        Assertions.assertThat(acquired.poll(200, TimeUnit.MILLISECONDS)).isNull();
+
+        scheduler.release();
+
+        Assertions.assertThat(acquired.poll(5, TimeUnit.SECONDS)).isEqualTo("interactive");
+        Assertions.assertThat(acquired.poll(200, TimeUnit.MILLISECONDS)).isNull();
+
+        scheduler.release();
+
+        Assertions.assertThat(acquired.poll(5, TimeUnit.SECONDS)).isEqualTo("background");
+        first.join();
+        second.join();
+    }
+
+    @Test
+    public void testJobManagerWhichIsShutDownStopsWaiting() throws Exception {
+        IndexingScheduler scheduler = new IndexingScheduler(1);
+        TestJobManager running = new TestJobManager("running");
+        TestJobManager stopped = new TestJobManager("stopped");
+        BlockingQueue<String> acquired = new LinkedBlockingQueue<>();
+        List<Boolean> results = new CopyOnWriteArrayList<>();
+
+        Assertions.assertThat(scheduler.acquire(running)).isTrue();
+        Thread waiting = acquireInBackground(scheduler, stopped, acquired, results);
+        Assertions.assertThat(acquired.poll(200, TimeUnit.MILLISECONDS)).isNull();
+
+        stopped.stop();
+        scheduler.wakeUp();
+
+        Assertions.assertThat(acquired.poll(5, TimeUnit.SECONDS)).isEqualTo("stopped");
+        waiting.join();
+        Assertions.assertThat(results).containsOnly(false);
+        Assertions.assertThat(scheduler.getRunningJobsCount()).isEqualTo(1);
+    }
+
+    private Thread acquireInBackground(IndexingScheduler scheduler, TestJobManager manager, BlockingQueue<String> acquired) {
+        return acquireInBackground(scheduler, manager, acquired, new CopyOnWriteArrayList<Boolean>());
+    }
+
+    /** Acquires permit in separate thread, name of job manager is added to {@code acquired} when acquire returns. */
+    private Thread acquireInBackground(final IndexingScheduler scheduler,
+                                       final TestJobManager manager,
+                                       final BlockingQueue<String> acquired,
+                                       final List<Boolean> results) {
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    results.add(scheduler.acquire(manager));
+                    acquired.add(manager.processName());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static class TestJobManager extends JobManager {
+        private final String name;
+
+        TestJobManager(String name) {
+            this.name = name;
+            // scheduler considers job manager without processing thread as shut down
+            this.processingThread = Thread.currentThread();
+        }
+
+        void stop() {
+            this.processingThread = null;
+        }
+
+        @Override
+        public String processName() {
+            return name;
+        }
+    }
+}
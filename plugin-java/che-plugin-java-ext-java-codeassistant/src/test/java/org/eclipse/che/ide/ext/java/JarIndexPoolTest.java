@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.java;
+
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.jdt.internal.core.search.indexing.JarIndexPool;
+import org.eclipse.jdt.internal.core.index.FileIndexLocation;
+import org.eclipse.jdt.internal.core.index.Index;
+import org.fest.assertions.Assertions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Tests for {@link JarIndexPool}
+ */
+public class JarIndexPoolTest {
+
+    private File dir;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("jar-index-pool").toFile();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        IoUtil.deleteRecursive(dir);
+    }
+
+    @Test
+    public void testJarWithSameContentSharesIndex() throws Exception {
+        JarIndexPool pool = new JarIndexPool(dir.getPath(), Long.MAX_VALUE);
+        File jar1 = createFile("ws1/lib.jar", "jar content");
+        File jar2 = createFile("ws2/lib.jar", "jar content");
+
+        Assertions.assertThat(pool.acquire(jar1, "project1")).isNull();
+        pool.publish(jar1, createFile("ws1/index", "index content"));
+
+        Assertions.assertThat(pool.acquire(jar2, "project2")).isNotNull();
+    }
+
+    @Test
+    public void testUnusedIndexIsEvicted() throws Exception {
+        JarIndexPool pool = new JarIndexPool(dir.getPath(), 20);
+        File jar1 = createFile("ws1/lib1.jar", "jar1 content");
+        File jar2 = createFile("ws1/lib2.jar", "jar2 content");
+
+        pool.publish(jar1, createFile("ws1/index1", "index1 content"));
+        pool.publish(jar2, createFile("ws1/index2", "index2 content"));
+
+        Assertions.assertThat(pool.acquire(jar1, "project")).isNull();
+        Assertions.assertThat(pool.acquire(jar2, "project")).isNotNull();
+    }
+
+    @Test
+    public void testUsedIndexIsNotEvicted() throws Exception {
+        JarIndexPool pool = new JarIndexPool(dir.getPath(), 20);
+        File jar1 = createFile("ws1/lib1.jar", "jar1 content");
+        File jar2 = createFile("ws1/lib2.jar", "jar2 content");
+
+        pool.publish(jar1, createFile("ws1/index1", "index1 content"));
+        pool.acquire(jar1, "project");
+        pool.publish(jar2, createFile("ws1/index2", "index2 content"));
+
+        Assertions.assertThat(pool.acquire(jar1, "project")).isNotNull();
+
+        pool.release("project");
+        pool.publish(jar2, createFile("ws1/index2", "index2 content"));
+
+        Assertions.assertThat(pool.acquire(jar1, "project")).isNull();
+    }
+
+    @Test
+    public void testTypeNameTableOfPooledIndexIsShared() throws Exception {
+        JarIndexPool pool = new JarIndexPool(dir.getPath(), Long.MAX_VALUE);
+        File jar1 = createFile("ws1/lib.jar", "jar content");
+        File jar2 = createFile("ws2/lib.jar", "jar content");
+        Index built = new Index(new FileIndexLocation(new File(dir, "ws1/lib.index")), "/lib.jar", false);
+        built.save();
+        pool.publish(jar1, built.getIndexFile());
+
+        Index first = new Index(pool.acquire(jar1, "project1"), "/lib.jar", true);
+        Index second = new Index(pool.acquire(jar2, "project2"), "/lib.jar", true);
+
+        Assertions.assertThat(pool.getTypeNameTable(built)).isNull();
+        Assertions.assertThat(pool.getTypeNameTable(first)).isNotNull();
+        Assertions.assertThat(pool.getTypeNameTable(second)).isSameAs(pool.getTypeNameTable(first));
+    }
+
+    private File createFile(String path, String content) throws Exception {
+        File file = new File(dir, path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
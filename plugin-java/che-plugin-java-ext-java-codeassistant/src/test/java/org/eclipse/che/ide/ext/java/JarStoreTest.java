@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.java;
+
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.jdt.JarStore;
+import org.eclipse.che.jdt.util.JarChecksums;
+import org.fest.assertions.Assertions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Tests for {@link JarStore}
+ */
+public class JarStoreTest {
+
+    private File dir;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("jar-store").toFile();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        IoUtil.deleteRecursive(dir);
+    }
+
+    @Test
+    public void testZipIsExtracted() throws Exception {
+        JarStore store = new JarStore(dir.getPath());
+        File project = new File(dir, "ws1/project");
+
+        store.unzip(zip("lib.jar", "jar content", "sources/lib-sources.jar", "sources content", "readme.txt", "text"), project);
+
+        Assertions.assertThat(read(new File(project, "lib.jar"))).isEqualTo("jar content");
+        Assertions.assertThat(read(new File(project, "sources/lib-sources.jar"))).isEqualTo("sources content");
+        Assertions.assertThat(read(new File(project, "readme.txt"))).isEqualTo("text");
+    }
+
+    @Test
+    public void testJarWithSameContentIsStoredOnce() throws Exception {
+        JarStore store = new JarStore(dir.getPath());
+        File jar1 = new File(dir, "ws1/project/lib.jar");
+        File jar2 = new File(dir, "ws2/project/lib.jar");
+
+        store.unzip(zip("lib.jar", "jar content"), jar1.getParentFile());
+        store.unzip(zip("lib.jar", "jar content"), jar2.getParentFile());
+
+        Assertions.assertThat(Files.isSameFile(jar1.toPath(), jar2.toPath())).isTrue();
+        Assertions.assertThat(JarChecksums.sha1(jar2)).isEqualTo(JarChecksums.sha1(jar1));
+    }
+
+    @Test
+    public void testUnusedJarIsRemoved() throws Exception {
+        JarStore store = new JarStore(dir.getPath());
+        File project1 = new File(dir, "ws1/project");
+        File project2 = new File(dir, "ws2/project");
+        store.unzip(zip("lib1.jar", "jar1 content"), project1);
+        store.unzip(zip("lib2.jar", "jar2 content"), project2);
+        String checksum1 = JarChecksums.sha1(new File(project1, "lib1.jar"));
+        String checksum2 = JarChecksums.sha1(new File(project2, "lib2.jar"));
+
+        IoUtil.deleteRecursive(project1);
+        store.gc();
+
+        Assertions.assertThat(new File(dir, "jars/" + checksum1.substring(0, 2) + '/' + checksum1 + ".jar").exists()).isFalse();
+        Assertions.assertThat(new File(dir, "jars/" + checksum2.substring(0, 2) + '/' + checksum2 + ".jar").exists()).isTrue();
+        Assertions.assertThat(read(new File(project2, "lib2.jar"))).isEqualTo("jar2 content");
+    }
+
+    private ByteArrayInputStream zip(String... namesAndContents) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (int i = 0; i < namesAndContents.length; i += 2) {
+                zip.putNextEntry(new ZipEntry(namesAndContents[i]));
+                zip.write(namesAndContents[i + 1].getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return new ByteArrayInputStream(bytes.toByteArray());
+    }
+
+    private String read(File file) throws Exception {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
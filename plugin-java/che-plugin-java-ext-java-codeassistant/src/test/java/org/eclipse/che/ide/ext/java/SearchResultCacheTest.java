@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.java;
+
+import org.eclipse.che.jdt.JsonSearchRequester;
+import org.eclipse.che.jdt.SearchResultCache;
+import org.fest.assertions.Assertions;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link SearchResultCache}
+ */
+public class SearchResultCacheTest {
+
+    private SearchResultCache cache;
+    private int               searches;
+
+    @Before
+    public void setUp() throws Exception {
+        cache = new SearchResultCache();
+        searches = 0;
+    }
+
+    @Test
+    public void testLongerPrefixIsFilteredFromCachedResult() throws Exception {
+        cache.findTypes("Lis", false, true, 0, types(true, "List", "ListIterator", "Lisp"));
+        String result = cache.findTypes("List", false, true, 0, types(true));
+
+        Assertions.assertThat(searches).isEqualTo(1);
+        Assertions.assertThat(result).contains("\"List\"").contains("\"ListIterator\"").doesNotContain("Lisp");
+    }
+
+    @Test
+    public void testCamelCasePatternIsFilteredFromPrefixResult() throws Exception {
+        cache.findTypes("Li", false, true, 0, types(true, "List", "ListIterator", "LinkedList"));
+        String result = cache.findTypes("LiI", false, true, 0, types(true));
+
+        Assertions.assertThat(searches).isEqualTo(1);
+        Assertions.assertThat(result).contains("\"ListIterator\"").doesNotContain("\"List\"").doesNotContain("LinkedList");
+    }
+
+    @Test
+    public void testDifferentQualificationIsSearched() throws Exception {
+        cache.findTypes("java.util.Li", false, true, 0, types(true, "List"));
+        cache.findTypes("java.awt.Lis", false, true, 0, types(true, "List"));
+
+        Assertions.assertThat(searches).isEqualTo(2);
+    }
+
+    @Test
+    public void testIncompleteResultIsNotCached() throws Exception {
+        cache.findTypes("Lis", false, true, 0, types(false, "List"));
+        cache.findTypes("List", false, true, 0, types(false, "List"));
+
+        Assertions.assertThat(searches).isEqualTo(2);
+    }
+
+    @Test
+    public void testResultIsSearchedAgainAfterInvalidation() throws Exception {
+        cache.findTypes("Lis", false, true, 0, types(true, "List"));
+        cache.invalidate();
+        String result = cache.findTypes("List", false, true, 0, types(true, "List", "ListItem"));
+
+        Assertions.assertThat(searches).isEqualTo(2);
+        Assertions.assertThat(result).contains("ListItem");
+    }
+
+    @Test
+    public void testPackagesAreFilteredFromCachedResult() throws Exception {
+        cache.findPackages("java.ut", packages("java.util", "java.util.concurrent", "java.util.jar"));
+        String result = cache.findPackages("java.util.c", packages());
+
+        Assertions.assertThat(searches).isEqualTo(1);
+        Assertions.assertThat(result).isEqualTo("[\"java.util.concurrent\"]");
+    }
+
+    private SearchResultCache.Search types(final boolean complete, final String... names) {
+        return new SearchResultCache.Search() {
+            @Override
+            public boolean run(JsonSearchRequester requester) {
+                searches++;
+                for (String name : names) {
+                    requester.acceptType("java.util".toCharArray(), name.toCharArray(), new char[0][], 0, null);
+                }
+                return complete;
+            }
+        };
+    }
+
+    private SearchResultCache.Search packages(final String... names) {
+        return new SearchResultCache.Search() {
+            @Override
+            public boolean run(JsonSearchRequester requester) {
+                searches++;
+                for (String name : names) {
+                    requester.acceptPackage(name.toCharArray());
+                }
+                return true;
+            }
+        };
+    }
+}
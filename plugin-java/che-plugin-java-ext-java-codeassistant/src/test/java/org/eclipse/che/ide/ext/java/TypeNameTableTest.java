@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.java;
+
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.jdt.core.search.IJavaSearchScope;
+import org.eclipse.che.jdt.core.search.SearchParticipant;
+import org.eclipse.che.jdt.core.search.SearchPattern;
+import org.eclipse.che.jdt.internal.core.search.IndexQueryRequestor;
+import org.eclipse.che.jdt.internal.core.search.matching.TypeDeclarationPattern;
+import org.eclipse.che.jdt.internal.core.search.matching.TypeNameTable;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.compiler.CharOperation;
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFileConstants;
+import org.eclipse.jdt.internal.compiler.env.AccessRuleSet;
+import org.eclipse.jdt.internal.core.index.FileIndexLocation;
+import org.eclipse.jdt.internal.core.index.Index;
+import org.eclipse.jdt.internal.core.search.indexing.IIndexConstants;
+import org.fest.assertions.Assertions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for {@link TypeNameTable}
+ */
+public class TypeNameTableTest {
+
+    private File          dir;
+    private TypeNameTable table;
+    private Index         index;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("type-name-table").toFile();
+        index = new Index(new FileIndexLocation(new File(dir, "lib.index")), "/lib.jar", false);
+        index.separator = '|';
+        addType("java.util", "List", ClassFileConstants.AccInterface);
+        addType("java.util", "ListIterator", ClassFileConstants.AccInterface);
+        addType("java.util", "LinkedList", 0);
+        addType("java.util", "Map", ClassFileConstants.AccInterface);
+        addType("java.awt", "List", 0);
+        index.save();
+        table = TypeNameTable.build(index);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        IoUtil.deleteRecursive(dir);
+    }
+
+    @Test
+    public void testAllTypesAreStored() throws Exception {
+        Assertions.assertThat(table.size()).isEqualTo(5);
+    }
+
+    @Test
+    public void testPrefixIsMatchedIgnoringCase() throws Exception {
+        List<String> found = find("lis", SearchPattern.R_PREFIX_MATCH);
+
+        Assertions.assertThat(found).containsOnly("/lib.jar|java/util/List.class", "/lib.jar|java/util/ListIterator.class",
+                                                  "/lib.jar|java/awt/List.class");
+    }
+
+    @Test
+    public void testCamelCaseIsMatched() throws Exception {
+        List<String> found = find("LIt", SearchPattern.R_CAMELCASE_MATCH);
+
+        Assertions.assertThat(found).containsOnly("/lib.jar|java/util/ListIterator.class");
+    }
+
+    @Test
+    public void testPatternWithWildcardsIsNotAnswered() throws Exception {
+        TypeDeclarationPattern pattern = new TypeDeclarationPattern(null, null, "L*t".toCharArray(), IIndexConstants.TYPE_SUFFIX,
+                                                                    SearchPattern.R_PATTERN_MATCH);
+
+        Assertions.assertThat(TypeNameTable.canAnswer(pattern)).isFalse();
+    }
+
+    private void addType(String pkg, String name, int modifiers) {
+        char[] key = TypeDeclarationPattern.createIndexKey(modifiers, name.toCharArray(), pkg.toCharArray(), CharOperation.NO_CHAR_CHAR,
+                                                           false);
+        index.addIndexEntry(IIndexConstants.TYPE_DECL, key, pkg.replace('.', '/') + '/' + name + ".class");
+    }
+
+    private List<String> find(String name, int matchRule) {
+        TypeDeclarationPattern pattern = new TypeDeclarationPattern(null, null, name.toCharArray(), IIndexConstants.TYPE_SUFFIX,
+                                                                    matchRule);
+        Assertions.assertThat(TypeNameTable.canAnswer(pattern)).isTrue();
+        final List<String> found = new ArrayList<>();
+        table.findIndexMatches(pattern, index, new IndexQueryRequestor() {
+            @Override
+            public boolean acceptIndexMatch(String documentPath, SearchPattern indexRecord, SearchParticipant participant,
+                                            AccessRuleSet access) {
+                found.add(documentPath);
+                return true;
+            }
+        }, null, new AllScope(), null);
+        return found;
+    }
+
+    private static class AllScope implements IJavaSearchScope {
+        @Override
+        public boolean encloses(String resourcePath) {
+            return true;
+        }
+
+        @Override
+        public boolean encloses(IJavaElement element) {
+            return true;
+        }
+
+        @Override
+        public IPath[] enclosingProjectsAndJars() {
+            return new IPath[0];
+        }
+
+        @Override
+        public boolean includesBinaries() {
+            return true;
+        }
+
+        @Override
+        public boolean includesClasspaths() {
+            return true;
+        }
+
+        @Override
+        public void setIncludesBinaries(boolean includesBinaries) {
+        }
+
+        @Override
+        public void setIncludesClasspaths(boolean includesClasspaths) {
+        }
+    }
+}
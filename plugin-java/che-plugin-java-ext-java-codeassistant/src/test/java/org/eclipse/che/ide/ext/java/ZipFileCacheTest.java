@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.java;
+
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.jdt.util.ZipFileCache;
+import org.fest.assertions.Assertions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Tests for {@link ZipFileCache}
+ */
+public class ZipFileCacheTest {
+
+    private File dir;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("zip-file-cache").toFile();
+        ZipFileCache.closeUnused();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        ZipFileCache.setMaxOpenFiles(ZipFileCache.DEFAULT_MAX_OPEN_FILES);
+        ZipFileCache.closeUnused();
+        IoUtil.deleteRecursive(dir);
+    }
+
+    @Test
+    public void testReleasedFileIsReused() throws Exception {
+        File jar = jar("lib.jar", "a/A.class");
+
+        ZipFile first = ZipFileCache.acquire(jar);
+        ZipFileCache.release(first);
+        ZipFile second = ZipFileCache.acquire(jar);
+        ZipFileCache.release(second);
+
+        Assertions.assertThat(second).isSameAs(first);
+        Assertions.assertThat(isOpen(first)).isTrue();
+    }
+
+    @Test
+    public void testChangedFileIsOpenedAgain() throws Exception {
+        File jar = jar("lib.jar", "a/A.class");
+        ZipFile old = ZipFileCache.acquire(jar);
+
+        jar("lib.jar", "a/A.class", "b/B.class");
+        ZipFile changed = ZipFileCache.acquire(jar);
+
+        Assertions.assertThat(changed).isNotSameAs(old);
+        Assertions.assertThat(changed.getEntry("b/B.class")).isNotNull();
+        // outdated file is still in use
+        Assertions.assertThat(isOpen(old)).isTrue();
+        ZipFileCache.release(old);
+        Assertions.assertThat(isOpen(old)).isFalse();
+        ZipFileCache.release(changed);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedFileIsClosedWhenLimitIsExceeded() throws Exception {
+        ZipFileCache.setMaxOpenFiles(2);
+        ZipFile first = ZipFileCache.acquire(jar("first.jar", "a/A.class"));
+        ZipFile second = ZipFileCache.acquire(jar("second.jar", "a/A.class"));
+        ZipFileCache.release(first);
+        ZipFileCache.release(second);
+
+        ZipFile third = ZipFileCache.acquire(jar("third.jar", "a/A.class"));
+        ZipFileCache.release(third);
+
+        Assertions.assertThat(isOpen(first)).isFalse();
+        Assertions.assertThat(isOpen(second)).isTrue();
+        Assertions.assertThat(ZipFileCache.getOpenFiles()).isEqualTo(2);
+    }
+
+    @Test
+    public void testFileInUseIsNotClosedByLimit() throws Exception {
+        ZipFileCache.setMaxOpenFiles(1);
+        ZipFile first = ZipFileCache.acquire(jar("first.jar", "a/A.class"));
+        ZipFile second = ZipFileCache.acquire(jar("second.jar", "a/A.class"));
+
+        Assertions.assertThat(isOpen(first)).isTrue();
+        Assertions.assertThat(isOpen(second)).isTrue();
+
+        ZipFileCache.release(first);
+        Assertions.assertThat(isOpen(first)).isFalse();
+        ZipFileCache.release(second);
+    }
+
+    @Test
+    public void testFilesInForgottenDirectoryAreClosed() throws Exception {
+        ZipFile zipFile = ZipFileCache.acquire(jar("lib/lib.jar", "a/A.class"));
+        ZipFileCache.release(zipFile);
+
+        ZipFileCache.forget(new File(dir, "lib"));
+
+        Assertions.assertThat(isOpen(zipFile)).isFalse();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFileCanNotBeReleasedMoreTimesThanAcquired() throws Exception {
+        ZipFile zipFile = ZipFileCache.acquire(jar("lib.jar", "a/A.class"));
+        ZipFileCache.release(zipFile);
+
+        ZipFileCache.release(zipFile);
+    }
+
+    private File jar(String name, String... entries) throws Exception {
+        File jar = new File(dir, name);
+        jar.getParentFile().mkdirs();
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(jar))) {
+            for (String entry : entries) {
+                zip.putNextEntry(new ZipEntry(entry));
+                zip.write(new byte[]{(byte)0xCA, (byte)0xFE});
+                zip.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    private static boolean isOpen(ZipFile zipFile) {
+        try {
+            zipFile.size();
+            return true;
+        } catch (IllegalStateException e) {
+            return false;
+        }
+    }
+}
@@ -83,7 +83,8 @@ public class WorkerMessageHandler implements MessageHandler, MessageFilter.Messa
     private final  WorkerJavadocHandleComputer javadocHandleComputer;
     private final WorkerCuCache cuCache;
     private WorkerCorrectionProcessor correctionProcessor;
-    private INameEnvironment          nameEnvironment;
+    private WorkerNameEnvironment     nameEnvironment;
+    private WorkerTypePrefetcher      typePrefetcher;
     private HashMap<String, String> options                  = new HashMap<String, String>();
     private Map<String, String>     preferenceFormatSettings = new HashMap<String, String>();
     private MessageFilter                      messageFilter;
@@ -108,6 +109,7 @@ public class WorkerMessageHandler implements MessageHandler, MessageFilter.Messa
             public void onMessageReceived(ConfigMessage config) {
                 nameEnvironment =
                         new WorkerNameEnvironment(config.caPath(), config.restContext(), config.wsId());
+                typePrefetcher = new WorkerTypePrefetcher(nameEnvironment);
                 projectName = config.projectName();
                 WorkerProposalApplier applier = new WorkerProposalApplier(WorkerMessageHandler.this.worker, messageFilter);
                 workerCodeAssist =
@@ -165,6 +167,7 @@ public class WorkerMessageHandler implements MessageHandler, MessageFilter.Messa
             public void onMessageReceived(DependenciesUpdatedMessage message) {
                 if(nameEnvironment != null) {
                     nameEnvironment.clearBlackList();
+                    nameEnvironment.invalidatePersistentTypeCache();
                 }
                 WorkerTypeInfoStorage.get().clear();
             }
@@ -298,11 +301,16 @@ public class WorkerMessageHandler implements MessageHandler, MessageFilter.Messa
     public void onMessageReceived(final ParseMessage message) {
                 nameEnvironment.setProjectPath(message.projectPath());
                 cuVar = new CUVariables(message.fileName(), message.packageName(), projectName);
+                String unitName = message.fileName().substring(0, message.fileName().lastIndexOf('.'));
+                if (cuCache.getCompilationUnit(message.filePath()) == null) {
+                    // file just opened, resolve its imports and super types with one request
+                    typePrefetcher.prefetch(message.source(), unitName);
+                }
 
                 ASTParser parser = ASTParser.newParser(AST.JLS4);
                 parser.setSource(message.source());
                 parser.setKind(ASTParser.K_COMPILATION_UNIT);
-                parser.setUnitName(message.fileName().substring(0, message.fileName().lastIndexOf('.')));
+                parser.setUnitName(unitName);
                 parser.setResolveBindings(true);
                 parser.setIgnoreMethodBodies(message.ignoreMethodBodies());
                 parser.setNameEnvironment(nameEnvironment);
@@ -21,6 +21,7 @@ import org.eclipse.che.ide.ext.java.worker.env.Util;
 import org.eclipse.che.ide.ext.java.worker.env.json.BinaryTypeJso;
 import com.google.gwt.core.client.JavaScriptObject;
 
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Set;
@@ -40,6 +41,9 @@ public class WorkerNameEnvironment implements INameEnvironment {
     private   String projectPath;
     private Set<String> blackListTypes = new HashSet<>();
     private Set<String> blackListPackages = new HashSet<>();
+    private final WorkerPersistentTypeCache persistentTypeCache = new WorkerPersistentTypeCache();
+    /** Project which stored types are opened, {@code null} if they must be validated again. */
+    private String persistentTypeCacheProject;
 
     /**
      *
@@ -50,6 +54,21 @@ public class WorkerNameEnvironment implements INameEnvironment {
 
     public void setProjectPath(String projectPath) {
         this.projectPath = projectPath;
+        if (projectPath != null && !projectPath.equals(persistentTypeCacheProject)) {
+            persistentTypeCacheProject = projectPath;
+            // one request validates all types stored by previous sessions
+            String fingerprint = runSyncRequest(restServiceContext + "/fingerprint?projectpath=" + projectPath);
+            if (fingerprint != null) {
+                persistentTypeCache.open(restServiceContext + projectPath, fingerprint);
+            }
+        }
+    }
+
+    /**
+     * Forces validation of stored types against classpath fingerprint of the project, e.g. after dependencies are updated.
+     */
+    public void invalidatePersistentTypeCache() {
+        persistentTypeCacheProject = null;
     }
 
     /** {@inheritDoc} */
@@ -86,6 +105,7 @@ public class WorkerNameEnvironment implements INameEnvironment {
                 Jso jso = Jso.deserialize(result);
                 BinaryType type = new BinaryType(jso.<BinaryTypeJso>cast());
                 WorkerTypeInfoStorage.get().putType(key, type);
+                persistentTypeCache.store(key, jso.<BinaryTypeJso>cast());
 
                 return new NameEnvironmentAnswer(type, null);
             } else {
@@ -141,6 +161,7 @@ public class WorkerNameEnvironment implements INameEnvironment {
                 Jso jso = Jso.deserialize(result);
                 BinaryType type = new BinaryType(jso.<BinaryTypeJso>cast());
                 WorkerTypeInfoStorage.get().putType(key, type);
+                persistentTypeCache.store(key, jso.<BinaryTypeJso>cast());
 
                 return new NameEnvironmentAnswer(type, null);
             } else {
@@ -195,6 +216,68 @@ public class WorkerNameEnvironment implements INameEnvironment {
         }
     }
 
+    /**
+     * Resolve types and packages with one request and put results into cache.
+     * Names that already known (cached or black listed) are skipped.
+     *
+     * @param typeNames
+     *         fully qualified names of types
+     * @param packageNames
+     *         fully qualified names of packages
+     */
+    public void resolve(Collection<String> typeNames, Collection<String> packageNames) {
+        if (projectPath == null) {
+            return;
+        }
+        JsoArray<String> types = JsoArray.create();
+        for (String typeName : typeNames) {
+            if (!WorkerTypeInfoStorage.get().containsKey(typeName) && !blackListTypes.contains(typeName) &&
+                !packages.contains(typeName)) {
+                types.add(typeName);
+            }
+        }
+        JsoArray<String> packagesToResolve = JsoArray.create();
+        for (String packageName : packageNames) {
+            if (!packages.contains(packageName) && !blackListPackages.contains(packageName)) {
+                packagesToResolve.add(packageName);
+            }
+        }
+        if (types.isEmpty() && packagesToResolve.isEmpty()) {
+            return;
+        }
+        Jso request = Jso.create();
+        request.addField("types", types);
+        request.addField("packages", packagesToResolve);
+
+        String result = runSyncPostRequest(restServiceContext + "/resolve?projectpath=" + projectPath, request.serialize());
+        if (result == null) {
+            return;
+        }
+        Jso response = Jso.deserialize(result);
+        Jso foundTypes = response.getJsObjectField("types").cast();
+        for (String typeName : types.asIterable()) {
+            if (!foundTypes.hasOwnProperty(typeName)) {
+                continue;
+            }
+            BinaryTypeJso typeJso = foundTypes.getJsObjectField(typeName).cast();
+            if (typeJso != null) {
+                WorkerTypeInfoStorage.get().putType(typeName, new BinaryType(typeJso));
+                persistentTypeCache.store(typeName, typeJso);
+            } else {
+                blackListTypes.add(typeName);
+            }
+        }
+        JsoArray<String> foundPackages = response.getArrayField("packages");
+        for (String packageName : foundPackages.asIterable()) {
+            packages.add(packageName);
+        }
+        for (String packageName : packagesToResolve.asIterable()) {
+            if (!packages.contains(packageName)) {
+                blackListPackages.add(packageName);
+            }
+        }
+    }
+
     /** {@inheritDoc} */
     @Override
     public void cleanup() {
@@ -278,6 +361,22 @@ public class WorkerNameEnvironment implements INameEnvironment {
         return xmlhttp;
     }-*/;
 
+    private String runSyncPostRequest(String url, String body) {
+        XmlHttpWrapper xmlhttp = nativeRunSyncPostRequest(url, body);
+        if (xmlhttp.getStatusCode() == 200) {
+            return xmlhttp.getResponseText();
+        }
+        return null;
+    }
+
+    private native XmlHttpWrapper nativeRunSyncPostRequest(String url, String body)/*-{
+        var xmlhttp = new XMLHttpRequest();
+        xmlhttp.open("POST", url, false);
+        xmlhttp.setRequestHeader("Content-Type", "application/json");
+        xmlhttp.send(body);
+        return xmlhttp;
+    }-*/;
+
     /**
      * Must be used only by CompletionEngine. The progress monitor is used to be able to cancel completion operations
      * <p/>
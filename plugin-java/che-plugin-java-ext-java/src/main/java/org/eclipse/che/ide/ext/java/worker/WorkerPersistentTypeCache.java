@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.java.worker;
+
+import org.eclipse.che.ide.ext.java.worker.env.BinaryType;
+import org.eclipse.che.ide.ext.java.worker.env.json.BinaryTypeJso;
+import com.google.gwt.core.client.JavaScriptObject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps binary types loaded from jars in IndexedDB of the browser, so they survive IDE reloads.
+ * Types are stored per project together with classpath fingerprint of the project. When project is opened
+ * with another fingerprint, e.g. after dependencies are updated, stored types of the project are dropped.
+ * Types of other projects are dropped when they aren't opened for {@link #MAX_IDLE_DAYS} days or when more than
+ * {@link #MAX_PROJECTS} projects are stored, least recently opened projects are dropped first.
+ * <p/>
+ * IndexedDB is asynchronous, stored types are added to {@link WorkerTypeInfoStorage} when they are read,
+ * types requested meanwhile are loaded from server as usual.
+ */
+class WorkerPersistentTypeCache {
+
+    private static final String DB_NAME       = "che-java-types";
+    /** Max number of projects which types are stored in the browser. */
+    private static final int    MAX_PROJECTS  = 10;
+    /** Types of project which isn't opened for this number of days are dropped. */
+    private static final int    MAX_IDLE_DAYS = 30;
+
+    private JavaScriptObject db;
+    private String           projectKey;
+    private boolean          ready;
+    /** Types received while stored types are being validated, they are stored when database is ready. */
+    private final Map<String, BinaryTypeJso> pending = new LinkedHashMap<>();
+
+    /**
+     * Opens stored types of the project and loads them if they were stored with the same classpath fingerprint.
+     *
+     * @param projectKey
+     *         key of project, unique in the browser
+     * @param fingerprint
+     *         current classpath fingerprint of the project
+     */
+    void open(String projectKey, String fingerprint) {
+        this.projectKey = projectKey;
+        this.ready = false;
+        pending.clear();
+        nativeOpen(DB_NAME, projectKey, fingerprint, MAX_PROJECTS, MAX_IDLE_DAYS * 24 * 60 * 60 * 1000d);
+    }
+
+    /**
+     * Stores type of the opened project. Types which are not from jars are not stored,
+     * since they may be changed without changing of classpath fingerprint.
+     */
+    void store(String fqn, BinaryTypeJso type) {
+        if (projectKey == null) {
+            return;
+        }
+        String fileName = type.getFileName();
+        if (fileName == null || fileName.indexOf('|') == -1) {
+            return;
+        }
+        if (!ready) {
+            pending.put(fqn, type);
+            return;
+        }
+        nativeStore(projectKey + '|' + fqn, type);
+    }
+
+    private void onOpened(String projectKey, JavaScriptObject db) {
+        if (!projectKey.equals(this.projectKey)) {
+            return;
+        }
+        this.db = db;
+        this.ready = true;
+        for (Map.Entry<String, BinaryTypeJso> entry : pending.entrySet()) {
+            nativeStore(projectKey + '|' + entry.getKey(), entry.getValue());
+        }
+        pending.clear();
+    }
+
+    private void onTypeLoaded(String projectKey, String fqn, BinaryTypeJso type) {
+        if (projectKey.equals(this.projectKey) && !WorkerTypeInfoStorage.get().containsKey(fqn)) {
+            WorkerTypeInfoStorage.get().putType(fqn, new BinaryType(type));
+        }
+    }
+
+    private native void nativeOpen(String dbName, String projectKey, String fingerprint, int maxProjects, double maxIdleTime) /*-{
+        var idb = typeof self !== "undefined" && self.indexedDB ? self.indexedDB : $wnd.indexedDB;
+        if (!idb) {
+            return;
+        }
+        var instance = this;
+        var request = idb.open(dbName, 1);
+        request.onupgradeneeded = function (event) {
+            var db = event.target.result;
+            db.createObjectStore("projects");
+            db.createObjectStore("types");
+        };
+        request.onsuccess = function (event) {
+            var db = event.target.result;
+            var typesOf = function (key) {
+                return IDBKeyRange.bound(key + "|", key + "|" + String.fromCharCode(0xffff));
+            };
+            var range = typesOf(projectKey);
+            var now = Date.now();
+            var tx = db.transaction(["projects", "types"], "readwrite");
+            var projects = tx.objectStore("projects");
+            var types = tx.objectStore("types");
+            projects.get(projectKey).onsuccess = function (e) {
+                var project = e.target.result;
+                if (project && project.fingerprint === fingerprint) {
+                    types.openCursor(range).onsuccess = function (ce) {
+                        var cursor = ce.target.result;
+                        if (cursor) {
+                            var fqn = cursor.key.substring(projectKey.length + 1);
+                            instance.@org.eclipse.che.ide.ext.java.worker.WorkerPersistentTypeCache::onTypeLoaded(Ljava/lang/String;Ljava/lang/String;Lorg/eclipse/che/ide/ext/java/worker/env/json/BinaryTypeJso;)(projectKey, fqn, cursor.value);
+                            cursor["continue"]();
+                        }
+                    };
+                } else {
+                    types["delete"](range);
+                }
+                projects.put({fingerprint: fingerprint, lastUsed: now}, projectKey);
+                // drop types of projects which aren't opened for a long time, keep the most recently opened ones only
+                var others = [];
+                projects.openCursor().onsuccess = function (pe) {
+                    var cursor = pe.target.result;
+                    if (cursor) {
+                        if (cursor.key !== projectKey) {
+                            others.push({key: cursor.key, lastUsed: cursor.value.lastUsed || 0});
+                        }
+                        cursor["continue"]();
+                        return;
+                    }
+                    others.sort(function (a, b) {
+                        return b.lastUsed - a.lastUsed;
+                    });
+                    for (var i = 0; i < others.length; i++) {
+                        if (i >= maxProjects - 1 || now - others[i].lastUsed >= maxIdleTime) {
+                            types["delete"](typesOf(others[i].key));
+                            projects["delete"](others[i].key);
+                        }
+                    }
+                };
+            };
+            tx.oncomplete = function () {
+                instance.@org.eclipse.che.ide.ext.java.worker.WorkerPersistentTypeCache::onOpened(Ljava/lang/String;Lcom/google/gwt/core/client/JavaScriptObject;)(projectKey, db);
+            };
+        };
+    }-*/;
+
+    private native void nativeStore(String key, BinaryTypeJso type) /*-{
+        try {
+            this.@org.eclipse.che.ide.ext.java.worker.WorkerPersistentTypeCache::db.transaction("types", "readwrite").objectStore("types").put(type, key);
+        } catch (e) {
+            // storage is full or closed, type will be loaded from server next time
+        }
+    }-*/;
+}
@@ -12,35 +12,78 @@ package org.eclipse.che.ide.ext.java.worker;
 
 import org.eclipse.che.ide.ext.java.jdt.core.IType;
 import org.eclipse.che.ide.ext.java.jdt.core.Signature;
+import org.eclipse.che.ide.ext.java.jdt.core.compiler.CharOperation;
 import org.eclipse.che.ide.ext.java.jdt.core.search.Type;
 import org.eclipse.che.ide.ext.java.jdt.internal.compiler.env.IBinaryType;
 import org.eclipse.che.ide.ext.java.worker.env.BinaryType;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 /**
+ * Cache of binary types loaded by worker.
+ * Types are indexed by sorted FQN and simple name, so prefix queries and package removal cost
+ * only the number of matched types. Cache holds at most {@link #MAX_SIZE} types, least recently used
+ * types are removed first.
+ *
  * @author <a href="mailto:evidolob@codenvy.com">Evgen Vidolob</a>
  * @version $Id:
  */
 public class WorkerTypeInfoStorage {
 
+    static final int MAX_SIZE = 10000;
+
     private static WorkerTypeInfoStorage instance;
 
-    private Map<String, IBinaryType> storage = new HashMap<String, IBinaryType>();
-    private String shortTypesInfo;
+    private final int maxSize;
+
+    private final Map<String, IBinaryType> storage = new LinkedHashMap<String, IBinaryType>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, IBinaryType> eldest) {
+            if (size() > maxSize) {
+                removeFromIndexes(eldest.getKey());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /** All FQNs in sorted order. */
+    private final TreeSet<String>              fqns        = new TreeSet<>();
+    /** Simple names in sorted order mapped to FQNs of types with this name. */
+    private final TreeMap<String, Set<String>> simpleNames = new TreeMap<>();
+    private       String                       shortTypesInfo;
+
+    WorkerTypeInfoStorage(int maxSize) {
+        this.maxSize = maxSize;
+    }
 
     public static WorkerTypeInfoStorage get() {
         if (instance == null) {
-            instance = new WorkerTypeInfoStorage();
+            instance = new WorkerTypeInfoStorage(MAX_SIZE);
         }
         return instance;
     }
 
     public void putType(String key, IBinaryType type) {
-        storage.put(key, type);
+        if (storage.put(key, type) == null) {
+            // eldest entry may be already removed from indexes, so add new key after put
+            fqns.add(key);
+            String simpleName = Signature.getSimpleName(key);
+            Set<String> names = simpleNames.get(simpleName);
+            if (names == null) {
+                names = new HashSet<>();
+                simpleNames.put(simpleName, names);
+            }
+            names.add(key);
+        }
     }
 
     public IBinaryType getType(String key) {
@@ -51,17 +94,35 @@ public class WorkerTypeInfoStorage {
         return storage.containsKey(key);
     }
 
+    /**
+     * Returns types which FQN starts with the prefix if {@code fqnPart} is {@code true}, otherwise types
+     * which simple name starts with the prefix or matches it as camel case pattern, e.g. {@code "ArrLi"} matches
+     * {@code "ArrayList"}.
+     */
     public List<IBinaryType> getTypesByNamePrefix(String prefix, boolean fqnPart) {
         List<IBinaryType> res = new ArrayList<IBinaryType>();
-        for (String key : storage.keySet()) {
-            if (fqnPart && !key.startsWith(prefix)) {
-                continue;
-            } else {
-                String simpleName = Signature.getSimpleName(key);
-                if (simpleName.equals(key) || !simpleName.startsWith(prefix))
-                    continue;
+        if (fqnPart) {
+            for (String key : fqns.subSet(prefix, prefix + Character.MAX_VALUE)) {
+                res.add(storage.get(key));
+            }
+            return res;
+        }
+        if (prefix.isEmpty()) {
+            addTypes(simpleNames, res);
+            return res;
+        }
+        if (!hasUpperCaseAfterFirstChar(prefix)) {
+            addTypes(simpleNames.subMap(prefix, prefix + Character.MAX_VALUE), res);
+            return res;
+        }
+        // name matched by camel case pattern always starts with first char of the pattern
+        String firstChar = prefix.substring(0, 1);
+        char[] pattern = prefix.toCharArray();
+        for (Map.Entry<String, Set<String>> entry : simpleNames.subMap(firstChar, firstChar + Character.MAX_VALUE).entrySet()) {
+            String simpleName = entry.getKey();
+            if (simpleName.startsWith(prefix) || CharOperation.camelCaseMatch(pattern, simpleName.toCharArray())) {
+                addTypes(entry.getValue(), res);
             }
-            res.add(storage.get(key));
         }
         return res;
     }
@@ -80,19 +141,56 @@ public class WorkerTypeInfoStorage {
     }
 
     public void removeFqn(String fqn) {
-        List<String> fqnToRemove = new ArrayList<>();
-        for (String key : storage.keySet()) {
-            if (key.startsWith(fqn)) {
-                fqnToRemove.add(key);
-            }
-        }
-
+        List<String> fqnToRemove = new ArrayList<>(fqns.subSet(fqn, fqn + Character.MAX_VALUE));
         for (String key : fqnToRemove) {
             storage.remove(key);
+            removeFromIndexes(key);
         }
     }
 
+    public int size() {
+        return storage.size();
+    }
+
     public void clear() {
         storage.clear();
+        fqns.clear();
+        simpleNames.clear();
+    }
+
+    private void removeFromIndexes(String key) {
+        fqns.remove(key);
+        String simpleName = Signature.getSimpleName(key);
+        Set<String> names = simpleNames.get(simpleName);
+        if (names != null) {
+            names.remove(key);
+            if (names.isEmpty()) {
+                simpleNames.remove(simpleName);
+            }
+        }
+    }
+
+    private void addTypes(SortedMap<String, Set<String>> names, List<IBinaryType> res) {
+        for (Set<String> keys : names.values()) {
+            addTypes(keys, res);
+        }
+    }
+
+    private void addTypes(Set<String> keys, List<IBinaryType> res) {
+        for (String key : keys) {
+            // type without package is not reported, same as its FQN
+            if (!key.equals(Signature.getSimpleName(key))) {
+                res.add(storage.get(key));
+            }
+        }
+    }
+
+    private boolean hasUpperCaseAfterFirstChar(String prefix) {
+        for (int i = 1; i < prefix.length(); i++) {
+            if (Character.isUpperCase(prefix.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
     }
 }
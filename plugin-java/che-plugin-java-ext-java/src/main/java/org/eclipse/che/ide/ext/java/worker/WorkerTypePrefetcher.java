@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.java.worker;
+
+import org.eclipse.che.ide.ext.java.jdt.core.dom.AST;
+import org.eclipse.che.ide.ext.java.jdt.core.dom.ASTParser;
+import org.eclipse.che.ide.ext.java.jdt.core.dom.AbstractTypeDeclaration;
+import org.eclipse.che.ide.ext.java.jdt.core.dom.CompilationUnit;
+import org.eclipse.che.ide.ext.java.jdt.core.dom.EnumDeclaration;
+import org.eclipse.che.ide.ext.java.jdt.core.dom.ImportDeclaration;
+import org.eclipse.che.ide.ext.java.jdt.core.dom.ParameterizedType;
+import org.eclipse.che.ide.ext.java.jdt.core.dom.SimpleType;
+import org.eclipse.che.ide.ext.java.jdt.core.dom.Type;
+import org.eclipse.che.ide.ext.java.jdt.core.dom.TypeDeclaration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Walks imports and super types of compilation unit and resolves all of them with one request,
+ * so following binding resolution doesn't need to call server for each type separately.
+ */
+class WorkerTypePrefetcher {
+
+    private final WorkerNameEnvironment nameEnvironment;
+
+    WorkerTypePrefetcher(WorkerNameEnvironment nameEnvironment) {
+        this.nameEnvironment = nameEnvironment;
+    }
+
+    /**
+     * Parse source without bindings and resolve referenced types and packages in one batch.
+     *
+     * @param source
+     *         the source of compilation unit
+     * @param unitName
+     *         the name of compilation unit
+     */
+    public void prefetch(String source, String unitName) {
+        ASTParser parser = ASTParser.newParser(AST.JLS4);
+        parser.setSource(source);
+        parser.setKind(ASTParser.K_COMPILATION_UNIT);
+        parser.setUnitName(unitName);
+        parser.setResolveBindings(false);
+        parser.setIgnoreMethodBodies(true);
+        CompilationUnit unit = (CompilationUnit)parser.createAST();
+
+        Set<String> types = new LinkedHashSet<>();
+        Set<String> packages = new LinkedHashSet<>();
+        Map<String, String> singleImports = new HashMap<>();
+        List<String> onDemandImports = new ArrayList<>();
+
+        String currentPackage = unit.getPackage() == null ? null : unit.getPackage().getName().getFullyQualifiedName();
+        if (currentPackage != null) {
+            addPackageSegments(currentPackage, true, packages);
+            onDemandImports.add(currentPackage);
+        }
+        onDemandImports.add("java.lang");
+        types.add("java.lang.Object");
+        types.add("java.lang.String");
+
+        for (ImportDeclaration importDeclaration : unit.imports()) {
+            String name = importDeclaration.getName().getFullyQualifiedName();
+            if (importDeclaration.isStatic()) {
+                if (!importDeclaration.isOnDemand()) {
+                    if (name.indexOf('.') == -1) {
+                        continue;
+                    }
+                    name = name.substring(0, name.lastIndexOf('.'));
+                }
+                types.add(name);
+                addPackageSegments(name, false, packages);
+            } else if (importDeclaration.isOnDemand()) {
+                onDemandImports.add(name);
+                addPackageSegments(name, true, packages);
+            } else {
+                types.add(name);
+                singleImports.put(name.substring(name.lastIndexOf('.') + 1), name);
+                addPackageSegments(name, false, packages);
+            }
+        }
+
+        for (AbstractTypeDeclaration declaration : unit.types()) {
+            collectSuperTypes(declaration, singleImports, onDemandImports, types);
+        }
+
+        nameEnvironment.resolve(types, packages);
+    }
+
+    private void collectSuperTypes(AbstractTypeDeclaration declaration, Map<String, String> singleImports,
+                                   List<String> onDemandImports, Set<String> types) {
+        List<Type> superTypes = new ArrayList<>();
+        if (declaration instanceof TypeDeclaration) {
+            TypeDeclaration typeDeclaration = (TypeDeclaration)declaration;
+            if (typeDeclaration.getSuperclassType() != null) {
+                superTypes.add(typeDeclaration.getSuperclassType());
+            }
+            addTypes(typeDeclaration.superInterfaceTypes(), superTypes);
+            for (TypeDeclaration memberType : typeDeclaration.getTypes()) {
+                collectSuperTypes(memberType, singleImports, onDemandImports, types);
+            }
+        } else if (declaration instanceof EnumDeclaration) {
+            addTypes(((EnumDeclaration)declaration).superInterfaceTypes(), superTypes);
+        }
+
+        for (Type type : superTypes) {
+            String name = getTypeName(type);
+            if (name == null) {
+                continue;
+            }
+            if (name.indexOf('.') != -1) {
+                types.add(name);
+            } else if (!singleImports.containsKey(name)) {
+                for (String packageName : onDemandImports) {
+                    types.add(packageName + '.' + name);
+                }
+            }
+        }
+    }
+
+    /** Copies nodes of raw list of types returned by AST. */
+    private void addTypes(List<?> nodes, List<Type> types) {
+        for (Object node : nodes) {
+            types.add((Type)node);
+        }
+    }
+
+    private String getTypeName(Type type) {
+        if (type.isParameterizedType()) {
+            return getTypeName(((ParameterizedType)type).getType());
+        }
+        if (type.isSimpleType()) {
+            return ((SimpleType)type).getName().getFullyQualifiedName();
+        }
+        return null;
+    }
+
+    private void addPackageSegments(String name, boolean includeLast, Set<String> packages) {
+        int index = name.indexOf('.');
+        while (index != -1) {
+            packages.add(name.substring(0, index));
+            index = name.indexOf('.', index + 1);
+        }
+        if (includeLast) {
+            packages.add(name);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.java.worker;
+
+import org.eclipse.che.ide.ext.java.jdt.internal.compiler.env.IBinaryType;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests for {@link WorkerTypeInfoStorage}
+ */
+public class WorkerTypeInfoStorageTest {
+
+    private WorkerTypeInfoStorage storage;
+    private IBinaryType           arrayList;
+    private IBinaryType           list;
+    private IBinaryType           map;
+
+    @Before
+    public void setUp() throws Exception {
+        storage = new WorkerTypeInfoStorage(3);
+        arrayList = mock(IBinaryType.class);
+        list = mock(IBinaryType.class);
+        map = mock(IBinaryType.class);
+        storage.putType("java.util.ArrayList", arrayList);
+        storage.putType("java.util.List", list);
+        storage.putType("java.util.Map", map);
+    }
+
+    @Test
+    public void testFindByFqnPrefix() throws Exception {
+        assertThat(storage.getTypesByNamePrefix("java.util.L", true)).containsOnly(list);
+        assertThat(storage.getTypesByNamePrefix("java.util", true)).containsOnly(arrayList, list, map);
+    }
+
+    @Test
+    public void testFindBySimpleNamePrefix() throws Exception {
+        assertThat(storage.getTypesByNamePrefix("Li", false)).containsOnly(list);
+        assertThat(storage.getTypesByNamePrefix("Arr", false)).containsOnly(arrayList);
+    }
+
+    @Test
+    public void testFindByCamelCase() throws Exception {
+        assertThat(storage.getTypesByNamePrefix("AL", false)).containsOnly(arrayList);
+    }
+
+    @Test
+    public void testRemovePackage() throws Exception {
+        storage.removeFqn("java.util");
+
+        assertThat(storage.size()).isEqualTo(0);
+        assertThat(storage.getTypesByNamePrefix("Li", false)).isEmpty();
+    }
+
+    @Test
+    public void testLeastRecentlyUsedTypeIsEvicted() throws Exception {
+        storage.getType("java.util.ArrayList");
+
+        storage.putType("java.util.Set", mock(IBinaryType.class));
+
+        assertThat(storage.containsKey("java.util.List")).isFalse();
+        assertThat(storage.containsKey("java.util.ArrayList")).isTrue();
+        assertThat(storage.getTypesByNamePrefix("Li", false)).isEmpty();
+    }
+}
@@ -12,21 +12,19 @@ package org.eclipse.che.ide.ext.svn.server;
 
 import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
-import com.google.common.io.Files;
 import com.google.common.net.MediaType;
 import com.google.inject.Singleton;
 
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.util.LineConsumerFactory;
-import org.eclipse.che.api.vfs.server.util.DeleteOnCloseFileInputStream;
-import org.eclipse.che.commons.lang.IoUtil;
 import org.eclipse.che.commons.lang.Strings;
-import org.eclipse.che.commons.lang.ZipUtils;
 import org.eclipse.che.dto.server.DtoFactory;
 import org.eclipse.che.ide.ext.svn.server.credentials.CredentialsException;
 import org.eclipse.che.ide.ext.svn.server.credentials.CredentialsProvider;
 import org.eclipse.che.ide.ext.svn.server.credentials.CredentialsProvider.Credentials;
 import org.eclipse.che.ide.ext.svn.server.repository.RepositoryUrlProvider;
+import org.eclipse.che.ide.ext.svn.server.repository.StatusCache;
+import org.eclipse.che.ide.ext.svn.server.repository.WorkingCopyCache;
 import org.eclipse.che.ide.ext.svn.server.upstream.CommandLineResult;
 import org.eclipse.che.ide.ext.svn.server.upstream.UpstreamUtils;
 import org.eclipse.che.ide.ext.svn.server.utils.InfoUtils;
@@ -62,7 +60,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
-import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 
 import java.io.File;
@@ -70,10 +67,12 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Date;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Provides Subversion APIs.
@@ -83,15 +82,34 @@ public class SubversionApi {
 
     private static Logger LOG = LoggerFactory.getLogger(SubversionApi.class);
 
+    /** Subcommands which change working copy, cached values of working copy are dropped after them. */
+    private static final Set<String> CHANGING_SUBCOMMANDS = new HashSet<>(Arrays.asList("add", "checkout", "cleanup", "commit", "copy",
+                                                                                        "delete", "lock", "merge", "move", "propdel",
+                                                                                        "propset", "relocate", "remove", "resolve",
+                                                                                        "revert", "switch", "unlock", "update",
+                                                                                        "upgrade"));
+
     private final CredentialsProvider   credentialsProvider;
     private final RepositoryUrlProvider repositoryUrlProvider;
+    private final WorkingCopyCache      workingCopyCache;
+    private final StatusCache           statusCache;
     protected     LineConsumerFactory   svnOutputPublisherFactory;
 
-    @Inject
     public SubversionApi(final CredentialsProvider credentialsProvider,
                          final RepositoryUrlProvider repositoryUrlProvider) {
+        // changes of files are not tracked, so status is always read from working copy
+        this(credentialsProvider, repositoryUrlProvider, new WorkingCopyCache(), null);
+    }
+
+    @Inject
+    public SubversionApi(final CredentialsProvider credentialsProvider,
+                         final RepositoryUrlProvider repositoryUrlProvider,
+                         final WorkingCopyCache workingCopyCache,
+                         final StatusCache statusCache) {
         this.credentialsProvider = credentialsProvider;
         this.repositoryUrlProvider = repositoryUrlProvider;
+        this.workingCopyCache = workingCopyCache;
+        this.statusCache = statusCache;
     }
 
     /**
@@ -335,7 +353,8 @@ public class SubversionApi {
     }
 
     /**
-     * Perform an "svn status" based on the request.
+     * Perform an "svn status" based on the request. Local status of working copy is got from {@link StatusCache} if it's
+     * possible, items of output are paged with {@link StatusRequest#getSkipCount()} and {@link StatusRequest#getMaxItems()}.
      *
      * @param request
      *         the request
@@ -346,6 +365,16 @@ public class SubversionApi {
      *         if there is a Subversion issue
      */
     public CLIOutputResponse status(final StatusRequest request) throws IOException, SubversionException {
+        if (statusCache != null && StatusCache.isSupported(request)) {
+            final List<List<String>> items = statusCache.getStatus(request);
+            if (items != null) {
+                return DtoFactory.getInstance().createDto(CLIOutputResponse.class)
+                                 .withCommand("svn status")
+                                 .withOutput(pageItems(items, request.getSkipCount(), request.getMaxItems()))
+                                 .withErrOutput(Collections.<String>emptyList());
+            }
+        }
+
         final File projectPath = new File(request.getProjectPath());
 
         final List<String> cliArgs = defaultArgs();
@@ -369,7 +398,8 @@ public class SubversionApi {
 
         return DtoFactory.getInstance().createDto(CLIOutputResponse.class)
                          .withCommand(result.getCommandLine().toString())
-                         .withOutput(result.getStdout())
+                         .withOutput(pageItems(StatusCache.groupByItem(result.getStdout()), request.getSkipCount(),
+                                               request.getMaxItems()))
                          .withErrOutput(result.getStderr());
     }
 
@@ -561,43 +591,49 @@ public class SubversionApi {
      * @throws ServerException
      *         if there is an exporting issue
      */
-    public Response exportPath(String projectPath, String path, String revision)
+    public Response exportPath(String projectPath, final String path, final String revision)
             throws IOException, ServerException {
 
         final File project = new File(projectPath);
 
-        final List<String> uArgs = defaultArgs();
-
-        if (!Strings.isNullOrEmpty(revision)) {
-            addOption(uArgs, "--revision", revision);
-        }
-
-        uArgs.add("--force");
-        uArgs.add("export");
-
-        File tempDir = null;
-        File zip = null;
-
-        try {
-            tempDir = Files.createTempDir();
-            final CommandLineResult result = runCommand(null, uArgs, project, Arrays.asList(path, tempDir.getAbsolutePath()));
-            if (result.getExitCode() != 0) {
-                LOG.warn("Svn export process finished with exit status {}", result.getExitCode());
-                throw new ServerException("Exporting was failed");
-            }
-
-            zip = new File(Files.createTempDir(), "export.zip");
-            ZipUtils.zipDir(tempDir.getPath(), tempDir, zip, IoUtil.ANY_FILTER);
-        } finally {
-            if (tempDir != null) {
-                IoUtil.deleteRecursive(tempDir);
-            }
+        // status of response is sent before archive is written, so path is checked in advance
+        final List<String> infoArgs = defaultArgs();
+        addOption(infoArgs, "--revision", revision);
+        addDepth(infoArgs, "empty");
+        infoArgs.add("info");
+        runCommand(null, infoArgs, project, Arrays.asList(path));
+
+        final ZipExportOutput output;
+        if (Strings.isNullOrEmpty(revision)) {
+            // working copy is archived without copying, content of archive is sent as soon as the first file is listed
+            output = ZipExportOutput.ofWorkingCopy(project, path);
+        } else {
+            // revision is exported to temporary directory when response is written, directory is deleted after that
+            output = ZipExportOutput.ofRevision(new ZipExportOutput.Exporter() {
+                @Override
+                public void export(File exportDir) throws IOException {
+                    final List<String> uArgs = defaultArgs();
+
+                    addOption(uArgs, "--revision", revision);
+
+                    uArgs.add("--force");
+                    uArgs.add("export");
+
+                    try {
+                        final CommandLineResult result = runCommand(null, uArgs, project, Arrays.asList(path, exportDir.getAbsolutePath()));
+                        if (result.getExitCode() != 0) {
+                            LOG.warn("Svn export process finished with exit status {}", result.getExitCode());
+                            throw new IOException("Exporting was failed");
+                        }
+                    } catch (SubversionException e) {
+                        throw new IOException(e.getMessage(), e);
+                    }
+                }
+            });
         }
 
         final Response.ResponseBuilder responseBuilder = Response
-                .ok(new DeleteOnCloseFileInputStream(zip), MediaType.ZIP.toString())
-                .lastModified(new Date(zip.lastModified()))
-                .header(HttpHeaders.CONTENT_LENGTH, Long.toString(zip.length()))
+                .ok(output, MediaType.ZIP.toString())
                 .header("Content-Disposition", "attachment; filename=\"export.zip\"");
 
         return responseBuilder.build();
@@ -835,6 +871,21 @@ public class SubversionApi {
         return args;
     }
 
+    /** Returns lines of items of the page, item is never split between pages. */
+    private static List<String> pageItems(final List<List<String>> items, final int skipCount, final int maxItems) {
+        final List<String> lines = new ArrayList<>();
+        for (List<String> item : page(items, skipCount, maxItems)) {
+            lines.addAll(item);
+        }
+        return lines;
+    }
+
+    private static <T> List<T> page(final List<T> items, final int skipCount, final int maxItems) {
+        final int from = Math.min(Math.max(skipCount, 0), items.size());
+        final int to = maxItems > 0 ? Math.min(from + maxItems, items.size()) : items.size();
+        return from == 0 && to == items.size() ? items : new ArrayList<>(items.subList(from, to));
+    }
+
     private List<String> addWorkingCopyPathIfNecessary(List<String> paths) {
         if (paths == null) {
             paths = new ArrayList<>();
@@ -860,6 +911,8 @@ public class SubversionApi {
         final StringBuffer buffer;
         boolean isWarning = false;
 
+        final boolean changing = isChanging(args);
+
         // Add paths to the end of the list of arguments
         for (final String path : paths) {
             args.add(path);
@@ -872,8 +925,15 @@ public class SubversionApi {
             credentialsArgs = null;
         }
 
-        result = UpstreamUtils.executeCommandLine(env, "svn", args.toArray(new String[args.size()]),
-                                                  credentialsArgs, -1, projectPath, svnOutputPublisherFactory);
+        try {
+            result = UpstreamUtils.executeCommandLine(env, "svn", args.toArray(new String[args.size()]),
+                                                      credentialsArgs, -1, projectPath, svnOutputPublisherFactory);
+        } finally {
+            // working copy may be changed even if command fails, e.g. interrupted update
+            if (changing) {
+                workingCopyCache.invalidate(projectPath.getAbsolutePath());
+            }
+        }
 
         if (result.getExitCode() != 0) {
             buffer = new StringBuffer();
@@ -899,6 +959,19 @@ public class SubversionApi {
         return result;
     }
 
+    /**
+     * Checks whether command changes working copy. Options are passed before subcommand and may have values, so every argument is
+     * checked, values of options never match name of subcommand.
+     */
+    private static boolean isChanging(final List<String> args) {
+        for (final String arg : args) {
+            if (CHANGING_SUBCOMMANDS.contains(arg)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private String[] getCredentialArgs(final String projectPath) throws SubversionException, IOException {
         Credentials credentials;
         try {
@@ -927,6 +1000,23 @@ public class SubversionApi {
      * @throws IOException
      */
     public InfoResponse info(final InfoRequest request) throws SubversionException, IOException {
+        if (request.getRevision() != null && !request.getRevision().trim().isEmpty()) {
+            // information of revision may be read from repository
+            return doInfo(request);
+        }
+        // information of working copy is changed only together with its administrative area
+        return workingCopyCache.get(request.getProjectPath(), "info:" + request.getTarget() + ':' + request.getChildren(),
+                                    new WorkingCopyCache.Loader<InfoResponse>() {
+                                        @Override
+                                        public InfoResponse load() throws IOException, SubversionException {
+                                            final InfoResponse response = doInfo(request);
+                                            // don't cache errors, e.g. target which isn't under version control yet
+                                            return response.getItems() != null ? response : null;
+                                        }
+                                    });
+    }
+
+    private InfoResponse doInfo(final InfoRequest request) throws SubversionException, IOException {
         final List<String> args = defaultArgs();
 
         if (request.getRevision() != null && !request.getRevision().trim().isEmpty()) {
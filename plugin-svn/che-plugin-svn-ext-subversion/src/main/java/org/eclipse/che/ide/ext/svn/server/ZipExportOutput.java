@@ -0,0 +1,252 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.svn.server;
+
+import org.eclipse.che.api.core.util.LineConsumer;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.ide.ext.svn.server.upstream.CommandLineResult;
+import org.eclipse.che.ide.ext.svn.server.upstream.UpstreamUtils;
+import org.eclipse.che.ide.ext.svn.server.utils.InfoUtils;
+
+import javax.ws.rs.core.StreamingOutput;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes result of {@code svn export} to response as zip archive.
+ * <p/>
+ * Export of working copy doesn't copy files: versioned items are listed with {@code svn info --depth infinity} and every file is
+ * written to archive as soon as it is listed. Files of working copy are already translated (keywords, EOLs) as {@code svn export}
+ * does it. Items of {@code svn:externals} aren't listed by {@code svn info}, so externals are found with {@code svn status} once
+ * the rest of working copy is written and their items are listed in the same way. Export of other revision is written from the
+ * directory which is created by {@code svn export} when response is written, directory is deleted once it is written.
+ * <p/>
+ * Symbolic links ({@code svn:special}) can't be stored in zip archive, they are skipped.
+ * <p/>
+ * Exported path must be checked before the output is returned, errors which occur while the output is written can't change
+ * status of response anymore.
+ */
+class ZipExportOutput implements StreamingOutput {
+
+    /** Exports revision of repository path with {@code svn export}. */
+    interface Exporter {
+        /**
+         * @param exportDir
+         *         directory which doesn't exist yet, it's created by {@code svn export}
+         */
+        void export(File exportDir) throws IOException;
+    }
+
+    private final File     project;
+    private final String   path;
+    private final File     exportDir;
+    private final Exporter exporter;
+
+    private ZipExportOutput(File project, String path, File exportDir, Exporter exporter) {
+        this.project = project;
+        this.path = path;
+        this.exportDir = exportDir;
+        this.exporter = exporter;
+    }
+
+    /**
+     * @param project
+     *         working copy
+     * @param path
+     *         exported path relative to working copy
+     */
+    static ZipExportOutput ofWorkingCopy(File project, String path) {
+        return new ZipExportOutput(project, path, null, null);
+    }
+
+    /**
+     * @param exportDir
+     *         directory which is created by {@code svn export}, it's deleted after it is written
+     */
+    static ZipExportOutput ofDirectory(File exportDir) {
+        return new ZipExportOutput(null, null, exportDir, null);
+    }
+
+    /**
+     * @param exporter
+     *         exports revision to temporary directory when response is written, directory is deleted after it is written
+     */
+    static ZipExportOutput ofRevision(Exporter exporter) {
+        return new ZipExportOutput(null, null, null, exporter);
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+        File dir = exportDir;
+        try {
+            if (exporter != null) {
+                // directory is created only if response is written, so nothing is left if output is never written
+                dir = new File(Files.createTempDirectory("svn-export").toFile(), "export");
+                exporter.export(dir);
+            }
+            final ZipOutputStream zip = new ZipOutputStream(output);
+            if (dir != null) {
+                writeDirectory(zip, dir);
+            } else {
+                writeWorkingCopy(zip);
+            }
+            zip.finish();
+            zip.flush();
+        } finally {
+            if (dir != null) {
+                IoUtil.deleteRecursive(exporter != null ? dir.getParentFile() : dir);
+            }
+        }
+    }
+
+    private void writeDirectory(final ZipOutputStream zip, File dir) throws IOException {
+        final Path root = dir.toPath();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (!dir.equals(root)) {
+                    addFolder(zip, getName(root, dir));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                // links aren't followed by walk, they are visited as files
+                if (attrs.isRegularFile()) {
+                    addFile(zip, getName(root, file), file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void writeWorkingCopy(ZipOutputStream zip) throws IOException {
+        final Path root = project.toPath().resolve(path).normalize();
+        final boolean singleFile = Files.isRegularFile(root, LinkOption.NOFOLLOW_LINKS);
+        writeItems(zip, root, singleFile, path);
+        if (singleFile) {
+            return;
+        }
+        // status shows externals of externals as well, so each of them is written once
+        final CommandLineResult status = UpstreamUtils.executeCommandLine(null, "svn", new String[]{"--non-interactive", "status",
+                                                                                                     "--depth", "infinity", path},
+                                                                          -1, project);
+        checkExitCode(status);
+        for (String line : status.getStdout()) {
+            if (line.length() > 8 && line.charAt(0) == 'X') {
+                writeItems(zip, root, false, line.substring(8));
+            }
+        }
+    }
+
+    /** Writes items which are listed by {@code svn info} of the path in working copy. */
+    private void writeItems(ZipOutputStream zip, Path root, boolean singleFile, String itemsPath) throws IOException {
+        final InfoConsumer consumer = new InfoConsumer(zip, root, singleFile);
+        final CommandLineResult result = UpstreamUtils.executeCommandLine(null, "svn", new String[]{"--non-interactive", "info",
+                                                                                                     "--depth", "infinity", itemsPath},
+                                                                          null, -1, project, consumer);
+        consumer.close();
+        checkExitCode(result);
+    }
+
+    private static void checkExitCode(CommandLineResult result) throws IOException {
+        if (result.getExitCode() != 0) {
+            final StringBuilder buffer = new StringBuilder();
+            for (String line : result.getStderr()) {
+                buffer.append(line).append('\n');
+            }
+            throw new IOException(buffer.toString());
+        }
+    }
+
+    private static String getName(Path root, Path item) {
+        return root.relativize(item).toString().replace(File.separatorChar, '/');
+    }
+
+    private static void addFolder(ZipOutputStream zip, String name) throws IOException {
+        zip.putNextEntry(new ZipEntry(name + '/'));
+        zip.closeEntry();
+    }
+
+    private static void addFile(ZipOutputStream zip, String name, Path file) throws IOException {
+        final ZipEntry entry = new ZipEntry(name);
+        entry.setTime(Files.getLastModifiedTime(file).toMillis());
+        zip.putNextEntry(entry);
+        Files.copy(file, zip);
+        zip.closeEntry();
+    }
+
+    /** Writes items of working copy to archive while blocks of {@code svn info} output are read. */
+    private class InfoConsumer implements LineConsumer {
+        private final ZipOutputStream zip;
+        private final Path            root;
+        private final boolean         singleFile;
+
+        private String itemPath;
+        private String nodeKind;
+        private String schedule;
+
+        InfoConsumer(ZipOutputStream zip, Path root, boolean singleFile) {
+            this.zip = zip;
+            this.root = root;
+            this.singleFile = singleFile;
+        }
+
+        @Override
+        public void writeLine(String line) throws IOException {
+            if (line.isEmpty()) {
+                writeItem();
+            } else if (line.startsWith(InfoUtils.KEY_PATH + ": ")) {
+                itemPath = line.substring(InfoUtils.KEY_PATH.length() + 2);
+            } else if (line.startsWith(InfoUtils.KEY_NODE_KIND + ": ")) {
+                nodeKind = line.substring(InfoUtils.KEY_NODE_KIND.length() + 2);
+            } else if (line.startsWith(InfoUtils.KEY_SCHEDULE + ": ")) {
+                schedule = line.substring(InfoUtils.KEY_SCHEDULE.length() + 2);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            writeItem();
+        }
+
+        private void writeItem() throws IOException {
+            final String itemPath = this.itemPath;
+            final String nodeKind = this.nodeKind;
+            final String schedule = this.schedule;
+            this.itemPath = this.nodeKind = this.schedule = null;
+            if (itemPath == null || "delete".equals(schedule)) {
+                return;
+            }
+            final Path item = project.toPath().resolve(itemPath).normalize();
+            final String name = singleFile ? item.getFileName().toString() : getName(root, item);
+            if (name.isEmpty()) {
+                return;
+            }
+            if ("directory".equals(nodeKind)) {
+                addFolder(zip, name);
+            } else if ("file".equals(nodeKind) && Files.isRegularFile(item, LinkOption.NOFOLLOW_LINKS)) {
+                // missing files are skipped as svn export does, symbolic links can't be stored in archive
+                addFile(zip, name, item);
+            }
+        }
+    }
+}
@@ -13,19 +13,41 @@ package org.eclipse.che.ide.ext.svn.server.repository;
 import java.io.File;
 import java.io.IOException;
 
+import javax.inject.Inject;
+
+import org.eclipse.che.ide.ext.svn.server.SubversionException;
 import org.eclipse.che.ide.ext.svn.server.upstream.CommandLineResult;
 import org.eclipse.che.ide.ext.svn.server.upstream.UpstreamUtils;
 import org.eclipse.che.ide.ext.svn.server.utils.InfoUtils;
 
 
+/**
+ * Provides URL of repository of working copy. URL is read with {@code svn info} once and is cached until working copy is changed.
+ */
 public class RepositoryUrlProviderImpl implements RepositoryUrlProvider {
 
+    private final WorkingCopyCache workingCopyCache;
+
+    @Inject
+    public RepositoryUrlProviderImpl(final WorkingCopyCache workingCopyCache) {
+        this.workingCopyCache = workingCopyCache;
+    }
+
     @Override
     public String getRepositoryUrl(final String projectPath) throws IOException {
-        final File projectPathFile = new File(projectPath);
-        final CommandLineResult clResult = UpstreamUtils.executeCommandLine(null, "svn", new String[]{"info"},
-                                                                            null, -1L, projectPathFile);
-        return InfoUtils.getUrl(clResult.getStdout());
+        try {
+            return workingCopyCache.get(projectPath, "url", new WorkingCopyCache.Loader<String>() {
+                @Override
+                public String load() throws IOException {
+                    final File projectPathFile = new File(projectPath);
+                    final CommandLineResult clResult = UpstreamUtils.executeCommandLine(null, "svn", new String[]{"info"},
+                                                                                        null, -1L, projectPathFile);
+                    return InfoUtils.getUrl(clResult.getStdout());
+                }
+            });
+        } catch (final SubversionException e) {
+            throw new IOException(e.getMessage(), e);
+        }
     }
 
 }
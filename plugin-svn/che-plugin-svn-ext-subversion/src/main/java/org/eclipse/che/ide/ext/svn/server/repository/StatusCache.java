@@ -0,0 +1,358 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.svn.server.repository;
+
+import com.google.inject.Singleton;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.api.vfs.server.observation.VirtualFileEvent;
+import org.eclipse.che.ide.ext.svn.server.SubversionException;
+import org.eclipse.che.ide.ext.svn.server.upstream.CommandLineResult;
+import org.eclipse.che.ide.ext.svn.server.upstream.UpstreamUtils;
+import org.eclipse.che.ide.ext.svn.shared.Depth;
+import org.eclipse.che.ide.ext.svn.shared.StatusItem;
+import org.eclipse.che.ide.ext.svn.shared.StatusRequest;
+import org.eclipse.che.vfs.impl.fs.LocalFSMountStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of {@code svn status} of working copies.
+ * <p/>
+ * Status of whole working copy is read once and is kept as parsed {@link StatusItem}s. Paths which are changed in IDE, see
+ * {@link VirtualFileEvent}, are marked as changed and only their status is read again on the next request. Status is read from
+ * scratch when working copy is changed by Subversion, see {@link WorkingCopyCache}, or when too many paths are changed at once.
+ * <p/>
+ * Files which are changed outside of IDE, e.g. from terminal, are not noticed: they don't produce {@link VirtualFileEvent}s and
+ * don't change database of working copy, so their status is updated once they are changed in IDE or working copy is changed by
+ * Subversion.
+ * <p/>
+ * Changes are recorded without lock of snapshot, so delivery of events isn't blocked while status is read.
+ * <p/>
+ * Only local status of working copy may be cached, requests of remote updates, verbose status or status of change lists are not
+ * supported, see {@link #isSupported(StatusRequest)}.
+ */
+@Singleton
+public class StatusCache {
+    private static final Logger LOG = LoggerFactory.getLogger(StatusCache.class);
+
+    /** Max number of changed paths which are checked separately, whole working copy is checked if more paths are changed. */
+    static final int MAX_CHANGED_PATHS = 100;
+
+    private final WorkingCopyCache      workingCopyCache;
+    private final Map<String, Snapshot> snapshots;
+
+    public StatusCache(WorkingCopyCache workingCopyCache) {
+        this.workingCopyCache = workingCopyCache;
+        this.snapshots = new ConcurrentHashMap<>();
+    }
+
+    @Inject
+    public StatusCache(WorkingCopyCache workingCopyCache, EventService eventService, final LocalFSMountStrategy fsMountStrategy) {
+        this(workingCopyCache);
+        eventService.subscribe(new EventSubscriber<VirtualFileEvent>() {
+            @Override
+            public void onEvent(VirtualFileEvent event) {
+                if (snapshots.isEmpty()) {
+                    return;
+                }
+                try {
+                    onChanged(new File(fsMountStrategy.getMountPath(event.getWorkspaceId()), event.getPath()));
+                } catch (ServerException e) {
+                    LOG.warn("Can't find workspace mount path", e);
+                }
+            }
+        });
+    }
+
+    /** Checks whether status request may be answered from cache. */
+    public static boolean isSupported(StatusRequest request) {
+        final String depth = request.getDepth();
+        return !request.isShowUpdates()
+               && !request.isVerbose()
+               && (request.getChangeLists() == null || request.getChangeLists().isEmpty())
+               && (depth == null || depth.isEmpty() || Depth.FULLY_RECURSIVE.getValue().equals(depth));
+    }
+
+    /**
+     * Gets status of working copy from cache.
+     *
+     * @param request
+     *         status request, it must be supported by cache, see {@link #isSupported(StatusRequest)}
+     * @return lines of {@code svn status} output grouped by item or {@code null} if paths of request are not in working copy
+     * @throws IOException
+     *         if there is a problem executing the command
+     * @throws SubversionException
+     *         if there is a Subversion issue
+     */
+    public List<List<String>> getStatus(StatusRequest request) throws IOException, SubversionException {
+        final File root = new File(request.getProjectPath()).getAbsoluteFile();
+        final List<String> paths = new ArrayList<>();
+        if (request.getPaths() != null) {
+            for (String path : request.getPaths()) {
+                final String relative = relativize(root, path);
+                if (relative == null) {
+                    return null;
+                }
+                paths.add(relative);
+            }
+        }
+        final Snapshot snapshot = workingCopyCache.get(root.getPath(), "status", new WorkingCopyCache.Loader<Snapshot>() {
+            @Override
+            public Snapshot load() throws IOException, SubversionException {
+                final Snapshot snapshot = new Snapshot(root);
+                // register before status is read, so changes made while it is read are not missed
+                snapshots.put(root.getPath(), snapshot);
+                try {
+                    snapshot.read();
+                } catch (IOException | SubversionException e) {
+                    snapshots.remove(root.getPath());
+                    throw e;
+                }
+                return snapshot;
+            }
+        });
+        return snapshot.getStatus(paths, request);
+    }
+
+    /** Returns number of cached working copies. */
+    public int size() {
+        return snapshots.size();
+    }
+
+    /** Marks file or folder as changed. */
+    void onChanged(File file) {
+        final String path = file.getAbsolutePath();
+        for (Snapshot snapshot : snapshots.values()) {
+            final String relative = relativize(snapshot.root, path);
+            if (relative != null && !relative.isEmpty() && !relative.equals(".svn") && !relative.startsWith(".svn/")) {
+                snapshot.changed(relative);
+            }
+        }
+    }
+
+    /**
+     * Groups lines of {@code svn status} output by item: status line of item is followed by its detail lines, e.g. description
+     * of tree conflict. Other lines, e.g. headers of externals, are separate items.
+     */
+    public static List<List<String>> groupByItem(List<String> lines) {
+        final List<List<String>> items = new ArrayList<>();
+        List<String> last = null;
+        for (String line : lines) {
+            if (last != null && line.startsWith("      >")) {
+                last.add(line);
+            } else {
+                last = new ArrayList<>(1);
+                last.add(line);
+                items.add(last);
+            }
+        }
+        return items;
+    }
+
+    /** Returns path relative to working copy with '/' as separator, empty string for working copy itself or {@code null}. */
+    static String relativize(File root, String path) {
+        String normalized = path.replace(File.separatorChar, '/');
+        if (new File(path).isAbsolute()) {
+            final String rootPath = root.getPath().replace(File.separatorChar, '/');
+            if (normalized.equals(rootPath)) {
+                return "";
+            }
+            if (!normalized.startsWith(rootPath + '/')) {
+                return null;
+            }
+            normalized = normalized.substring(rootPath.length() + 1);
+        }
+        while (normalized.startsWith("./")) {
+            normalized = normalized.substring(2);
+        }
+        while (normalized.endsWith("/")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        if (normalized.equals(".")) {
+            return "";
+        }
+        return normalized.equals("..") || normalized.startsWith("../") ? null : normalized;
+    }
+
+    private static boolean isUnder(String path, String folder) {
+        return folder.isEmpty() || path.equals(folder) || path.startsWith(folder + '/');
+    }
+
+    /** Status of single path with its detail lines, e.g. description of tree conflict. */
+    static class Entry {
+        final StatusItem   item;
+        final List<String> lines;
+
+        Entry(StatusItem item, String line) {
+            this.item = item;
+            this.lines = new ArrayList<>(1);
+            this.lines.add(line);
+        }
+    }
+
+    static class Snapshot {
+        final File root;
+
+        /** Items sorted by path, so content of folder follows folder. */
+        private final TreeMap<String, Entry> entries = new TreeMap<>();
+        /** Changed paths are added by threads which deliver events, without lock of snapshot. */
+        private final Set<String>            changed = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        private volatile boolean             stale;
+
+        Snapshot(File root) {
+            this.root = root;
+        }
+
+        void changed(String path) {
+            if (changed.size() < MAX_CHANGED_PATHS) {
+                changed.add(path);
+            } else {
+                stale = true;
+            }
+        }
+
+        synchronized void read() throws IOException, SubversionException {
+            // changes which are recorded while status is read are kept for the next request
+            stale = false;
+            changed.clear();
+            entries.clear();
+            try {
+                put(runStatus(Collections.<String>emptyList()));
+            } catch (IOException | SubversionException e) {
+                stale = true;
+                throw e;
+            }
+        }
+
+        synchronized List<List<String>> getStatus(List<String> paths, StatusRequest request) throws IOException, SubversionException {
+            if (stale) {
+                read();
+            } else if (!changed.isEmpty()) {
+                refresh();
+            }
+            final List<String> externals = new ArrayList<>();
+            final List<List<String>> result = new ArrayList<>();
+            for (Entry entry : entries.values()) {
+                final String path = entry.item.getPath();
+                final StatusItem.FileState state = entry.item.getFileState();
+                if (request.isIgnoreExternals()) {
+                    if (state == StatusItem.FileState.UNVERSIONED_EXTERNAL_DIRECTORY) {
+                        externals.add(path);
+                        continue;
+                    }
+                    if (matches(path, externals)) {
+                        continue;
+                    }
+                }
+                if ((state == StatusItem.FileState.IGNORED && (!request.isShowIgnored() || !request.isShowUnversioned()))
+                    || (state == StatusItem.FileState.UNVERSIONED && !request.isShowUnversioned())) {
+                    continue;
+                }
+                if (paths.isEmpty() || matches(path, paths)) {
+                    result.add(entry.lines);
+                }
+            }
+            return result;
+        }
+
+        /** Reads status of changed paths. */
+        private void refresh() throws IOException, SubversionException {
+            final List<String> paths = new ArrayList<>();
+            for (Iterator<String> it = changed.iterator(); it.hasNext(); ) {
+                paths.add(it.next());
+                it.remove();
+            }
+            for (String path : paths) {
+                entries.remove(path);
+                for (Iterator<String> it = entries.tailMap(path + '/').keySet().iterator(); it.hasNext() && isUnder(it.next(), path); ) {
+                    it.remove();
+                }
+            }
+            try {
+                put(runStatus(paths));
+            } catch (IOException | SubversionException e) {
+                stale = true;
+                throw e;
+            }
+        }
+
+        private boolean matches(String path, List<String> folders) {
+            for (String folder : folders) {
+                if (isUnder(path, folder)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void put(List<String> lines) {
+            Entry last = null;
+            for (String line : lines) {
+                if (line.length() > 8 && line.charAt(7) == ' ') {
+                    try {
+                        final StatusItem item = new StatusItem(line);
+                        item.setPath(item.getPath().replace(File.separatorChar, '/'));
+                        last = new Entry(item, line);
+                        entries.put(item.getPath(), last);
+                        continue;
+                    } catch (IllegalArgumentException ignored) {
+                        // not a status line
+                    }
+                }
+                if (last != null && line.startsWith("      >")) {
+                    // detail of the previous item
+                    last.lines.add(line);
+                } else {
+                    // headers of externals or change lists
+                    last = null;
+                }
+            }
+        }
+
+        private List<String> runStatus(List<String> paths) throws IOException, SubversionException {
+            final List<String> args = new ArrayList<>();
+            args.add("--non-interactive");
+            args.add("--no-ignore");
+            args.add("status");
+            args.addAll(paths);
+            final CommandLineResult result = UpstreamUtils.executeCommandLine(null, "svn", args.toArray(new String[args.size()]),
+                                                                              -1, root);
+            if (result.getExitCode() != 0) {
+                // Subversion returns an error code of 1 even when the "error" is just a warning, e.g. path doesn't exist anymore
+                boolean isWarning = false;
+                final StringBuilder buffer = new StringBuilder();
+                for (String line : result.getStderr()) {
+                    isWarning |= line.startsWith("svn: warning: ");
+                    buffer.append(line).append('\n');
+                }
+                if (!isWarning) {
+                    throw new SubversionException(buffer.toString());
+                }
+            }
+            return result.getStdout();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.svn.server.repository;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.inject.Singleton;
+
+import org.eclipse.che.ide.ext.svn.server.SubversionException;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Cache of values read from Subversion working copies, e.g. repository URL or output of {@code svn info}.
+ * <p/>
+ * Values are cached per working copy and are valid while administrative area of working copy ({@code .svn} directory) isn't
+ * changed. Every operation which changes working copy, e.g. update, commit or switch, changes its database ({@code .svn/wc.db}),
+ * or {@code .svn/entries} for working copies created by Subversion older than 1.7, so cached values are dropped on next access.
+ * Commands which change working copy invalidate it explicitly as well, see {@link #invalidate(String)}, so values are not reused
+ * when modification time of database isn't changed, e.g. within its resolution.
+ * <p/>
+ * Number of working copies and number of values of every working copy are limited, least recently used ones are dropped.
+ */
+@Singleton
+public class WorkingCopyCache {
+
+    /** Loads value from working copy when it isn't cached. */
+    public interface Loader<T> {
+        T load() throws IOException, SubversionException;
+    }
+
+    private static final String[] METADATA_FILES = {"wc.db", "entries"};
+
+    static final int MAX_WORKING_COPIES = 100;
+    static final int MAX_VALUES         = 1000;
+
+    private final Cache<String, WorkingCopy> workingCopies = CacheBuilder.newBuilder().maximumSize(MAX_WORKING_COPIES).build();
+
+    /**
+     * Gets value of working copy which contains {@code path} from cache or loads it if it isn't cached or working copy is changed.
+     * Value isn't cached if {@code path} isn't in working copy.
+     *
+     * @param path
+     *         absolute path in working copy
+     * @param key
+     *         key of value, unique in working copy
+     * @param loader
+     *         loader of value
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String path, String key, Loader<T> loader) throws IOException, SubversionException {
+        final File adminDir = findAdminDirectory(new File(path));
+        if (adminDir == null) {
+            return loader.load();
+        }
+        final String stamp = getStamp(adminDir);
+        final String root = adminDir.getParent();
+        WorkingCopy workingCopy = workingCopies.getIfPresent(root);
+        if (workingCopy == null || !workingCopy.stamp.equals(stamp)) {
+            workingCopy = new WorkingCopy(stamp);
+            workingCopies.put(root, workingCopy);
+        }
+        final String cacheKey = path + '\u0000' + key;
+        T value = (T)workingCopy.values.getIfPresent(cacheKey);
+        if (value == null) {
+            value = loader.load();
+            if (value != null) {
+                workingCopy.values.put(cacheKey, value);
+            }
+        }
+        return value;
+    }
+
+    /** Drops cached values of working copy which contains {@code path}. */
+    public void invalidate(String path) {
+        final File adminDir = findAdminDirectory(new File(path));
+        if (adminDir != null) {
+            workingCopies.invalidate(adminDir.getParent());
+        }
+    }
+
+    /** Returns number of cached working copies. */
+    public int size() {
+        return (int)workingCopies.size();
+    }
+
+    /**
+     * Finds the nearest {@code .svn} directory. Since Subversion 1.7 working copy has single {@code .svn} directory in its root,
+     * older working copies have {@code .svn} directory in every folder.
+     */
+    private File findAdminDirectory(File path) {
+        for (File dir = path.isDirectory() ? path : path.getParentFile(); dir != null; dir = dir.getParentFile()) {
+            final File adminDir = new File(dir, ".svn");
+            if (adminDir.isDirectory()) {
+                return adminDir;
+            }
+        }
+        return null;
+    }
+
+    private String getStamp(File adminDir) {
+        final StringBuilder stamp = new StringBuilder();
+        for (String name : METADATA_FILES) {
+            final File file = new File(adminDir, name);
+            stamp.append(file.lastModified()).append(':').append(file.length()).append(';');
+        }
+        return stamp.toString();
+    }
+
+    private static class WorkingCopy {
+        final String                stamp;
+        final Cache<String, Object> values = CacheBuilder.newBuilder().maximumSize(MAX_VALUES).build();
+
+        WorkingCopy(String stamp) {
+            this.stamp = stamp;
+        }
+    }
+}
@@ -75,7 +75,7 @@ public class UpstreamUtils {
                                                        @Nullable final String[] redactedArgs,
                                                        final long timeout,
                                                        @Nullable final File workingDirectory)  throws IOException {
-        return executeCommandLine(env, cmd, args, null, timeout, workingDirectory, null);
+        return executeCommandLine(env, cmd, args, null, timeout, workingDirectory, (LineConsumerFactory)null);
     }
 
     /**
@@ -101,6 +101,45 @@ public class UpstreamUtils {
                                                        @Nullable final File workingDirectory,
                                                        @Nullable LineConsumerFactory lineConsumerFactory)
             throws IOException {
+        LineConsumer lineConsumer = LineConsumer.DEV_NULL;
+        if (lineConsumerFactory != null) {
+            lineConsumer = lineConsumerFactory.newLineConsumer();
+        }
+
+        final CommandLineOutputProcessor stdOutConsumer = new CommandLineOutputProcessor(new ArrayList<String>());
+
+        final CommandLineResult result;
+        try (LineConsumer consumer = new CompositeLineConsumer(lineConsumer, stdOutConsumer)) {
+            result = executeCommandLine(env, cmd, args, redactedArgs, timeout, workingDirectory, consumer);
+        }
+
+        return new CommandLineResult(result.getCommandLine(), result.getExitCode(), stdOutConsumer.getOutput(), result.getStderr());
+    }
+
+    /**
+     * Executes a command line executable based on the arguments specified. Lines of std output are passed to consumer as soon as
+     * they are read and are not kept in result, so output of any size may be processed.
+     *
+     * @param env the optional environment variables
+     * @param cmd the command to run
+     * @param args the optional command arguments
+     * @param redactedArgs additional command arguments that will not be shown in result
+     * @param timeout the optional timeout in milliseconds
+     * @param workingDirectory the optional working directory
+     * @param stdOutConsumer the std output line consumer, it isn't closed by this method
+     *
+     * @return the command line result without std output
+     *
+     * @throws IOException if something goes wrong, e.g. consumer fails, process is killed in this case
+     */
+    public static CommandLineResult executeCommandLine(@Nullable final Map<String, String> env,
+                                                       final String cmd,
+                                                       @Nullable final String[] args,
+                                                       @Nullable final String[] redactedArgs,
+                                                       final long timeout,
+                                                       @Nullable final File workingDirectory,
+                                                       final LineConsumer stdOutConsumer)
+            throws IOException {
         CommandLine command = new CommandLine(cmd);
 
         if (args != null) {
@@ -129,12 +168,6 @@ public class UpstreamUtils {
 
         processBuilder.directory(workingDirectory);
 
-        LineConsumer lineConsumer = LineConsumer.DEV_NULL;
-        if (lineConsumerFactory != null) {
-            lineConsumer = lineConsumerFactory.newLineConsumer();
-        }
-
-        final CommandLineOutputProcessor stdOutConsumer = new CommandLineOutputProcessor(new ArrayList<String>());
         final CommandLineOutputProcessor stdErrConsumer = new CommandLineOutputProcessor(new ArrayList<String>());
 
         final Process process = processBuilder.start();
@@ -147,13 +180,17 @@ public class UpstreamUtils {
             watcher.start(new CancellableProcessWrapper(process));
         }
 
-        try (LineConsumer consumer = new CompositeLineConsumer(lineConsumer, stdOutConsumer)) {
-            ProcessUtil.process(process, consumer, stdErrConsumer);
+        try {
+            ProcessUtil.process(process, stdOutConsumer, stdErrConsumer);
             process.waitFor();
+        } catch (IOException e) {
+            process.destroy();
+            throw e;
         } catch (InterruptedException e) {
+            process.destroy();
             throw new IOException(e);
         }
 
-        return new CommandLineResult(command, process.exitValue(), stdOutConsumer.getOutput(), stdErrConsumer.getOutput());
+        return new CommandLineResult(command, process.exitValue(), new ArrayList<String>(), stdErrConsumer.getOutput());
     }
 }
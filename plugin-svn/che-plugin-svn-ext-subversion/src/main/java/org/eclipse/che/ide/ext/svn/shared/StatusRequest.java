@@ -162,4 +162,38 @@ public interface StatusRequest {
      */
     StatusRequest withChangeLists(final List<String> changeLists);
 
+    /**
+     * @return the number of status items to skip
+     */
+    int getSkipCount();
+
+    /**
+     * @param skipCount the number of status items to skip
+     */
+    void setSkipCount(final int skipCount);
+
+    /**
+     * @param skipCount the number of status items to skip
+     *
+     * @return the request
+     */
+    StatusRequest withSkipCount(final int skipCount);
+
+    /**
+     * @return the max number of status items to return, {@code 0} means all items
+     */
+    int getMaxItems();
+
+    /**
+     * @param maxItems the max number of status items to return, {@code 0} means all items
+     */
+    void setMaxItems(final int maxItems);
+
+    /**
+     * @param maxItems the max number of status items to return, {@code 0} means all items
+     *
+     * @return the request
+     */
+    StatusRequest withMaxItems(final int maxItems);
+
 }
@@ -31,8 +31,10 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -157,7 +159,9 @@ public class SubversionApiITest {
                                               .withUrl(repoUrl));
         Response response = this.subversionApi.exportPath(tmpDir.toFile().getAbsolutePath(), "A/B", null);
 
-        Collection<String> items = ZipUtils.listEntries((InputStream)response.getEntity());
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        ((StreamingOutput)response.getEntity()).write(archive);
+        Collection<String> items = ZipUtils.listEntries(new ByteArrayInputStream(archive.toByteArray()));
         assertEquals(items.size(), 3);
     }
 
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.svn.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ZipExportOutput}.
+ */
+public class ZipExportOutputTest {
+
+    @Test
+    public void testExportedDirectoryIsWrittenAndDeleted() throws Exception {
+        final File exportDir = Files.createTempDirectory("export").toFile();
+        new File(exportDir, "src/main").mkdirs();
+        Files.write(new File(exportDir, "pom.xml").toPath(), "<project/>".getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(exportDir, "src/main/A.java").toPath(), "class A {}".getBytes(StandardCharsets.UTF_8));
+
+        final Map<String, String> entries = write(ZipExportOutput.ofDirectory(exportDir));
+
+        assertEquals(4, entries.size());
+        assertEquals("", entries.get("src/"));
+        assertEquals("", entries.get("src/main/"));
+        assertEquals("<project/>", entries.get("pom.xml"));
+        assertEquals("class A {}", entries.get("src/main/A.java"));
+        assertFalse(exportDir.exists());
+    }
+
+    @Test
+    public void testRevisionIsExportedWhenOutputIsWrittenAndLinksAreSkipped() throws Exception {
+        final List<File> exportDirs = new ArrayList<>();
+        final ZipExportOutput output = ZipExportOutput.ofRevision(new ZipExportOutput.Exporter() {
+            @Override
+            public void export(File exportDir) throws IOException {
+                exportDirs.add(exportDir);
+                exportDir.mkdirs();
+                Files.write(new File(exportDir, "pom.xml").toPath(), "<project/>".getBytes(StandardCharsets.UTF_8));
+                Files.createSymbolicLink(new File(exportDir, "link").toPath(), new File(exportDir, "pom.xml").toPath());
+            }
+        });
+        assertTrue(exportDirs.isEmpty());
+
+        final Map<String, String> entries = write(output);
+
+        assertEquals(1, entries.size());
+        assertEquals("<project/>", entries.get("pom.xml"));
+        assertEquals(1, exportDirs.size());
+        assertFalse(exportDirs.get(0).getParentFile().exists());
+    }
+
+    /** Writes output and returns content of archive entries by their names. */
+    private Map<String, String> write(ZipExportOutput output) throws IOException {
+        final ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        output.write(archive);
+
+        final Map<String, String> entries = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(archive.toByteArray()))) {
+            final byte[] buffer = new byte[1024];
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                final ByteArrayOutputStream content = new ByteArrayOutputStream();
+                int n;
+                while ((n = zip.read(buffer)) != -1) {
+                    content.write(buffer, 0, n);
+                }
+                entries.put(entry.getName(), content.toString("UTF-8"));
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.svn.server.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.eclipse.che.ide.ext.svn.shared.StatusRequest;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link StatusCache}.
+ */
+public class StatusCacheTest {
+
+    private File                 root;
+    private StatusCache.Snapshot snapshot;
+    private StatusRequest        request;
+
+    @Before
+    public void setUp() {
+        root = new File("/projects/wc");
+        snapshot = new StatusCache.Snapshot(root);
+        snapshot.put(Arrays.asList("M       src/A.java",
+                                   "?       src/B.java",
+                                   "I       target",
+                                   "C       src/C.java",
+                                   "      >   local edit, incoming delete upon update",
+                                   "X       lib",
+                                   "",
+                                   "Performing status on external item at 'lib':",
+                                   "M       lib/D.java"));
+        request = mock(StatusRequest.class);
+        when(request.isShowUnversioned()).thenReturn(true);
+    }
+
+    @Test
+    public void testStatusIsFilteredByFlags() throws Exception {
+        assertEquals(Arrays.asList("X       lib",
+                                   "M       lib/D.java",
+                                   "M       src/A.java",
+                                   "?       src/B.java",
+                                   "C       src/C.java",
+                                   "      >   local edit, incoming delete upon update"),
+                     flatten(snapshot.getStatus(Collections.<String>emptyList(), request)));
+
+        when(request.isShowUnversioned()).thenReturn(false);
+        when(request.isIgnoreExternals()).thenReturn(true);
+
+        assertEquals(Arrays.asList("M       src/A.java",
+                                   "C       src/C.java",
+                                   "      >   local edit, incoming delete upon update"),
+                     flatten(snapshot.getStatus(Collections.<String>emptyList(), request)));
+
+        when(request.isShowUnversioned()).thenReturn(true);
+        when(request.isShowIgnored()).thenReturn(true);
+
+        assertTrue(flatten(snapshot.getStatus(Collections.<String>emptyList(), request)).contains("I       target"));
+    }
+
+    @Test
+    public void testStatusIsFilteredByPaths() throws Exception {
+        assertEquals(Arrays.asList("M       src/A.java"),
+                     flatten(snapshot.getStatus(Arrays.asList("src/A.java"), request)));
+        assertEquals(3, snapshot.getStatus(Arrays.asList("src"), request).size());
+    }
+
+    @Test
+    public void testPathsAreRelativizedToWorkingCopy() throws Exception {
+        assertEquals("", StatusCache.relativize(root, "."));
+        assertEquals("", StatusCache.relativize(root, "/projects/wc"));
+        assertEquals("src", StatusCache.relativize(root, "./src/"));
+        assertEquals("src/A.java", StatusCache.relativize(root, "/projects/wc/src/A.java"));
+        assertNull(StatusCache.relativize(root, "/projects/wc2/src"));
+        assertNull(StatusCache.relativize(root, "../wc2"));
+    }
+
+    @Test
+    public void testOnlyLocalStatusIsSupported() throws Exception {
+        assertTrue(StatusCache.isSupported(request));
+
+        when(request.getDepth()).thenReturn("immediates");
+        assertFalse(StatusCache.isSupported(request));
+
+        when(request.getDepth()).thenReturn("infinity");
+        when(request.isShowUpdates()).thenReturn(true);
+        assertFalse(StatusCache.isSupported(request));
+    }
+
+    @Test
+    public void testOutputOfCommandIsGroupedByItem() throws Exception {
+        final List<List<String>> items = StatusCache.groupByItem(Arrays.asList("M       src/A.java",
+                                                                               "C       src/C.java",
+                                                                               "      >   local edit, incoming delete upon update",
+                                                                               "?       src/B.java"));
+
+        assertEquals(3, items.size());
+        assertEquals(Arrays.asList("C       src/C.java", "      >   local edit, incoming delete upon update"), items.get(1));
+    }
+
+    private static List<String> flatten(List<List<String>> items) {
+        final List<String> lines = new ArrayList<>();
+        for (List<String> item : items) {
+            lines.addAll(item);
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.svn.server.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link WorkingCopyCache}.
+ */
+public class WorkingCopyCacheTest {
+
+    private File             workingCopy;
+    private File             database;
+    private WorkingCopyCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        workingCopy = Files.createTempDirectory("wc").toFile();
+        final File adminDir = new File(workingCopy, ".svn");
+        adminDir.mkdirs();
+        new File(workingCopy, "src").mkdirs();
+        database = new File(adminDir, "wc.db");
+        Files.write(database.toPath(), new byte[]{1});
+        cache = new WorkingCopyCache();
+    }
+
+    @After
+    public void tearDown() {
+        IoUtil.deleteRecursive(workingCopy);
+    }
+
+    @Test
+    public void testValueIsLoadedOnce() throws Exception {
+        final CountingLoader loader = new CountingLoader();
+
+        assertEquals("value-1", cache.get(workingCopy.getAbsolutePath(), "url", loader));
+        assertEquals("value-1", cache.get(workingCopy.getAbsolutePath(), "url", loader));
+        assertEquals(1, loader.count.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testNestedFolderUsesAdministrativeAreaOfWorkingCopy() throws Exception {
+        final CountingLoader loader = new CountingLoader();
+        final String path = new File(workingCopy, "src").getAbsolutePath();
+
+        cache.get(path, "url", loader);
+        cache.get(path, "url", loader);
+
+        assertEquals(1, loader.count.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testValueIsReloadedWhenWorkingCopyIsChanged() throws Exception {
+        final CountingLoader loader = new CountingLoader();
+
+        cache.get(workingCopy.getAbsolutePath(), "url", loader);
+        Files.write(database.toPath(), new byte[]{1, 2});
+
+        assertEquals("value-2", cache.get(workingCopy.getAbsolutePath(), "url", loader));
+    }
+
+    @Test
+    public void testValueIsReloadedAfterInvalidation() throws Exception {
+        final CountingLoader loader = new CountingLoader();
+
+        cache.get(workingCopy.getAbsolutePath(), "url", loader);
+        cache.invalidate(workingCopy.getAbsolutePath());
+
+        assertEquals("value-2", cache.get(workingCopy.getAbsolutePath(), "url", loader));
+    }
+
+    @Test
+    public void testValueIsNotCachedOutsideOfWorkingCopy() throws Exception {
+        final File folder = Files.createTempDirectory("folder").toFile();
+        try {
+            final CountingLoader loader = new CountingLoader();
+
+            cache.get(folder.getAbsolutePath(), "url", loader);
+            cache.get(folder.getAbsolutePath(), "url", loader);
+
+            assertEquals(2, loader.count.get());
+            assertEquals(0, cache.size());
+        } finally {
+            IoUtil.deleteRecursive(folder);
+        }
+    }
+
+    @Test
+    public void testNumberOfWorkingCopiesIsLimited() throws Exception {
+        final CountingLoader loader = new CountingLoader();
+
+        for (int i = 0; i <= WorkingCopyCache.MAX_WORKING_COPIES; i++) {
+            final File other = new File(workingCopy, "wc-" + i);
+            new File(other, ".svn").mkdirs();
+            cache.get(other.getAbsolutePath(), "url", loader);
+        }
+
+        assertTrue(cache.size() <= WorkingCopyCache.MAX_WORKING_COPIES);
+    }
+
+    private static class CountingLoader implements WorkingCopyCache.Loader<String> {
+        final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public String load() {
+            return "value-" + count.incrementAndGet();
+        }
+    }
+}